@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Benchmarks entry point.
+ * <p>
+ * Accepts the standard JMH command line (<code>java -jar benchmarks.jar -h</code>). Unless specified otherwise, results
+ * are exported as JSON in {@link #RESULT}, so they can be compared between releases.
+ * </p>
+ */
+public final class Benchmarks
+{
+    /** Default result file. */
+    public static final String RESULT = "target/jmh-result.json";
+    /** Warmup iterations. */
+    public static final int WARMUP = 5;
+    /** Measurement iterations. */
+    public static final int MEASUREMENT = 10;
+
+    /**
+     * Main function.
+     * 
+     * @param args The JMH arguments.
+     * @throws CommandLineOptionException If invalid arguments.
+     * @throws RunnerException If benchmarks failed.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException
+    {
+        final CommandLineOptions command = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(command);
+        if (!command.getResultFormat().hasValue())
+        {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!command.getResult().hasValue())
+        {
+            options.result(RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Private constructor.
+     */
+    private Benchmarks()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableModel;
+import com.b3dgs.lionengine.game.feature.collidable.Collidable;
+import com.b3dgs.lionengine.game.feature.collidable.CollidableModel;
+import com.b3dgs.lionengine.game.feature.collidable.Collision;
+import com.b3dgs.lionengine.game.feature.collidable.ComponentCollision;
+
+/**
+ * Collision component benchmark, updating a population of moving collidables split in two groups accepting each other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class ComponentCollisionBenchmark
+{
+    /** Collidable size in pixel. */
+    private static final int SIZE = 16;
+    /** Average space between collidables in pixel. */
+    private static final int SPACING = 48;
+    /** Maximum speed in pixel. */
+    private static final double SPEED = 4.0;
+
+    /** Number of collidables. */
+    @Param({"256", "1024", "4096"})
+    int count;
+    /** Number of collision threads. */
+    @Param({"1", "4"})
+    int threads;
+
+    /** Handler reference. */
+    private Handler handler;
+    /** Collision component. */
+    private ComponentCollision component;
+    /** Transformables. */
+    private Transformable[] transformables;
+    /** Horizontal speeds. */
+    private double[] speedsX;
+    /** Vertical speeds. */
+    private double[] speedsY;
+    /** Area size in pixel. */
+    private int area;
+
+    /**
+     * Create benchmark.
+     */
+    public ComponentCollisionBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create the population.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        handler = new Handler(services);
+        component = new ComponentCollision();
+        component.setThreads(threads);
+        handler.addComponent(component);
+
+        area = (int) Math.sqrt(count) * SPACING;
+        transformables = new Transformable[count];
+        speedsX = new double[count];
+        speedsY = new double[count];
+
+        final Random random = Synthetic.createRandom();
+        for (int i = 0; i < count; i++)
+        {
+            final Featurable featurable = new FeaturableModel();
+            final Transformable transformable = featurable.addFeatureAndGet(new TransformableModel());
+            transformable.setSize(SIZE, SIZE);
+            transformable.teleport(random.nextInt(area), random.nextInt(area));
+
+            final Collidable collidable = featurable.addFeatureAndGet(new CollidableModel(services));
+            collidable.setGroup(i % 2);
+            collidable.addAccept((i + 1) % 2);
+            collidable.addCollision(new Collision("body", 0, 0, SIZE, SIZE, false));
+
+            transformables[i] = transformable;
+            speedsX[i] = (random.nextDouble() * 2.0 - 1.0) * SPEED;
+            speedsY[i] = (random.nextDouble() * 2.0 - 1.0) * SPEED;
+            handler.add(featurable);
+        }
+        handler.update(1.0);
+    }
+
+    /**
+     * Stop collision workers.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        component.setThreads(1);
+    }
+
+    /**
+     * Move each collidable, bouncing on area borders, and update collisions.
+     */
+    @Benchmark
+    public void update()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final Transformable transformable = transformables[i];
+            final double x = transformable.getX() + speedsX[i];
+            final double y = transformable.getY() + speedsY[i];
+            if (x < 0.0 || x > area)
+            {
+                speedsX[i] = -speedsX[i];
+            }
+            if (y < 0.0 || y > area)
+            {
+                speedsY[i] = -speedsY[i];
+            }
+            transformable.moveLocation(1.0, speedsX[i], speedsY[i]);
+        }
+        handler.update(1.0);
+    }
+}
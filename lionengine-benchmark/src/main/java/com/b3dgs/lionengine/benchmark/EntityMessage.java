@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Entity message, with typical entity state actions.
+ */
+final class EntityMessage extends NetworkMessageEntity<EntityMessage.Action>
+{
+    /**
+     * Entity actions.
+     */
+    enum Action
+    {
+        /** Horizontal location (int). */
+        X,
+        /** Vertical location (int). */
+        Y,
+        /** Health (short). */
+        HEALTH,
+        /** Firing state (boolean). */
+        FIRE;
+
+        /** Actions values. */
+        private static final Action[] VALUES = values();
+    }
+
+    /**
+     * Create an empty message, ready to be decoded.
+     */
+    EntityMessage()
+    {
+        super();
+    }
+
+    /**
+     * Create a message.
+     * 
+     * @param type The message type.
+     * @param entityId The entity id.
+     */
+    EntityMessage(byte type, short entityId)
+    {
+        super(type, entityId);
+    }
+
+    /*
+     * NetworkMessageEntity
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+    {
+        buffer.write(key.ordinal());
+        switch (key)
+        {
+            case X:
+            case Y:
+                buffer.write(UtilConversion.intToByteArray(getActionInteger(key)));
+                break;
+            case HEALTH:
+                buffer.write(UtilConversion.shortToByteArray(getActionShort(key)));
+                break;
+            case FIRE:
+                buffer.write(UtilConversion.boolToInt(getActionBoolean(key)));
+                break;
+            default:
+                throw new LionEngineException(key);
+        }
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer, int i) throws IOException
+    {
+        final Action key = Action.VALUES[buffer.readByte()];
+        switch (key)
+        {
+            case X:
+            case Y:
+                addAction(key, buffer.readInt());
+                break;
+            case HEALTH:
+                addAction(key, buffer.readShort());
+                break;
+            case FIRE:
+                addAction(key, buffer.readBoolean());
+                break;
+            default:
+                throw new LionEngineException(key);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.filter.FilterBase;
+import com.b3dgs.lionengine.core.filter.FilterBilinear;
+import com.b3dgs.lionengine.core.filter.FilterBlur;
+import com.b3dgs.lionengine.core.filter.FilterChain;
+import com.b3dgs.lionengine.core.filter.FilterHq2x;
+import com.b3dgs.lionengine.core.filter.FilterHq3x;
+
+/**
+ * Filters benchmark, filtering a synthetic frame made of colored blocks, as pixel art screens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class FilterBenchmark
+{
+    /** Frame width in pixel. */
+    private static final int WIDTH = 320;
+    /** Frame height in pixel. */
+    private static final int HEIGHT = 240;
+    /** Block size in pixel. */
+    private static final int BLOCK = 4;
+    /** Palette size. */
+    private static final int COLORS = 16;
+    /** Opaque alpha mask. */
+    private static final int ALPHA = 0xFF000000;
+    /** Color mask. */
+    private static final int RGB = 0x00FFFFFF;
+
+    /**
+     * Create the filter.
+     * 
+     * @param name The filter name.
+     * @return The filter instance.
+     */
+    private static FilterBase createFilter(String name)
+    {
+        final FilterBase filter;
+        if ("bilinear".equals(name))
+        {
+            filter = new FilterBilinear();
+        }
+        else if ("blur".equals(name))
+        {
+            filter = new FilterBlur();
+        }
+        else if ("hq2x".equals(name))
+        {
+            filter = new FilterHq2x();
+        }
+        else if ("hq3x".equals(name))
+        {
+            filter = new FilterHq3x();
+        }
+        else if ("hq2x+blur".equals(name))
+        {
+            filter = new FilterChain(new FilterHq2x(), new FilterBlur());
+        }
+        else
+        {
+            throw new LionEngineException(name);
+        }
+        return filter;
+    }
+
+    /** Filter name. */
+    @Param({"bilinear", "blur", "hq2x", "hq3x", "hq2x+blur"})
+    String name;
+
+    /** Filter reference. */
+    private FilterBase filter;
+    /** Frame pixels. */
+    private int[] pixels;
+
+    /**
+     * Create benchmark.
+     */
+    public FilterBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create filter and frame.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        filter = createFilter(name);
+
+        final Random random = Synthetic.createRandom();
+        final int[] palette = new int[COLORS];
+        for (int i = 0; i < COLORS; i++)
+        {
+            palette[i] = ALPHA | random.nextInt() & RGB;
+        }
+        pixels = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < pixels.length; i++)
+        {
+            final int x = i % WIDTH / BLOCK;
+            final int y = i / WIDTH / BLOCK;
+            pixels[i] = palette[(x * x + y * y + x * y) % COLORS];
+        }
+    }
+
+    /**
+     * Filter the frame.
+     * 
+     * @return The filtered pixels.
+     */
+    @Benchmark
+    public int[] filter()
+    {
+        return filter.filter(pixels, WIDTH, HEIGHT);
+    }
+}
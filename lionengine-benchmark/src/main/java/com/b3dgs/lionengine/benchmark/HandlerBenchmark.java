@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Handler;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableModel;
+
+/**
+ * Handler benchmark, measuring featurables lookup by type and id, and steady population churn (one spawn and one
+ * removal by update).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class HandlerBenchmark
+{
+    /** Population size. */
+    @Param({"256", "4096"})
+    int count;
+
+    /** Handler reference. */
+    private Handler handler;
+    /** Handled featurables, oldest first. */
+    private Deque<Featurable> featurables;
+
+    /**
+     * Create benchmark.
+     */
+    public HandlerBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create the population.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        handler = new Handler(new Services());
+        featurables = new ArrayDeque<Featurable>(count + 1);
+        for (int i = 0; i < count; i++)
+        {
+            spawn();
+        }
+        handler.update(1.0);
+    }
+
+    /**
+     * Clear the population.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        handler.removeAll();
+        handler.update(1.0);
+    }
+
+    /**
+     * Iterate all featurables by feature type.
+     * 
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void lookupType(Blackhole blackhole)
+    {
+        for (final Transformable transformable : handler.get(Transformable.class))
+        {
+            blackhole.consume(transformable);
+        }
+    }
+
+    /**
+     * Get all featurables by id.
+     * 
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void lookupId(Blackhole blackhole)
+    {
+        for (final Featurable featurable : featurables)
+        {
+            blackhole.consume(handler.get(featurable.getFeature(Identifiable.class).getId()));
+        }
+    }
+
+    /**
+     * Add a new featurable and remove the oldest one.
+     */
+    @Benchmark
+    public void churn()
+    {
+        spawn();
+        handler.remove(featurables.poll());
+        handler.update(1.0);
+    }
+
+    /**
+     * Create and add a new featurable.
+     */
+    private void spawn()
+    {
+        final Featurable featurable = new FeaturableModel();
+        featurable.addFeature(new TransformableModel());
+        handler.add(featurable);
+        featurables.add(featurable);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.TransformableModel;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.Axis;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionCategory;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionConstraint;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionFormula;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionFormulaConfig;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionFunctionLinear;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionGroup;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionGroupConfig;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.CollisionRange;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.MapTileCollision;
+import com.b3dgs.lionengine.game.feature.tile.map.collision.MapTileCollisionModel;
+import com.b3dgs.lionengine.io.Xml;
+
+/**
+ * Map collision benchmark, computing tile collisions of objects moving diagonally over a synthetic map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class MapTileCollisionBenchmark
+{
+    /** Map size in tile. */
+    private static final int SIZE = 128;
+    /** Blocking tiles ratio. */
+    private static final double BLOCKING = 0.3;
+    /** Maximum speed in pixel. */
+    private static final double SPEED = 12.0;
+
+    /**
+     * Create the formulas configuration.
+     * 
+     * @param formulas The formulas.
+     * @return The formulas configuration media.
+     */
+    private static Media createFormulas(CollisionFormula... formulas)
+    {
+        final Media media = Medias.create("formulas.xml");
+        final Xml root = new Xml("formulas");
+        for (final CollisionFormula formula : formulas)
+        {
+            CollisionFormulaConfig.exports(root, formula);
+        }
+        root.save(media);
+        return media;
+    }
+
+    /**
+     * Create the groups configuration.
+     * 
+     * @param groups The groups.
+     * @return The groups configuration media.
+     */
+    private static Media createGroups(CollisionGroup... groups)
+    {
+        final Media media = Medias.create("groups.xml");
+        final Xml root = new Xml("groups");
+        for (final CollisionGroup group : groups)
+        {
+            CollisionGroupConfig.exports(root, group);
+        }
+        root.save(media);
+        return media;
+    }
+
+    /** Number of objects. */
+    @Param({"64", "1024"})
+    int count;
+
+    /** Map collision. */
+    private MapTileCollision mapCollision;
+    /** Vertical category. */
+    private CollisionCategory categoryY;
+    /** Horizontal category. */
+    private CollisionCategory categoryX;
+    /** Objects. */
+    private Transformable[] transformables;
+    /** Objects starting locations. */
+    private double[] starts;
+    /** Objects speeds. */
+    private double[] speeds;
+
+    /**
+     * Create benchmark.
+     */
+    public MapTileCollisionBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create map, collisions and objects.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Synthetic.prepare();
+
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = Synthetic.createMap(services, SIZE, BLOCKING);
+        mapCollision = map.addFeatureAndGet(new MapTileCollisionModel(services));
+
+        final int max = Synthetic.TILE_SIZE - 1;
+        final CollisionFormula top = new CollisionFormula("top",
+                                                          new CollisionRange(Axis.Y, 0, max, 0, max),
+                                                          new CollisionFunctionLinear(0.0, max),
+                                                          new CollisionConstraint());
+        final CollisionFormula side = new CollisionFormula("side",
+                                                           new CollisionRange(Axis.X, 0, max, 0, max),
+                                                           new CollisionFunctionLinear(0.0, max),
+                                                           new CollisionConstraint());
+        final CollisionGroup ground = new CollisionGroup(Synthetic.GROUND, Arrays.asList(top));
+        final CollisionGroup block = new CollisionGroup(Synthetic.BLOCK, Arrays.asList(top, side));
+        mapCollision.loadCollisions(createFormulas(top, side), createGroups(ground, block));
+
+        categoryY = new CollisionCategory("y", Axis.Y, 0, 0, Arrays.asList(ground, block));
+        categoryX = new CollisionCategory("x", Axis.X, 0, 0, Arrays.asList(block));
+
+        final Random random = Synthetic.createRandom();
+        final int area = SIZE * Synthetic.TILE_SIZE;
+        transformables = new Transformable[count];
+        starts = new double[count * 2];
+        speeds = new double[count * 2];
+        for (int i = 0; i < count; i++)
+        {
+            final Transformable transformable = new FeaturableModel().addFeatureAndGet(new TransformableModel());
+            transformable.setSize(1, 1);
+            transformables[i] = transformable;
+            starts[i * 2] = random.nextInt(area);
+            starts[i * 2 + 1] = random.nextInt(area);
+            speeds[i * 2] = (random.nextDouble() * 2.0 - 1.0) * SPEED;
+            speeds[i * 2 + 1] = -random.nextDouble() * SPEED;
+        }
+    }
+
+    /**
+     * Restore defaults.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        Synthetic.cleanUp();
+    }
+
+    /**
+     * Move each object from its start location and compute its collisions on both axis.
+     * 
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void computeCollision(Blackhole blackhole)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final Transformable transformable = transformables[i];
+            transformable.teleport(starts[i * 2], starts[i * 2 + 1]);
+            transformable.moveLocation(1.0, speeds[i * 2], speeds[i * 2 + 1]);
+            blackhole.consume(mapCollision.computeCollision(transformable, categoryY));
+            blackhole.consume(mapCollision.computeCollision(transformable, categoryX));
+        }
+    }
+}
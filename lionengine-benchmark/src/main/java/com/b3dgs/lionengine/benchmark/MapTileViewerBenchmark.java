@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.viewer.MapTileViewer;
+import com.b3dgs.lionengine.game.feature.tile.map.viewer.MapTileViewerModel;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Map viewer benchmark, rendering headless frames while scrolling diagonally over a synthetic map.
+ * <p>
+ * Frames are drawn by {@link com.b3dgs.lionengine.core.headless.FactoryGraphicHeadless} in a view sized buffer, so
+ * tiles are blended pixel by pixel as a software renderer would do.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class MapTileViewerBenchmark
+{
+    /** View width in pixel. */
+    private static final int WIDTH = 320;
+    /** View height in pixel. */
+    private static final int HEIGHT = 240;
+    /** Scroll speed in pixel. */
+    private static final int SPEED = 3;
+    /** Blocking tiles ratio. */
+    private static final double BLOCKING = 0.3;
+
+    /** Map size in tile. */
+    @Param("256")
+    int size;
+    /** Chunk cache size in tile, 0 to disable cache. */
+    @Param({"0", "8", "16"})
+    int chunk;
+
+    /** Camera reference. */
+    private Camera camera;
+    /** Map viewer. */
+    private MapTileViewer viewer;
+    /** Frame buffer. */
+    private ImageBuffer frame;
+    /** Graphic output. */
+    private Graphic graphic;
+    /** Scroll limit in pixel. */
+    private int limit;
+    /** Current scroll in pixel. */
+    private int scroll;
+
+    /**
+     * Create benchmark.
+     */
+    public MapTileViewerBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create map and viewer.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Synthetic.prepare();
+
+        final Services services = new Services();
+        camera = services.add(new Camera());
+        camera.setView(0, 0, WIDTH, HEIGHT, HEIGHT);
+
+        final MapTile map = Synthetic.createMap(services, size, BLOCKING);
+        if (chunk > 0)
+        {
+            viewer = map.addFeatureAndGet(new MapTileViewerModel(services, chunk));
+        }
+        else
+        {
+            viewer = map.addFeatureAndGet(new MapTileViewerModel(services));
+        }
+        frame = Graphics.createImageBuffer(WIDTH, HEIGHT);
+        graphic = frame.createGraphic();
+        limit = size * Synthetic.TILE_SIZE - Math.max(WIDTH, HEIGHT);
+        scroll = 0;
+    }
+
+    /**
+     * Restore defaults.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        graphic.dispose();
+        Synthetic.cleanUp();
+    }
+
+    /**
+     * Scroll and render a frame.
+     * 
+     * @return The rendered frame.
+     */
+    @Benchmark
+    public ImageBuffer render()
+    {
+        scroll = (scroll + SPEED) % limit;
+        camera.teleport(scroll, scroll);
+        graphic.clear(0, 0, WIDTH, HEIGHT);
+        viewer.render(graphic);
+        return frame;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+
+/**
+ * Network messages benchmark, encoding and decoding chat and entity messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class NetworkMessageBenchmark
+{
+    /** Message type. */
+    private static final byte TYPE = 1;
+    /** Client id. */
+    private static final byte CLIENT = 2;
+    /** Entity id. */
+    private static final short ENTITY = 1234;
+    /** Maximum location. */
+    private static final int LOCATION = 4096;
+    /** Maximum health. */
+    private static final int HEALTH = 1000;
+    /** First printable character. */
+    private static final char FIRST = ' ';
+    /** Printable characters number. */
+    private static final int PRINTABLE = '~' - ' ';
+
+    /**
+     * Decode a message from its encoded bytes, as the decoder would.
+     * 
+     * @param message The message to fill.
+     * @param data The encoded message.
+     * @return The decoded message.
+     * @throws IOException If unable to decode.
+     */
+    private static NetworkMessage decode(NetworkMessage message, byte[] data) throws IOException
+    {
+        final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
+        final byte type = buffer.readByte();
+        final byte from = buffer.readByte();
+        final byte dest = buffer.readByte();
+        message.decode(type, from, dest, buffer);
+        return message;
+    }
+
+    /** Chat message length. */
+    @Param({"16", "256"})
+    int length;
+
+    /** Chat message. */
+    private NetworkMessage chat;
+    /** Encoded chat message. */
+    private byte[] chatData;
+    /** Entity message. */
+    private NetworkMessage entity;
+    /** Encoded entity message. */
+    private byte[] entityData;
+
+    /**
+     * Create benchmark.
+     */
+    public NetworkMessageBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create messages.
+     * 
+     * @throws IOException If unable to encode.
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        final Random random = Synthetic.createRandom();
+        final StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            text.append((char) (FIRST + random.nextInt(PRINTABLE)));
+        }
+        chat = new NetworkMessageChat(TYPE, CLIENT, text.toString());
+        chatData = chat.encode().toByteArray();
+
+        final EntityMessage message = new EntityMessage(TYPE, ENTITY);
+        message.addAction(EntityMessage.Action.X, random.nextInt(LOCATION));
+        message.addAction(EntityMessage.Action.Y, random.nextInt(LOCATION));
+        message.addAction(EntityMessage.Action.HEALTH, (short) random.nextInt(HEALTH));
+        message.addAction(EntityMessage.Action.FIRE, random.nextBoolean());
+        entity = message;
+        entityData = entity.encode().toByteArray();
+    }
+
+    /**
+     * Encode the chat message.
+     * 
+     * @return The encoded message.
+     * @throws IOException If unable to encode.
+     */
+    @Benchmark
+    public ByteArrayOutputStream encodeChat() throws IOException
+    {
+        return chat.encode();
+    }
+
+    /**
+     * Decode the chat message.
+     * 
+     * @return The decoded message.
+     * @throws IOException If unable to decode.
+     */
+    @Benchmark
+    public NetworkMessage decodeChat() throws IOException
+    {
+        return decode(new NetworkMessageChat(), chatData);
+    }
+
+    /**
+     * Encode the entity message.
+     * 
+     * @return The encoded message.
+     * @throws IOException If unable to encode.
+     */
+    @Benchmark
+    public ByteArrayOutputStream encodeEntity() throws IOException
+    {
+        return entity.encode();
+    }
+
+    /**
+     * Decode the entity message.
+     * 
+     * @return The decoded message.
+     * @throws IOException If unable to decode.
+     */
+    @Benchmark
+    public NetworkMessage decodeEntity() throws IOException
+    {
+        return decode(new EntityMessage(), entityData);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.TransformableModel;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Astar;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Heuristic;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePathHierarchy;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePathHierarchyModel;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePathModel;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MovementTile;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Path;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathData;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathFinder;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableConfig;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindableModel;
+import com.b3dgs.lionengine.io.Xml;
+
+/**
+ * Path finder benchmark, searching paths between random free tiles of a synthetic map.
+ * <p>
+ * Each {@link Heuristic} is measured with the previous sorted list finder ({@link PathFinderLegacy}), the current
+ * binary heap finder, and the hierarchical finder.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class PathFinderBenchmark
+{
+    /** Previous A star, with sorted list. */
+    private static final String LEGACY = "legacy";
+    /** Current A star, with binary heap. */
+    private static final String HEAP = "heap";
+    /** Hierarchical path finder. */
+    private static final String HIERARCHICAL = "hierarchical";
+    /** Closest heuristic. */
+    private static final String CLOSEST = "closest";
+    /** Closest squared heuristic. */
+    private static final String CLOSEST_SQUARED = "closestSquared";
+    /** Manhattan heuristic. */
+    private static final String MANHATTAN = "manhattan";
+    /** Blocking tiles ratio. */
+    private static final double BLOCKING = 0.2;
+    /** Number of distinct queries. */
+    private static final int QUERIES = 64;
+    /** Query length, start and destination tile locations. */
+    private static final int QUERY_LENGTH = 4;
+    /** Destination horizontal tile location index in query. */
+    private static final int DESTINATION_X = 2;
+    /** Destination vertical tile location index in query. */
+    private static final int DESTINATION_Y = 3;
+
+    /** Map size in tile. */
+    @Param({"64", "256"})
+    int size;
+    /** Finder type. */
+    @Param({LEGACY, HEAP, HIERARCHICAL})
+    String finder;
+    /** Heuristic type. */
+    @Param({CLOSEST, CLOSEST_SQUARED, MANHATTAN})
+    String heuristic;
+
+    /** Path finder. */
+    private PathFinder pathFinder;
+    /** Path mover. */
+    private Pathfindable mover;
+    /** Queries as start and destination tiles. */
+    private int[] queries;
+    /** Next query. */
+    private int query;
+
+    /**
+     * Create benchmark.
+     */
+    public PathFinderBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create map, finder and queries.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Synthetic.prepare();
+
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = Synthetic.createMap(services, size, BLOCKING);
+        final MapTilePath mapPath = map.addFeatureAndGet(new MapTilePathModel(services));
+        mapPath.loadPathfinding(Synthetic.createPathfinding());
+
+        final Map<String, PathData> data = new HashMap<String, PathData>();
+        final Collection<MovementTile> movements = EnumSet.of(MovementTile.UP,
+                                                              MovementTile.DOWN,
+                                                              MovementTile.LEFT,
+                                                              MovementTile.RIGHT);
+        data.put(Synthetic.GROUND, new PathData(Synthetic.GROUND, 1.0, false, movements));
+        data.put(Synthetic.BLOCK, new PathData(Synthetic.BLOCK, 0.0, true, EnumSet.noneOf(MovementTile.class)));
+
+        final Xml config = PathfindableConfig.exports(data);
+        final Featurable featurable = new FeaturableModel();
+        featurable.addFeature(new TransformableModel());
+        mover = featurable.addFeatureAndGet(new PathfindableModel(services, Synthetic.createSetup("mover", config)));
+        pathFinder = createFinder(services, map, size * 2);
+        queries = createQueries(map);
+        query = 0;
+    }
+
+    /**
+     * Restore defaults.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        Synthetic.cleanUp();
+    }
+
+    /**
+     * Find a path for the next query.
+     * 
+     * @return The found path, <code>null</code> if none.
+     */
+    @Benchmark
+    public Path findPath()
+    {
+        final int index = query * QUERY_LENGTH;
+        query = (query + 1) % QUERIES;
+        mover.setLocation(queries[index], queries[index + 1]);
+        return pathFinder.findPath(mover, queries[index + DESTINATION_X], queries[index + DESTINATION_Y], true);
+    }
+
+    /**
+     * Create the heuristic.
+     * 
+     * @return The heuristic.
+     */
+    private Heuristic createHeuristic()
+    {
+        final Heuristic created;
+        if (CLOSEST.equals(heuristic))
+        {
+            created = Astar.createHeuristicClosest();
+        }
+        else if (CLOSEST_SQUARED.equals(heuristic))
+        {
+            created = Astar.createHeuristicClosestSquared();
+        }
+        else if (MANHATTAN.equals(heuristic))
+        {
+            created = Astar.createHeuristicManhattan(1);
+        }
+        else
+        {
+            throw new LionEngineException(heuristic);
+        }
+        return created;
+    }
+
+    /**
+     * Create the path finder.
+     * 
+     * @param services The services reference.
+     * @param map The map reference.
+     * @param range The search range.
+     * @return The path finder.
+     */
+    private PathFinder createFinder(Services services, MapTile map, int range)
+    {
+        final PathFinder created;
+        if (LEGACY.equals(finder))
+        {
+            created = new PathFinderLegacy(map, range, createHeuristic());
+        }
+        else if (HEAP.equals(finder))
+        {
+            created = Astar.createPathFinder(map, range, createHeuristic());
+        }
+        else if (HIERARCHICAL.equals(finder))
+        {
+            final MapTilePathHierarchy hierarchy = map.addFeatureAndGet(new MapTilePathHierarchyModel(services));
+            created = hierarchy.createPathFinder(range, createHeuristic());
+        }
+        else
+        {
+            throw new LionEngineException(finder);
+        }
+        return created;
+    }
+
+    /**
+     * Create random queries between free tiles.
+     * 
+     * @param map The map reference.
+     * @return The queries.
+     */
+    private int[] createQueries(MapTile map)
+    {
+        final Random random = Synthetic.createRandom();
+        final int[] created = new int[QUERIES * QUERY_LENGTH];
+        int i = 0;
+        while (i < created.length)
+        {
+            final int tx = random.nextInt(size);
+            final int ty = random.nextInt(size);
+            if (map.getTile(tx, ty).getNumber() == Synthetic.TILE_GROUND)
+            {
+                created[i] = tx;
+                created[i + 1] = ty;
+                i += 2;
+            }
+        }
+        return created;
+    }
+}
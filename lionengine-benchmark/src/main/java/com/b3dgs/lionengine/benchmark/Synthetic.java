@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Version;
+import com.b3dgs.lionengine.core.Engine;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.core.drawable.Drawable;
+import com.b3dgs.lionengine.core.headless.EngineHeadless;
+import com.b3dgs.lionengine.game.feature.FeaturableConfig;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.tile.TileGroup;
+import com.b3dgs.lionengine.game.feature.tile.TileGroupType;
+import com.b3dgs.lionengine.game.feature.tile.TileGroupsConfig;
+import com.b3dgs.lionengine.game.feature.tile.TileRef;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroup;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroupModel;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathfindingConfig;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.io.Xml;
+
+/**
+ * Reproducible synthetic data used by benchmarks.
+ * <p>
+ * All data are generated from {@link #SEED}, so two runs (or two engine versions) measure the same maps and entity
+ * populations. Configuration files are written in a temporary resources directory, set by {@link #prepare()}, which
+ * also starts {@link EngineHeadless} so images are real pixel buffers.
+ * </p>
+ */
+public final class Synthetic
+{
+    /** Random seed. */
+    public static final long SEED = 42L;
+    /** Tile size in pixel. */
+    public static final int TILE_SIZE = 16;
+    /** Tile sheet. */
+    public static final Integer SHEET = Integer.valueOf(0);
+    /** Ground tile number. */
+    public static final int TILE_GROUND = 0;
+    /** Block tile number. */
+    public static final int TILE_BLOCK = 1;
+    /** Ground group and category name. */
+    public static final String GROUND = "ground";
+    /** Block group and category name. */
+    public static final String BLOCK = "block";
+    /** Resources directory. */
+    private static final String DIRECTORY = "lionengine-benchmark";
+
+    /**
+     * Load the map groups.
+     * 
+     * @param map The map reference.
+     */
+    private static void loadGroups(MapTile map)
+    {
+        final Collection<TileGroup> groups = new ArrayList<TileGroup>();
+        groups.add(new TileGroup(GROUND, TileGroupType.PLAIN, Arrays.asList(new TileRef(SHEET, TILE_GROUND))));
+        groups.add(new TileGroup(BLOCK, TileGroupType.PLAIN, Arrays.asList(new TileRef(SHEET, TILE_BLOCK))));
+
+        final Media media = Medias.create("groups.xml");
+        TileGroupsConfig.exports(media, groups);
+        map.getFeature(MapTileGroup.class).loadGroups(media);
+    }
+
+    /**
+     * Create the tile sheet, with an opaque color per tile.
+     * 
+     * @return The tile sheet.
+     */
+    private static ImageBuffer createSheet()
+    {
+        final ImageBuffer sheet = Graphics.createImageBuffer(TILE_SIZE * 2, TILE_SIZE);
+        final Graphic g = sheet.createGraphic();
+        g.setColor(ColorRgba.GREEN);
+        g.drawRect(TILE_GROUND * TILE_SIZE, 0, TILE_SIZE, TILE_SIZE, true);
+        g.setColor(ColorRgba.GRAY);
+        g.drawRect(TILE_BLOCK * TILE_SIZE, 0, TILE_SIZE, TILE_SIZE, true);
+        g.dispose();
+        return sheet;
+    }
+
+    /**
+     * Create a random generator with the benchmark seed.
+     * 
+     * @return The random generator.
+     */
+    public static Random createRandom()
+    {
+        return new Random(SEED);
+    }
+
+    /**
+     * Start headless engine on a temporary resources directory.
+     */
+    public static void prepare()
+    {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new LionEngineException(directory.getPath());
+        }
+        EngineHeadless.start(DIRECTORY, Version.DEFAULT, directory.getPath());
+    }
+
+    /**
+     * Terminate engine, restoring default graphics and resources directory.
+     */
+    public static void cleanUp()
+    {
+        Engine.terminate();
+    }
+
+    /**
+     * Create a square map with {@link #GROUND} and {@link #BLOCK} tiles, and register it in services.
+     * 
+     * @param services The services reference.
+     * @param size The map size in tile.
+     * @param blockingRatio The ratio of blocking tiles, in <code>[0, 1]</code>.
+     * @return The created map, with a {@link MapTileGroup} feature.
+     */
+    public static MapTile createMap(Services services, int size, double blockingRatio)
+    {
+        final MapTile map = services.add(new MapTileGame());
+        map.addFeature(new MapTileGroupModel());
+        map.create(TILE_SIZE, TILE_SIZE, size, size);
+        map.loadSheets(Arrays.asList(Drawable.loadSpriteTiled(createSheet(), TILE_SIZE, TILE_SIZE)));
+        loadGroups(map);
+
+        final Random random = createRandom();
+        for (int tx = 0; tx < size; tx++)
+        {
+            for (int ty = 0; ty < size; ty++)
+            {
+                final int number;
+                if (random.nextDouble() < blockingRatio)
+                {
+                    number = TILE_BLOCK;
+                }
+                else
+                {
+                    number = TILE_GROUND;
+                }
+                map.setTile(map.createTile(SHEET, number, tx * (double) TILE_SIZE, ty * (double) TILE_SIZE));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Create the pathfinding configuration, mapping each group to the category of the same name.
+     * 
+     * @return The pathfinding configuration media.
+     */
+    public static Media createPathfinding()
+    {
+        final Media media = Medias.create(PathfindingConfig.FILENAME);
+        final Xml root = new Xml(PathfindingConfig.PATHFINDING);
+        for (final String group : Arrays.asList(GROUND, BLOCK))
+        {
+            final Xml node = root.createChild(PathfindingConfig.TILE_PATH);
+            node.writeString(PathfindingConfig.CATEGORY, group);
+            node.createChild(TileGroupsConfig.NODE_GROUP).setText(group);
+        }
+        root.save(media);
+        return media;
+    }
+
+    /**
+     * Create a setup.
+     * 
+     * @param name The setup name.
+     * @param nodes The additional configuration nodes.
+     * @return The setup.
+     */
+    public static Setup createSetup(String name, Xml... nodes)
+    {
+        final Media media = Medias.create(name + ".xml");
+        final Xml root = new Xml(name);
+        root.add(FeaturableConfig.exportClass(name));
+        root.add(FeaturableConfig.exportSetup(Setup.class.getName()));
+        for (final Xml node : nodes)
+        {
+            root.add(node);
+        }
+        root.save(media);
+        return new Setup(media);
+    }
+
+    /**
+     * Private constructor.
+     */
+    private Synthetic()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
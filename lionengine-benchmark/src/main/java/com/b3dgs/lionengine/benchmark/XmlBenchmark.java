@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.io.Xml;
+
+/**
+ * Xml benchmark, parsing and reading a synthetic objects description.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = Benchmarks.WARMUP)
+@Measurement(iterations = Benchmarks.MEASUREMENT)
+public class XmlBenchmark
+{
+    /** Object node. */
+    private static final String NODE_OBJECT = "object";
+    /** Animation node. */
+    private static final String NODE_ANIMATION = "animation";
+    /** Name attribute. */
+    private static final String ATT_NAME = "name";
+    /** Horizontal attribute. */
+    private static final String ATT_X = "x";
+    /** Vertical attribute. */
+    private static final String ATT_Y = "y";
+    /** Speed attribute. */
+    private static final String ATT_SPEED = "speed";
+    /** First frame attribute. */
+    private static final String ATT_FIRST = "first";
+    /** Last frame attribute. */
+    private static final String ATT_LAST = "last";
+    /** Animations by object. */
+    private static final int ANIMATIONS = 4;
+    /** Maximum location. */
+    private static final int LOCATION = 4096;
+    /** Maximum frame. */
+    private static final int FRAMES = 64;
+
+    /** Number of objects. */
+    @Param({"100", "10000"})
+    int count;
+
+    /** Xml file. */
+    private Media media;
+    /** Parsed xml. */
+    private Xml root;
+
+    /**
+     * Create benchmark.
+     */
+    public XmlBenchmark()
+    {
+        super();
+    }
+
+    /**
+     * Create the xml file.
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Synthetic.prepare();
+
+        final Random random = Synthetic.createRandom();
+        final Xml created = new Xml("objects");
+        for (int i = 0; i < count; i++)
+        {
+            final Xml object = created.createChild(NODE_OBJECT);
+            object.writeString(ATT_NAME, NODE_OBJECT + i);
+            object.writeInteger(ATT_X, random.nextInt(LOCATION));
+            object.writeInteger(ATT_Y, random.nextInt(LOCATION));
+            object.writeDouble(ATT_SPEED, random.nextDouble());
+            for (int j = 0; j < ANIMATIONS; j++)
+            {
+                final Xml animation = object.createChild(NODE_ANIMATION);
+                animation.writeInteger(ATT_FIRST, random.nextInt(FRAMES));
+                animation.writeInteger(ATT_LAST, random.nextInt(FRAMES));
+                animation.writeDouble(ATT_SPEED, random.nextDouble());
+            }
+        }
+        media = Medias.create("objects.xml");
+        created.save(media);
+        root = new Xml(media);
+    }
+
+    /**
+     * Restore defaults.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        Synthetic.cleanUp();
+    }
+
+    /**
+     * Parse the xml file.
+     * 
+     * @return The parsed xml.
+     */
+    @Benchmark
+    public Xml parse()
+    {
+        return new Xml(media);
+    }
+
+    /**
+     * Read all objects and animations attributes.
+     * 
+     * @param blackhole The result consumer.
+     */
+    @Benchmark
+    public void read(Blackhole blackhole)
+    {
+        for (final Xml object : root.getChildren(NODE_OBJECT))
+        {
+            blackhole.consume(object.readString(ATT_NAME));
+            blackhole.consume(object.readInteger(ATT_X));
+            blackhole.consume(object.readInteger(ATT_Y));
+            blackhole.consume(object.readDouble(ATT_SPEED));
+            for (final Xml animation : object.getChildren(NODE_ANIMATION))
+            {
+                blackhole.consume(animation.readInteger(ATT_FIRST));
+                blackhole.consume(animation.readInteger(ATT_LAST));
+                blackhole.consume(animation.readDouble(ATT_SPEED));
+            }
+        }
+    }
+}
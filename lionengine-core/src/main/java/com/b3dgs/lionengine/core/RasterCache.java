@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Shared cache of generated rasters, used by {@link RasterImage}.
+ * <p>
+ * Rasters are keyed by their source surface, raster file, index, smooth flag and image height, so rastered images
+ * sharing the same source share their rasters. Cache is limited by a memory budget (estimated as four bytes per
+ * pixel): least recently used rasters are removed from cache when budget is exceeded. A removed raster stays valid
+ * for the instances still referencing it, it is just not shared anymore.
+ * </p>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ */
+public final class RasterCache
+{
+    /** Invalid budget error. */
+    private static final String ERROR_BUDGET = "Invalid raster cache budget: ";
+
+    /** Default cache budget in bytes. */
+    public static final long DEFAULT_BUDGET = 64L * 1024L * 1024L;
+    /** Estimated bytes per pixel. */
+    private static final long BYTES_PER_PIXEL = 4L;
+    /** Initial cache capacity. */
+    private static final int CAPACITY = 16;
+    /** Cache load factor. */
+    private static final float LOAD_FACTOR = 0.75F;
+    /** Cached rasters, in access order. */
+    private static final Map<Key, ImageBuffer> CACHE = new LinkedHashMap<Key, ImageBuffer>(CAPACITY,
+                                                                                            LOAD_FACTOR,
+                                                                                            true);
+    /** Current budget in bytes. */
+    private static long budget = DEFAULT_BUDGET;
+    /** Current cached size in bytes. */
+    private static long size;
+
+    /**
+     * Set the cache budget. Rasters are removed from cache until budget is respected.
+     * 
+     * @param bytes The budget in bytes (<code>0</code> to disable cache).
+     * @throws LionEngineException If invalid budget.
+     */
+    public static synchronized void setBudget(long bytes)
+    {
+        if (bytes < 0L)
+        {
+            throw new LionEngineException(ERROR_BUDGET, String.valueOf(bytes));
+        }
+        budget = bytes;
+        evict();
+    }
+
+    /**
+     * Get the cache budget.
+     * 
+     * @return The budget in bytes.
+     */
+    public static synchronized long getBudget()
+    {
+        return budget;
+    }
+
+    /**
+     * Get the current cached size.
+     * 
+     * @return The cached size in bytes.
+     */
+    public static synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Get the number of cached rasters.
+     * 
+     * @return The cached rasters number.
+     */
+    public static synchronized int getCount()
+    {
+        return CACHE.size();
+    }
+
+    /**
+     * Remove all rasters from cache.
+     */
+    public static synchronized void clear()
+    {
+        CACHE.clear();
+        size = 0L;
+    }
+
+    /**
+     * Get a cached raster.
+     * 
+     * @param key The raster key.
+     * @return The cached raster, <code>null</code> if not cached.
+     */
+    static synchronized ImageBuffer get(Key key)
+    {
+        return CACHE.get(key);
+    }
+
+    /**
+     * Cache a raster, and remove least recently used rasters if budget is exceeded.
+     * 
+     * @param key The raster key.
+     * @param raster The raster to cache.
+     */
+    static synchronized void put(Key key, ImageBuffer raster)
+    {
+        final ImageBuffer old = CACHE.put(key, raster);
+        if (old != null)
+        {
+            size -= getBytes(old);
+        }
+        size += getBytes(raster);
+        evict();
+    }
+
+    /**
+     * Get the estimated raster size.
+     * 
+     * @param raster The raster.
+     * @return The size in bytes.
+     */
+    private static long getBytes(ImageBuffer raster)
+    {
+        return raster.getWidth() * (long) raster.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Remove least recently used rasters until budget is respected.
+     */
+    private static void evict()
+    {
+        final Iterator<ImageBuffer> iterator = CACHE.values().iterator();
+        while (size > budget && iterator.hasNext())
+        {
+            size -= getBytes(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private RasterCache()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+
+    /**
+     * Raster key.
+     */
+    static final class Key
+    {
+        /** Source surface (media if known, surface else). */
+        private final Object source;
+        /** Raster file. */
+        private final Media rasterFile;
+        /** Raster index. */
+        private final int index;
+        /** Smooth flag. */
+        private final boolean smooth;
+        /** Image height. */
+        private final int imageHeight;
+
+        /**
+         * Create key.
+         * 
+         * @param source The source surface (media if known, surface else).
+         * @param rasterFile The raster file.
+         * @param index The raster index.
+         * @param smooth The smooth flag.
+         * @param imageHeight The image height.
+         */
+        Key(Object source, Media rasterFile, int index, boolean smooth, int imageHeight)
+        {
+            super();
+
+            this.source = source;
+            this.rasterFile = rasterFile;
+            this.index = index;
+            this.smooth = smooth;
+            this.imageHeight = imageHeight;
+        }
+
+        /*
+         * Object
+         */
+
+        @Override
+        public int hashCode()
+        {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + source.hashCode();
+            result = prime * result + rasterFile.hashCode();
+            result = prime * result + index;
+            result = prime * result + UtilConversion.boolToInt(smooth);
+            result = prime * result + imageHeight;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (object == null || object.getClass() != getClass())
+            {
+                return false;
+            }
+            final Key other = (Key) object;
+            return index == other.index
+                   && smooth == other.smooth
+                   && imageHeight == other.imageHeight
+                   && source.equals(other.source)
+                   && rasterFile.equals(other.rasterFile);
+        }
+    }
+}
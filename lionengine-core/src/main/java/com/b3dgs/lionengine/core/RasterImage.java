@@ -35,6 +35,11 @@ import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * Represents a rastered image.
+ * <p>
+ * Rasters can be loaded all at once with {@link #loadRasters(int, boolean, String)}, or generated on first use with
+ * {@link #prepareRasters(int, boolean, String)}. In both cases, generated rasters are shared with other rastered images
+ * of the same source through the {@link RasterCache}, and can be saved to disk, so next loads skip the generation.
+ * </p>
  */
 public class RasterImage
 {
@@ -42,12 +47,24 @@ public class RasterImage
     private final List<ImageBuffer> rasters = new ArrayList<ImageBuffer>(RasterColor.MAX_RASTERS);
     /** Original image. */
     private final ImageBuffer surface;
+    /** Source identifier (media if known, surface else). */
+    private final Object source;
     /** Raster filename. */
     private final Media rasterFile;
     /** Raster smooth flag. */
     private final boolean rasterSmooth;
     /** Raster height. */
     private final int rasterHeight;
+    /** Raster data (<code>null</code> if not prepared). */
+    private Raster raster;
+    /** Local image height. */
+    private int imageHeight;
+    /** Save generated rasters flag. */
+    private boolean save;
+    /** Saved rasters folder prefix. */
+    private String prefix;
+    /** Number of rasters. */
+    private int count;
 
     /**
      * Create a rastered image.
@@ -60,7 +77,7 @@ public class RasterImage
      */
     public RasterImage(Media media, Media rasterFile, int rasterHeight, boolean smooth)
     {
-        this(Graphics.getImageBuffer(media), rasterFile, rasterHeight, smooth);
+        this(media, Graphics.getImageBuffer(media), rasterFile, rasterHeight, smooth);
     }
 
     /**
@@ -73,6 +90,21 @@ public class RasterImage
      * @throws LionEngineException If invalid media or raster file or height.
      */
     public RasterImage(ImageBuffer surface, Media rasterFile, int rasterHeight, boolean smooth)
+    {
+        this(surface, surface, rasterFile, rasterHeight, smooth);
+    }
+
+    /**
+     * Create a rastered image.
+     * 
+     * @param source The source identifier, used as cache key.
+     * @param surface The surface reference.
+     * @param rasterFile The raster media.
+     * @param rasterHeight The height used by the raster (must be strictly superior to 0).
+     * @param smooth <code>true</code> for smoothed raster, <code>false</code> else.
+     * @throws LionEngineException If invalid media or raster file or height.
+     */
+    private RasterImage(Object source, ImageBuffer surface, Media rasterFile, int rasterHeight, boolean smooth)
     {
         super();
 
@@ -81,6 +113,7 @@ public class RasterImage
         Check.superiorStrict(rasterHeight, 0);
 
         this.surface = surface;
+        this.source = source;
         this.rasterFile = rasterFile;
         this.rasterHeight = rasterHeight;
         rasterSmooth = smooth;
@@ -107,23 +140,34 @@ public class RasterImage
      */
     public void loadRasters(int imageHeight, boolean save, String prefix)
     {
-        final Raster raster = Raster.load(rasterFile);
-        final int max = UtilConversion.boolToInt(rasterSmooth) + 1;
+        prepareRasters(imageHeight, save, prefix);
 
-        for (int m = 0; m < max; m++)
+        for (int id = 0; id < count; id++)
         {
-            for (int i = 1; i <= RasterColor.MAX_RASTERS; i++)
-            {
-                final String folder = prefix + Constant.UNDERSCORE + UtilFile.removeExtension(rasterFile.getName());
-                final String file = String.valueOf(i + m * RasterColor.MAX_RASTERS) + Constant.DOT + ImageFormat.PNG;
-                final Media rasterMedia = Medias.create(rasterFile.getParentPath(), folder, file);
-
-                final ImageBuffer rasterBuffer = createRaster(rasterMedia, raster, m, i, imageHeight, save);
-                rasters.add(rasterBuffer);
-            }
+            rasters.add(getRaster(id));
         }
     }
 
+    /**
+     * Prepare rasters without generating them. Each raster will be generated on its first {@link #getRaster(int)},
+     * unless already available in {@link RasterCache} or on disk. Rasters taken from {@link RasterCache} are not saved
+     * again.
+     * 
+     * @param imageHeight The local image height.
+     * @param save <code>true</code> to save generated (if) rasters, <code>false</code> else.
+     * @param prefix The folder prefix (if save is <code>true</code>).
+     * @throws LionEngineException If the raster data from the media are invalid.
+     */
+    public void prepareRasters(int imageHeight, boolean save, String prefix)
+    {
+        raster = Raster.load(rasterFile);
+        this.imageHeight = imageHeight;
+        this.save = save;
+        this.prefix = prefix;
+        count = (UtilConversion.boolToInt(rasterSmooth) + 1) * RasterColor.MAX_RASTERS;
+        rasters.clear();
+    }
+
     /**
      * Get the raster file.
      * 
@@ -135,7 +179,7 @@ public class RasterImage
     }
 
     /**
-     * Get all rasters.
+     * Get all rasters loaded with {@link #loadRasters(int, boolean, String)}.
      * 
      * @return The rasters.
      */
@@ -149,10 +193,43 @@ public class RasterImage
      * 
      * @param id The raster ID (must be superior or equal to 0).
      * @return The image buffer representing the raster.
+     * @throws LionEngineException If rasters are not prepared or invalid raster data.
      */
     public ImageBuffer getRaster(int id)
     {
-        return rasters.get(UtilMath.clamp(id, 0, rasters.size() - 1));
+        Check.notNull(raster);
+
+        final int index = UtilMath.clamp(id, 0, count - 1);
+        final ImageBuffer buffer;
+        if (index < rasters.size())
+        {
+            buffer = rasters.get(index);
+        }
+        else
+        {
+            final RasterCache.Key key = new RasterCache.Key(source, rasterFile, index, rasterSmooth, imageHeight);
+            final ImageBuffer cached = RasterCache.get(key);
+            if (cached == null)
+            {
+                buffer = createRaster(index);
+                RasterCache.put(key, buffer);
+            }
+            else
+            {
+                buffer = cached;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Get the number of rasters.
+     * 
+     * @return The rasters number (<code>0</code> if not prepared).
+     */
+    public int getRastersNumber()
+    {
+        return count;
     }
 
     /**
@@ -176,18 +253,19 @@ public class RasterImage
     }
 
     /**
-     * Create raster from data or load from cache.
+     * Create raster from data or load from disk cache.
      * 
-     * @param rasterMedia The raster media?
-     * @param raster The raster data.
-     * @param m The smooth index.
-     * @param i The raster index.
-     * @param imageHeight The image height.
-     * @param save <code>true</code> to save generated raster, <code>false</code> else.
+     * @param index The raster index.
      * @return The created raster.
      */
-    private ImageBuffer createRaster(Media rasterMedia, Raster raster, int m, int i, int imageHeight, boolean save)
+    private ImageBuffer createRaster(int index)
     {
+        final int m = index / RasterColor.MAX_RASTERS;
+        final int i = index % RasterColor.MAX_RASTERS + 1;
+        final String folder = prefix + Constant.UNDERSCORE + UtilFile.removeExtension(rasterFile.getName());
+        final String file = String.valueOf(index + 1) + Constant.DOT + ImageFormat.PNG;
+        final Media rasterMedia = Medias.create(rasterFile.getParentPath(), folder, file);
+
         final ImageBuffer rasterBuffer;
         if (rasterMedia.exists())
         {
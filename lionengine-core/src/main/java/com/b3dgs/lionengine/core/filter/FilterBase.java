@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.Filter;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Transform;
+
+/**
+ * Base filter implementation, working on raw pixels.
+ * <p>
+ * Pixels buffers are allocated once per resolution and reused by next calls. Filtering the same source image again,
+ * as done for each frame, updates the previous filtered image instead of creating a new one (see
+ * {@link #filter(ImageBuffer)}). Passes can be split in rows bands, computed in parallel by a shared workers pool (see
+ * {@link #computeBands(int, int)}). Filters can be chained on raw pixels with {@link FilterChain}, without
+ * intermediate images.
+ * </p>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ */
+public abstract class FilterBase implements Filter
+{
+    /** Workers number. */
+    public static final int THREADS = Runtime.getRuntime().availableProcessors();
+    /** Minimum rows per band. */
+    private static final int MIN_ROWS = 16;
+    /** Worker error. */
+    private static final String ERROR_WORKER = "Filter worker failure !";
+
+    /**
+     * Create the workers executor.
+     * 
+     * @param threads The threads number.
+     * @return The executor.
+     */
+    private static ExecutorService createExecutor(int threads)
+    {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, FilterBase.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Bands tasks. */
+    private final List<Band> bands = new ArrayList<Band>(THREADS);
+    /** Source pixels buffer. */
+    private int[] pixels = new int[0];
+    /** Last filtered source image. */
+    private ImageBuffer lastSource;
+    /** Last filtered image, updated when filtering the same source again. */
+    private ImageBuffer lastFiltered;
+
+    /**
+     * Create filter.
+     */
+    protected FilterBase()
+    {
+        super();
+
+        for (int i = 0; i < THREADS; i++)
+        {
+            bands.add(new Band());
+        }
+    }
+
+    /**
+     * Apply filter on raw pixels.
+     * 
+     * @param source The source pixels (not modified).
+     * @param width The source width.
+     * @param height The source height.
+     * @return The filtered pixels, of {@link #getScale()} size, reused by next call.
+     */
+    public final synchronized int[] filter(int[] source, int width, int height)
+    {
+        return compute(source, width, height);
+    }
+
+    /**
+     * Get the filter scale factor.
+     * 
+     * @return The scale factor.
+     */
+    public abstract int getScale();
+
+    /**
+     * Compute filter on raw pixels. Buffers should only be allocated when resolution changed.
+     * 
+     * @param source The source pixels (must not be modified).
+     * @param width The source width.
+     * @param height The source height.
+     * @return The filtered pixels, of {@link #getScale()} size.
+     */
+    protected abstract int[] compute(int[] source, int width, int height);
+
+    /**
+     * Compute a rows band of a pass. Called by {@link #computeBands(int, int)}, may be from a worker thread. Does
+     * nothing by default.
+     * 
+     * @param pass The pass index.
+     * @param start The first row (included).
+     * @param end The last row (excluded).
+     */
+    protected void computeBand(int pass, int start, int end)
+    {
+        // Nothing by default
+    }
+
+    /**
+     * Compute a pass by splitting its rows in bands, computed in parallel if enough rows, and wait for their end.
+     * 
+     * @param pass The pass index.
+     * @param rows The rows number.
+     * @throws LionEngineException If worker failure.
+     */
+    protected final void computeBands(int pass, int rows)
+    {
+        final int count = Math.max(1, Math.min(THREADS, rows / MIN_ROWS));
+        if (count == 1)
+        {
+            computeBand(pass, 0, rows);
+        }
+        else
+        {
+            for (int i = 0; i < count; i++)
+            {
+                bands.get(i).set(pass, rows * i / count, rows * (i + 1) / count);
+            }
+            execute(count);
+        }
+    }
+
+    /**
+     * Execute bands with workers, and wait for their end.
+     * 
+     * @param count The bands number.
+     * @throws LionEngineException If worker failure.
+     */
+    private void execute(int count)
+    {
+        try
+        {
+            final List<Future<Void>> futures = Workers.EXECUTOR.invokeAll(bands.subList(0, count));
+            for (final Future<Void> future : futures)
+            {
+                future.get();
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_WORKER);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception.getCause(), ERROR_WORKER);
+        }
+    }
+
+    /*
+     * Filter
+     */
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Filtering the same source as the previous call updates and returns the previous filtered image.
+     * </p>
+     */
+    @Override
+    public synchronized ImageBuffer filter(ImageBuffer source)
+    {
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        if (pixels.length != width * height)
+        {
+            pixels = new int[width * height];
+        }
+        source.getRgb(0, 0, width, height, pixels, 0, width);
+
+        final int[] filtered = compute(pixels, width, height);
+
+        final int scale = getScale();
+        final int destWidth = width * scale;
+        final int destHeight = height * scale;
+        if (source != lastSource)
+        {
+            lastSource = source;
+            lastFiltered = Graphics.createImageBuffer(destWidth, destHeight, source.getTransparentColor());
+        }
+        lastFiltered.setRgb(0, 0, destWidth, destHeight, filtered, 0, destWidth);
+        return lastFiltered;
+    }
+
+    @Override
+    public Transform getTransform(double scaleX, double scaleY)
+    {
+        final Transform transform = Graphics.createTransform();
+        transform.scale(scaleX / getScale(), scaleY / getScale());
+        return transform;
+    }
+
+    /**
+     * Rows band task.
+     */
+    private final class Band implements Callable<Void>
+    {
+        /** Pass index. */
+        private int pass;
+        /** First row. */
+        private int start;
+        /** Last row (excluded). */
+        private int end;
+
+        /**
+         * Create band.
+         */
+        Band()
+        {
+            super();
+        }
+
+        /**
+         * Set band.
+         * 
+         * @param pass The pass index.
+         * @param start The first row.
+         * @param end The last row (excluded).
+         */
+        void set(int pass, int start, int end)
+        {
+            this.pass = pass;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Void call()
+        {
+            computeBand(pass, start, end);
+            return null;
+        }
+    }
+
+    /**
+     * Shared workers, created on first use.
+     */
+    private static final class Workers
+    {
+        /** Workers executor. */
+        static final ExecutorService EXECUTOR = createExecutor(THREADS);
+
+        /**
+         * Private constructor.
+         */
+        private Workers()
+        {
+            throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+        }
+    }
+}
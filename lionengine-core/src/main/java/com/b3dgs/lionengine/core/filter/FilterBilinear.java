@@ -18,17 +18,56 @@
 package com.b3dgs.lionengine.core.filter;
 
 import com.b3dgs.lionengine.Constant;
-import com.b3dgs.lionengine.graphic.Filter;
-import com.b3dgs.lionengine.graphic.Graphics;
-import com.b3dgs.lionengine.graphic.ImageBuffer;
-import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.util.UtilMath;
 
 /**
- * Bilinear filter implementation.
+ * Bilinear filter implementation. Horizontal and vertical passes are split in rows bands.
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
  */
-public class FilterBilinear implements Filter
+public class FilterBilinear extends FilterBase
 {
+    /** Radius used. */
+    private static final int RADIUS = 1;
+    /** Red mask. */
+    private static final int RED = 0xff0000;
+    /** Green mask. */
+    private static final int GREEN = 0xff00;
+    /** Blue mask. */
+    private static final int BLUE = 0xff;
+
+    /**
+     * Create the divide table.
+     * 
+     * @param radius The radius used.
+     * @return The divide table.
+     */
+    private static int[] createDivide(int radius)
+    {
+        final int tableSize = 2 * radius + 1;
+        final int[] divide = new int[Constant.UNSIGNED_BYTE * tableSize];
+
+        for (int i = 0; i < Constant.UNSIGNED_BYTE * tableSize; i++)
+        {
+            divide[i] = i / tableSize;
+        }
+        return divide;
+    }
+
+    /** Divide table. */
+    private final int[] divide = createDivide(RADIUS);
+    /** Current pass source. */
+    private int[] source;
+    /** Intermediate pixels. */
+    private int[] transposed = new int[0];
+    /** Filtered pixels. */
+    private int[] filtered = new int[0];
+    /** Current width. */
+    private int width;
+    /** Current height. */
+    private int height;
+
     /**
      * Create the filter.
      */
@@ -38,33 +77,45 @@ public class FilterBilinear implements Filter
     }
 
     /*
-     * Filter
+     * FilterBase
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public int getScale()
     {
-        final int width = source.getWidth();
-        final int height = source.getHeight();
+        return 1;
+    }
 
-        final int[] inPixels = new int[width * height];
-        final int[] outPixels = new int[width * height];
-        source.getRgb(0, 0, width, height, inPixels, 0, width);
+    @Override
+    protected int[] compute(int[] source, int width, int height)
+    {
+        if (filtered.length != width * height)
+        {
+            transposed = new int[width * height];
+            filtered = new int[width * height];
+        }
+        this.source = source;
+        this.width = width;
+        this.height = height;
 
-        compute(inPixels, outPixels, width, height, 1);
-        compute(outPixels, inPixels, height, width, 1);
+        computeBands(0, height);
+        computeBands(1, width);
 
-        final ImageBuffer dest = Graphics.createImageBuffer(width, height, source.getTransparentColor());
-        dest.setRgb(0, 0, width, height, inPixels, 0, width);
-        return dest;
+        this.source = null;
+        return filtered;
     }
 
     @Override
-    public Transform getTransform(double scaleX, double scaleY)
+    protected void computeBand(int pass, int start, int end)
     {
-        final Transform transform = Graphics.createTransform();
-        transform.scale(scaleX, scaleY);
-        return transform;
+        if (pass == 0)
+        {
+            compute(source, transposed, width, height, RADIUS, divide, start, end);
+        }
+        else
+        {
+            compute(transposed, filtered, height, width, RADIUS, divide, start, end);
+        }
     }
 
     /**
@@ -75,66 +126,80 @@ public class FilterBilinear implements Filter
      * @param width The image width.
      * @param height The image height.
      * @param radius The radius used.
+     * @param divide The divide table.
+     * @param start The first row (included).
+     * @param end The last row (excluded).
+     */
+    private static void compute(int[] in,
+                                int[] out,
+                                int width,
+                                int height,
+                                int radius,
+                                int[] divide,
+                                int start,
+                                int end)
+    {
+        for (int y = start; y < end; y++)
+        {
+            computeRow(in, out, width, height, radius, divide, y);
+        }
+    }
+
+    /**
+     * Compute bilinear filtering of a row.
+     * 
+     * @param in The source pixels.
+     * @param out The destination pixels.
+     * @param width The image width.
+     * @param height The image height.
+     * @param radius The radius used.
+     * @param divide The divide table.
+     * @param y The row index.
      */
-    private static void compute(int[] in, int[] out, int width, int height, int radius)
+    private static void computeRow(int[] in, int[] out, int width, int height, int radius, int[] divide, int y)
     {
         final int widthMinus1 = width - 1;
-        final int tableSize = 2 * radius + 1;
-        final int[] divide = new int[Constant.UNSIGNED_BYTE * tableSize];
+        final int inIndex = y * width;
+        int outIndex = y;
+        int ta = 0;
+        int tr = 0;
+        int tg = 0;
+        int tb = 0;
 
-        for (int i = 0; i < Constant.UNSIGNED_BYTE * tableSize; i++)
+        for (int i = -radius; i <= radius; i++)
         {
-            divide[i] = i / tableSize;
+            final int rgb = in[inIndex + UtilMath.clamp(i, 0, width - 1)];
+            ta += rgb >> Constant.BYTE_4 & 0xff;
+            tr += rgb >> Constant.BYTE_3 & 0xff;
+            tg += rgb >> Constant.BYTE_2 & 0xff;
+            tb += rgb & 0xff;
         }
 
-        int inIndex = 0;
-        for (int y = 0; y < height; y++)
+        for (int x = 0; x < width; x++)
         {
-            int outIndex = y;
-            int ta = 0;
-            int tr = 0;
-            int tg = 0;
-            int tb = 0;
+            out[outIndex] = divide[ta] << Constant.BYTE_4
+                            | divide[tr] << Constant.BYTE_3
+                            | divide[tg] << Constant.BYTE_2
+                            | divide[tb];
 
-            for (int i = -radius; i <= radius; i++)
+            int i1 = x + radius + 1;
+            if (i1 > widthMinus1)
             {
-                final int rgb = in[inIndex + UtilMath.clamp(i, 0, width - 1)];
-                ta += rgb >> Constant.BYTE_4 & 0xff;
-                tr += rgb >> Constant.BYTE_3 & 0xff;
-                tg += rgb >> Constant.BYTE_2 & 0xff;
-                tb += rgb & 0xff;
+                i1 = widthMinus1;
             }
-
-            for (int x = 0; x < width; x++)
+            int i2 = x - radius;
+            if (i2 < 0)
             {
-                out[outIndex] = divide[ta] << Constant.BYTE_4
-                                | divide[tr] << Constant.BYTE_3
-                                | divide[tg] << Constant.BYTE_2
-                                | divide[tb];
-
-                int i1 = x + radius + 1;
-                if (i1 > widthMinus1)
-                {
-                    i1 = widthMinus1;
-                }
-                int i2 = x - radius;
-                if (i2 < 0)
-                {
-                    i2 = 0;
-                }
-                final int rgb1 = in[inIndex + i1];
-                final int rgb2 = in[inIndex + i2];
-                final int red = 0xff0000;
-                final int green = 0xff00;
-                final int blue = 0xff;
-
-                ta += (rgb1 >> Constant.BYTE_4 & 0xff) - (rgb2 >> Constant.BYTE_4 & 0xff);
-                tr += (rgb1 & red) - (rgb2 & red) >> Constant.BYTE_3;
-                tg += (rgb1 & green) - (rgb2 & green) >> Constant.BYTE_2;
-                tb += (rgb1 & blue) - (rgb2 & blue);
-                outIndex += height;
+                i2 = 0;
             }
-            inIndex += width;
+            final int rgb1 = in[inIndex + i1];
+            final int rgb2 = in[inIndex + i2];
+
+            ta += (rgb1 >> Constant.BYTE_4 & 0xff) - (rgb2 >> Constant.BYTE_4 & 0xff);
+            tr += (rgb1 & RED) - (rgb2 & RED) >> Constant.BYTE_3;
+            tg += (rgb1 & GREEN) - (rgb2 & GREEN) >> Constant.BYTE_2;
+            tb += (rgb1 & BLUE) - (rgb2 & BLUE);
+            outIndex += height;
         }
     }
 }
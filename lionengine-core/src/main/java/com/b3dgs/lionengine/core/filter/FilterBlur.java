@@ -18,16 +18,15 @@
 package com.b3dgs.lionengine.core.filter;
 
 import com.b3dgs.lionengine.Constant;
-import com.b3dgs.lionengine.graphic.Filter;
-import com.b3dgs.lionengine.graphic.Graphics;
-import com.b3dgs.lionengine.graphic.ImageBuffer;
-import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.util.UtilMath;
 
 /**
- * Blur filter implementation.
+ * Blur filter implementation. Horizontal and vertical passes are split in rows bands.
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
  */
-public class FilterBlur implements Filter
+public class FilterBlur extends FilterBase
 {
     /** Clamp edges. */
     public static final int CLAMP_EDGES = 0;
@@ -42,12 +41,30 @@ public class FilterBlur implements Filter
     private volatile boolean alpha;
     /** Edge mode. */
     private volatile int edge;
+    /** Current kernel. */
+    private Kernel kernel;
+    /** Current pass source. */
+    private int[] source;
+    /** Intermediate pixels. */
+    private int[] transposed = new int[0];
+    /** Filtered pixels. */
+    private int[] filtered = new int[0];
+    /** Current width. */
+    private int width;
+    /** Current height. */
+    private int height;
+    /** Current alpha flag. */
+    private boolean currentAlpha;
+    /** Current edge mode. */
+    private int currentEdge;
 
     /**
      * Create the filter.
      */
     public FilterBlur()
     {
+        super();
+
         radius = RADIUS_DEFAULT;
         alpha = true;
         edge = CLAMP_EDGES;
@@ -86,34 +103,52 @@ public class FilterBlur implements Filter
     }
 
     /*
-     * Filter
+     * FilterBase
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public int getScale()
     {
-        final int width = source.getWidth();
-        final int height = source.getHeight();
+        return 1;
+    }
 
-        final int[] inPixels = new int[width * height];
-        final int[] outPixels = new int[width * height];
-        source.getRgb(0, 0, width, height, inPixels, 0, width);
+    @Override
+    protected int[] compute(int[] source, int width, int height)
+    {
+        if (filtered.length != width * height)
+        {
+            transposed = new int[width * height];
+            filtered = new int[width * height];
+        }
+        final float currentRadius = radius;
+        if (kernel == null || Float.compare(kernel.getRadius(), currentRadius) != 0)
+        {
+            kernel = createKernel(currentRadius);
+        }
+        this.source = source;
+        this.width = width;
+        this.height = height;
+        currentAlpha = alpha;
+        currentEdge = edge;
 
-        final Kernel kernel = createKernel(radius, width, height);
-        compute(kernel, inPixels, outPixels, width, height, alpha, edge);
-        compute(kernel, outPixels, inPixels, height, width, alpha, edge);
+        computeBands(0, height);
+        computeBands(1, width);
 
-        final ImageBuffer dest = Graphics.createImageBuffer(width, height, source.getTransparentColor());
-        dest.setRgb(0, 0, width, height, inPixels, 0, width);
-        return dest;
+        this.source = null;
+        return filtered;
     }
 
     @Override
-    public Transform getTransform(double scaleX, double scaleY)
+    protected void computeBand(int pass, int start, int end)
     {
-        final Transform transform = Graphics.createTransform();
-        transform.scale(scaleX, scaleY);
-        return transform;
+        if (pass == 0)
+        {
+            compute(kernel, source, transposed, width, height, currentAlpha, currentEdge, start, end);
+        }
+        else
+        {
+            compute(kernel, transposed, filtered, height, width, currentAlpha, currentEdge, start, end);
+        }
     }
 
     /**
@@ -126,56 +161,82 @@ public class FilterBlur implements Filter
      * @param height The image height.
      * @param alpha The alpha flag.
      * @param edge The edge flag.
+     * @param start The first row (included).
+     * @param end The last row (excluded).
      */
-    private static void compute(Kernel kernel, int[] in, int[] out, int width, int height, boolean alpha, int edge)
+    private static void compute(Kernel kernel,
+                                int[] in,
+                                int[] out,
+                                int width,
+                                int height,
+                                boolean alpha,
+                                int edge,
+                                int start,
+                                int end)
     {
-        final float[] matrix = kernel.getMatrix();
-        final int cols = kernel.getWidth();
-        final int cols2 = cols / 2;
-
-        for (int y = 0; y < height; y++)
+        for (int y = start; y < end; y++)
         {
             int index = y;
             final int ioffset = y * width;
             for (int x = 0; x < width; x++)
             {
-                float r = 0;
-                float g = 0;
-                float b = 0;
-                float a = 0;
-
-                final int moffset = cols2;
-                for (int col = -cols2; col <= cols2; col++)
-                {
-                    final float f = matrix[moffset + col];
-                    if (Double.doubleToRawLongBits(f) != 0L)
-                    {
-                        final int ix = checkEdge(width, x, col, edge);
-                        final int rgb = in[ioffset + ix];
-                        a += f * (rgb >> Constant.BYTE_4 & 0xff);
-                        r += f * (rgb >> Constant.BYTE_3 & 0xff);
-                        g += f * (rgb >> Constant.BYTE_2 & 0xff);
-                        b += f * (rgb & 0xff);
-                    }
-                }
-                final int ia;
-                if (alpha)
-                {
-                    ia = clamp((int) (a + Constant.HALF));
-                }
-                else
-                {
-                    ia = 0xff;
-                }
-                final int ir = clamp((int) (r + 0.5));
-                final int ig = clamp((int) (g + 0.5));
-                final int ib = clamp((int) (b + 0.5));
-                out[index] = ia << Constant.BYTE_4 | ir << Constant.BYTE_3 | ig << Constant.BYTE_2 | ib;
+                out[index] = computePixel(kernel, in, ioffset, width, x, alpha, edge);
                 index += height;
             }
         }
     }
 
+    /**
+     * Compute blur of a pixel.
+     * 
+     * @param kernel The kernel used.
+     * @param in The source pixels.
+     * @param ioffset The row offset in source pixels.
+     * @param width The image width.
+     * @param x The current horizontal pixel.
+     * @param alpha The alpha flag.
+     * @param edge The edge flag.
+     * @return The blurred pixel.
+     */
+    private static int computePixel(Kernel kernel, int[] in, int ioffset, int width, int x, boolean alpha, int edge)
+    {
+        final float[] matrix = kernel.getMatrix();
+        final int cols2 = kernel.getWidth() / 2;
+
+        float r = 0;
+        float g = 0;
+        float b = 0;
+        float a = 0;
+
+        final int moffset = cols2;
+        for (int col = -cols2; col <= cols2; col++)
+        {
+            final float f = matrix[moffset + col];
+            if (Double.doubleToRawLongBits(f) != 0L)
+            {
+                final int ix = checkEdge(width, x, col, edge);
+                final int rgb = in[ioffset + ix];
+                a += f * (rgb >> Constant.BYTE_4 & 0xff);
+                r += f * (rgb >> Constant.BYTE_3 & 0xff);
+                g += f * (rgb >> Constant.BYTE_2 & 0xff);
+                b += f * (rgb & 0xff);
+            }
+        }
+        final int ia;
+        if (alpha)
+        {
+            ia = clamp((int) (a + Constant.HALF));
+        }
+        else
+        {
+            ia = 0xff;
+        }
+        final int ir = clamp((int) (r + 0.5));
+        final int ig = clamp((int) (g + 0.5));
+        final int ib = clamp((int) (b + 0.5));
+        return ia << Constant.BYTE_4 | ir << Constant.BYTE_3 | ig << Constant.BYTE_2 | ib;
+    }
+
     /**
      * Check the edge value.
      * 
@@ -217,11 +278,9 @@ public class FilterBlur implements Filter
      * Create a blur kernel.
      * 
      * @param radius The blur radius.
-     * @param width The image width.
-     * @param height The image height.
      * @return The blur kernel.
      */
-    private static Kernel createKernel(float radius, int width, int height)
+    private static Kernel createKernel(float radius)
     {
         final int r = (int) Math.ceil(radius);
         final int rows = r * 2 + 1;
@@ -255,10 +314,7 @@ public class FilterBlur implements Filter
             }
         }
 
-        final float[] data = new float[width * height];
-        System.arraycopy(matrix, 0, data, 0, rows);
-
-        return new Kernel(rows, data);
+        return new Kernel(radius, rows, matrix);
     }
 
     /**
@@ -277,6 +333,8 @@ public class FilterBlur implements Filter
      */
     private static class Kernel
     {
+        /** Kernel radius. */
+        private final float radius;
         /** Kernel width. */
         private final int width;
         /** Kernel matrix. */
@@ -285,15 +343,27 @@ public class FilterBlur implements Filter
         /**
          * Create the kernel.
          * 
+         * @param radius The kernel radius.
          * @param width The kernel width.
          * @param matrix The kernel matrix.
          */
-        Kernel(int width, float[] matrix)
+        Kernel(float radius, int width, float[] matrix)
         {
+            this.radius = radius;
             this.width = width;
             this.matrix = matrix;
         }
 
+        /**
+         * Get the kernel radius.
+         * 
+         * @return The kernel radius.
+         */
+        public float getRadius()
+        {
+            return radius;
+        }
+
         /**
          * Get the matrix width.
          * 
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.filter;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Chain of filters, applied in order on raw pixels, without intermediate images. Scale factor is the product of the
+ * filters scale factors.
+ * <p>
+ * Example, blur after hq2x:
+ * </p>
+ * 
+ * <pre>
+ * sequence.setFilter(new FilterChain(new FilterHq2x(), new FilterBlur()));
+ * </pre>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ */
+public class FilterChain extends FilterBase
+{
+    /** Chained filters. */
+    private final FilterBase[] filters;
+    /** Scale factor. */
+    private final int scale;
+
+    /**
+     * Create the filters chain.
+     * 
+     * @param filters The filters to apply in order (must not be empty, a filter must not be added more than once).
+     * @throws LionEngineException If invalid arguments.
+     */
+    public FilterChain(FilterBase... filters)
+    {
+        super();
+
+        Check.notNull(filters);
+        Check.superiorStrict(filters.length, 0);
+
+        this.filters = filters.clone();
+        int product = 1;
+        for (final FilterBase filter : this.filters)
+        {
+            Check.notNull(filter);
+            product *= filter.getScale();
+        }
+        scale = product;
+    }
+
+    /*
+     * FilterBase
+     */
+
+    @Override
+    public int getScale()
+    {
+        return scale;
+    }
+
+    @Override
+    protected int[] compute(int[] source, int width, int height)
+    {
+        int[] pixels = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        for (final FilterBase filter : filters)
+        {
+            pixels = filter.filter(pixels, currentWidth, currentHeight);
+            currentWidth *= filter.getScale();
+            currentHeight *= filter.getScale();
+        }
+        return pixels;
+    }
+}
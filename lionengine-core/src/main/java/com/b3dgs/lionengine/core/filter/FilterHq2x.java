@@ -17,22 +17,24 @@
  */
 package com.b3dgs.lionengine.core.filter;
 
-import com.b3dgs.lionengine.graphic.Filter;
-import com.b3dgs.lionengine.graphic.Graphics;
-import com.b3dgs.lionengine.graphic.ImageBuffer;
-import com.b3dgs.lionengine.graphic.Transform;
-
 /**
- * HQ2X implementation.
+ * HQ2X implementation. Source rows are split in bands.
  * <p>
  * This class is Thread-Safe.
  * </p>
  */
-public final class FilterHq2x implements Filter
+public final class FilterHq2x extends FilterBase
 {
     /** Scale factor. */
     public static final int SCALE = 2;
 
+    /** Current scaler. */
+    private RawScale2x scaler;
+    /** Current pass source. */
+    private int[] source;
+    /** Filtered pixels. */
+    private int[] filtered = new int[0];
+
     /**
      * Create an Hq2x filter.
      */
@@ -42,33 +44,35 @@ public final class FilterHq2x implements Filter
     }
 
     /*
-     * Filter
+     * FilterBase
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public int getScale()
+    {
+        return SCALE;
+    }
+
+    @Override
+    protected int[] compute(int[] source, int width, int height)
     {
-        final int width = source.getWidth();
-        final int height = source.getHeight();
-        final int[] srcData = new int[width * height];
-        source.getRgb(0, 0, width, height, srcData, 0, width);
-
-        final RawScale2x scaler = new RawScale2x(width, height);
-        final ImageBuffer image = Graphics.createImageBuffer(width
-                                                             * SCALE,
-                                                             height * SCALE,
-                                                             source.getTransparentColor());
-        image.setRgb(0, 0, width * SCALE, height * SCALE, scaler.getScaledData(srcData), 0, width * SCALE);
-
-        return image;
+        if (scaler == null || scaler.width != width || scaler.height != height)
+        {
+            scaler = new RawScale2x(width, height);
+            filtered = new int[width * height * SCALE * SCALE];
+        }
+        this.source = source;
+
+        computeBands(0, height);
+
+        this.source = null;
+        return filtered;
     }
 
     @Override
-    public Transform getTransform(double scaleX, double scaleY)
+    protected void computeBand(int pass, int start, int end)
     {
-        final Transform transform = Graphics.createTransform();
-        transform.scale(scaleX / SCALE, scaleY / SCALE);
-        return transform;
+        scaler.scale(source, filtered, start, end);
     }
 
     /**
@@ -118,24 +122,6 @@ public final class FilterHq2x implements Filter
             dstImage[x + y * width * SCALE] = p;
         }
 
-        /**
-         * Get pixel source.
-         * 
-         * @param srcImage The image source.
-         * @param x The location x.
-         * @param y The location y.
-         * @return The pixel value found.
-         */
-        private int getSourcePixel(int[] srcImage, int x, int y)
-        {
-            int x1 = Math.max(0, x);
-            x1 = Math.min(width - 1, x1);
-            int y1 = Math.max(0, y);
-            y1 = Math.min(height - 1, y1);
-
-            return srcImage[x1 + y1 * width];
-        }
-
         /**
          * Process filter.
          * 
@@ -146,11 +132,17 @@ public final class FilterHq2x implements Filter
          */
         private void process(int[] srcImage, int[] dstImage, int x, int y)
         {
-            final int b = getSourcePixel(srcImage, x, y - 1);
-            final int d = getSourcePixel(srcImage, x - 1, y);
-            final int e = getSourcePixel(srcImage, x, y);
-            final int f = getSourcePixel(srcImage, x + 1, y);
-            final int h = getSourcePixel(srcImage, x, y + 1);
+            final int left = Math.max(0, x - 1);
+            final int right = Math.min(width - 1, x + 1);
+            final int row = y * width;
+            final int up = Math.max(0, y - 1) * width;
+            final int down = Math.min(height - 1, y + 1) * width;
+
+            final int b = srcImage[x + up];
+            final int d = srcImage[left + row];
+            final int e = srcImage[x + row];
+            final int f = srcImage[right + row];
+            final int h = srcImage[x + down];
             int e0 = e;
             int e1 = e;
             int e2 = e;
@@ -170,24 +162,22 @@ public final class FilterHq2x implements Filter
         }
 
         /**
-         * Get the scaled data.
+         * Scale source rows.
          * 
          * @param srcImage The image source.
-         * @return The data array.
+         * @param dstImage The image destination.
+         * @param start The first source row (included).
+         * @param end The last source row (excluded).
          */
-        public int[] getScaledData(int[] srcImage)
+        public void scale(int[] srcImage, int[] dstImage, int start, int end)
         {
-            final int[] dstImage = new int[srcImage.length * SCALE * SCALE];
-
-            for (int y = 0; y < height; y++)
+            for (int y = start; y < end; y++)
             {
                 for (int x = 0; x < width; x++)
                 {
                     process(srcImage, dstImage, x, y);
                 }
             }
-
-            return dstImage;
         }
     }
 }
@@ -17,22 +17,24 @@
  */
 package com.b3dgs.lionengine.core.filter;
 
-import com.b3dgs.lionengine.graphic.Filter;
-import com.b3dgs.lionengine.graphic.Graphics;
-import com.b3dgs.lionengine.graphic.ImageBuffer;
-import com.b3dgs.lionengine.graphic.Transform;
-
 /**
- * HQ3X implementation.
+ * HQ3X implementation. Source rows are split in bands.
  * <p>
  * This class is Thread-Safe.
  * </p>
  */
-public final class FilterHq3x implements Filter
+public final class FilterHq3x extends FilterBase
 {
     /** Scale factor. */
     public static final int SCALE = 3;
 
+    /** Current scaler. */
+    private RawScale3x scaler;
+    /** Current pass source. */
+    private int[] source;
+    /** Filtered pixels. */
+    private int[] filtered = new int[0];
+
     /**
      * Create an Hq3x filter.
      */
@@ -42,32 +44,35 @@ public final class FilterHq3x implements Filter
     }
 
     /*
-     * Filter
+     * FilterBase
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public int getScale()
+    {
+        return SCALE;
+    }
+
+    @Override
+    protected int[] compute(int[] source, int width, int height)
     {
-        final int width = source.getWidth();
-        final int height = source.getHeight();
-        final int[] srcData = new int[width * height];
-        source.getRgb(0, 0, width, height, srcData, 0, width);
+        if (scaler == null || scaler.width != width || scaler.height != height)
+        {
+            scaler = new RawScale3x(width, height);
+            filtered = new int[width * height * SCALE * SCALE];
+        }
+        this.source = source;
+
+        computeBands(0, height);
 
-        final RawScale3x scaler = new RawScale3x(width, height);
-        final ImageBuffer image = Graphics.createImageBuffer(width
-                                                             * SCALE,
-                                                             height * SCALE,
-                                                             source.getTransparentColor());
-        image.setRgb(0, 0, width * SCALE, height * SCALE, scaler.getScaledData(srcData), 0, width * SCALE);
-        return image;
+        this.source = null;
+        return filtered;
     }
 
     @Override
-    public Transform getTransform(double scaleX, double scaleY)
+    protected void computeBand(int pass, int start, int end)
     {
-        final Transform transform = Graphics.createTransform();
-        transform.scale(scaleX / SCALE, scaleY / SCALE);
-        return transform;
+        scaler.scale(source, filtered, start, end);
     }
 
     /**
@@ -269,24 +274,6 @@ public final class FilterHq3x implements Filter
             dstImage[x + y * width * SCALE] = p;
         }
 
-        /**
-         * Get pixel source.
-         * 
-         * @param srcImage The image source.
-         * @param x The location x.
-         * @param y The location y.
-         * @return The pixel value found.
-         */
-        private int getSourcePixel(int[] srcImage, int x, int y)
-        {
-            int x1 = Math.max(0, x);
-            x1 = Math.min(width - 1, x1);
-            int y1 = Math.max(0, y);
-            y1 = Math.min(height - 1, y1);
-
-            return srcImage[x1 + y1 * width];
-        }
-
         /**
          * Process filter.
          * 
@@ -297,15 +284,21 @@ public final class FilterHq3x implements Filter
          */
         private void process(int[] srcImage, int[] dstImage, int x, int y)
         {
-            final int a = getSourcePixel(srcImage, x - 1, y - 1);
-            final int b = getSourcePixel(srcImage, x, y - 1);
-            final int c = getSourcePixel(srcImage, x + 1, y - 1);
-            final int d = getSourcePixel(srcImage, x - 1, y);
-            final int e = getSourcePixel(srcImage, x, y);
-            final int f = getSourcePixel(srcImage, x + 1, y);
-            final int g = getSourcePixel(srcImage, x - 1, y + 1);
-            final int h = getSourcePixel(srcImage, x, y + 1);
-            final int i = getSourcePixel(srcImage, x + 1, y + 1);
+            final int left = Math.max(0, x - 1);
+            final int right = Math.min(width - 1, x + 1);
+            final int row = y * width;
+            final int up = Math.max(0, y - 1) * width;
+            final int down = Math.min(height - 1, y + 1) * width;
+
+            final int a = srcImage[left + up];
+            final int b = srcImage[x + up];
+            final int c = srcImage[right + up];
+            final int d = srcImage[left + row];
+            final int e = srcImage[x + row];
+            final int f = srcImage[right + row];
+            final int g = srcImage[left + down];
+            final int h = srcImage[x + down];
+            final int i = srcImage[right + down];
             int e0 = e;
             int e1 = e;
             int e2 = e;
@@ -341,24 +334,22 @@ public final class FilterHq3x implements Filter
         }
 
         /**
-         * Get the scaled data.
+         * Scale source rows.
          * 
-         * @param srcImage The image source
-         * @return The data array.
+         * @param srcImage The image source.
+         * @param dstImage The image destination.
+         * @param start The first source row (included).
+         * @param end The last source row (excluded).
          */
-        public int[] getScaledData(int[] srcImage)
+        public void scale(int[] srcImage, int[] dstImage, int start, int end)
         {
-            final int[] dstImage = new int[srcImage.length * SCALE * SCALE];
-
-            for (int y = 0; y < height; y++)
+            for (int y = start; y < end; y++)
             {
                 for (int x = 0; x < width; x++)
                 {
                     process(srcImage, dstImage, x, y);
                 }
             }
-
-            return dstImage;
         }
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.Version;
+import com.b3dgs.lionengine.audio.AudioFactory;
+import com.b3dgs.lionengine.core.Engine;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.util.UtilFolder;
+
+/**
+ * Engine headless implementation, for servers, simulations and benchmarks.
+ * 
+ * @see FactoryGraphicHeadless
+ */
+public class EngineHeadless extends Engine
+{
+    /**
+     * Start engine. Has to be called before anything and only one time, in the main.
+     * 
+     * @param name The program name (must not be <code>null</code>).
+     * @param version The program version (must not be <code>null</code>).
+     * @throws LionEngineException If arguments error.
+     */
+    public static void start(String name, Version version)
+    {
+        Engine.start(new EngineHeadless(name, version, Constant.EMPTY_STRING, true));
+    }
+
+    /**
+     * Start engine. Has to be called before anything and only one time, in the main.
+     * 
+     * @param name The program name (must not be <code>null</code>).
+     * @param version The program version (must not be <code>null</code>).
+     * @param resourcesDir The main resources directory (can be <code>null</code>).
+     * @throws LionEngineException If arguments error.
+     */
+    public static void start(String name, Version version, String resourcesDir)
+    {
+        Engine.start(new EngineHeadless(name, version, resourcesDir, true));
+    }
+
+    /**
+     * Start engine. Has to be called before anything and only one time, in the main.
+     * 
+     * @param name The program name (must not be <code>null</code>).
+     * @param version The program version (must not be <code>null</code>).
+     * @param classResource The class loader reference (resources entry point, non <code>null</code>).
+     * @throws LionEngineException If arguments error.
+     */
+    public static void start(String name, Version version, Class<?> classResource)
+    {
+        Engine.start(new EngineHeadless(name, version, classResource, true));
+    }
+
+    /** String resources directory. */
+    private final String resourcesDir;
+    /** Class resource. */
+    private final Class<?> classResource;
+    /** Render flag. */
+    private final boolean render;
+
+    /**
+     * Create engine.
+     * 
+     * @param name The program name (must not be <code>null</code>).
+     * @param version The program version (must not be <code>null</code>).
+     * @param resourcesDir The main resources directory (can be <code>null</code>).
+     * @param render <code>true</code> to render images, <code>false</code> to skip all drawing (null render).
+     * @throws LionEngineException If arguments error.
+     */
+    public EngineHeadless(String name, Version version, String resourcesDir, boolean render)
+    {
+        super(name, version);
+
+        Check.notNull(resourcesDir);
+
+        this.resourcesDir = resourcesDir;
+        this.render = render;
+        classResource = null;
+        Medias.setResourcesDirectory(resourcesDir);
+    }
+
+    /**
+     * Create engine.
+     * 
+     * @param name The program name (must not be <code>null</code>).
+     * @param version The program version (must not be <code>null</code>).
+     * @param classResource The class loader reference (resources entry point, non <code>null</code>).
+     * @param render <code>true</code> to render images, <code>false</code> to skip all drawing (null render).
+     * @throws LionEngineException If arguments error.
+     */
+    public EngineHeadless(String name, Version version, Class<?> classResource, boolean render)
+    {
+        super(name, version);
+
+        Check.notNull(classResource);
+
+        this.classResource = classResource;
+        this.render = render;
+        resourcesDir = null;
+        Medias.setLoadFromJar(classResource);
+    }
+
+    /*
+     * Engine
+     */
+
+    @Override
+    protected void open()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicHeadless(render));
+        if (resourcesDir != null)
+        {
+            final String workingDir = Constant.getSystemProperty("user.dir", Constant.EMPTY_STRING);
+            Verbose.info("Resources directory = ", UtilFolder.getPath(workingDir, resourcesDir));
+        }
+        else if (classResource != null)
+        {
+            Verbose.info("Class resources = ", classResource.getName());
+        }
+    }
+
+    @Override
+    protected void close()
+    {
+        Medias.setResourcesDirectory(null);
+        Medias.setLoadFromJar(null);
+        Graphics.setFactoryGraphic(null);
+        AudioFactory.clearFormats();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Config;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.geom.Rectangle;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.FactoryGraphic;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.ImageHeader;
+import com.b3dgs.lionengine.graphic.ImageInfo;
+import com.b3dgs.lionengine.graphic.Screen;
+import com.b3dgs.lionengine.graphic.Text;
+import com.b3dgs.lionengine.graphic.TextStyle;
+import com.b3dgs.lionengine.graphic.Transform;
+import com.b3dgs.lionengine.graphic.Transparency;
+
+/**
+ * Graphic factory headless implementation, without any display dependency. Images are <code>int[]</code> pixels
+ * arrays, rendered by software, or not rendered at all if created with rendering disabled.
+ * <p>
+ * Image files are not decoded: {@link #getImageBuffer(Media)} only reads the image header, and returns a transparent
+ * image of the same size. Images cannot be saved.
+ * </p>
+ */
+public final class FactoryGraphicHeadless implements FactoryGraphic
+{
+    /** Render flag. */
+    private final boolean render;
+
+    /**
+     * Create factory, with rendering.
+     */
+    public FactoryGraphicHeadless()
+    {
+        this(true);
+    }
+
+    /**
+     * Create factory.
+     * 
+     * @param render <code>true</code> to render images, <code>false</code> to skip all drawing (null render).
+     */
+    public FactoryGraphicHeadless(boolean render)
+    {
+        super();
+
+        this.render = render;
+    }
+
+    /**
+     * Create an image with the same transparency as source.
+     * 
+     * @param image The source image.
+     * @param width The image width.
+     * @param height The image height.
+     * @return The created image.
+     * @throws LionEngineException If invalid size.
+     */
+    private ImageBufferHeadless create(ImageBuffer image, int width, int height)
+    {
+        return new ImageBufferHeadless(width, height, image.getTransparency(), render);
+    }
+
+    /*
+     * FactoryGraphic
+     */
+
+    @Override
+    public Screen createScreen(Config config)
+    {
+        return new ScreenHeadless(config, render);
+    }
+
+    @Override
+    public Graphic createGraphic()
+    {
+        return new GraphicHeadless();
+    }
+
+    @Override
+    public Transform createTransform()
+    {
+        return new TransformHeadless();
+    }
+
+    @Override
+    public Text createText(String fontName, int size, TextStyle style)
+    {
+        return new TextHeadless(size);
+    }
+
+    @Override
+    public ImageBuffer createImageBuffer(int width, int height)
+    {
+        final ImageBufferHeadless buffer = new ImageBufferHeadless(width, height, Transparency.OPAQUE, render);
+        buffer.fill(ColorRgba.BLACK);
+        return buffer;
+    }
+
+    @Override
+    public ImageBuffer createImageBuffer(int width, int height, ColorRgba transparency)
+    {
+        final ImageBufferHeadless buffer = new ImageBufferHeadless(width, height, Transparency.BITMASK, render);
+        buffer.fill(transparency);
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Image content is not decoded, the returned image is transparent, with the size read from the image header.
+     * </p>
+     */
+    @Override
+    public ImageBuffer getImageBuffer(Media media)
+    {
+        Check.notNull(media);
+
+        final ImageHeader header = ImageInfo.get(media);
+        return new ImageBufferHeadless(header.getWidth(), header.getHeight(), Transparency.BITMASK, render);
+    }
+
+    @Override
+    public ImageBuffer getImageBuffer(ImageBuffer image)
+    {
+        final ImageBufferHeadless copy = create(image, image.getWidth(), image.getHeight());
+        ToolsHeadless.remap(image, copy, 0, 0, image.getWidth(), image.getHeight());
+        return copy;
+    }
+
+    @Override
+    public ImageBuffer applyMask(ImageBuffer image, ColorRgba maskColor)
+    {
+        final ImageBufferHeadless mask = new ImageBufferHeadless(image.getWidth(),
+                                                                 image.getHeight(),
+                                                                 Transparency.BITMASK,
+                                                                 render);
+        ToolsHeadless.applyMask(image, maskColor.getRgba(), mask);
+        return mask;
+    }
+
+    @Override
+    public ImageBuffer[] splitImage(ImageBuffer image, int h, int v)
+    {
+        final int width = image.getWidth() / h;
+        final int height = image.getHeight() / v;
+        final ImageBuffer[] images = new ImageBuffer[h * v];
+        int frame = 0;
+        for (int y = 0; y < v; y++)
+        {
+            for (int x = 0; x < h; x++)
+            {
+                final ImageBufferHeadless split = create(image, width, height);
+                ToolsHeadless.remap(image, split, x * width, y * height, (x + 1) * width, (y + 1) * height);
+                images[frame] = split;
+                frame++;
+            }
+        }
+        return images;
+    }
+
+    @Override
+    public ImageBuffer rotate(ImageBuffer image, int angle)
+    {
+        final Rectangle area = new Rectangle(0, 0, image.getWidth(), image.getHeight()).rotate(angle);
+        final ImageBufferHeadless rotated = new ImageBufferHeadless(area.getWidth(),
+                                                                    area.getHeight(),
+                                                                    Transparency.BITMASK,
+                                                                    render);
+        ToolsHeadless.rotate(image, angle, rotated);
+        return rotated;
+    }
+
+    @Override
+    public ImageBuffer resize(ImageBuffer image, int width, int height)
+    {
+        final ImageBufferHeadless resized = create(image, width, height);
+        ToolsHeadless.remap(image, resized, 0, 0, image.getWidth(), image.getHeight());
+        return resized;
+    }
+
+    @Override
+    public ImageBuffer flipHorizontal(ImageBuffer image)
+    {
+        final ImageBufferHeadless flipped = create(image, image.getWidth(), image.getHeight());
+        ToolsHeadless.remap(image, flipped, image.getWidth(), 0, 0, image.getHeight());
+        return flipped;
+    }
+
+    @Override
+    public ImageBuffer flipVertical(ImageBuffer image)
+    {
+        final ImageBufferHeadless flipped = create(image, image.getWidth(), image.getHeight());
+        ToolsHeadless.remap(image, flipped, 0, image.getHeight(), image.getWidth(), 0);
+        return flipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Not supported, nothing is saved.
+     * </p>
+     */
+    @Override
+    public void saveImage(ImageBuffer image, Media media)
+    {
+        Check.notNull(media);
+    }
+
+    @Override
+    public ImageBuffer getRasterBuffer(ImageBuffer image, int fr, int fg, int fb, int er, int eg, int eb, int ref)
+    {
+        final ImageBufferHeadless raster = create(image, image.getWidth(), image.getHeight());
+        ToolsHeadless.getRasterBuffer(image, fr, fg, fb, er, eg, eb, ref, raster);
+        return raster;
+    }
+}
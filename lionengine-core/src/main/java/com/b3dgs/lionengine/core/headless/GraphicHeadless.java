@@ -0,0 +1,495 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.Viewer;
+import com.b3dgs.lionengine.graphic.ColorGradient;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Transform;
+import com.b3dgs.lionengine.util.UtilConversion;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Graphic headless implementation, drawing by software in an {@link ImageBufferHeadless}.
+ * <p>
+ * Images are blended with their alpha and scaled with nearest neighbor. Without target image, nothing is drawn.
+ * </p>
+ */
+final class GraphicHeadless implements Graphic
+{
+    /** Maximum channel value. */
+    private static final int CHANNEL_MAX = 255;
+    /** Clear color. */
+    private static final int CLEAR = ColorRgba.BLACK.getRgba();
+
+    /**
+     * Get a color channel.
+     * 
+     * @param color The color value.
+     * @param shift The channel shift.
+     * @return The channel value.
+     */
+    private static int channel(int color, int shift)
+    {
+        return UtilConversion.mask(color >> shift);
+    }
+
+    /**
+     * Blend source color over destination color.
+     * 
+     * @param destination The destination color.
+     * @param source The source color.
+     * @return The blended color.
+     */
+    private static int blend(int destination, int source)
+    {
+        final int alpha = channel(source, Constant.BYTE_4);
+        final int color;
+        if (alpha == CHANNEL_MAX)
+        {
+            color = source;
+        }
+        else if (alpha == 0)
+        {
+            color = destination;
+        }
+        else
+        {
+            final int inverse = CHANNEL_MAX - alpha;
+            final int a = alpha + channel(destination, Constant.BYTE_4) * inverse / CHANNEL_MAX;
+            final int r = (channel(source, Constant.BYTE_3) * alpha + channel(destination, Constant.BYTE_3) * inverse)
+                          / CHANNEL_MAX;
+            final int g = (channel(source, Constant.BYTE_2) * alpha + channel(destination, Constant.BYTE_2) * inverse)
+                          / CHANNEL_MAX;
+            final int b = (channel(source, Constant.BYTE_1) * alpha + channel(destination, Constant.BYTE_1) * inverse)
+                          / CHANNEL_MAX;
+            color = a << Constant.BYTE_4 | r << Constant.BYTE_3 | g << Constant.BYTE_2 | b;
+        }
+        return color;
+    }
+
+    /**
+     * Blend a color on a pixels range.
+     * 
+     * @param pixels The pixels.
+     * @param start The first index.
+     * @param end The last index (excluded).
+     * @param rgba The color value.
+     */
+    private static void blend(int[] pixels, int start, int end, int rgba)
+    {
+        for (int i = start; i < end; i++)
+        {
+            pixels[i] = blend(pixels[i], rgba);
+        }
+    }
+
+    /**
+     * Interpolate between two colors.
+     * 
+     * @param first The first color.
+     * @param second The second color.
+     * @param ratio The second color ratio in <code>[0, 1]</code>.
+     * @return The interpolated color.
+     */
+    private static int mix(int first, int second, double ratio)
+    {
+        return mix(first, second, ratio, Constant.BYTE_4)
+               | mix(first, second, ratio, Constant.BYTE_3)
+               | mix(first, second, ratio, Constant.BYTE_2)
+               | mix(first, second, ratio, Constant.BYTE_1);
+    }
+
+    /**
+     * Interpolate a channel between two colors.
+     * 
+     * @param first The first color.
+     * @param second The second color.
+     * @param ratio The second color ratio in <code>[0, 1]</code>.
+     * @param shift The channel shift.
+     * @return The interpolated channel, at its location.
+     */
+    private static int mix(int first, int second, double ratio, int shift)
+    {
+        final int value = channel(first, shift);
+        return (value + (int) Math.round((channel(second, shift) - value) * ratio)) << shift;
+    }
+
+    /** Target image, <code>null</code> if none. */
+    private ImageBufferHeadless target;
+    /** Current color. */
+    private ColorRgba color = ColorRgba.WHITE;
+    /** Current gradient. */
+    private ColorGradient gradient;
+
+    /**
+     * Create a graphic without target.
+     */
+    GraphicHeadless()
+    {
+        super();
+    }
+
+    /**
+     * Fill a clipped area with a color, blended if not opaque.
+     * 
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param width The area width.
+     * @param height The area height.
+     * @param rgba The color value.
+     */
+    private void fill(int x, int y, int width, int height, int rgba)
+    {
+        final int tw = target.getWidth();
+        final int[] pixels = target.getPixels();
+        final int minX = Math.max(0, x);
+        final int maxX = Math.min(tw, x + width);
+        final int maxY = Math.min(target.getHeight(), y + height);
+        final boolean opaque = channel(rgba, Constant.BYTE_4) == CHANNEL_MAX;
+        for (int py = Math.max(0, y); py < maxY && minX < maxX; py++)
+        {
+            final int offset = py * tw;
+            if (opaque)
+            {
+                Arrays.fill(pixels, offset + minX, offset + maxX, rgba);
+            }
+            else
+            {
+                blend(pixels, offset + minX, offset + maxX, rgba);
+            }
+        }
+    }
+
+    /**
+     * Draw a pixel if inside target.
+     * 
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param rgba The color value.
+     */
+    private void plot(int x, int y, int rgba)
+    {
+        final int tw = target.getWidth();
+        if (x >= 0 && y >= 0 && x < tw && y < target.getHeight())
+        {
+            final int[] pixels = target.getPixels();
+            pixels[x + y * tw] = blend(pixels[x + y * tw], rgba);
+        }
+    }
+
+    /**
+     * Get the source pixels, copied if they are the target ones.
+     * 
+     * @param image The source image.
+     * @return The source pixels.
+     */
+    private int[] getPixels(ImageSurface image)
+    {
+        final int[] pixels = image.getSurface();
+        if (pixels == target.getPixels())
+        {
+            return pixels.clone();
+        }
+        return pixels;
+    }
+
+    /*
+     * Graphic
+     */
+
+    @Override
+    public void clear(int x, int y, int width, int height)
+    {
+        if (target != null)
+        {
+            fill(x, y, width, height, CLEAR);
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy)
+    {
+        if (target != null)
+        {
+            final int tw = target.getWidth();
+            final int th = target.getHeight();
+            final int[] pixels = target.getPixels();
+            final int[] source = pixels.clone();
+            final int minX = Math.max(Math.max(0, x), -dx);
+            final int maxX = Math.min(Math.min(tw, x + width), tw - dx);
+            final int maxY = Math.min(Math.min(th, y + height), th - dy);
+            for (int py = Math.max(Math.max(0, y), -dy); py < maxY && minX < maxX; py++)
+            {
+                System.arraycopy(source, minX + py * tw, pixels, minX + dx + (py + dy) * tw, maxX - minX);
+            }
+        }
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, int x, int y)
+    {
+        if (target != null)
+        {
+            final int sw = image.getWidth();
+            final int tw = target.getWidth();
+            final int[] source = getPixels(image);
+            final int[] pixels = target.getPixels();
+            final int minX = Math.max(0, x);
+            final int maxX = Math.min(tw, x + sw);
+            final int maxY = Math.min(target.getHeight(), y + image.getHeight());
+            for (int py = Math.max(0, y); py < maxY; py++)
+            {
+                final int sourceOffset = (py - y) * sw - x;
+                final int offset = py * tw;
+                for (int px = minX; px < maxX; px++)
+                {
+                    pixels[offset + px] = blend(pixels[offset + px], source[sourceOffset + px]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, Transform transform, int x, int y)
+    {
+        final int width = (int) (image.getWidth() * transform.getScaleX());
+        final int height = (int) (image.getHeight() * transform.getScaleY());
+        drawImage(image, x, y, x + width, y + height, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2)
+    {
+        if (target != null && dx1 != dx2 && dy1 != dy2)
+        {
+            final int sw = image.getWidth();
+            final int sh = image.getHeight();
+            final int tw = target.getWidth();
+            final int[] source = getPixels(image);
+            final int[] pixels = target.getPixels();
+            final int minX = Math.max(0, Math.min(dx1, dx2));
+            final int maxX = Math.min(tw, Math.max(dx1, dx2));
+            final int maxY = Math.min(target.getHeight(), Math.max(dy1, dy2));
+            for (int py = Math.max(0, Math.min(dy1, dy2)); py < maxY; py++)
+            {
+                final int sy = ToolsHeadless.getSource(py, dy1, dy2, sy1, sy2);
+                for (int px = minX; px < maxX && sy >= 0 && sy < sh; px++)
+                {
+                    final int sx = ToolsHeadless.getSource(px, dx1, dx2, sx1, sx2);
+                    if (sx >= 0 && sx < sw)
+                    {
+                        pixels[px + py * tw] = blend(pixels[px + py * tw], source[sx + sy * sw]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height, boolean fill)
+    {
+        if (target != null && fill)
+        {
+            fill(x, y, width, height, color.getRgba());
+        }
+        else if (target != null)
+        {
+            final int rgba = color.getRgba();
+            fill(x, y, width + 1, 1, rgba);
+            fill(x, y + height, width + 1, 1, rgba);
+            fill(x, y + 1, 1, height - 1, rgba);
+            fill(x + width, y + 1, 1, height - 1, rgba);
+        }
+    }
+
+    @Override
+    public void drawRect(Viewer viewer, Origin origin, double x, double y, int width, int height, boolean fill)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawRect(px, py, width, height, fill);
+    }
+
+    @Override
+    public void drawGradient(int x, int y, int width, int height)
+    {
+        if (target != null && gradient != null)
+        {
+            final int gx = gradient.getX2() - gradient.getX1();
+            final int gy = gradient.getY2() - gradient.getY1();
+            final double length = Math.max(1.0, gx * (double) gx + gy * (double) gy);
+            final int first = gradient.getColor1().getRgba();
+            final int second = gradient.getColor2().getRgba();
+            final int maxX = x + width;
+            final int maxY = y + height;
+            for (int py = y; py < maxY; py++)
+            {
+                for (int px = x; px < maxX; px++)
+                {
+                    final double dot = (px - gradient.getX1()) * (double) gx + (py - gradient.getY1()) * (double) gy;
+                    plot(px, py, mix(first, second, UtilMath.clamp(dot / length, 0.0, 1.0)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void drawGradient(Viewer viewer, Origin origin, double x, double y, int width, int height)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawGradient(px, py, width, height);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2)
+    {
+        if (target != null)
+        {
+            final int rgba = color.getRgba();
+            final int dx = Math.abs(x2 - x1);
+            final int dy = -Math.abs(y2 - y1);
+            final int stepX = Integer.signum(x2 - x1);
+            final int stepY = Integer.signum(y2 - y1);
+            int error = dx + dy;
+            int x = x1;
+            int y = y1;
+            plot(x, y, rgba);
+            while (x != x2 || y != y2)
+            {
+                final int error2 = 2 * error;
+                if (error2 >= dy)
+                {
+                    error += dy;
+                    x += stepX;
+                }
+                if (error2 <= dx)
+                {
+                    error += dx;
+                    y += stepY;
+                }
+                plot(x, y, rgba);
+            }
+        }
+    }
+
+    @Override
+    public void drawLine(Viewer viewer, double x1, double y1, double x2, double y2)
+    {
+        drawLine((int) viewer.getViewpointX(x1),
+                 (int) viewer.getViewpointY(y1),
+                 (int) viewer.getViewpointX(x2),
+                 (int) viewer.getViewpointY(y2));
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height, boolean fill)
+    {
+        if (target != null && width > 0 && height > 0)
+        {
+            final int rgba = color.getRgba();
+            final double rx = width / 2.0;
+            final double ry = height / 2.0;
+            for (int py = 0; py < height; py++)
+            {
+                final double dy = (py + 0.5 - ry) / ry;
+                final int half = (int) Math.round(rx * Math.sqrt(Math.max(0.0, 1.0 - dy * dy)));
+                final int start = x + (int) Math.round(rx) - half;
+                final int end = x + (int) Math.round(rx) + half;
+                if (fill)
+                {
+                    fill(start, y + py, end - start, 1, rgba);
+                }
+                else
+                {
+                    plot(start, y + py, rgba);
+                    plot(end - 1, y + py, rgba);
+                }
+            }
+            for (int px = 0; px < width && !fill; px++)
+            {
+                final double dx = (px + 0.5 - rx) / rx;
+                final int half = (int) Math.round(ry * Math.sqrt(Math.max(0.0, 1.0 - dx * dx)));
+                plot(x + px, y + (int) Math.round(ry) - half, rgba);
+                plot(x + px, y + (int) Math.round(ry) + half - 1, rgba);
+            }
+        }
+    }
+
+    @Override
+    public void drawOval(Viewer viewer, Origin origin, double x, double y, int width, int height, boolean fill)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawOval(px, py, width, height, fill);
+    }
+
+    @Override
+    public void setColor(ColorRgba color)
+    {
+        this.color = color;
+    }
+
+    @Override
+    public void setColorGradient(ColorGradient gradient)
+    {
+        this.gradient = gradient;
+    }
+
+    @Override
+    public void setGraphic(Object graphic)
+    {
+        if (graphic instanceof ImageBufferHeadless && ((ImageBufferHeadless) graphic).isRendered())
+        {
+            target = (ImageBufferHeadless) graphic;
+        }
+        else if (graphic instanceof GraphicHeadless)
+        {
+            target = ((GraphicHeadless) graphic).target;
+        }
+        else
+        {
+            target = null;
+        }
+    }
+
+    @Override
+    public Object getGraphic()
+    {
+        return target;
+    }
+
+    @Override
+    public ColorRgba getColor()
+    {
+        return color;
+    }
+}
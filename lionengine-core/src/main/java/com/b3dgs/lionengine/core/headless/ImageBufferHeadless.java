@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Transparency;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Image buffer headless implementation, backed by an <code>int[]</code> of ARGB pixels.
+ * <p>
+ * When created without rendering, its {@link Graphic} draws nothing, but pixels can still be read and written.
+ * </p>
+ */
+final class ImageBufferHeadless implements ImageBuffer
+{
+    /** Pixels (ARGB, row by row). */
+    private final int[] pixels;
+    /** Width. */
+    private final int width;
+    /** Height. */
+    private final int height;
+    /** Transparency. */
+    private final Transparency transparency;
+    /** Rendering flag. */
+    private final boolean render;
+
+    /**
+     * Create an image buffer.
+     * 
+     * @param width The image width (must be positive).
+     * @param height The image height (must be positive).
+     * @param transparency The image transparency.
+     * @param render <code>true</code> to draw with its graphic, <code>false</code> to draw nothing.
+     * @throws LionEngineException If invalid size.
+     */
+    ImageBufferHeadless(int width, int height, Transparency transparency, boolean render)
+    {
+        Check.superiorOrEqual(width, 0);
+        Check.superiorOrEqual(height, 0);
+
+        this.width = width;
+        this.height = height;
+        this.transparency = transparency;
+        this.render = render;
+        pixels = new int[width * height];
+    }
+
+    /**
+     * Fill image with color.
+     * 
+     * @param color The fill color.
+     */
+    void fill(ColorRgba color)
+    {
+        Arrays.fill(pixels, color.getRgba());
+    }
+
+    /**
+     * Get the pixels array, shared with the image.
+     * 
+     * @return The pixels array.
+     */
+    int[] getPixels()
+    {
+        return pixels;
+    }
+
+    /**
+     * Check if image is rendered with its graphic.
+     * 
+     * @return <code>true</code> if draws with its graphic, <code>false</code> if draws nothing.
+     */
+    boolean isRendered()
+    {
+        return render;
+    }
+
+    /*
+     * ImageBuffer
+     */
+
+    @Override
+    public void prepare()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public Graphic createGraphic()
+    {
+        final GraphicHeadless graphic = new GraphicHeadless();
+        graphic.setGraphic(this);
+        return graphic;
+    }
+
+    @Override
+    public void dispose()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void setRgb(int x, int y, int rgb)
+    {
+        pixels[x + y * width] = rgb;
+    }
+
+    @Override
+    public void setRgb(int startX, int startY, int w, int h, int[] rgbArray, int offset, int scansize)
+    {
+        for (int y = 0; y < h; y++)
+        {
+            System.arraycopy(rgbArray, offset + y * scansize, pixels, startX + (startY + y) * width, w);
+        }
+    }
+
+    @Override
+    public int getRgb(int x, int y)
+    {
+        final int pixel = pixels[x + y * width];
+        if (UtilConversion.mask(pixel >> Constant.BYTE_4) == 0)
+        {
+            return ColorRgba.TRANSPARENT.getRgba();
+        }
+        return pixel;
+    }
+
+    @Override
+    public int[] getRgb(int startX, int startY, int w, int h, int[] rgbArray, int offset, int scansize)
+    {
+        final int[] rgb;
+        if (rgbArray == null)
+        {
+            rgb = new int[offset + h * scansize];
+        }
+        else
+        {
+            rgb = rgbArray;
+        }
+        for (int y = 0; y < h; y++)
+        {
+            System.arraycopy(pixels, startX + (startY + y) * width, rgb, offset + y * scansize, w);
+        }
+        return rgb;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return width;
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getSurface()
+    {
+        return (T) pixels;
+    }
+
+    @Override
+    public Transparency getTransparency()
+    {
+        return transparency;
+    }
+
+    @Override
+    public ColorRgba getTransparentColor()
+    {
+        return ColorRgba.TRANSPARENT;
+    }
+}
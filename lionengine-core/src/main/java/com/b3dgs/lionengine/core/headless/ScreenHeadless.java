@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import com.b3dgs.lionengine.Config;
+import com.b3dgs.lionengine.InputDeviceKeyListener;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Resolution;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.ScreenBase;
+import com.b3dgs.lionengine.graphic.Transparency;
+
+/**
+ * Screen headless implementation. Rendering is done in an in memory buffer of the output size, without any display
+ * and without any input device.
+ */
+final class ScreenHeadless extends ScreenBase
+{
+    /** Max ready time in millisecond. */
+    private static final long READY_TIMEOUT = 5000L;
+
+    /** Render flag. */
+    private final boolean render;
+    /** Screen buffer. */
+    private volatile ImageBufferHeadless buffer;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param config The config reference.
+     * @param render <code>true</code> to render in buffer, <code>false</code> to skip all drawing.
+     * @throws LionEngineException If <code>null</code> config.
+     */
+    ScreenHeadless(Config config, boolean render)
+    {
+        super(config, READY_TIMEOUT);
+
+        this.render = render;
+    }
+
+    /**
+     * Get the screen buffer.
+     * 
+     * @return The screen buffer, <code>null</code> if not started.
+     */
+    ImageBufferHeadless getBuffer()
+    {
+        return buffer;
+    }
+
+    /*
+     * Screen
+     */
+
+    @Override
+    public void start()
+    {
+        super.start();
+
+        final Resolution output = config.getOutput();
+        final ImageBufferHeadless image = new ImageBufferHeadless(output.getWidth(),
+                                                                  output.getHeight(),
+                                                                  Transparency.OPAQUE,
+                                                                  render);
+        image.fill(ColorRgba.BLACK);
+        graphics.setGraphic(image);
+        buffer = image;
+    }
+
+    @Override
+    public void preUpdate()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void update()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void dispose()
+    {
+        graphics.setGraphic(null);
+        buffer = null;
+    }
+
+    @Override
+    public void requestFocus()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void hideCursor()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void showCursor()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void addKeyListener(InputDeviceKeyListener listener)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void setIcon(String filename)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public int getX()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getY()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean isReady()
+    {
+        return buffer != null;
+    }
+
+    @Override
+    public void onSourceChanged(Resolution source)
+    {
+        // Nothing to do
+    }
+}
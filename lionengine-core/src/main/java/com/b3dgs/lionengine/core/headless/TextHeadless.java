@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import com.b3dgs.lionengine.Align;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Text;
+
+/**
+ * Text headless implementation. There is no font: characters are measured with a fixed width of half the text size,
+ * and text is not drawn.
+ */
+final class TextHeadless implements Text
+{
+    /** Text size. */
+    private final int size;
+    /** Horizontal location. */
+    private int x;
+    /** Vertical location. */
+    private int y;
+    /** Text value. */
+    private String txt;
+    /** Text alignment. */
+    private Align align;
+    /** Text color. */
+    private ColorRgba color;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param size The text size.
+     */
+    TextHeadless(int size)
+    {
+        this.size = size;
+        align = Align.LEFT;
+        color = ColorRgba.WHITE;
+    }
+
+    /**
+     * Get the text color.
+     * 
+     * @return The text color.
+     */
+    ColorRgba getColor()
+    {
+        return color;
+    }
+
+    /**
+     * Get the text alignment.
+     * 
+     * @return The text alignment.
+     */
+    Align getAlign()
+    {
+        return align;
+    }
+
+    /*
+     * Text
+     */
+
+    @Override
+    public void draw(Graphic g, int x, int y, String text)
+    {
+        draw(g, x, y, Align.LEFT, text);
+    }
+
+    @Override
+    public void draw(Graphic g, int x, int y, Align alignment, String text)
+    {
+        // Nothing to draw
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        draw(g, x, y, align, txt);
+    }
+
+    @Override
+    public void setLocation(int x, int y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public void setText(String text)
+    {
+        txt = text;
+    }
+
+    @Override
+    public void setAlign(Align align)
+    {
+        this.align = align;
+    }
+
+    @Override
+    public void setColor(ColorRgba color)
+    {
+        this.color = color;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public int getLocationX()
+    {
+        return x;
+    }
+
+    @Override
+    public int getLocationY()
+    {
+        return y;
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return getStringWidth(null, txt);
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return getStringHeight(null, txt);
+    }
+
+    @Override
+    public int getStringWidth(Graphic g, String str)
+    {
+        if (str == null)
+        {
+            return 0;
+        }
+        return str.length() * size / 2;
+    }
+
+    @Override
+    public int getStringHeight(Graphic g, String str)
+    {
+        if (str == null)
+        {
+            return 0;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.UtilColor;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Misc tools for headless images, working on pixels arrays.
+ */
+final class ToolsHeadless
+{
+    /** Color mask (without alpha). */
+    private static final int COLOR_MASK = 0x00FFFFFF;
+    /** Red divisor. */
+    private static final int DIVISOR_RED = 0x010000;
+    /** Green divisor. */
+    private static final int DIVISOR_GREEN = 0x000100;
+    /** Blue divisor. */
+    private static final int DIVISOR_BLUE = 0x000001;
+    /** Pixel center offset. */
+    private static final double PIXEL_CENTER = 0.5;
+
+    /**
+     * Get the image pixels, without copy if possible.
+     * 
+     * @param image The image reference.
+     * @return The image pixels (must not be modified).
+     */
+    static int[] getPixels(ImageBuffer image)
+    {
+        if (image instanceof ImageBufferHeadless)
+        {
+            return ((ImageBufferHeadless) image).getPixels();
+        }
+        final int width = image.getWidth();
+        return image.getRgb(0, 0, width, image.getHeight(), null, 0, width);
+    }
+
+    /**
+     * Get source coordinate from destination coordinate, with nearest neighbor.
+     * 
+     * @param d The destination coordinate.
+     * @param d1 The first destination coordinate.
+     * @param d2 The second destination coordinate (different from first).
+     * @param s1 The first source coordinate.
+     * @param s2 The second source coordinate.
+     * @return The source coordinate.
+     */
+    static int getSource(int d, int d1, int d2, int s1, int s2)
+    {
+        return s1 + (int) Math.floor((d + PIXEL_CENTER - d1) * (s2 - s1) / (d2 - d1));
+    }
+
+    /**
+     * Copy an image area to the whole destination, scaled with nearest neighbor. Reversed coordinates flip the area.
+     * 
+     * @param image The source image.
+     * @param destination The destination image.
+     * @param sx1 The first source horizontal coordinate.
+     * @param sy1 The first source vertical coordinate.
+     * @param sx2 The second source horizontal coordinate.
+     * @param sy2 The second source vertical coordinate.
+     */
+    static void remap(ImageBuffer image, ImageBufferHeadless destination, int sx1, int sy1, int sx2, int sy2)
+    {
+        final int[] source = getPixels(image);
+        final int sw = image.getWidth();
+        final int width = destination.getWidth();
+        final int height = destination.getHeight();
+        final int[] pixels = destination.getPixels();
+        for (int y = 0; y < height; y++)
+        {
+            final int offset = getSource(y, 0, height, sy1, sy2) * sw;
+            for (int x = 0; x < width; x++)
+            {
+                pixels[x + y * width] = source[offset + getSource(x, 0, width, sx1, sx2)];
+            }
+        }
+    }
+
+    /**
+     * Apply a mask to an image, making the masked color transparent.
+     * 
+     * @param image The source image.
+     * @param rgba The mask color.
+     * @param destination The destination image (same size as source).
+     */
+    static void applyMask(ImageBuffer image, int rgba, ImageBufferHeadless destination)
+    {
+        final int[] source = getPixels(image);
+        final int[] pixels = destination.getPixels();
+        for (int i = 0; i < pixels.length; i++)
+        {
+            final int color = source[i];
+            if (color == rgba)
+            {
+                pixels[i] = color & COLOR_MASK;
+            }
+            else
+            {
+                pixels[i] = color;
+            }
+        }
+    }
+
+    /**
+     * Rotate an image around its center, in its encompassing destination.
+     * 
+     * @param image The source image.
+     * @param angle The angle in degree.
+     * @param destination The destination image (encompassing the rotated source).
+     */
+    static void rotate(ImageBuffer image, int angle, ImageBufferHeadless destination)
+    {
+        final int[] source = getPixels(image);
+        final int sw = image.getWidth();
+        final int sh = image.getHeight();
+        final int width = destination.getWidth();
+        final int height = destination.getHeight();
+        final int[] pixels = destination.getPixels();
+        final double cos = UtilMath.cos(angle);
+        final double sin = UtilMath.sin(angle);
+        for (int y = 0; y < height; y++)
+        {
+            final double dy = y + 0.5 - height / 2.0;
+            for (int x = 0; x < width; x++)
+            {
+                final double dx = x + 0.5 - width / 2.0;
+                final int sx = (int) Math.floor(cos * dx + sin * dy + sw / 2.0);
+                final int sy = (int) Math.floor(-sin * dx + cos * dy + sh / 2.0);
+                if (sx >= 0 && sy >= 0 && sx < sw && sy < sh)
+                {
+                    pixels[x + y * width] = source[sx + sy * sw];
+                }
+            }
+        }
+    }
+
+    /**
+     * Get raster image, with the same color gradient as the graphic implementations.
+     * 
+     * @param image The source image.
+     * @param fr The first red.
+     * @param fg The first green.
+     * @param fb The first blue.
+     * @param er The end red.
+     * @param eg The end green.
+     * @param eb The end blue.
+     * @param size The reference size.
+     * @param destination The destination image (same size as source).
+     */
+    static void getRasterBuffer(ImageBuffer image,
+                                int fr,
+                                int fg,
+                                int fb,
+                                int er,
+                                int eg,
+                                int eb,
+                                int size,
+                                ImageBufferHeadless destination)
+    {
+        final int[] source = getPixels(image);
+        final int[] pixels = destination.getPixels();
+        final int width = destination.getWidth();
+        final int height = destination.getHeight();
+
+        final double sr = -((er - fr) / (double) DIVISOR_RED) / size;
+        final double sg = -((eg - fg) / (double) DIVISOR_GREEN) / size;
+        final double sb = -((eb - fb) / (double) DIVISOR_BLUE) / size;
+
+        for (int y = 0; y < height; y++)
+        {
+            final int r = (int) (sr * (y % size)) * DIVISOR_RED;
+            final int g = (int) (sg * (y % size)) * DIVISOR_GREEN;
+            final int b = (int) (sb * (y % size)) * DIVISOR_BLUE;
+            for (int x = 0; x < width; x++)
+            {
+                final int i = x + y * width;
+                pixels[i] = UtilColor.filterRgb(source[i], fr + r, fg + g, fb + b);
+            }
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private ToolsHeadless()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
@@ -91,6 +91,17 @@ public final class FileReading implements Closeable
         return in.readByte();
     }
 
+    /**
+     * Read bytes until array is full.
+     * 
+     * @param bytes The array to fill.
+     * @throws IOException If read failed.
+     */
+    public void readBytes(byte[] bytes) throws IOException
+    {
+        in.readFully(bytes);
+    }
+
     /**
      * Read a char (2 bytes, 0 to 65535 both included).
      * 
@@ -91,6 +91,17 @@ public final class FileWriting implements Closeable
         out.writeByte(b);
     }
 
+    /**
+     * Write all bytes of an array.
+     * 
+     * @param bytes The bytes to write.
+     * @throws IOException If write failed.
+     */
+    public void writeBytes(byte[] bytes) throws IOException
+    {
+        out.write(bytes);
+    }
+
     /**
      * Write a char (2 bytes, 0 to 65535 both included).
      * 
@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.util;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -27,7 +28,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.b3dgs.lionengine.Check;
@@ -50,6 +55,16 @@ public final class UtilReflection
     private static final String ERROR_METHOD = "Unable to access to the following method: ";
     /** Accessibility. */
     private static final AtomicBoolean ACCESSIBLE = new AtomicBoolean(true);
+    /**
+     * Reduced constructors cache (key is the class type, then the parameter types). Class is weakly referenced and its
+     * constructors softly, as they reference it, so cache does not prevent class unloading.
+     */
+    private static final Map<Class<?>, SoftReference<Map<List<Class<?>>, Constructor<?>>>> CONSTRUCTORS;
+
+    static
+    {
+        CONSTRUCTORS = new WeakHashMap<Class<?>, SoftReference<Map<List<Class<?>>, Constructor<?>>>>();
+    }
 
     /**
      * Create a class instance with its parameters.
@@ -82,9 +97,50 @@ public final class UtilReflection
      */
     public static <T> T createReduce(Class<?> type, Object... params) throws NoSuchMethodException
     {
-        final Class<?>[] paramTypes = getParamTypes(params);
+        final Constructor<?> constructor = getReduceConstructor(type, getParamTypes(params));
+        final int length = constructor.getParameterTypes().length;
+        return create(type, constructor, Arrays.copyOfRange(params, params.length - length, params.length));
+    }
+
+    /**
+     * Clear the reduced constructors cache.
+     */
+    public static synchronized void clearCache()
+    {
+        CONSTRUCTORS.clear();
+    }
+
+    /**
+     * Get a compatible constructor with the following parameters, reducing parameter types array as a queue until empty
+     * in order to find a constructor. Constructor found is made accessible and cached for the same class and
+     * parameters types.
+     * 
+     * @param type The class type.
+     * @param paramTypes The maximum parameters types in sequential order.
+     * @return The constructor found.
+     * @throws NoSuchMethodException If no constructor found.
+     */
+    private static synchronized Constructor<?> getReduceConstructor(Class<?> type, Class<?>[] paramTypes)
+            throws NoSuchMethodException
+    {
+        final SoftReference<Map<List<Class<?>>, Constructor<?>>> reference = CONSTRUCTORS.get(type);
+        Map<List<Class<?>>, Constructor<?>> constructors = null;
+        if (reference != null)
+        {
+            constructors = reference.get();
+        }
+        if (constructors == null)
+        {
+            constructors = new HashMap<List<Class<?>>, Constructor<?>>();
+            CONSTRUCTORS.put(type, new SoftReference<Map<List<Class<?>>, Constructor<?>>>(constructors));
+        }
+        final List<Class<?>> key = Arrays.asList(paramTypes);
+        final Constructor<?> cached = constructors.get(key);
+        if (cached != null)
+        {
+            return cached;
+        }
         final Queue<Class<?>> typesQueue = new ArrayDeque<Class<?>>(Arrays.asList(paramTypes));
-        final Queue<Object> paramsQueue = new ArrayDeque<Object>(Arrays.asList(params));
         boolean stop = false;
         while (!stop)
         {
@@ -96,13 +152,15 @@ public final class UtilReflection
                 if (constructorTypes.length == typesLength
                     && (typesLength == 0 || hasCompatibleConstructor(typesArray, constructorTypes)))
                 {
-                    return create(type, constructor, paramsQueue.toArray());
+                    // Done once per cached constructor
+                    setAccessible(constructor, ACCESSIBLE.get());
+                    constructors.put(key, constructor);
+                    return constructor;
                 }
             }
 
-            stop = paramsQueue.isEmpty();
+            stop = typesQueue.isEmpty();
             typesQueue.poll();
-            paramsQueue.poll();
         }
         throw new NoSuchMethodException(ERROR_NO_CONSTRUCTOR_COMPATIBLE
                                         + type.getName()
@@ -126,7 +184,10 @@ public final class UtilReflection
         try
         {
             final boolean accessible = constructor.isAccessible();
-            setAccessible(constructor, ACCESSIBLE.get());
+            if (!accessible)
+            {
+                setAccessible(constructor, ACCESSIBLE.get());
+            }
             @SuppressWarnings("unchecked")
             final T object = (T) constructor.newInstance(params);
             if (constructor.isAccessible() != accessible)
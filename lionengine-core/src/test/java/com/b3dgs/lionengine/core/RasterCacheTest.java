@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.ImageBufferMock;
+import com.b3dgs.lionengine.util.UtilTests;
+
+/**
+ * Test the raster cache.
+ */
+public class RasterCacheTest
+{
+    /** Raster size in bytes. */
+    private static final long SIZE = 10 * 20 * 4L;
+    /** Raster. */
+    private static Media mediaRaster;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(RasterCacheTest.class);
+        mediaRaster = Medias.create("raster.xml");
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        RasterCache.setBudget(RasterCache.DEFAULT_BUDGET);
+        RasterCache.clear();
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Clear cache.
+     */
+    @Before
+    public void clear()
+    {
+        RasterCache.setBudget(RasterCache.DEFAULT_BUDGET);
+        RasterCache.clear();
+    }
+
+    /**
+     * Test constructor.
+     * 
+     * @throws Exception If error.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testConstructor() throws Exception
+    {
+        UtilTests.testPrivateConstructor(RasterCache.class);
+    }
+
+    /**
+     * Test the cache get and put.
+     */
+    @Test
+    public void testGetPut()
+    {
+        final Object source = new Object();
+        final RasterCache.Key key = new RasterCache.Key(source, mediaRaster, 0, false, 50);
+        final ImageBuffer raster = new ImageBufferMock(10, 20);
+
+        Assert.assertNull(RasterCache.get(key));
+
+        RasterCache.put(key, raster);
+
+        Assert.assertEquals(raster, RasterCache.get(key));
+        Assert.assertEquals(raster, RasterCache.get(new RasterCache.Key(source, mediaRaster, 0, false, 50)));
+        Assert.assertNull(RasterCache.get(new RasterCache.Key(source, mediaRaster, 1, false, 50)));
+        Assert.assertNull(RasterCache.get(new RasterCache.Key(source, mediaRaster, 0, true, 50)));
+        Assert.assertNull(RasterCache.get(new RasterCache.Key(source, mediaRaster, 0, false, 40)));
+        Assert.assertNull(RasterCache.get(new RasterCache.Key(new Object(), mediaRaster, 0, false, 50)));
+        Assert.assertEquals(1, RasterCache.getCount());
+        Assert.assertEquals(SIZE, RasterCache.getSize());
+
+        RasterCache.put(key, new ImageBufferMock(10, 20));
+
+        Assert.assertEquals(1, RasterCache.getCount());
+        Assert.assertEquals(SIZE, RasterCache.getSize());
+
+        RasterCache.clear();
+
+        Assert.assertNull(RasterCache.get(key));
+        Assert.assertEquals(0, RasterCache.getCount());
+        Assert.assertEquals(0L, RasterCache.getSize());
+    }
+
+    /**
+     * Test the least recently used eviction.
+     */
+    @Test
+    public void testBudget()
+    {
+        RasterCache.setBudget(SIZE * 2L);
+
+        Assert.assertEquals(SIZE * 2L, RasterCache.getBudget());
+
+        final Object source = new Object();
+        final RasterCache.Key key1 = new RasterCache.Key(source, mediaRaster, 1, false, 50);
+        final RasterCache.Key key2 = new RasterCache.Key(source, mediaRaster, 2, false, 50);
+        final RasterCache.Key key3 = new RasterCache.Key(source, mediaRaster, 3, false, 50);
+
+        RasterCache.put(key1, new ImageBufferMock(10, 20));
+        RasterCache.put(key2, new ImageBufferMock(10, 20));
+
+        Assert.assertNotNull(RasterCache.get(key1));
+
+        RasterCache.put(key3, new ImageBufferMock(10, 20));
+
+        Assert.assertNotNull(RasterCache.get(key1));
+        Assert.assertNull(RasterCache.get(key2));
+        Assert.assertNotNull(RasterCache.get(key3));
+        Assert.assertEquals(SIZE * 2L, RasterCache.getSize());
+
+        RasterCache.setBudget(0L);
+
+        Assert.assertEquals(0, RasterCache.getCount());
+        Assert.assertEquals(0L, RasterCache.getSize());
+    }
+
+    /**
+     * Test invalid budget.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidBudget()
+    {
+        RasterCache.setBudget(-1L);
+    }
+}
@@ -25,9 +25,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.graphic.FactoryGraphicMock;
 import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
 import com.b3dgs.lionengine.graphic.ImageBufferMock;
 import com.b3dgs.lionengine.graphic.ImageFormat;
 import com.b3dgs.lionengine.util.UtilFolder;
@@ -97,6 +99,52 @@ public class RasterImageTest
         Assert.assertEquals(raster.getRaster(0).getHeight(), 200);
     }
 
+    /**
+     * Test rasters generated on first use and shared between images of same source.
+     */
+    @Test
+    public void testPrepareRasters()
+    {
+        RasterCache.clear();
+        final ImageBufferMock surface = new ImageBufferMock(100, 200);
+        final RasterImage raster = new RasterImage(surface, mediaRaster, 100, true);
+        raster.prepareRasters(50, false, Constant.EMPTY_STRING);
+
+        Assert.assertTrue(raster.getRasters().isEmpty());
+        Assert.assertEquals(30, raster.getRastersNumber());
+        Assert.assertEquals(0, RasterCache.getCount());
+
+        final ImageBuffer buffer = raster.getRaster(3);
+
+        Assert.assertEquals(1, RasterCache.getCount());
+        Assert.assertEquals(100 * 200 * 4L, RasterCache.getSize());
+        Assert.assertEquals(buffer, raster.getRaster(3));
+        Assert.assertEquals(raster.getRaster(29), raster.getRaster(50));
+        Assert.assertEquals(2, RasterCache.getCount());
+
+        final RasterImage shared = new RasterImage(surface, mediaRaster, 100, true);
+        shared.loadRasters(50);
+
+        Assert.assertEquals(buffer, shared.getRasters().get(3));
+        Assert.assertEquals(30, RasterCache.getCount());
+
+        final RasterImage other = new RasterImage(surface, mediaRaster, 100, false);
+        other.prepareRasters(50, false, Constant.EMPTY_STRING);
+
+        Assert.assertNotEquals(buffer, other.getRaster(3));
+        RasterCache.clear();
+    }
+
+    /**
+     * Test raster not prepared.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testRasterNotPrepared()
+    {
+        final RasterImage raster = new RasterImage(new ImageBufferMock(100, 200), mediaRaster, 100, false);
+        Assert.assertNotNull(raster.getRaster(0));
+    }
+
     /**
      * Test raster no smooth save.
      */
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.filter;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.FactoryGraphicMock;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.ImageBufferMock;
+
+/**
+ * Test the filters chain and buffers reuse.
+ */
+public class FilterChainTest
+{
+    /**
+     * Create a test image.
+     * 
+     * @param width The image width.
+     * @param height The image height.
+     * @return The created image.
+     */
+    private static ImageBuffer createImage(int width, int height)
+    {
+        final ImageBuffer image = new ImageBufferMock(width, height);
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                image.setRgb(x, y, (x * 7 + y * 13) % 5 * 0x10305070);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Get image pixels.
+     * 
+     * @param image The image.
+     * @return The image pixels.
+     */
+    private static int[] getPixels(ImageBuffer image)
+    {
+        final int[] pixels = new int[image.getWidth() * image.getHeight()];
+        return image.getRgb(0, 0, image.getWidth(), image.getHeight(), pixels, 0, image.getWidth());
+    }
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Graphics.setFactoryGraphic(null);
+    }
+
+    /**
+     * Test the chain result is the same as applying each filter.
+     */
+    @Test
+    public void testChain()
+    {
+        final ImageBuffer image = createImage(64, 48);
+        final FilterChain chain = new FilterChain(new FilterHq2x(), new FilterBlur(), new FilterHq3x());
+        final ImageBuffer filtered = chain.filter(image);
+
+        final ImageBuffer expected = new FilterHq3x().filter(new FilterBlur().filter(new FilterHq2x().filter(image)));
+
+        Assert.assertEquals(6, chain.getScale());
+        Assert.assertEquals(64 * 6, filtered.getWidth());
+        Assert.assertEquals(48 * 6, filtered.getHeight());
+        Assert.assertArrayEquals(getPixels(expected), getPixels(filtered));
+        Assert.assertNotNull(chain.getTransform(1.0, 1.0));
+    }
+
+    /**
+     * Test the filtered image reuse when filtering the same source again.
+     */
+    @Test
+    public void testReuse()
+    {
+        final ImageBuffer image = createImage(64, 48);
+        final FilterBilinear bilinear = new FilterBilinear();
+        final ImageBuffer filtered = bilinear.filter(image);
+        final int[] expected = getPixels(filtered);
+
+        Assert.assertEquals(filtered, bilinear.filter(image));
+        Assert.assertArrayEquals(expected, getPixels(filtered));
+
+        final ImageBuffer other = bilinear.filter(createImage(32, 48));
+
+        Assert.assertNotEquals(filtered, other);
+        Assert.assertArrayEquals(expected, getPixels(filtered));
+        Assert.assertNotEquals(filtered, bilinear.filter(image));
+        Assert.assertArrayEquals(expected, getPixels(bilinear.filter(image)));
+    }
+
+    /**
+     * Test the raw pixels result is reused.
+     */
+    @Test
+    public void testRaw()
+    {
+        final ImageBuffer image = createImage(32, 24);
+        final FilterBlur blur = new FilterBlur();
+        final int[] pixels = getPixels(image);
+        final int[] filtered = blur.filter(pixels, 32, 24);
+
+        Assert.assertArrayEquals(getPixels(image), pixels);
+        Assert.assertArrayEquals(getPixels(blur.filter(image)), filtered);
+        Assert.assertSame(filtered, blur.filter(pixels, 32, 24));
+
+        final FilterBlur other = new FilterBlur();
+        other.setRadius(3.0F);
+        blur.setRadius(3.0F);
+
+        Assert.assertArrayEquals(getPixels(other.filter(image)), blur.filter(pixels, 32, 24));
+    }
+
+    /**
+     * Test the empty chain.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testEmpty()
+    {
+        Assert.assertNotNull(new FilterChain());
+    }
+
+    /**
+     * Test the chain with <code>null</code> filter.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testNullFilter()
+    {
+        Assert.assertNotNull(new FilterChain(new FilterBlur(), null));
+    }
+}
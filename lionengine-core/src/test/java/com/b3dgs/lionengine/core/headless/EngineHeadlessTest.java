@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Config;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Version;
+import com.b3dgs.lionengine.core.Engine;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.core.sequence.Loader;
+import com.b3dgs.lionengine.core.sequence.SequenceSingleMock;
+import com.b3dgs.lionengine.util.UtilTests;
+
+/**
+ * Test the engine headless class.
+ */
+public class EngineHeadlessTest
+{
+    /** Old resources directory. */
+    private String oldDir;
+    /** Old loader. */
+    private Class<?> oldLoader;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepareTest()
+    {
+        oldDir = Medias.getResourcesDirectory();
+        oldLoader = Medias.getResourcesLoader();
+    }
+
+    /**
+     * Clean test.
+     */
+    @After
+    public void cleanTest()
+    {
+        Medias.setResourcesDirectory(oldDir);
+        Medias.setLoadFromJar(oldLoader);
+    }
+
+    /**
+     * Test the engine start without resources.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testEngineNullResources()
+    {
+        EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, (String) null);
+        try
+        {
+            Assert.assertTrue(Engine.isStarted());
+            EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, (String) null);
+        }
+        finally
+        {
+            Engine.terminate();
+        }
+    }
+
+    /**
+     * Test the engine start with resources.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testEngineResources()
+    {
+        EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, Constant.EMPTY_STRING);
+        try
+        {
+            Assert.assertTrue(Engine.isStarted());
+            EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, Constant.EMPTY_STRING);
+        }
+        finally
+        {
+            Engine.terminate();
+        }
+    }
+
+    /**
+     * Test the engine start with class.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testEngineClass()
+    {
+        EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, EngineHeadlessTest.class);
+        try
+        {
+            Assert.assertTrue(Engine.isStarted());
+            EngineHeadless.start(EngineHeadlessTest.class.getName(), Version.DEFAULT, EngineHeadlessTest.class);
+        }
+        finally
+        {
+            Engine.terminate();
+        }
+    }
+
+    /**
+     * Test a sequence run without display and without rendering.
+     */
+    @Test
+    public void testLoaderNullRender()
+    {
+        Engine.start(new EngineHeadless(EngineHeadlessTest.class.getName(),
+                                        Version.DEFAULT,
+                                        Constant.EMPTY_STRING,
+                                        false));
+        try
+        {
+            Loader.start(new Config(UtilTests.RESOLUTION_320_240, 32, true), SequenceSingleMock.class).await();
+        }
+        finally
+        {
+            Engine.terminate();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import java.io.IOException;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.FactoryGraphicTest;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Test the factory graphic headless class.
+ */
+public class FactoryGraphicHeadlessTest extends FactoryGraphicTest
+{
+    /**
+     * Prepare test.
+     * 
+     * @throws IOException If error.
+     */
+    @BeforeClass
+    public static void setUp() throws IOException
+    {
+        prepare();
+        Graphics.setFactoryGraphic(new FactoryGraphicHeadless());
+        loadResources();
+    }
+
+    /**
+     * Clean test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Graphics.setFactoryGraphic(null);
+    }
+
+    /**
+     * Create a 2x2 image with a distinct color on each pixel.
+     * 
+     * @return The created image.
+     */
+    private static ImageBuffer createImage()
+    {
+        final ImageBuffer source = Graphics.createImageBuffer(2, 2);
+        source.setRgb(0, 0, ColorRgba.RED.getRgba());
+        source.setRgb(1, 0, ColorRgba.GREEN.getRgba());
+        source.setRgb(0, 1, ColorRgba.BLUE.getRgba());
+        source.setRgb(1, 1, ColorRgba.WHITE.getRgba());
+        return source;
+    }
+
+    /*
+     * FactoryGraphicTest
+     */
+
+    /**
+     * Test rotate.
+     */
+    @Test
+    @Override
+    public void testRotate()
+    {
+        final ImageBuffer rotate = Graphics.rotate(image, 90);
+
+        Assert.assertNotEquals(image, rotate);
+        Assert.assertEquals(image.getWidth(), rotate.getHeight());
+        Assert.assertEquals(image.getHeight(), rotate.getWidth());
+
+        rotate.dispose();
+    }
+
+    /**
+     * Test created image content.
+     */
+    @Test
+    public void testCreateImageBufferContent()
+    {
+        final ImageBuffer buffer = Graphics.createImageBuffer(2, 2);
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), buffer.getRgb(1, 1));
+
+        final ImageBuffer transparent = Graphics.createImageBuffer(2, 2, ColorRgba.TRANSPARENT);
+        Assert.assertEquals(ColorRgba.TRANSPARENT.getRgba(), transparent.getRgb(1, 1));
+    }
+
+    /**
+     * Test flip and split content.
+     */
+    @Test
+    public void testFlipSplitContent()
+    {
+        final ImageBuffer source = createImage();
+
+        final ImageBuffer horizontal = Graphics.flipHorizontal(source);
+        Assert.assertEquals(ColorRgba.GREEN.getRgba(), horizontal.getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.BLUE.getRgba(), horizontal.getRgb(1, 1));
+
+        final ImageBuffer vertical = Graphics.flipVertical(source);
+        Assert.assertEquals(ColorRgba.BLUE.getRgba(), vertical.getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.GREEN.getRgba(), vertical.getRgb(1, 1));
+
+        final ImageBuffer[] split = Graphics.splitImage(source, 2, 2);
+        Assert.assertEquals(ColorRgba.RED.getRgba(), split[0].getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.GREEN.getRgba(), split[1].getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.BLUE.getRgba(), split[2].getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.WHITE.getRgba(), split[3].getRgb(0, 0));
+
+        final ImageBuffer resized = Graphics.resize(source, 4, 4);
+        Assert.assertEquals(ColorRgba.RED.getRgba(), resized.getRgb(1, 1));
+        Assert.assertEquals(ColorRgba.WHITE.getRgba(), resized.getRgb(2, 2));
+
+        final ImageBuffer mask = Graphics.applyMask(source, ColorRgba.RED);
+        Assert.assertEquals(ColorRgba.TRANSPARENT.getRgba(), mask.getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.GREEN.getRgba(), mask.getRgb(1, 0));
+    }
+
+    /**
+     * Test null render factory.
+     */
+    @Test
+    public void testNullRender()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicHeadless(false));
+        try
+        {
+            final ImageBuffer buffer = Graphics.createImageBuffer(2, 2);
+            final Graphic g = buffer.createGraphic();
+            Assert.assertNull(g.getGraphic());
+
+            g.setColor(ColorRgba.RED);
+            g.drawRect(0, 0, 2, 2, true);
+
+            Assert.assertEquals(ColorRgba.BLACK.getRgba(), buffer.getRgb(0, 0));
+        }
+        finally
+        {
+            Graphics.setFactoryGraphic(new FactoryGraphicHeadless());
+        }
+    }
+}
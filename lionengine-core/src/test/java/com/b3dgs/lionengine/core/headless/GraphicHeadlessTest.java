@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core.headless;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.GraphicTest;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Test the graphic headless class.
+ */
+public class GraphicHeadlessTest extends GraphicTest
+{
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicHeadless());
+    }
+
+    /**
+     * Test the rendered pixels.
+     */
+    @Test
+    public void testRender()
+    {
+        final ImageBuffer image = Graphics.createImageBuffer(4, 4);
+        final Graphic g = image.createGraphic();
+
+        g.setColor(ColorRgba.RED);
+        g.drawRect(1, 1, 2, 2, true);
+
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(0, 0));
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(1, 1));
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(2, 2));
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(3, 3));
+
+        g.clear(0, 0, 4, 4);
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(1, 1));
+
+        g.drawLine(0, 0, 3, 3);
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(2, 2));
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(0, 3));
+
+        g.dispose();
+        image.dispose();
+    }
+
+    /**
+     * Test the image drawing, direct, scaled and flipped.
+     */
+    @Test
+    public void testDrawImage()
+    {
+        final ImageBuffer sprite = Graphics.createImageBuffer(2, 1, ColorRgba.TRANSPARENT);
+        sprite.setRgb(0, 0, ColorRgba.RED.getRgba());
+
+        final ImageBuffer image = Graphics.createImageBuffer(4, 2);
+        final Graphic g = image.createGraphic();
+
+        g.drawImage(sprite, 1, 0);
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(1, 0));
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(2, 0));
+
+        g.clear(0, 0, 4, 2);
+        g.drawImage(sprite, 0, 0, 4, 2, 0, 0, 2, 1);
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(1, 1));
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(2, 1));
+
+        g.clear(0, 0, 4, 2);
+        g.drawImage(sprite, 4, 0, 0, 2, 0, 0, 2, 1);
+        Assert.assertEquals(ColorRgba.BLACK.getRgba(), image.getRgb(1, 1));
+        Assert.assertEquals(ColorRgba.RED.getRgba(), image.getRgb(2, 1));
+
+        g.dispose();
+        image.dispose();
+        sprite.dispose();
+    }
+}
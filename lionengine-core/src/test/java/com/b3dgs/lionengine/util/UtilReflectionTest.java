@@ -153,6 +153,27 @@ public class UtilReflectionTest
 
     }
 
+    /**
+     * Test the create reduce with cached constructor.
+     * 
+     * @throws NoSuchMethodException If error.
+     */
+    @Test
+    public void testCreateReduceCache() throws NoSuchMethodException
+    {
+        final Object first = UtilReflection.createReduce(Reduce.class, Integer.valueOf(1), "test", Integer.valueOf(3));
+        final Object second = UtilReflection.createReduce(Reduce.class, Integer.valueOf(1), "test", Integer.valueOf(3));
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(Reduce.class, second.getClass());
+
+        UtilReflection.clearCache();
+
+        final Object created = UtilReflection.createReduce(Reduce.class, Integer.valueOf(1), "test");
+
+        Assert.assertEquals(Reduce.class, created.getClass());
+    }
+
     /**
      * Test the get parameters types.
      */
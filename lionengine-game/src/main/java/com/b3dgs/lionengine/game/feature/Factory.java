@@ -18,8 +18,6 @@
 package com.b3dgs.lionengine.game.feature;
 
 import java.lang.reflect.Constructor;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,6 +44,10 @@ import com.b3dgs.lionengine.util.UtilReflection;
  * Destroyed {@link Featurable} can be cached to avoid {@link Featurable} creation if has {@link Recycler} and
  * {@link Recyclable} {@link Feature}s.
  * </p>
+ * <p>
+ * Cache of each {@link Media} is a {@link FactoryPool}, which can be configured with
+ * {@link #setPool(Media, int, int)} to be warmed in advance with {@link #warm()}, and to be limited in size.
+ * </p>
  */
 public class Factory implements HandlerListener
 {
@@ -59,11 +61,27 @@ public class Factory implements HandlerListener
     private static final String ERROR_SETUP_CLASS = "Setup class not found !";
     /** Construction error. */
     private static final String ERROR_CONSTRUCTOR_MISSING = "No recognized constructor found for: ";
+    /** Recycler error. */
+    private static final String ERROR_RECYCLER = "Pooled featurable must have a Recycler: ";
+
+    /**
+     * Release the identifier of a featurable which will not be reused.
+     * 
+     * @param featurable The featurable to release.
+     */
+    private static void release(Featurable featurable)
+    {
+        final Identifiable identifiable = featurable.getFeature(Identifiable.class);
+        if (identifiable instanceof IdentifiableModel)
+        {
+            ((IdentifiableModel) identifiable).free();
+        }
+    }
 
     /** Setups list. */
     private final Map<Media, Setup> setups = new HashMap<Media, Setup>();
     /** Cached instances. */
-    private final Map<Media, Deque<Featurable>> cache = new HashMap<Media, Deque<Featurable>>();
+    private final Map<Media, FactoryPool> pools = new HashMap<Media, FactoryPool>();
     /** Services reference. */
     private final Services services;
     /** Class loader. */
@@ -102,10 +120,9 @@ public class Factory implements HandlerListener
     @SuppressWarnings("unchecked")
     public <O extends Featurable> O create(Media media)
     {
-        if (cache.containsKey(media) && !cache.get(media).isEmpty())
+        final Featurable featurable = poll(media);
+        if (featurable != null)
         {
-            final Featurable featurable = cache.get(media).poll();
-            featurable.getFeature(Recycler.class).recycle();
             return (O) featurable;
         }
         final Setup setup = getSetup(media);
@@ -141,10 +158,9 @@ public class Factory implements HandlerListener
     @SuppressWarnings("unchecked")
     public <O extends Featurable> O create(Media media, Class<O> type)
     {
-        if (cache.containsKey(media) && !cache.get(media).isEmpty())
+        final Featurable featurable = poll(media);
+        if (featurable != null)
         {
-            final Featurable featurable = cache.get(media).poll();
-            featurable.getFeature(Recycler.class).recycle();
             return (O) featurable;
         }
         final Setup setup = getSetup(media);
@@ -158,6 +174,67 @@ public class Factory implements HandlerListener
         }
     }
 
+    /**
+     * Set the pool configuration of a media. Pooled featurables exceeding the maximum size are evicted.
+     * 
+     * @param media The featurable media.
+     * @param warm The number of featurables to create in advance on {@link #warm()} (positive).
+     * @param max The maximum number of pooled featurables (superior or equal to warm).
+     * @throws LionEngineException If invalid arguments.
+     */
+    public void setPool(Media media, int warm, int max)
+    {
+        Check.superiorOrEqual(warm, 0);
+        Check.superiorOrEqual(max, warm);
+
+        final FactoryPool pool = getPool(media);
+        pool.configure(warm, max);
+
+        Featurable evicted = pool.evict();
+        while (evicted != null)
+        {
+            release(evicted);
+            evicted = pool.evict();
+        }
+    }
+
+    /**
+     * Get the pool of a media, created with an unlimited size if not existing.
+     * 
+     * @param media The featurable media.
+     * @return The media pool.
+     * @throws LionEngineException If invalid argument.
+     */
+    public FactoryPool getPool(Media media)
+    {
+        Check.notNull(media);
+
+        FactoryPool pool = pools.get(media);
+        if (pool == null)
+        {
+            pool = new FactoryPool();
+            pools.put(media, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Create featurables of each pool until their warm count is reached. Should be called on level load (in
+     * {@link com.b3dgs.lionengine.core.sequence.Sequence#load()}), so the first creations do not allocate. Featurables
+     * are created on the calling thread, as {@link Services} and resources caches are not thread safe.
+     * 
+     * @throws LionEngineException If featurable cannot be created or has no {@link Recycler}.
+     */
+    public void warm()
+    {
+        for (final Map.Entry<Media, FactoryPool> entry : pools.entrySet())
+        {
+            final Media media = entry.getKey();
+            final Setup setup = getSetup(media);
+            warm(media, setup, setup.getConfigClass(classLoader), entry.getValue());
+        }
+    }
+
     /**
      * Set an external class loader.
      * 
@@ -227,6 +304,56 @@ public class Factory implements HandlerListener
         }
     }
 
+    /**
+     * Take a pooled featurable and recycle it.
+     * 
+     * @param media The featurable media.
+     * @return The recycled featurable, <code>null</code> if none.
+     */
+    private Featurable poll(Media media)
+    {
+        final Featurable featurable = getPool(media).poll();
+        if (featurable != null)
+        {
+            featurable.getFeature(Recycler.class).recycle();
+        }
+        return featurable;
+    }
+
+    /**
+     * Create featurables until pool warm count is reached.
+     * 
+     * @param media The featurable media.
+     * @param setup The featurable setup.
+     * @param type The featurable type.
+     * @param pool The featurable pool.
+     * @throws LionEngineException If featurable cannot be created or has no {@link Recycler}.
+     */
+    private void warm(Media media, Setup setup, Class<?> type, FactoryPool pool)
+    {
+        final int count = pool.getMissing();
+        for (int i = 0; i < count; i++)
+        {
+            final Featurable featurable;
+            try
+            {
+                featurable = createFeaturable(type, setup);
+            }
+            catch (final NoSuchMethodException exception)
+            {
+                throw new LionEngineException(exception, ERROR_CONSTRUCTOR_MISSING + media);
+            }
+            if (!featurable.hasFeature(Recycler.class))
+            {
+                throw new LionEngineException(media, ERROR_RECYCLER);
+            }
+            if (!pool.offer(featurable))
+            {
+                release(featurable);
+            }
+        }
+    }
+
     /**
      * Create the featurable.
      * 
@@ -268,13 +395,9 @@ public class Factory implements HandlerListener
     public void notifyHandlableRemoved(Featurable featurable)
     {
         final Media media = featurable.getMedia();
-        if (media != null && featurable.hasFeature(Recycler.class))
+        if (media != null && featurable.hasFeature(Recycler.class) && !getPool(media).offer(featurable))
         {
-            if (!cache.containsKey(media))
-            {
-                cache.put(media, new ArrayDeque<Featurable>());
-            }
-            cache.get(media).offer(featurable);
+            release(featurable);
         }
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of recyclable {@link Featurable} of the same {@link Setup}, used by {@link Factory}.
+ * <p>
+ * Pool can be warmed with a number of featurables created in advance, and is limited to a maximum size, featurables
+ * released when pool is full being evicted. Hits, misses and evictions are counted for tuning.
+ * </p>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ */
+public final class FactoryPool
+{
+    /** Pooled featurables. */
+    private final Deque<Featurable> featurables = new ArrayDeque<Featurable>();
+    /** Warm count. */
+    private int warm;
+    /** Maximum size. */
+    private int max = Integer.MAX_VALUE;
+    /** Creations served by pool. */
+    private int hits;
+    /** Creations not served by pool. */
+    private int misses;
+    /** Featurables evicted. */
+    private int evictions;
+
+    /**
+     * Create pool.
+     */
+    FactoryPool()
+    {
+        super();
+    }
+
+    /**
+     * Get the warm count.
+     * 
+     * @return The number of featurables to create in advance.
+     */
+    public synchronized int getWarm()
+    {
+        return warm;
+    }
+
+    /**
+     * Get the maximum size.
+     * 
+     * @return The maximum number of pooled featurables.
+     */
+    public synchronized int getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Get the current size.
+     * 
+     * @return The number of pooled featurables.
+     */
+    public synchronized int getSize()
+    {
+        return featurables.size();
+    }
+
+    /**
+     * Get the number of creations served by pool.
+     * 
+     * @return The hits number.
+     */
+    public synchronized int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of creations not served by pool.
+     * 
+     * @return The misses number.
+     */
+    public synchronized int getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Get the number of featurables evicted because pool was full.
+     * 
+     * @return The evictions number.
+     */
+    public synchronized int getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Set the pool configuration.
+     * 
+     * @param warm The number of featurables to create in advance.
+     * @param max The maximum number of pooled featurables.
+     */
+    synchronized void configure(int warm, int max)
+    {
+        this.warm = warm;
+        this.max = max;
+    }
+
+    /**
+     * Get the number of featurables to create to reach warm count.
+     * 
+     * @return The missing featurables number.
+     */
+    synchronized int getMissing()
+    {
+        return Math.max(0, warm - featurables.size());
+    }
+
+    /**
+     * Take a pooled featurable, counted as a hit, or a miss if pool is empty.
+     * 
+     * @return The pooled featurable, <code>null</code> if empty.
+     */
+    synchronized Featurable poll()
+    {
+        final Featurable featurable = featurables.poll();
+        if (featurable == null)
+        {
+            misses++;
+        }
+        else
+        {
+            hits++;
+        }
+        return featurable;
+    }
+
+    /**
+     * Add a featurable to pool if not full, counted as an eviction else.
+     * 
+     * @param featurable The featurable to add.
+     * @return <code>true</code> if added, <code>false</code> if evicted.
+     */
+    synchronized boolean offer(Featurable featurable)
+    {
+        if (featurables.size() < max)
+        {
+            featurables.offer(featurable);
+            return true;
+        }
+        evictions++;
+        return false;
+    }
+
+    /**
+     * Remove a featurable exceeding maximum size, counted as an eviction.
+     * 
+     * @return The evicted featurable, <code>null</code> if size does not exceed maximum.
+     */
+    synchronized Featurable evict()
+    {
+        if (featurables.size() > max)
+        {
+            evictions++;
+            return featurables.pollLast();
+        }
+        return null;
+    }
+}
@@ -17,12 +17,14 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import com.b3dgs.lionengine.Constant;
 import com.b3dgs.lionengine.LionEngineException;
@@ -44,13 +46,21 @@ public class FeaturableModel implements Featurable
     private static final ClassLoader LOADER = Configurer.class.getClassLoader();
     /** Class cache. */
     private static final Map<String, Class<?>> CLASS_CACHE = new HashMap<String, Class<?>>();
+    /** Injected fields cache (key is the object class, weakly referenced, fields softly as they reference it). */
+    private static final Map<Class<?>, SoftReference<Field[]>> FIELD_CACHE;
+
+    static
+    {
+        FIELD_CACHE = new WeakHashMap<Class<?>, SoftReference<Field[]>>();
+    }
 
     /**
-     * Clear classes cache.
+     * Clear classes and injected fields cache.
      */
-    public static void clearCache()
+    public static synchronized void clearCache()
     {
         CLASS_CACHE.clear();
+        FIELD_CACHE.clear();
     }
 
     /**
@@ -91,7 +101,7 @@ public class FeaturableModel implements Featurable
      * @return The typed class instance.
      * @throws LionEngineException If invalid class.
      */
-    private static Class<?> getClass(String className)
+    private static synchronized Class<?> getClass(String className)
     {
         if (CLASS_CACHE.containsKey(className))
         {
@@ -110,30 +120,48 @@ public class FeaturableModel implements Featurable
     }
 
     /**
-     * Get all with that require an injected service.
+     * Get all fields that require an injected service, made accessible. Fields are searched once per class and cached.
      * 
-     * @param object The object which requires injected services.
-     * @return The field requiring injected services.
+     * @param type The object class which requires injected services.
+     * @return The fields requiring injected services.
      */
-    private static List<Field> getServiceFields(Object object)
+    private static synchronized Field[] getServiceFields(Class<?> type)
     {
-        final List<Field> toInject = new ArrayList<Field>();
-        Class<?> clazz = object.getClass();
-        while (clazz != null)
+        final SoftReference<Field[]> reference = FIELD_CACHE.get(type);
+        Field[] cached = null;
+        if (reference != null)
         {
-            final Field[] fields = clazz.getDeclaredFields();
-            final int length = fields.length;
-            for (int i = 0; i < length; i++)
+            cached = reference.get();
+        }
+        if (cached == null)
+        {
+            final List<Field> toInject = new ArrayList<Field>();
+            Class<?> clazz = type;
+            while (clazz != null)
             {
-                final Field field = fields[i];
-                if (field.isAnnotationPresent(FeatureGet.class))
+                final Field[] fields = clazz.getDeclaredFields();
+                final int length = fields.length;
+                for (int i = 0; i < length; i++)
                 {
-                    toInject.add(field);
+                    final Field field = fields[i];
+                    if (field.isAnnotationPresent(FeatureGet.class))
+                    {
+                        toInject.add(field);
+                    }
                 }
+                clazz = clazz.getSuperclass();
             }
-            clazz = clazz.getSuperclass();
+            for (final Field field : toInject)
+            {
+                if (!field.isAccessible())
+                {
+                    UtilReflection.setAccessible(field, true);
+                }
+            }
+            cached = toInject.toArray(new Field[toInject.size()]);
+            FIELD_CACHE.put(type, new SoftReference<Field[]>(cached));
         }
-        return toInject;
+        return cached;
     }
 
     /** Features provider. */
@@ -192,17 +220,12 @@ public class FeaturableModel implements Featurable
      */
     private void fillServices(Object object)
     {
-        final List<Field> fields = getServiceFields(object);
-        final int length = fields.size();
+        final Field[] fields = getServiceFields(object.getClass());
+        final int length = fields.length;
         for (int i = 0; i < length; i++)
         {
-            final Field field = fields.get(i);
-            if (!field.isAccessible())
-            {
-                UtilReflection.setAccessible(field, true);
-            }
-            final Class<?> type = field.getType();
-            setField(field, object, type);
+            final Field field = fields[i];
+            setField(field, object, field.getType());
         }
     }
 
@@ -220,10 +243,9 @@ public class FeaturableModel implements Featurable
         {
             if (field.get(object) == null)
             {
-                final Class<? extends Feature> clazz;
-                if (Feature.class.isAssignableFrom(type) && hasFeature(clazz = type.asSubclass(Feature.class)))
+                if (Feature.class.isAssignableFrom(type) && hasFeature(type.asSubclass(Feature.class)))
                 {
-                    field.set(object, getFeature(clazz));
+                    field.set(object, getFeature(type.asSubclass(Feature.class)));
                 }
                 else
                 {
@@ -17,28 +17,126 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.WeakHashMap;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.util.UtilReflection;
 
 /**
  * Handlables implementation.
+ * <p>
+ * Objects are stored by type in dense lists, each object listed once by type. Types of a featurable class and of a
+ * feature type are resolved once and cached as signatures, so adding a featurable does not use reflection once its
+ * types are known. Slots of added objects are kept by featurable, for a removal without search.
+ * </p>
  */
 final class HandlablesImpl implements Handlables
 {
     /** Featurable not found error. */
     private static final String ERROR_FEATURABLE_NOT_FOUND = "Featurable not found: ";
+    /** Featurable signatures by class (weakly referenced, signatures softly as they reference it). */
+    private static final Map<Class<?>, SoftReference<Class<?>[]>> FEATURABLES;
+    /** Feature signatures by feature type (weakly referenced, signatures softly as they reference it). */
+    private static final Map<Class<?>, SoftReference<Class<?>[]>> FEATURES;
+
+    static
+    {
+        FEATURABLES = new WeakHashMap<Class<?>, SoftReference<Class<?>[]>>();
+        FEATURES = new WeakHashMap<Class<?>, SoftReference<Class<?>[]>>();
+    }
+
+    /**
+     * Get the featurable signature: its interfaces, its class, and interfaces of its parents.
+     * 
+     * @param type The featurable class.
+     * @return The featurable types.
+     */
+    private static synchronized Class<?>[] getFeaturableSignature(Class<?> type)
+    {
+        final SoftReference<Class<?>[]> reference = FEATURABLES.get(type);
+        Class<?>[] signature = null;
+        if (reference != null)
+        {
+            signature = reference.get();
+        }
+        if (signature == null)
+        {
+            final Collection<Class<?>> types = new LinkedHashSet<Class<?>>();
+            types.addAll(Arrays.asList(type.getInterfaces()));
+            types.add(type);
+            Class<?> current = type.getSuperclass();
+            while (current != null)
+            {
+                types.addAll(Arrays.asList(current.getInterfaces()));
+                current = current.getSuperclass();
+            }
+            signature = types.toArray(new Class<?>[types.size()]);
+            FEATURABLES.put(type, new SoftReference<Class<?>[]>(signature));
+        }
+        return signature;
+    }
+
+    /**
+     * Get the feature signature: its type, and all its sub feature interfaces.
+     * 
+     * @param type The feature type.
+     * @return The feature types.
+     */
+    private static synchronized Class<?>[] getFeatureSignature(Class<?> type)
+    {
+        final SoftReference<Class<?>[]> reference = FEATURES.get(type);
+        Class<?>[] signature = null;
+        if (reference != null)
+        {
+            signature = reference.get();
+        }
+        if (signature == null)
+        {
+            final Collection<Class<?>> types = new LinkedHashSet<Class<?>>();
+            types.add(type);
+            types.addAll(UtilReflection.getInterfaces(type, Feature.class));
+            signature = types.toArray(new Class<?>[types.size()]);
+            FEATURES.put(type, new SoftReference<Class<?>[]>(signature));
+        }
+        return signature;
+    }
+
+    /**
+     * Check if object is already added to list.
+     * 
+     * @param added The added slots.
+     * @param list The type list.
+     * @param object The object to check.
+     * @return <code>true</code> if already added, <code>false</code> else.
+     */
+    private static boolean contains(List<TypeList.Slot> added, TypeList list, Object object)
+    {
+        final int length = added.size();
+        for (int i = 0; i < length; i++)
+        {
+            if (added.get(i).holds(list, object))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
 
     /** List of featurables (key is the featurable ID). */
     private final Map<Integer, Featurable> featurables;
     /** List of typed items (key is the feature type). */
-    private final Map<Class<?>, Set<Object>> items;
+    private final Map<Class<?>, TypeList> items;
+    /** Added slots (key is the featurable ID). */
+    private final Map<Integer, List<TypeList.Slot>> slots;
 
     /**
      * Create the handlables.
@@ -46,34 +144,31 @@ final class HandlablesImpl implements Handlables
     HandlablesImpl()
     {
         featurables = new HashMap<Integer, Featurable>();
-        items = new HashMap<Class<?>, Set<Object>>();
+        items = new HashMap<Class<?>, TypeList>();
+        slots = new HashMap<Integer, List<TypeList.Slot>>();
     }
 
     /**
-     * Add a featurable.
+     * Add a featurable. A featurable already added is added again with its current features.
      * 
      * @param featurable The featurable to add.
      */
     public void add(Featurable featurable)
     {
-        featurables.put(featurable.getFeature(Identifiable.class).getId(), featurable);
-
-        for (final Class<?> type : featurable.getClass().getInterfaces())
+        final Integer id = featurable.getFeature(Identifiable.class).getId();
+        if (slots.containsKey(id))
         {
-            addType(type, featurable);
+            remove(featurable, id);
         }
+        featurables.put(id, featurable);
 
+        final List<TypeList.Slot> added = new ArrayList<TypeList.Slot>();
+        addTypes(getFeaturableSignature(featurable.getClass()), featurable, added);
         for (final Class<? extends Feature> feature : featurable.getFeaturesType())
         {
-            final Feature object = featurable.getFeature(feature);
-            addType(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
-            {
-                addType(other, object);
-            }
+            addTypes(getFeatureSignature(feature), featurable.getFeature(feature), added);
         }
-        addType(featurable.getClass(), featurable);
-        addSuperClass(featurable, featurable.getClass());
+        slots.put(id, added);
     }
 
     /**
@@ -84,24 +179,15 @@ final class HandlablesImpl implements Handlables
      */
     public void remove(Featurable featurable, Integer id)
     {
-        for (final Class<?> type : featurable.getClass().getInterfaces())
-        {
-            remove(type, featurable);
-        }
-
-        for (final Class<? extends Feature> feature : featurable.getFeaturesType())
+        final List<TypeList.Slot> removed = slots.remove(id);
+        if (removed != null)
         {
-            final Feature object = featurable.getFeature(feature);
-            remove(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
+            final int length = removed.size();
+            for (int i = 0; i < length; i++)
             {
-                remove(other, object);
+                removed.get(i).remove();
             }
-
         }
-        remove(featurable.getClass(), featurable);
-        removeSuperClass(featurable, featurable.getClass());
-
         featurables.remove(id);
     }
 
@@ -116,71 +202,39 @@ final class HandlablesImpl implements Handlables
     }
 
     /**
-     * Add a type from its interface.
+     * Add object to its types lists, if not already listed by featurable.
      * 
-     * @param type The type interface.
-     * @param object The type value.
+     * @param types The object types.
+     * @param object The object to add.
+     * @param added The added slots.
      */
-    private void addType(Class<?> type, Object object)
+    private void addTypes(Class<?>[] types, Object object, List<TypeList.Slot> added)
     {
-        if (!items.containsKey(type))
+        for (final Class<?> type : types)
         {
-            items.put(type, new HashSet<Object>());
-        }
-        items.get(type).add(object);
-    }
-
-    /**
-     * Add object parent super type.
-     * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
-     */
-    private void addSuperClass(Object object, Class<?> type)
-    {
-        for (final Class<?> types : type.getInterfaces())
-        {
-            addType(types, object);
-        }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
-        {
-            addSuperClass(object, parent);
-        }
-    }
-
-    /**
-     * Remove object parent super type.
-     * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
-     */
-    private void removeSuperClass(Object object, Class<?> type)
-    {
-        for (final Class<?> types : type.getInterfaces())
-        {
-            remove(types, object);
-        }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
-        {
-            removeSuperClass(object, parent);
+            final TypeList list = getList(type);
+            if (!contains(added, list, object))
+            {
+                added.add(list.add(object));
+            }
         }
     }
 
     /**
-     * Remove the object from its type list.
+     * Get the type list, created if not existing.
      * 
      * @param type The type reference.
-     * @param object The object reference.
+     * @return The type list.
      */
-    private void remove(Class<?> type, Object object)
+    private TypeList getList(Class<?> type)
     {
-        final Set<?> set = items.get(type);
-        if (set != null)
+        TypeList list = items.get(type);
+        if (list == null)
         {
-            set.remove(object);
+            list = new TypeList();
+            items.put(type, list);
         }
+        return list;
     }
 
     /*
@@ -202,10 +256,10 @@ final class HandlablesImpl implements Handlables
     @SuppressWarnings("unchecked")
     public <I> Iterable<I> get(Class<I> type)
     {
-        final Set<?> featurables = items.get(type);
-        if (featurables != null)
+        final TypeList list = items.get(type);
+        if (list != null)
         {
-            return (Iterable<I>) featurables;
+            return (Iterable<I>) list;
         }
         return Collections.emptySet();
     }
@@ -44,7 +44,7 @@ public class IdentifiableModel extends FeatureModel implements Identifiable, Rec
      * @return The next unused ID.
      * @throws LionEngineException If there is more than {@link Integer#MAX_VALUE} at the same time.
      */
-    private static Integer getFreeId()
+    private static synchronized Integer getFreeId()
     {
         if (!RECYCLE.isEmpty())
         {
@@ -65,6 +65,19 @@ public class IdentifiableModel extends FeatureModel implements Identifiable, Rec
         return id;
     }
 
+    /**
+     * Release an ID, making it available for recycle.
+     * 
+     * @param id The ID to release.
+     */
+    private static synchronized void free(Integer id)
+    {
+        if (IDS.remove(id))
+        {
+            RECYCLE.add(id);
+        }
+    }
+
     /** Listeners. */
     private final Collection<IdentifiableListener> listeners = new HashSet<IdentifiableListener>(1);
     /** Unique ID. */
@@ -84,6 +97,14 @@ public class IdentifiableModel extends FeatureModel implements Identifiable, Rec
         super();
     }
 
+    /**
+     * Release the ID of a destroyed recyclable featurable which will not be reused.
+     */
+    void free()
+    {
+        free(id);
+    }
+
     /*
      * Identifiable
      */
@@ -130,8 +151,7 @@ public class IdentifiableModel extends FeatureModel implements Identifiable, Rec
         destroyed = true;
         if (!hasFeature(Recycler.class))
         {
-            IDS.remove(id);
-            RECYCLE.add(id);
+            free(id);
         }
     }
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Dense list of handled objects of the same type. Objects are stored in an array, removed by moving the last one to the
+ * removed position. Each added object gets a slot, which follows its position for a constant time removal.
+ * <p>
+ * The list iterator is reused once an iteration reached its end, so iterating does not allocate, unless iterations are
+ * nested or a previous one stopped before its end.
+ * </p>
+ */
+final class TypeList implements Iterable<Object>
+{
+    /** Default capacity. */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** Objects. */
+    private Object[] items = new Object[DEFAULT_CAPACITY];
+    /** Slots of objects. */
+    private Slot[] slots = new Slot[DEFAULT_CAPACITY];
+    /** Reused iterator. */
+    private final Cursor cursor = new Cursor();
+    /** Number of objects. */
+    private int size;
+
+    /**
+     * Create list.
+     */
+    TypeList()
+    {
+        super();
+    }
+
+    /**
+     * Add an object.
+     * 
+     * @param object The object to add.
+     * @return The object slot, used for removal.
+     */
+    Slot add(Object object)
+    {
+        if (size == items.length)
+        {
+            items = Arrays.copyOf(items, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        final Slot slot = new Slot(this, size);
+        items[size] = object;
+        slots[size] = slot;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Remove the object of slot. Last object is moved to its position.
+     * 
+     * @param slot The object slot.
+     */
+    void remove(Slot slot)
+    {
+        final int index = slot.index;
+        size--;
+        if (index < size)
+        {
+            items[index] = items[size];
+            slots[index] = slots[size];
+            slots[index].index = index;
+        }
+        items[size] = null;
+        slots[size] = null;
+    }
+
+    /**
+     * Get the number of objects.
+     * 
+     * @return The objects number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /*
+     * Iterable
+     */
+
+    @Override
+    public Iterator<Object> iterator()
+    {
+        if (cursor.used)
+        {
+            return new Cursor().reset();
+        }
+        return cursor.reset();
+    }
+
+    /**
+     * List iterator, released when its end is reached.
+     */
+    private final class Cursor implements Iterator<Object>
+    {
+        /** Current index. */
+        private int index;
+        /** Used flag. */
+        private boolean used;
+
+        /**
+         * Create iterator.
+         */
+        Cursor()
+        {
+            super();
+        }
+
+        /**
+         * Start iteration from first object.
+         * 
+         * @return The iterator.
+         */
+        Cursor reset()
+        {
+            index = 0;
+            used = true;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (index < size)
+            {
+                return true;
+            }
+            used = false;
+            return false;
+        }
+
+        @Override
+        public Object next()
+        {
+            if (index >= size)
+            {
+                throw new NoSuchElementException();
+            }
+            final Object object = items[index];
+            index++;
+            return object;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Object position in its list.
+     */
+    static final class Slot
+    {
+        /** Owner list. */
+        private final TypeList list;
+        /** Object index. */
+        private int index;
+
+        /**
+         * Create slot.
+         * 
+         * @param list The owner list.
+         * @param index The object index.
+         */
+        Slot(TypeList list, int index)
+        {
+            super();
+
+            this.list = list;
+            this.index = index;
+        }
+
+        /**
+         * Check if slot holds the object in the list.
+         * 
+         * @param list The list to check.
+         * @param object The object to check.
+         * @return <code>true</code> if holds, <code>false</code> else.
+         */
+        boolean holds(TypeList list, Object object)
+        {
+            return this.list == list && list.items[index] == object;
+        }
+
+        /**
+         * Remove object from its list.
+         */
+        void remove()
+        {
+            list.remove(this);
+        }
+    }
+}
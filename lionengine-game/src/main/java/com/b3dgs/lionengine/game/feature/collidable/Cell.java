@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+import java.util.Arrays;
+
+/**
+ * Collidables inside a map cell. Cells are pooled and reused with another key once empty.
+ */
+final class Cell
+{
+    /** Default capacity. */
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /** Collidables entries inside cell. */
+    private CellRange[] entries = new CellRange[DEFAULT_CAPACITY];
+    /** Number of entries. */
+    private int size;
+    /** Cell key. */
+    private long key;
+
+    /**
+     * Create cell.
+     */
+    Cell()
+    {
+        super();
+    }
+
+    /**
+     * Set the cell key.
+     * 
+     * @param key The cell key.
+     */
+    void setKey(long key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * Add a collidable entry.
+     * 
+     * @param entry The entry to add.
+     */
+    void add(CellRange entry)
+    {
+        if (size == entries.length)
+        {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size] = entry;
+        size++;
+    }
+
+    /**
+     * Remove a collidable entry, keeping order.
+     * 
+     * @param entry The entry to remove.
+     */
+    void remove(CellRange entry)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (entries[i] == entry)
+            {
+                System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                size--;
+                entries[size] = null;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sort entries by left location bound. Insertion sort is used as order changes a little between updates.
+     */
+    void sort()
+    {
+        for (int i = 1; i < size; i++)
+        {
+            final CellRange entry = entries[i];
+            int j = i - 1;
+            while (j >= 0 && entries[j].getLeft() > entry.getLeft())
+            {
+                entries[j + 1] = entries[j];
+                j--;
+            }
+            entries[j + 1] = entry;
+        }
+    }
+
+    /**
+     * Get the cell key.
+     * 
+     * @return The cell key.
+     */
+    long getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Get the collidable entry.
+     * 
+     * @param index The entry index.
+     * @return The entry.
+     */
+    CellRange get(int index)
+    {
+        return entries[index];
+    }
+
+    /**
+     * Get the number of collidables.
+     * 
+     * @return The collidables number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Check if cell is empty.
+     * 
+     * @return <code>true</code> if empty, <code>false</code> else.
+     */
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+/**
+ * Open addressing map of cells by packed location key, without allocation on lookup, insertion or removal (except
+ * when growing). Cells are iterated by slot.
+ */
+final class CellMap
+{
+    /** Default capacity (must be a power of two). */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Horizontal index shift in key. */
+    private static final int SHIFT = 32;
+    /** Vertical index mask in key. */
+    private static final long MASK = 0xFFFFFFFFL;
+    /** Hash mixing constant. */
+    private static final int MIX = 0x9E3779B9;
+    /** Hash high bits shift. */
+    private static final int HIGH = 16;
+
+    /**
+     * Get the packed key of a cell location.
+     * 
+     * @param x The horizontal cell index.
+     * @param y The vertical cell index.
+     * @return The cell key.
+     */
+    static long key(int x, int y)
+    {
+        return (long) x << SHIFT | y & MASK;
+    }
+
+    /**
+     * Check if slot is cyclically inside range.
+     * 
+     * @param slot The slot to check.
+     * @param from The range start (excluded).
+     * @param to The range end (included).
+     * @return <code>true</code> if inside, <code>false</code> else.
+     */
+    private static boolean isBetween(int slot, int from, int to)
+    {
+        if (from <= to)
+        {
+            return from < slot && slot <= to;
+        }
+        return from < slot || slot <= to;
+    }
+
+    /** Keys by slot. */
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    /** Cells by slot (<code>null</code> if free). */
+    private Cell[] cells = new Cell[DEFAULT_CAPACITY];
+    /** Number of cells. */
+    private int size;
+
+    /**
+     * Create map.
+     */
+    CellMap()
+    {
+        super();
+    }
+
+    /**
+     * Get the cell.
+     * 
+     * @param key The cell key.
+     * @return The cell, <code>null</code> if none.
+     */
+    Cell get(long key)
+    {
+        final int mask = cells.length - 1;
+        int slot = slot(key, mask);
+        while (cells[slot] != null)
+        {
+            if (keys[slot] == key)
+            {
+                return cells[slot];
+            }
+            slot = slot + 1 & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Put a cell, which must not be already contained.
+     * 
+     * @param cell The cell to put.
+     */
+    void put(Cell cell)
+    {
+        if ((size + 1) * 2 > cells.length)
+        {
+            grow();
+        }
+        insert(cell.getKey(), cell);
+        size++;
+    }
+
+    /**
+     * Remove a cell. Next cells of the same cluster are shifted back, so no tombstone is needed.
+     * 
+     * @param key The cell key.
+     */
+    void remove(long key)
+    {
+        final int mask = cells.length - 1;
+        int slot = slot(key, mask);
+        while (cells[slot] != null && keys[slot] != key)
+        {
+            slot = slot + 1 & mask;
+        }
+        if (cells[slot] != null)
+        {
+            cells[slot] = null;
+            size--;
+
+            int next = slot + 1 & mask;
+            while (cells[next] != null)
+            {
+                if (!isBetween(slot(keys[next], mask), slot, next))
+                {
+                    keys[slot] = keys[next];
+                    cells[slot] = cells[next];
+                    cells[next] = null;
+                    slot = next;
+                }
+                next = next + 1 & mask;
+            }
+        }
+    }
+
+    /**
+     * Get the number of slots.
+     * 
+     * @return The slots number.
+     */
+    int getCapacity()
+    {
+        return cells.length;
+    }
+
+    /**
+     * Get the cell at slot.
+     * 
+     * @param slot The slot index.
+     * @return The cell, <code>null</code> if free.
+     */
+    Cell getCell(int slot)
+    {
+        return cells[slot];
+    }
+
+    /**
+     * Get the number of cells.
+     * 
+     * @return The cells number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the home slot of a key.
+     * 
+     * @param key The key.
+     * @param mask The slots mask.
+     * @return The home slot.
+     */
+    private int slot(long key, int mask)
+    {
+        final int hash = (int) (key ^ key >>> SHIFT) * MIX;
+        return (hash ^ hash >>> HIGH) & mask;
+    }
+
+    /**
+     * Insert cell in first free slot.
+     * 
+     * @param key The cell key.
+     * @param cell The cell.
+     */
+    private void insert(long key, Cell cell)
+    {
+        final int mask = cells.length - 1;
+        int slot = slot(key, mask);
+        while (cells[slot] != null)
+        {
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = key;
+        cells[slot] = cell;
+    }
+
+    /**
+     * Double capacity and insert cells again.
+     */
+    private void grow()
+    {
+        final long[] oldKeys = keys;
+        final Cell[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = new Cell[oldCells.length * 2];
+        for (int i = 0; i < oldCells.length; i++)
+        {
+            if (oldCells[i] != null)
+            {
+                insert(oldKeys[i], oldCells[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+/**
+ * Collidable entry of the collision grid: its covered cells range in its group, and its horizontal location bounds.
+ */
+final class CellRange
+{
+    /** Collidable reference. */
+    private final Collidable collidable;
+    /** Unique id, used for pairs. */
+    private final int id;
+    /** Group. */
+    private Integer group;
+    /** Minimum horizontal cell index. */
+    private int minX;
+    /** Minimum vertical cell index. */
+    private int minY;
+    /** Maximum horizontal cell index. */
+    private int maxX;
+    /** Maximum vertical cell index. */
+    private int maxY;
+    /** Left location bound. */
+    private double left;
+    /** Right location bound. */
+    private double right;
+
+    /**
+     * Create range.
+     * 
+     * @param collidable The collidable reference.
+     * @param id The unique id.
+     */
+    CellRange(Collidable collidable, int id)
+    {
+        super();
+
+        this.collidable = collidable;
+        this.id = id;
+    }
+
+    /**
+     * Set the range.
+     * 
+     * @param group The group.
+     * @param minX The minimum horizontal cell index.
+     * @param minY The minimum vertical cell index.
+     * @param maxX The maximum horizontal cell index.
+     * @param maxY The maximum vertical cell index.
+     */
+    void set(Integer group, int minX, int minY, int maxX, int maxY)
+    {
+        this.group = group;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Set the horizontal location bounds.
+     * 
+     * @param left The left location bound.
+     * @param right The right location bound.
+     */
+    void setBounds(double left, double right)
+    {
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Check if range is the same.
+     * 
+     * @param group The group.
+     * @param minX The minimum horizontal cell index.
+     * @param minY The minimum vertical cell index.
+     * @param maxX The maximum horizontal cell index.
+     * @param maxY The maximum vertical cell index.
+     * @return <code>true</code> if same, <code>false</code> else.
+     */
+    boolean is(Integer group, int minX, int minY, int maxX, int maxY)
+    {
+        return group.equals(this.group) && this.minX == minX && this.minY == minY && isMax(maxX, maxY);
+    }
+
+    /**
+     * Check if collidable accepts the group.
+     * 
+     * @param group The group to check.
+     * @return <code>true</code> if accepted, <code>false</code> else.
+     */
+    boolean accepts(Integer group)
+    {
+        return collidable.getAccepted().contains(group);
+    }
+
+    /**
+     * Get the collidable.
+     * 
+     * @return The collidable reference.
+     */
+    Collidable getCollidable()
+    {
+        return collidable;
+    }
+
+    /**
+     * Get the unique id.
+     * 
+     * @return The unique id.
+     */
+    int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Get the group.
+     * 
+     * @return The group.
+     */
+    Integer getGroup()
+    {
+        return group;
+    }
+
+    /**
+     * Get the minimum horizontal cell index.
+     * 
+     * @return The minimum horizontal cell index.
+     */
+    int getMinX()
+    {
+        return minX;
+    }
+
+    /**
+     * Get the minimum vertical cell index.
+     * 
+     * @return The minimum vertical cell index.
+     */
+    int getMinY()
+    {
+        return minY;
+    }
+
+    /**
+     * Get the maximum horizontal cell index.
+     * 
+     * @return The maximum horizontal cell index.
+     */
+    int getMaxX()
+    {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum vertical cell index.
+     * 
+     * @return The maximum vertical cell index.
+     */
+    int getMaxY()
+    {
+        return maxY;
+    }
+
+    /**
+     * Get the left location bound.
+     * 
+     * @return The left location bound.
+     */
+    double getLeft()
+    {
+        return left;
+    }
+
+    /**
+     * Get the right location bound.
+     * 
+     * @return The right location bound.
+     */
+    double getRight()
+    {
+        return right;
+    }
+
+    /**
+     * Check if maximum is the same.
+     * 
+     * @param maxX The maximum horizontal cell index.
+     * @param maxY The maximum vertical cell index.
+     * @return <code>true</code> if same, <code>false</code> else.
+     */
+    private boolean isMax(int maxX, int maxY)
+    {
+        return this.maxX == maxX && this.maxY == maxY;
+    }
+}
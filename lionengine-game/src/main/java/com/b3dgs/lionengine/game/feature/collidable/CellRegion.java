@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Region of the collision grid, as a range of cells checked by a single thread.
+ * <p>
+ * Each pair of collidables met in the region cells is tested once, and its results are buffered in meeting order
+ * instead of being notified. A pair sharing cells of different regions is buffered by each of them, so regions can be
+ * checked concurrently and merged in order, keeping only the first buffered occurrence of each pair.
+ * </p>
+ * <p>
+ * Region only reads the grid, which must not be modified while checking.
+ * </p>
+ */
+final class CellRegion implements Callable<Void>
+{
+    /** Tested result flag. */
+    static final int TESTED = 1;
+    /** Collided result flag. */
+    static final int COLLIDED = 2;
+    /** Second result shift. */
+    static final int SECOND = 2;
+    /** Default buffer capacity. */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Create the workers executor checking regions.
+     * 
+     * @param threads The threads number.
+     * @return The executor.
+     */
+    static ExecutorService createExecutor(int threads)
+    {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, ComponentCollision.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Remove the entries which right bound is before location.
+     * 
+     * @param active The active entries.
+     * @param left The current left location.
+     */
+    private static void prune(List<CellRange> active, double left)
+    {
+        final int length = active.size();
+        int kept = 0;
+        for (int i = 0; i < length; i++)
+        {
+            final CellRange entry = active.get(i);
+            if (entry.getRight() >= left)
+            {
+                active.set(kept, entry);
+                kept++;
+            }
+        }
+        for (int i = length - 1; i >= kept; i--)
+        {
+            active.remove(i);
+        }
+    }
+
+    /**
+     * Test collision if first accepts second group.
+     * 
+     * @param objectA The entry to test.
+     * @param objectB The other entry.
+     * @return The result flags.
+     */
+    private static int test(CellRange objectA, CellRange objectB)
+    {
+        int result = 0;
+        if (objectA.accepts(objectB.getGroup()))
+        {
+            result = TESTED;
+            if (objectA.getCollidable().collide(objectB.getCollidable()) != null)
+            {
+                result |= COLLIDED;
+            }
+        }
+        return result;
+    }
+
+    /** Cells by group. */
+    private final Map<Integer, CellMap> groups;
+    /** Region cells, in check order. */
+    private final List<Cell> cells = new ArrayList<Cell>();
+    /** Checked pairs in region. */
+    private final PairSet pairs = new PairSet();
+    /** Accepted groups of current cell. */
+    private final List<Integer> accepted = new ArrayList<Integer>();
+    /** Active entries of current cell during sweep. */
+    private final List<CellRange> active = new ArrayList<CellRange>();
+    /** Active entries of others cell during sweep. */
+    private final List<CellRange> activeOthers = new ArrayList<CellRange>();
+    /** First entries of checked pairs. */
+    private CellRange[] firsts = new CellRange[DEFAULT_CAPACITY];
+    /** Second entries of checked pairs. */
+    private CellRange[] seconds = new CellRange[DEFAULT_CAPACITY];
+    /** Results of checked pairs. */
+    private byte[] results = new byte[DEFAULT_CAPACITY];
+    /** Number of checked pairs. */
+    private int size;
+    /** Minimum number of collidables in cells to sweep them (0 to disable). */
+    private int sweepThreshold;
+
+    /**
+     * Create region.
+     * 
+     * @param groups The cells by group.
+     */
+    CellRegion(Map<Integer, CellMap> groups)
+    {
+        super();
+
+        this.groups = groups;
+    }
+
+    /**
+     * Clear region cells and results.
+     * 
+     * @param sweepThreshold The minimum number of collidables in cells to sweep them (0 to disable).
+     */
+    void clear(int sweepThreshold)
+    {
+        this.sweepThreshold = sweepThreshold;
+        cells.clear();
+        pairs.clear();
+        Arrays.fill(firsts, 0, size, null);
+        Arrays.fill(seconds, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Add a cell to region. Cell must be sorted if sweep is enabled.
+     * 
+     * @param cell The cell to add.
+     */
+    void add(Cell cell)
+    {
+        cells.add(cell);
+    }
+
+    /**
+     * Get the number of checked pairs.
+     * 
+     * @return The checked pairs number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the first entry of checked pair.
+     * 
+     * @param index The pair index.
+     * @return The first entry.
+     */
+    CellRange getFirst(int index)
+    {
+        return firsts[index];
+    }
+
+    /**
+     * Get the second entry of checked pair.
+     * 
+     * @param index The pair index.
+     * @return The second entry.
+     */
+    CellRange getSecond(int index)
+    {
+        return seconds[index];
+    }
+
+    /**
+     * Get the results of checked pair. First against second flags are in lower bits, second against first flags are
+     * shifted by {@link #SECOND}.
+     * 
+     * @param index The pair index.
+     * @return The results flags.
+     */
+    int getResults(int index)
+    {
+        return results[index];
+    }
+
+    /**
+     * Check elements in cell against elements of their accepted groups in same cell.
+     * 
+     * @param cell The cell elements.
+     */
+    private void checkCell(Cell cell)
+    {
+        accepted.clear();
+        final int length = cell.size();
+        for (int i = 0; i < length; i++)
+        {
+            for (final Integer group : cell.get(i).getCollidable().getAccepted())
+            {
+                if (!accepted.contains(group))
+                {
+                    accepted.add(group);
+                }
+            }
+        }
+        final int count = accepted.size();
+        for (int i = 0; i < count; i++)
+        {
+            final Integer group = accepted.get(i);
+            final Cell others = getCell(group, cell.getKey());
+            if (others != null)
+            {
+                checkCells(cell, others, group);
+            }
+        }
+    }
+
+    /**
+     * Get the cell of group at key.
+     * 
+     * @param group The group.
+     * @param key The cell key.
+     * @return The cell, <code>null</code> if none.
+     */
+    private Cell getCell(Integer group, long key)
+    {
+        final CellMap elements = groups.get(group);
+        if (elements != null)
+        {
+            return elements.get(key);
+        }
+        return null;
+    }
+
+    /**
+     * Check elements of cell against elements of others cell.
+     * 
+     * @param cell The cell elements.
+     * @param others The others cell elements.
+     * @param group The others group.
+     */
+    private void checkCells(Cell cell, Cell others, Integer group)
+    {
+        if (sweepThreshold > 0 && cell.size() + others.size() >= sweepThreshold)
+        {
+            if (cell == others)
+            {
+                sweep(cell);
+            }
+            else
+            {
+                sweep(cell, others);
+            }
+        }
+        else
+        {
+            final int length = cell.size();
+            final int othersLength = others.size();
+            for (int i = 0; i < length; i++)
+            {
+                final CellRange objectA = cell.get(i);
+                if (objectA.accepts(group))
+                {
+                    for (int k = 0; k < othersLength; k++)
+                    {
+                        check(objectA, others.get(k));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check elements of sorted cell between them by sweep on their horizontal bounds.
+     * 
+     * @param cell The cell elements.
+     */
+    private void sweep(Cell cell)
+    {
+        active.clear();
+        final int length = cell.size();
+        for (int i = 0; i < length; i++)
+        {
+            sweep(cell.get(i), active, active);
+        }
+    }
+
+    /**
+     * Check elements of sorted cell against elements of sorted others cell by sweep on their horizontal bounds.
+     * 
+     * @param cell The cell elements.
+     * @param others The others cell elements.
+     */
+    private void sweep(Cell cell, Cell others)
+    {
+        active.clear();
+        activeOthers.clear();
+
+        final int length = cell.size();
+        final int othersLength = others.size();
+        int i = 0;
+        int k = 0;
+        while (i < length || k < othersLength)
+        {
+            if (k == othersLength || i < length && cell.get(i).getLeft() <= others.get(k).getLeft())
+            {
+                sweep(cell.get(i), activeOthers, active);
+                i++;
+            }
+            else
+            {
+                sweep(others.get(k), active, activeOthers);
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Check entry against overlapping opposite entries, and make it active.
+     * 
+     * @param entry The current entry.
+     * @param opposite The active entries to check against.
+     * @param own The active entries of current entry cell.
+     */
+    private void sweep(CellRange entry, List<CellRange> opposite, List<CellRange> own)
+    {
+        prune(opposite, entry.getLeft());
+        final int length = opposite.size();
+        for (int i = 0; i < length; i++)
+        {
+            check(entry, opposite.get(i));
+        }
+        own.add(entry);
+    }
+
+    /**
+     * Check pair if not already checked in region, and buffer its results.
+     * 
+     * @param objectA The first entry.
+     * @param objectB The second entry.
+     */
+    private void check(CellRange objectA, CellRange objectB)
+    {
+        if (objectA != objectB && pairs.add(PairSet.key(objectA.getId(), objectB.getId())))
+        {
+            if (size == firsts.length)
+            {
+                firsts = Arrays.copyOf(firsts, size * 2);
+                seconds = Arrays.copyOf(seconds, size * 2);
+                results = Arrays.copyOf(results, size * 2);
+            }
+            firsts[size] = objectA;
+            seconds[size] = objectB;
+            results[size] = (byte) (test(objectA, objectB) | test(objectB, objectA) << SECOND);
+            size++;
+        }
+    }
+
+    /*
+     * Callable
+     */
+
+    @Override
+    public Void call()
+    {
+        final int length = cells.size();
+        for (int i = 0; i < length; i++)
+        {
+            checkCell(cells.get(i));
+        }
+        return null;
+    }
+}
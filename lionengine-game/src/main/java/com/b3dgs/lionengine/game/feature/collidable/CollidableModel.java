@@ -46,6 +46,16 @@ import com.b3dgs.lionengine.graphic.Graphic;
 public class CollidableModel extends FeatureModel
                              implements Collidable, Recyclable, TransformableListener, IdentifiableListener
 {
+    /** Sweep rectangle per thread, as collisions may be checked concurrently. */
+    private static final ThreadLocal<Rectangle> SWEEP = new ThreadLocal<Rectangle>()
+    {
+        @Override
+        protected Rectangle initialValue()
+        {
+            return new Rectangle();
+        }
+    };
+
     /**
      * Check if current rectangle collides other collidable rectangles.
      * 
@@ -197,14 +207,16 @@ public class CollidableModel extends FeatureModel
     }
 
     /**
-     * Check if other collides with collision and its rectangle area.
+     * Check if other collides with collision and its rectangle area. The rectangle is not modified, as it is swept on
+     * the sweep rectangle.
      * 
      * @param other The other collidable to check.
      * @param collision The collision to check with.
      * @param rectangle The collision rectangle.
+     * @param sweep The rectangle used to sweep collision.
      * @return The collision collides with other, <code>null</code> if none.
      */
-    private Collision collide(Collidable other, Collision collision, Rectangle rectangle)
+    private Collision collide(Collidable other, Collision collision, Rectangle rectangle, Rectangle sweep)
     {
         final Mirror mirror = getMirror(collision);
         final int offsetX = getOffsetX(collision, mirror);
@@ -228,13 +240,14 @@ public class CollidableModel extends FeatureModel
             sy = 0;
         }
 
+        sweep.set(sh, sv, rectangle.getWidthReal(), rectangle.getHeightReal());
         for (int count = 0; count <= norm; count++)
         {
-            if (checkCollide(rectangle, other))
+            if (checkCollide(sweep, other))
             {
                 return collision;
             }
-            rectangle.translate(sx, sy);
+            sweep.translate(sx, sy);
         }
         return null;
     }
@@ -341,10 +354,11 @@ public class CollidableModel extends FeatureModel
     {
         if (enabled && accepted.contains(other.getGroup()))
         {
+            final Rectangle sweep = SWEEP.get();
             final int size = cacheColls.size();
             for (int i = 0; i < size; i++)
             {
-                final Collision collision = collide(other, cacheColls.get(i), cacheRect.get(i));
+                final Collision collision = collide(other, cacheColls.get(i), cacheRect.get(i), sweep);
                 if (collision != null)
                 {
                     return collision;
@@ -17,194 +17,415 @@
  */
 package com.b3dgs.lionengine.game.feature.collidable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.ComponentUpdater;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Handlables;
 import com.b3dgs.lionengine.game.feature.HandlerListener;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.TransformableListener;
-import com.b3dgs.lionengine.geom.Point;
 
 /**
  * Default collision component implementation. Designed to check collision between {@link Collidable}.
  * Collision events are notified to {@link CollidableListener}.
+ * <p>
+ * Collidables are stored by group in a uniform grid of cells, indexed by a packed location key. The covered cells
+ * range of each collidable is kept, so cells are only updated when the range changes, and empty cells are pooled.
+ * </p>
+ * <p>
+ * A pair of collidables is checked once per update, even if they share several cells: each collidable of the pair is
+ * tested against the other if it accepts its group, and notified at most once. Cells with many collidables can be
+ * checked by sorting them on their horizontal bounds and sweeping them (see {@link #setSweepThreshold(int)}).
+ * Counters of the last update are available to tune the reduce factor to the map and the collidables size.
+ * </p>
+ * <p>
+ * Collisions are first detected for all cells, then notified in cells order, so listeners may move collidables
+ * without affecting the current update. Detection can be split in regions checked by worker threads (see
+ * {@link #setThreads(int)}), notifications staying the same and in the same order as with a single thread.
+ * </p>
  * 
  * @see Collidable
  * @see CollidableListener
  */
 public class ComponentCollision implements ComponentUpdater, HandlerListener, TransformableListener
 {
-    /** Location reduce factor (the higher it is, the lower is the map division per location). */
+    /** Default location reduce factor (the higher it is, the lower is the map division per location). */
     static final double REDUCE_FACTOR = 128.0;
+    /** Regions number per thread, for balancing. */
+    private static final int REGIONS_PER_THREAD = 4;
+    /** Worker error. */
+    private static final String ERROR_WORKER = "Collision worker failure !";
 
     /**
-     * Check others element at specified point.
+     * Notify buffered result.
      * 
-     * @param objectA The collidable reference.
-     * @param acceptedElements The current elements to check.
-     * @param point The point to check.
+     * @param objectA The entry to notify.
+     * @param objectB The other entry.
+     * @param results The result flags.
      */
-    private static void checkPoint(Collidable objectA, Map<Point, List<Collidable>> acceptedElements, Point point)
+    private static void notify(CellRange objectA, CellRange objectB, int results)
     {
-        final List<Collidable> others = acceptedElements.get(point);
-        final int othersLength = others.size();
-
-        for (int k = 0; k < othersLength; k++)
+        if ((results & CellRegion.COLLIDED) != 0)
         {
-            final Collidable objectB = others.get(k);
-            if (objectA.collide(objectB) != null)
-            {
-                objectA.notifyCollided(objectB);
-            }
+            objectA.getCollidable().notifyCollided(objectB.getCollidable());
         }
     }
 
-    /** Mapping reduced. */
-    private final Map<Integer, Map<Point, List<Collidable>>> collidables;
+    /** Cells by group. */
+    private final Map<Integer, CellMap> groups = new HashMap<Integer, CellMap>();
+    /** Groups cells, for iteration. */
+    private final List<CellMap> cells = new ArrayList<CellMap>();
+    /** Covered cells by collidable. */
+    private final Map<Collidable, CellRange> ranges = new HashMap<Collidable, CellRange>();
+    /** Empty cells pool. */
+    private final Deque<Cell> pool = new ArrayDeque<Cell>();
+    /** Merged pairs during current update. */
+    private final PairSet pairs = new PairSet();
+    /** Regions to check. */
+    private final List<CellRegion> regions = new ArrayList<CellRegion>();
+    /** Location reduce factor. */
+    private final double reduceFactor;
+    /** Workers executor, <code>null</code> if single threaded. */
+    private ExecutorService executor;
+    /** Number of used regions. */
+    private int regionsCount = 1;
+    /** Minimum number of collidables in cells to sweep them (0 to disable). */
+    private int sweepThreshold;
+    /** Next collidable id. */
+    private int nextId;
+    /** Number of checked pairs during last update. */
+    private int pairsCount;
+    /** Number of collision tests during last update. */
+    private int testsCount;
 
     /**
-     * Create component.
+     * Create component with default reduce factor.
      */
     public ComponentCollision()
+    {
+        this(REDUCE_FACTOR);
+    }
+
+    /**
+     * Create component.
+     * 
+     * @param reduceFactor The location reduce factor, as cell size (must be strictly positive).
+     * @throws LionEngineException If invalid argument.
+     */
+    public ComponentCollision(double reduceFactor)
     {
         super();
 
-        collidables = new HashMap<Integer, Map<Point, List<Collidable>>>();
+        Check.superiorStrict(reduceFactor, 0.0);
+
+        this.reduceFactor = reduceFactor;
     }
 
     /**
-     * Remove point. Remove list of no more collidable.
+     * Set the minimum number of collidables in two cells to check them by sweep instead of testing each pair. Sweep
+     * sorts collidables on their horizontal bounds, which cover their maximum width on each side of their location.
      * 
-     * @param point The point to remove.
-     * @param collidable The associated collidable.
+     * @param threshold The minimum number of collidables (0 to disable sweep, default).
+     * @throws LionEngineException If invalid argument.
      */
-    private void removePoint(Point point, Collidable collidable)
+    public void setSweepThreshold(int threshold)
     {
-        final Integer group = collidable.getGroup();
-        if (collidables.containsKey(group))
+        Check.superiorOrEqual(threshold, 0);
+
+        sweepThreshold = threshold;
+    }
+
+    /**
+     * Set the number of threads used to detect collisions. With more than one thread, cells are split in regions
+     * checked concurrently, and {@link Collidable#collide(Collidable)} must support concurrent calls as long as
+     * collidables are not moved, which is the case of {@link CollidableModel}. Notifications are still performed on the
+     * updating thread. Previous workers are stopped.
+     * 
+     * @param threads The threads number (1 to detect on updating thread, default).
+     * @throws LionEngineException If invalid argument.
+     */
+    public void setThreads(int threads)
+    {
+        Check.superiorStrict(threads, 0);
+
+        if (executor != null)
         {
-            final Map<Point, List<Collidable>> elements = collidables.get(group);
-            if (elements.containsKey(point))
-            {
-                removePoint(point, collidable, elements, group);
-            }
+            executor.shutdownNow();
+            executor = null;
         }
+        if (threads > 1)
+        {
+            executor = CellRegion.createExecutor(threads);
+            regionsCount = threads * REGIONS_PER_THREAD;
+        }
+        else
+        {
+            regionsCount = 1;
+        }
+    }
+
+    /**
+     * Get the number of distinct collidables pairs checked during last update.
+     * 
+     * @return The checked pairs number.
+     */
+    public int getPairsCount()
+    {
+        return pairsCount;
+    }
+
+    /**
+     * Get the number of collision tests performed during last update.
+     * 
+     * @return The collision tests number.
+     */
+    public int getTestsCount()
+    {
+        return testsCount;
     }
 
     /**
-     * Remove point. Remove list of no more collidable.
+     * Get the cell index of a location.
      * 
-     * @param point The point to remove.
-     * @param collidable The associated collidable.
-     * @param elements The current group elements.
-     * @param group The current group.
+     * @param value The location value.
+     * @return The cell index.
      */
-    private void removePoint(Point point, Collidable collidable, Map<Point, List<Collidable>> elements, Integer group)
+    private int getIndex(double value)
     {
-        final List<Collidable> points = elements.get(point);
-        points.remove(collidable);
-        if (points.isEmpty())
+        return (int) Math.floor(value / reduceFactor);
+    }
+
+    /**
+     * Remove collidable from its covered cells. Empty cells are released to pool.
+     * 
+     * @param range The collidable entry.
+     */
+    private void removeCells(CellRange range)
+    {
+        final CellMap elements = groups.get(range.getGroup());
+        for (int x = range.getMinX(); x <= range.getMaxX(); x++)
         {
-            elements.remove(point);
+            for (int y = range.getMinY(); y <= range.getMaxY(); y++)
+            {
+                final long key = CellMap.key(x, y);
+                final Cell cell = elements.get(key);
+                if (cell != null)
+                {
+                    removeCell(elements, cell, range);
+                }
+            }
         }
-        if (elements.isEmpty())
+    }
+
+    /**
+     * Remove collidable from cell. Release cell if empty.
+     * 
+     * @param elements The group cells.
+     * @param cell The cell.
+     * @param range The collidable entry.
+     */
+    private void removeCell(CellMap elements, Cell cell, CellRange range)
+    {
+        cell.remove(range);
+        if (cell.isEmpty())
         {
-            collidables.remove(group);
+            elements.remove(cell.getKey());
+            pool.push(cell);
         }
     }
 
     /**
-     * Add point. Create empty list of not existing.
+     * Add collidable to its covered cells. Cells are taken from pool if not existing.
      * 
-     * @param point The point to remove.
-     * @param collidable The associated collidable.
+     * @param range The collidable entry.
      */
-    private void addPoint(Point point, Collidable collidable)
+    private void addCells(CellRange range)
     {
-        final Integer group = collidable.getGroup();
-        if (!collidables.containsKey(group))
+        CellMap elements = groups.get(range.getGroup());
+        if (elements == null)
         {
-            collidables.put(group, new HashMap<Point, List<Collidable>>());
+            elements = new CellMap();
+            groups.put(range.getGroup(), elements);
+            cells.add(elements);
         }
-        final Map<Point, List<Collidable>> elements = collidables.get(group);
-        if (!elements.containsKey(point))
+        for (int x = range.getMinX(); x <= range.getMaxX(); x++)
         {
-            elements.put(point, new ArrayList<Collidable>());
+            for (int y = range.getMinY(); y <= range.getMaxY(); y++)
+            {
+                getCell(elements, CellMap.key(x, y)).add(range);
+            }
         }
-        elements.get(point).add(collidable);
     }
 
-    /*
-     * ComponentUpdater
+    /**
+     * Get the cell, created if not existing.
+     * 
+     * @param elements The group cells.
+     * @param key The cell key.
+     * @return The cell.
      */
+    private Cell getCell(CellMap elements, long key)
+    {
+        Cell cell = elements.get(key);
+        if (cell == null)
+        {
+            cell = pool.poll();
+            if (cell == null)
+            {
+                cell = new Cell();
+            }
+            cell.setKey(key);
+            elements.put(cell);
+        }
+        return cell;
+    }
 
-    @Override
-    public void update(double extrp, Handlables objects)
+    /**
+     * Split cells in contiguous regions of close cells number, in cells order.
+     * 
+     * @param count The regions number.
+     */
+    private void split(int count)
     {
-        for (final Map<Point, List<Collidable>> groups : collidables.values())
+        while (regions.size() < count)
+        {
+            regions.add(new CellRegion(groups));
+        }
+        int total = 0;
+        final int groupsCount = cells.size();
+        for (int i = 0; i < groupsCount; i++)
+        {
+            total += cells.get(i).size();
+        }
+        for (int i = 0; i < count; i++)
+        {
+            regions.get(i).clear(sweepThreshold);
+        }
+
+        final int target = total / count + 1;
+        int current = 0;
+        int added = 0;
+        for (int i = 0; i < groupsCount; i++)
         {
-            for (final Entry<Point, List<Collidable>> current : groups.entrySet())
+            final CellMap elements = cells.get(i);
+            final int capacity = elements.getCapacity();
+            for (int slot = 0; slot < capacity; slot++)
             {
-                checkGroup(current);
+                final Cell cell = elements.getCell(slot);
+                if (cell != null)
+                {
+                    if (sweepThreshold > 0)
+                    {
+                        cell.sort();
+                    }
+                    regions.get(Math.min(current, count - 1)).add(cell);
+                    added++;
+                    current = added / target;
+                }
             }
         }
     }
 
     /**
-     * Check elements in group.
+     * Check regions with workers, and wait for their end.
      * 
-     * @param current The elements in group.
+     * @param count The regions number.
+     * @throws LionEngineException If worker failure.
      */
-    private void checkGroup(Entry<Point, List<Collidable>> current)
+    private void check(int count)
     {
-        final List<Collidable> elements = current.getValue();
-        final int length = elements.size();
-        for (int i = 0; i < length; i++)
+        try
         {
-            final Collidable objectA = elements.get(i);
-            checkOthers(objectA, current);
+            final List<Future<Void>> futures = executor.invokeAll(regions.subList(0, count));
+            for (final Future<Void> future : futures)
+            {
+                future.get();
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_WORKER);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception.getCause(), ERROR_WORKER);
         }
     }
 
     /**
-     * Check others element.
+     * Notify regions results in order, skipping pairs already notified by a previous region.
      * 
-     * @param objectA The collidable reference.
-     * @param current The current group to check.
+     * @param count The regions number.
      */
-    private void checkOthers(Collidable objectA, Entry<Point, List<Collidable>> current)
+    private void merge(int count)
     {
-        for (final Integer acceptedGroup : objectA.getAccepted())
+        pairs.clear();
+        pairsCount = 0;
+        testsCount = 0;
+        for (int i = 0; i < count; i++)
         {
-            // Others to compare only in accepted group
-            if (collidables.containsKey(acceptedGroup))
+            final CellRegion region = regions.get(i);
+            final int size = region.size();
+            for (int j = 0; j < size; j++)
             {
-                checkOthers(objectA, current, acceptedGroup);
+                final CellRange objectA = region.getFirst(j);
+                final CellRange objectB = region.getSecond(j);
+                if (count == 1 || pairs.add(PairSet.key(objectA.getId(), objectB.getId())))
+                {
+                    merge(objectA, objectB, region.getResults(j));
+                }
             }
         }
     }
 
     /**
-     * Check others element.
+     * Count and notify pair results.
      * 
-     * @param objectA The collidable reference.
-     * @param current The current group to check.
-     * @param acceptedGroup The accepted group.
+     * @param objectA The first entry.
+     * @param objectB The second entry.
+     * @param results The pair results.
      */
-    private void checkOthers(Collidable objectA, Entry<Point, List<Collidable>> current, Integer acceptedGroup)
+    private void merge(CellRange objectA, CellRange objectB, int results)
+    {
+        pairsCount++;
+        testsCount += (results & CellRegion.TESTED) + (results >> CellRegion.SECOND & CellRegion.TESTED);
+        notify(objectA, objectB, results);
+        notify(objectB, objectA, results >> CellRegion.SECOND);
+    }
+
+    /*
+     * ComponentUpdater
+     */
+
+    @Override
+    public void update(double extrp, Handlables objects)
     {
-        final Map<Point, List<Collidable>> acceptedElements = collidables.get(acceptedGroup);
-        final Point point = current.getKey();
-        if (acceptedElements.containsKey(point))
+        final int count;
+        if (executor == null)
         {
-            checkPoint(objectA, acceptedElements, point);
+            count = 1;
+            split(count);
+            regions.get(0).call();
         }
+        else
+        {
+            count = regionsCount;
+            split(count);
+            check(count);
+        }
+        merge(count);
     }
 
     /*
@@ -228,10 +449,11 @@ public class ComponentCollision implements ComponentUpdater, HandlerListener, Tr
         {
             final Transformable transformable = featurable.getFeature(Transformable.class);
             final Collidable collidable = transformable.getFeature(Collidable.class);
-
-            removePoints(transformable.getOldX(), transformable.getOldY(), collidable);
-            removePoints(transformable.getX(), transformable.getY(), collidable);
-
+            final CellRange range = ranges.remove(collidable);
+            if (range != null)
+            {
+                removeCells(range);
+            }
             transformable.removeListener(this);
         }
     }
@@ -244,72 +466,29 @@ public class ComponentCollision implements ComponentUpdater, HandlerListener, Tr
     public void notifyTransformed(Transformable transformable)
     {
         final Collidable collidable = transformable.getFeature(Collidable.class);
+        final Integer group = collidable.getGroup();
+        final double x = transformable.getX();
+        final double y = transformable.getY();
+        final int minX = getIndex(x);
+        final int minY = getIndex(y);
+        final int maxX = getIndex(x + collidable.getMaxWidth());
+        final int maxY = getIndex(y + collidable.getMaxHeight());
 
-        removePoints(transformable.getOldX(), transformable.getOldY(), collidable);
-        addPoints(transformable.getX(), transformable.getY(), collidable);
-    }
-
-    /**
-     * Remove point and adjacent points depending of the collidable max collision size.
-     * 
-     * @param x The horizontal location.
-     * @param y The vertical location.
-     * @param collidable The collidable reference.
-     */
-    private void removePoints(double x, double y, Collidable collidable)
-    {
-        final int minX = (int) Math.floor(x / REDUCE_FACTOR);
-        final int minY = (int) Math.floor(y / REDUCE_FACTOR);
-        final int maxX = (int) Math.floor((x + collidable.getMaxWidth()) / REDUCE_FACTOR);
-        final int maxY = (int) Math.floor((y + collidable.getMaxHeight()) / REDUCE_FACTOR);
-
-        removePoint(new Point(minX, minY), collidable);
-
-        if (minX != maxX && minY == maxY)
-        {
-            removePoint(new Point(maxX, minY), collidable);
-        }
-        else if (minX == maxX && minY != maxY)
-        {
-            removePoint(new Point(minX, maxY), collidable);
-        }
-        else if (minX != maxX)
-        {
-            removePoint(new Point(minX, maxY), collidable);
-            removePoint(new Point(maxX, minY), collidable);
-            removePoint(new Point(maxX, maxY), collidable);
-        }
-    }
-
-    /**
-     * Add point and adjacent points depending of the collidable max collision size.
-     * 
-     * @param x The horizontal location.
-     * @param y The vertical location.
-     * @param collidable The collidable reference.
-     */
-    private void addPoints(double x, double y, Collidable collidable)
-    {
-        final int minX = (int) Math.floor(x / REDUCE_FACTOR);
-        final int minY = (int) Math.floor(y / REDUCE_FACTOR);
-        final int maxX = (int) Math.floor((x + collidable.getMaxWidth()) / REDUCE_FACTOR);
-        final int maxY = (int) Math.floor((y + collidable.getMaxHeight()) / REDUCE_FACTOR);
-
-        addPoint(new Point(minX, minY), collidable);
-
-        if (minX != maxX && minY == maxY)
-        {
-            addPoint(new Point(maxX, minY), collidable);
-        }
-        else if (minX == maxX && minY != maxY)
+        CellRange range = ranges.get(collidable);
+        if (range == null)
         {
-            addPoint(new Point(minX, maxY), collidable);
+            range = new CellRange(collidable, nextId);
+            nextId++;
+            range.set(group, minX, minY, maxX, maxY);
+            ranges.put(collidable, range);
+            addCells(range);
         }
-        else if (minX != maxX)
+        else if (!range.is(group, minX, minY, maxX, maxY))
         {
-            addPoint(new Point(minX, maxY), collidable);
-            addPoint(new Point(maxX, minY), collidable);
-            addPoint(new Point(maxX, maxY), collidable);
+            removeCells(range);
+            range.set(group, minX, minY, maxX, maxY);
+            addCells(range);
         }
+        range.setBounds(x - collidable.getMaxWidth(), x + collidable.getMaxWidth());
     }
 }
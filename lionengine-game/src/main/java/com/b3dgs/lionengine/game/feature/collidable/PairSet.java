@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of pair keys, cleared in constant time by generation.
+ */
+final class PairSet
+{
+    /** Default capacity (must be a power of two). */
+    private static final int DEFAULT_CAPACITY = 64;
+    /** Key high bits shift. */
+    private static final int SHIFT = 32;
+    /** Hash mixing constant. */
+    private static final int MIX = 0x9E3779B9;
+    /** Hash high bits shift. */
+    private static final int HIGH = 16;
+
+    /**
+     * Get the unordered pair key.
+     * 
+     * @param a The first id.
+     * @param b The second id.
+     * @return The pair key.
+     */
+    static long key(int a, int b)
+    {
+        if (a < b)
+        {
+            return CellMap.key(a, b);
+        }
+        return CellMap.key(b, a);
+    }
+
+    /** Keys by slot. */
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    /** Generation by slot (slot used if current generation). */
+    private int[] stamps = new int[DEFAULT_CAPACITY];
+    /** Current generation. */
+    private int generation = 1;
+    /** Number of keys. */
+    private int size;
+
+    /**
+     * Create set.
+     */
+    PairSet()
+    {
+        super();
+    }
+
+    /**
+     * Add a key.
+     * 
+     * @param key The key to add.
+     * @return <code>true</code> if added, <code>false</code> if already contained.
+     */
+    boolean add(long key)
+    {
+        if ((size + 1) * 2 > keys.length)
+        {
+            grow();
+        }
+        final int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (stamps[slot] == generation)
+        {
+            if (keys[slot] == key)
+            {
+                return false;
+            }
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = key;
+        stamps[slot] = generation;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove all keys.
+     */
+    void clear()
+    {
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        generation++;
+        size = 0;
+    }
+
+    /**
+     * Get the number of keys.
+     * 
+     * @return The keys number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the home slot of a key.
+     * 
+     * @param key The key.
+     * @param mask The slots mask.
+     * @return The home slot.
+     */
+    private int slot(long key, int mask)
+    {
+        final int hash = (int) (key ^ key >>> SHIFT) * MIX;
+        return (hash ^ hash >>> HIGH) & mask;
+    }
+
+    /**
+     * Double capacity and insert current keys again.
+     */
+    private void grow()
+    {
+        final long[] oldKeys = keys;
+        final int[] oldStamps = stamps;
+        keys = new long[oldKeys.length * 2];
+        stamps = new int[oldStamps.length * 2];
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldStamps[i] == generation)
+            {
+                int slot = slot(oldKeys[i], mask);
+                while (stamps[slot] == generation)
+                {
+                    slot = slot + 1 & mask;
+                }
+                keys[slot] = oldKeys[i];
+                stamps[slot] = generation;
+            }
+        }
+    }
+}
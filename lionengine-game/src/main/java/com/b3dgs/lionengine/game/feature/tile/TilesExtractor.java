@@ -20,7 +20,15 @@ package com.b3dgs.lionengine.game.feature.tile;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.drawable.Drawable;
@@ -36,6 +44,10 @@ import com.b3dgs.lionengine.graphic.SpriteTiled;
  * This class allows to extract unique tiles from a level rip.
  * The color [0-128-128] ({@link #IGNORED_COLOR_VALUE}) is ignored (can be used to skip tile, in order to improve
  * performance).
+ * <p>
+ * Extracted tiles are indexed by content with a {@link TilesIndex}. Level rips can be extracted in parallel with
+ * {@link #setThreads(int)}, the result being the same as a sequential extraction.
+ * </p>
  */
 public final class TilesExtractor
 {
@@ -43,6 +55,8 @@ public final class TilesExtractor
     public static final ColorRgba IGNORED_COLOR = new ColorRgba(0, 128, 128);
     /** Ignored color. */
     public static final int IGNORED_COLOR_VALUE = IGNORED_COLOR.getRgba();
+    /** Worker error. */
+    private static final String ERROR_WORKER = "Extraction worker failure !";
 
     /**
      * Compare two tiles by checking all pixels.
@@ -76,28 +90,39 @@ public final class TilesExtractor
     }
 
     /**
-     * Check if tile has already been extracted regarding the current tile on level rip.
+     * Create the extraction executor.
      * 
-     * @param level The level rip reference.
-     * @param x The current level rip horizontal location.
-     * @param y The current level rip vertical location.
-     * @param tiles The current extracted tiles.
-     * @return <code>true</code> if already extracted, <code>false</code> else.
+     * @param threads The number of threads.
+     * @return The executor instance.
      */
-    private static boolean isExtracted(SpriteTiled level, int x, int y, Collection<ImageBuffer> tiles)
+    private static ExecutorService createExecutor(int threads)
     {
-        final int tw = level.getTileWidth();
-        final int th = level.getTileHeight();
-        final ImageBuffer surface = level.getSurface();
-
-        for (final ImageBuffer tile : tiles)
+        return Executors.newFixedThreadPool(threads, new ThreadFactory()
         {
-            if (compareTile(tw, th, surface, x, y, tile, 0, 0))
+            @Override
+            public Thread newThread(Runnable runnable)
             {
-                return true;
+                final Thread thread = new Thread(runnable, TilesExtractor.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
             }
-        }
-        return false;
+        });
+    }
+
+    /**
+     * Load level rip.
+     * 
+     * @param levelRip The level rip media.
+     * @param tw The tile width.
+     * @param th The tile height.
+     * @return The loaded level rip.
+     */
+    private static SpriteTiled load(Media levelRip, int tw, int th)
+    {
+        final SpriteTiled level = Drawable.loadSpriteTiled(levelRip, tw, th);
+        level.load();
+        level.prepare();
+        return level;
     }
 
     /**
@@ -121,6 +146,69 @@ public final class TilesExtractor
         return copy;
     }
 
+    /**
+     * Extract the tile from level if not already extracted.
+     * 
+     * @param level The level rip.
+     * @param number The tile number on level.
+     * @param pixels The level rip pixels.
+     * @param offset The tile first pixel index.
+     * @param index The extracted tiles index.
+     * @param tiles The current extracted tiles (can be <code>null</code> if only indexed).
+     */
+    private static void extract(SpriteTiled level,
+                                int number,
+                                int[] pixels,
+                                int offset,
+                                TilesIndex<ImageBuffer> index,
+                                Collection<ImageBuffer> tiles)
+    {
+        final int tw = level.getTileWidth();
+        final int th = level.getTileHeight();
+        final int scan = level.getSurface().getWidth();
+        final int hash = TilesIndex.hash(tw, th, pixels, offset, scan);
+        if (index.get(hash, pixels, offset, scan) == null)
+        {
+            final ImageBuffer tile = extract(level, number);
+            index.put(hash, pixels, offset, scan, tile);
+            if (tiles != null)
+            {
+                tiles.add(tile);
+            }
+        }
+    }
+
+    /**
+     * Merge the tiles of a level rip, in extraction order. Already extracted tiles are disposed.
+     * 
+     * @param extracted The level rip unique tiles.
+     * @param index The extracted tiles index.
+     * @param tiles The extracted tiles.
+     */
+    private static void merge(TilesIndex<ImageBuffer> extracted,
+                              TilesIndex<ImageBuffer> index,
+                              Collection<ImageBuffer> tiles)
+    {
+        final int tw = extracted.getTileWidth();
+        final int th = extracted.getTileHeight();
+        final int count = extracted.size();
+        for (int i = 0; i < count; i++)
+        {
+            final int[] pixels = extracted.getPixels(i);
+            final ImageBuffer tile = extracted.getValue(i);
+            final int hash = TilesIndex.hash(tw, th, pixels, 0, tw);
+            if (index.get(hash, pixels, 0, tw) == null)
+            {
+                index.put(hash, pixels, 0, tw, tile);
+                tiles.add(tile);
+            }
+            else
+            {
+                tile.dispose();
+            }
+        }
+    }
+
     /**
      * Get the total number of tiles.
      * 
@@ -134,14 +222,27 @@ public final class TilesExtractor
         int tiles = 0;
         for (final Media levelRip : levelRips)
         {
-            final ImageHeader info = ImageInfo.get(levelRip);
-            final int horizontalTiles = info.getWidth() / tileWidth;
-            final int verticalTiles = info.getHeight() / tileHeight;
-            tiles += horizontalTiles * verticalTiles;
+            tiles += getTilesNumber(tileWidth, tileHeight, levelRip);
         }
         return tiles;
     }
 
+    /**
+     * Get the number of tiles of a level rip.
+     * 
+     * @param tileWidth The tile width.
+     * @param tileHeight The tile height.
+     * @param levelRip The level rip used.
+     * @return The level rip number of tiles.
+     */
+    private static int getTilesNumber(int tileWidth, int tileHeight, Media levelRip)
+    {
+        final ImageHeader info = ImageInfo.get(levelRip);
+        final int horizontalTiles = info.getWidth() / tileWidth;
+        final int verticalTiles = info.getHeight() / tileHeight;
+        return horizontalTiles * verticalTiles;
+    }
+
     /**
      * Get progress percent.
      * 
@@ -156,6 +257,8 @@ public final class TilesExtractor
 
     /** Progress listener. */
     private final Collection<ProgressListener> listeners = new HashSet<ProgressListener>();
+    /** Number of threads used to extract level rips. */
+    private int threads = 1;
 
     /**
      * Create the extractor.
@@ -175,6 +278,20 @@ public final class TilesExtractor
         listeners.add(listener);
     }
 
+    /**
+     * Set the number of threads used to extract level rips. With more than one thread, each level rip is extracted
+     * separately, and progress is notified once a level rip has been merged.
+     * 
+     * @param threads The number of threads (strictly positive).
+     * @throws LionEngineException If invalid argument.
+     */
+    public void setThreads(int threads)
+    {
+        Check.superiorStrict(threads, 0);
+
+        this.threads = threads;
+    }
+
     /**
      * Start using specified output file. Listeners are cleared once ended.
      * 
@@ -202,19 +319,24 @@ public final class TilesExtractor
     public Collection<ImageBuffer> extract(Canceler canceler, int tw, int th, Collection<Media> levelRips)
     {
         final int tilesNumber = getTilesNumber(tw, th, levelRips);
+        final TilesIndex<ImageBuffer> index = new TilesIndex<ImageBuffer>(tw, th);
         final Collection<ImageBuffer> tiles = new ArrayList<ImageBuffer>();
-        int checkedTiles = 0;
-        for (final Media levelRip : levelRips)
+        if (threads > 1 && levelRips.size() > 1)
         {
-            final SpriteTiled level = Drawable.loadSpriteTiled(levelRip, tw, th);
-            level.load();
-            level.prepare();
-
-            checkedTiles = extract(canceler, level, tilesNumber, tiles, checkedTiles);
-            level.getSurface().dispose();
-            if (checkedTiles < 0)
+            extractParallel(canceler, tw, th, levelRips, tilesNumber, index, tiles);
+        }
+        else
+        {
+            int checkedTiles = 0;
+            for (final Media levelRip : levelRips)
             {
-                break;
+                final SpriteTiled level = load(levelRip, tw, th);
+                checkedTiles = extract(canceler, level, tilesNumber, index, tiles, checkedTiles);
+                level.getSurface().dispose();
+                if (checkedTiles < 0)
+                {
+                    break;
+                }
             }
         }
 
@@ -222,13 +344,106 @@ public final class TilesExtractor
         return tiles;
     }
 
+    /**
+     * Extract each level rip on its own thread, and merge them in order.
+     * 
+     * @param canceler The canceler reference (can be <code>null</code>).
+     * @param tw The tile width.
+     * @param th The tile height.
+     * @param levelRips The levels rip used.
+     * @param tilesNumber The total tiles number to extract.
+     * @param index The extracted tiles index.
+     * @param tiles The extracted tiles.
+     * @throws LionEngineException If an error occurred when computing sheet.
+     */
+    private void extractParallel(Canceler canceler,
+                                 int tw,
+                                 int th,
+                                 Collection<Media> levelRips,
+                                 int tilesNumber,
+                                 TilesIndex<ImageBuffer> index,
+                                 Collection<ImageBuffer> tiles)
+    {
+        final ExecutorService executor = createExecutor(threads);
+        try
+        {
+            final List<Future<TilesIndex<ImageBuffer>>> futures = new ArrayList<Future<TilesIndex<ImageBuffer>>>();
+            final List<Integer> numbers = new ArrayList<Integer>();
+            for (final Media levelRip : levelRips)
+            {
+                futures.add(executor.submit(createTask(canceler, levelRip, tw, th)));
+                numbers.add(Integer.valueOf(getTilesNumber(tw, th, levelRip)));
+            }
+            int checked = 0;
+            int oldPercent = 0;
+            final int count = futures.size();
+            for (int i = 0; i < count; i++)
+            {
+                final TilesIndex<ImageBuffer> extracted = futures.get(i).get();
+                if (extracted == null)
+                {
+                    break;
+                }
+                merge(extracted, index, tiles);
+                checked += numbers.get(i).intValue();
+                oldPercent = updateProgress(checked, tilesNumber, oldPercent, tiles);
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_WORKER);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception.getCause(), ERROR_WORKER);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Create the extraction task of a level rip.
+     * 
+     * @param canceler The canceler reference (can be <code>null</code>).
+     * @param levelRip The level rip to extract.
+     * @param tw The tile width.
+     * @param th The tile height.
+     * @return The task returning the level rip unique tiles, or <code>null</code> if canceled.
+     */
+    private Callable<TilesIndex<ImageBuffer>> createTask(final Canceler canceler,
+                                                         final Media levelRip,
+                                                         final int tw,
+                                                         final int th)
+    {
+        return new Callable<TilesIndex<ImageBuffer>>()
+        {
+            @Override
+            public TilesIndex<ImageBuffer> call()
+            {
+                final SpriteTiled level = load(levelRip, tw, th);
+                final TilesIndex<ImageBuffer> extracted = new TilesIndex<ImageBuffer>(tw, th);
+                final int checked = extract(canceler, level, -1, extracted, null, 0);
+                level.getSurface().dispose();
+                if (checked < 0)
+                {
+                    return null;
+                }
+                return extracted;
+            }
+        };
+    }
+
     /**
      * Proceed the specified level rip.
      * 
      * @param canceler The canceler reference (can be <code>null</code>).
      * @param level The level rip.
-     * @param tilesNumber The total tiles number to extract.
-     * @param tiles The current extracted tiles.
+     * @param tilesNumber The total tiles number to extract, negative to not notify progress.
+     * @param index The extracted tiles index.
+     * @param tiles The current extracted tiles (can be <code>null</code> if only indexed).
      * @param checkedTiles The last number of checked tiles.
      * @return The current number of checked tiles, or -1 if canceled.
      * @throws LionEngineException If an error occurred when proceeding the image.
@@ -236,12 +451,16 @@ public final class TilesExtractor
     private int extract(Canceler canceler,
                         SpriteTiled level,
                         int tilesNumber,
+                        TilesIndex<ImageBuffer> index,
                         Collection<ImageBuffer> tiles,
                         int checkedTiles)
     {
         final int horizontalTiles = level.getTilesHorizontal();
         final int verticalTiles = level.getTilesVertical();
         final ImageBuffer surface = level.getSurface();
+        final int width = surface.getWidth();
+        final int height = surface.getHeight();
+        final int[] pixels = surface.getRgb(0, 0, width, height, new int[width * height], 0, width);
 
         final int tw = level.getTileWidth();
         final int th = level.getTileHeight();
@@ -251,15 +470,16 @@ public final class TilesExtractor
         {
             for (int h = 0; h < horizontalTiles; h++)
             {
-                final int x = h * tw;
-                final int y = v * th;
-                if (IGNORED_COLOR_VALUE != surface.getRgb(x, y) && !isExtracted(level, x, y, tiles))
+                final int offset = v * th * width + h * tw;
+                if (IGNORED_COLOR_VALUE != pixels[offset])
                 {
-                    final ImageBuffer tile = extract(level, h + v * horizontalTiles);
-                    tiles.add(tile);
+                    extract(level, h + v * horizontalTiles, pixels, offset, index, tiles);
                 }
                 checked++;
-                oldPercent = updateProgress(checked, tilesNumber, oldPercent, tiles);
+                if (tilesNumber > 0)
+                {
+                    oldPercent = updateProgress(checked, tilesNumber, oldPercent, tiles);
+                }
                 if (canceler != null && canceler.isCanceled())
                 {
                     return -1;
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of tiles by content, allowing to find an already known tile without comparing it to every indexed tile.
+ * <p>
+ * Tiles are read from a pixels array (as returned by
+ * {@link com.b3dgs.lionengine.graphic.ImageBuffer#getRgb(int, int, int, int, int[], int, int)}) and indexed by a hash
+ * of their pixels. Pixels are only compared when hashes are equal. Indexed pixels are copied, so source array can be
+ * reused.
+ * </p>
+ * 
+ * @param <T> The value type associated to each tile.
+ */
+public final class TilesIndex<T>
+{
+    /** Hash first multiplier. */
+    private static final int C1 = 0xCC9E2D51;
+    /** Hash second multiplier. */
+    private static final int C2 = 0x1B873593;
+    /** Hash mixer. */
+    private static final int M = 0xE6546B64;
+    /** Hash finalizer first multiplier. */
+    private static final int F1 = 0x85EBCA6B;
+    /** Hash finalizer second multiplier. */
+    private static final int F2 = 0xC2B2AE35;
+    /** Hash pixel rotation. */
+    private static final int R1 = 15;
+    /** Hash state rotation. */
+    private static final int R2 = 13;
+    /** Hash state multiplier. */
+    private static final int R2_MUL = 5;
+    /** Finalizer first shift. */
+    private static final int S1 = 16;
+    /** Finalizer second shift. */
+    private static final int S2 = 13;
+
+    /**
+     * Compute the hash of a tile.
+     * 
+     * @param tw The tile width.
+     * @param th The tile height.
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scan The pixels array line length.
+     * @return The tile hash.
+     */
+    public static int hash(int tw, int th, int[] pixels, int offset, int scan)
+    {
+        int hash = 0;
+        for (int y = 0; y < th; y++)
+        {
+            final int line = offset + y * scan;
+            for (int x = 0; x < tw; x++)
+            {
+                int k = pixels[line + x] * C1;
+                k = Integer.rotateLeft(k, R1) * C2;
+                hash = Integer.rotateLeft(hash ^ k, R2) * R2_MUL + M;
+            }
+        }
+        hash ^= hash >>> S1;
+        hash *= F1;
+        hash ^= hash >>> S2;
+        hash *= F2;
+        hash ^= hash >>> S1;
+        return hash;
+    }
+
+    /** Entries by hash. */
+    private final Map<Integer, Entry<T>> entries = new HashMap<Integer, Entry<T>>();
+    /** Entries by insertion order. */
+    private final List<Entry<T>> ordered = new ArrayList<Entry<T>>();
+    /** Tile width. */
+    private final int tw;
+    /** Tile height. */
+    private final int th;
+
+    /**
+     * Create index.
+     * 
+     * @param tw The tile width.
+     * @param th The tile height.
+     */
+    public TilesIndex(int tw, int th)
+    {
+        super();
+
+        this.tw = tw;
+        this.th = th;
+    }
+
+    /**
+     * Get the value of an indexed tile.
+     * 
+     * @param hash The tile hash (computed with {@link #hash(int, int, int[], int, int)}).
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scan The pixels array line length.
+     * @return The associated value, <code>null</code> if tile is not indexed.
+     */
+    public T get(int hash, int[] pixels, int offset, int scan)
+    {
+        Entry<T> entry = entries.get(Integer.valueOf(hash));
+        while (entry != null && !entry.matches(tw, th, pixels, offset, scan))
+        {
+            entry = entry.next;
+        }
+        if (entry != null)
+        {
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Index a tile. Tile must not be already indexed.
+     * 
+     * @param hash The tile hash (computed with {@link #hash(int, int, int[], int, int)}).
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scan The pixels array line length.
+     * @param value The associated value.
+     */
+    public void put(int hash, int[] pixels, int offset, int scan, T value)
+    {
+        final int[] copy = new int[tw * th];
+        for (int y = 0; y < th; y++)
+        {
+            System.arraycopy(pixels, offset + y * scan, copy, y * tw, tw);
+        }
+        final Integer key = Integer.valueOf(hash);
+        final Entry<T> entry = new Entry<T>(copy, value, entries.get(key));
+        entries.put(key, entry);
+        ordered.add(entry);
+    }
+
+    /**
+     * Get the tile width.
+     * 
+     * @return The tile width.
+     */
+    public int getTileWidth()
+    {
+        return tw;
+    }
+
+    /**
+     * Get the tile height.
+     * 
+     * @return The tile height.
+     */
+    public int getTileHeight()
+    {
+        return th;
+    }
+
+    /**
+     * Get the indexed tile pixels, with tile width as line length.
+     * 
+     * @param index The tile index, in insertion order.
+     * @return The tile pixels.
+     */
+    public int[] getPixels(int index)
+    {
+        return ordered.get(index).pixels;
+    }
+
+    /**
+     * Get the indexed tile value.
+     * 
+     * @param index The tile index, in insertion order.
+     * @return The tile value.
+     */
+    public T getValue(int index)
+    {
+        return ordered.get(index).value;
+    }
+
+    /**
+     * Get the number of indexed tiles.
+     * 
+     * @return The indexed tiles number.
+     */
+    public int size()
+    {
+        return ordered.size();
+    }
+
+    /**
+     * Indexed tile, chained with tiles of same hash.
+     * 
+     * @param <T> The value type.
+     */
+    private static final class Entry<T>
+    {
+        /** Tile pixels. */
+        private final int[] pixels;
+        /** Associated value. */
+        private final T value;
+        /** Next entry with same hash (<code>null</code> if none). */
+        private final Entry<T> next;
+
+        /**
+         * Create entry.
+         * 
+         * @param pixels The tile pixels.
+         * @param value The associated value.
+         * @param next The next entry with same hash (<code>null</code> if none).
+         */
+        Entry(int[] pixels, T value, Entry<T> next)
+        {
+            super();
+
+            this.pixels = pixels;
+            this.value = value;
+            this.next = next;
+        }
+
+        /**
+         * Check if tile has same pixels.
+         * 
+         * @param tw The tile width.
+         * @param th The tile height.
+         * @param other The pixels array.
+         * @param offset The tile first pixel index.
+         * @param scan The pixels array line length.
+         * @return <code>true</code> if same pixels, <code>false</code> else.
+         */
+        boolean matches(int tw, int th, int[] other, int offset, int scan)
+        {
+            for (int y = 0; y < th; y++)
+            {
+                final int line = offset + y * scan;
+                final int start = y * tw;
+                for (int x = 0; x < tw; x++)
+                {
+                    if (pixels[start + x] != other[line + x])
+                    {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+/**
+ * Map tile chunk listener, notify when a chunk of a streamed map has been loaded or unloaded.
+ * 
+ * @see MapTileGame#MapTileGame(int)
+ */
+public interface ChunkListener
+{
+    /**
+     * Called once all tiles of chunk have been set.
+     * 
+     * @param tx The horizontal index of the chunk first tile.
+     * @param ty The vertical index of the chunk first tile.
+     * @param size The chunk size in tile (chunk may be cut by map border).
+     */
+    void onChunkLoaded(int tx, int ty, int size);
+
+    /**
+     * Called once chunk has been unloaded, its tiles being missing.
+     * 
+     * @param tx The horizontal index of the chunk first tile.
+     * @param ty The vertical index of the chunk first tile.
+     * @param size The chunk size in tile (chunk may be cut by map border).
+     */
+    void onChunkUnloaded(int tx, int ty, int size);
+}
@@ -17,22 +17,42 @@
  */
 package com.b3dgs.lionengine.game.feature.tile.map;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.drawable.Drawable;
-import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.TileRef;
 import com.b3dgs.lionengine.game.feature.tile.TilesExtractor;
 import com.b3dgs.lionengine.graphic.ImageBuffer;
 import com.b3dgs.lionengine.graphic.Sprite;
-import com.b3dgs.lionengine.graphic.SpriteTiled;
 
 /**
  * This class allows to convert a map image to a map level format.
  * The color [0-128-128] ({@link TilesExtractor#IGNORED_COLOR_VALUE}) is ignored (can be used to skip tile, in order to
  * improve performance).
+ * <p>
+ * Map sheets tiles are indexed by content once, and the index is reused by next conversions while map sheets are not
+ * changed. Rip tiles rows can be resolved in parallel, the result being the same as a sequential conversion.
+ * </p>
  */
 public final class LevelRipConverter
 {
+    /** Worker error. */
+    private static final String ERROR_WORKER = "Conversion worker failure !";
+    /** Sheets index by map. */
+    private static final Map<MapTile, SheetsIndex> INDEXES = new WeakHashMap<MapTile, SheetsIndex>();
+
     /**
      * Run the converter.
      * 
@@ -72,6 +92,25 @@ public final class LevelRipConverter
      */
     public static int start(Media levelrip, MapTile map, ProgressListener listener, Canceler canceler)
     {
+        return start(levelrip, map, listener, canceler, 1);
+    }
+
+    /**
+     * Run the converter, resolving rip tiles rows with the specified number of threads. Map is only modified by the
+     * calling thread, and progress is notified in rows order.
+     * 
+     * @param levelrip The file containing the levelrip as an image.
+     * @param map The destination map reference.
+     * @param listener The progress listener.
+     * @param canceler The canceler reference.
+     * @param threads The number of threads (strictly positive).
+     * @return The total number of not found tiles.
+     * @throws LionEngineException If media is <code>null</code>, image cannot be read or invalid threads number.
+     */
+    public static int start(Media levelrip, MapTile map, ProgressListener listener, Canceler canceler, int threads)
+    {
+        Check.superiorStrict(threads, 0);
+
         final Sprite imageMap = Drawable.loadSprite(levelrip);
         imageMap.load();
         imageMap.prepare();
@@ -80,17 +119,106 @@ public final class LevelRipConverter
         final int imageTilesInY = imageMap.getHeight() / map.getTileHeight();
         map.create(map.getTileWidth(), map.getTileHeight(), imageTilesInX, imageTilesInY);
 
-        final double progressMax = imageTilesInX * (double) imageTilesInY;
+        final ImageBuffer tileRef = imageMap.getSurface();
+        final int width = tileRef.getWidth();
+        final int height = tileRef.getHeight();
+        final int[] pixels = tileRef.getRgb(0, 0, width, height, new int[width * height], 0, width);
+        tileRef.dispose();
+
+        final Rip rip = new Rip(getIndex(map), pixels, width, map.getTileWidth(), map.getTileHeight());
+        ExecutorService executor = null;
+        if (threads > 1)
+        {
+            executor = createExecutor(threads);
+        }
+        try
+        {
+            return convert(map, rip, imageTilesInY, executor, listener, canceler);
+        }
+        finally
+        {
+            if (executor != null)
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Get the sheets index of the map, created if not existing or if map sheets changed.
+     * 
+     * @param map The map reference.
+     * @return The map sheets index.
+     */
+    private static synchronized SheetsIndex getIndex(MapTile map)
+    {
+        SheetsIndex index = INDEXES.get(map);
+        if (index == null || !index.isValid(map))
+        {
+            index = SheetsIndex.create(map);
+            INDEXES.put(map, index);
+        }
+        return index;
+    }
+
+    /**
+     * Create the conversion executor.
+     * 
+     * @param threads The number of threads.
+     * @return The executor instance.
+     */
+    private static ExecutorService createExecutor(int threads)
+    {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, LevelRipConverter.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Convert the rip tiles to map tiles.
+     * 
+     * @param map The destination map reference.
+     * @param rip The rip to convert.
+     * @param imageTilesInY The number of rows.
+     * @param executor The executor used to resolve rows (<code>null</code> to resolve on current thread).
+     * @param listener The progress listener.
+     * @param canceler The canceler reference.
+     * @return The total number of not found tiles.
+     */
+    private static int convert(MapTile map,
+                               Rip rip,
+                               int imageTilesInY,
+                               ExecutorService executor,
+                               ProgressListener listener,
+                               Canceler canceler)
+    {
+        final List<Future<TileRef[]>> rows = new ArrayList<Future<TileRef[]>>();
+        if (executor != null)
+        {
+            for (int progressTileY = 0; progressTileY < imageTilesInY; progressTileY++)
+            {
+                rows.add(executor.submit(rip.createTask(progressTileY)));
+            }
+        }
+
+        final double progressMax = rip.getTilesInX() * (double) imageTilesInY;
         long progress = 0L;
         int lastPercent = 0;
         int errors = 0;
 
-        final ImageBuffer tileRef = imageMap.getSurface();
         for (int progressTileY = 0; progressTileY < imageTilesInY; progressTileY++)
         {
-            for (int progressTileX = 0; progressTileX < imageTilesInX; progressTileX++)
+            final TileRef[] row = getRow(rows, rip, progressTileY);
+            for (int progressTileX = 0; progressTileX < rip.getTilesInX(); progressTileX++)
             {
-                if (!checkPixel(map, tileRef, progressTileX, progressTileY))
+                if (!checkPixel(map, rip, row[progressTileX], progressTileX, progressTileY))
                 {
                     errors++;
                 }
@@ -105,117 +233,185 @@ public final class LevelRipConverter
 
                 if (canceler != null && canceler.isCanceled())
                 {
-                    tileRef.dispose();
                     return errors;
                 }
             }
         }
-
-        tileRef.dispose();
         return errors;
     }
 
     /**
-     * Check the pixel by searching tile on sheet.
+     * Get the resolved sheet tiles of a row.
      * 
-     * @param map The destination map reference.
-     * @param tileRef The tile sheet.
-     * @param progressTileX The progress on horizontal tiles.
-     * @param progressTileY The progress on vertical tiles.
-     * @return <code>true</code> if tile found, <code>false</code> else.
+     * @param rows The rows being resolved (empty to resolve on current thread).
+     * @param rip The rip to convert.
+     * @param progressTileY The row index.
+     * @return The row sheet tiles, <code>null</code> for each tile not found.
      */
-    private static boolean checkPixel(MapTile map, ImageBuffer tileRef, int progressTileX, int progressTileY)
+    private static TileRef[] getRow(List<Future<TileRef[]>> rows, Rip rip, int progressTileY)
     {
-        final int x = progressTileX * map.getTileWidth();
-        final int y = progressTileY * map.getTileHeight();
-        final int pixel = tileRef.getRgb(x, y);
-
-        // Skip blank tile of image map
-        if (TilesExtractor.IGNORED_COLOR_VALUE != pixel)
+        if (rows.isEmpty())
         {
-            // Search if tile is on sheet and get it
-            final Tile tile = searchForTile(map, tileRef, progressTileX, progressTileY);
-            if (tile == null)
-            {
-                return false;
-            }
-            map.setTile(tile);
+            return rip.resolve(progressTileY);
+        }
+        try
+        {
+            return rows.get(progressTileY).get();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_WORKER);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception.getCause(), ERROR_WORKER);
         }
-        return true;
     }
 
     /**
-     * Search current tile of image map by checking all surfaces.
+     * Check the pixel and set its sheet tile if found.
      * 
      * @param map The destination map reference.
-     * @param tileSprite The tiled sprite
-     * @param x The location x.
-     * @param y The location y.
-     * @return The tile found.
+     * @param rip The rip to convert.
+     * @param ref The sheet tile found (<code>null</code> if none).
+     * @param progressTileX The progress on horizontal tiles.
+     * @param progressTileY The progress on vertical tiles.
+     * @return <code>true</code> if tile found or ignored, <code>false</code> else.
      */
-    private static Tile searchForTile(MapTile map, ImageBuffer tileSprite, int x, int y)
+    private static boolean checkPixel(MapTile map, Rip rip, TileRef ref, int progressTileX, int progressTileY)
     {
-        // Check each tile on each sheet
-        for (final Integer sheet : map.getSheets())
+        // Skip blank tile of image map
+        if (rip.isIgnored(progressTileX, progressTileY))
         {
-            final Tile tile = checkTile(map, tileSprite, sheet, x, y);
-            if (tile != null)
-            {
-                return tile;
-            }
+            return true;
+        }
+        if (ref != null)
+        {
+            final int x = progressTileX * map.getTileWidth();
+            final double y = (map.getInTileHeight() - 1.0 - progressTileY) * map.getTileHeight();
+            map.setTile(map.createTile(ref.getSheet(), ref.getNumber(), x, y));
         }
+        return ref != null;
+    }
 
-        // No tile found
-        return null;
+    /**
+     * Private constructor.
+     */
+    private LevelRipConverter()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
     }
 
     /**
-     * Check tile of sheet.
-     * 
-     * @param map The destination map reference.
-     * @param tileSprite The tiled sprite
-     * @param sheet The sheet number.
-     * @param x The location x.
-     * @param y The location y.
-     * @return The tile found.
+     * Rip pixels, resolved by rows.
      */
-    private static Tile checkTile(MapTile map, ImageBuffer tileSprite, Integer sheet, int x, int y)
+    private static final class Rip
     {
-        final int tw = map.getTileWidth();
-        final int th = map.getTileHeight();
-        final SpriteTiled tileSheet = map.getSheet(sheet);
-        final ImageBuffer sheetImage = tileSheet.getSurface();
-        final int tilesInX = tileSheet.getWidth() / tw;
-        final int tilesInY = tileSheet.getHeight() / th;
+        /** Sheets index. */
+        private final SheetsIndex index;
+        /** Rip pixels. */
+        private final int[] pixels;
+        /** Rip width. */
+        private final int width;
+        /** Number of horizontal tiles. */
+        private final int tilesInX;
+        /** Tile width. */
+        private final int tw;
+        /** Tile height. */
+        private final int th;
 
-        for (int surfaceCurrentTileY = 0; surfaceCurrentTileY < tilesInY; surfaceCurrentTileY++)
+        /**
+         * Create rip.
+         * 
+         * @param index The sheets index.
+         * @param pixels The rip pixels.
+         * @param width The rip width.
+         * @param tw The tile width.
+         * @param th The tile height.
+         */
+        Rip(SheetsIndex index, int[] pixels, int width, int tw, int th)
         {
-            for (int surfaceCurrentTileX = 0; surfaceCurrentTileX < tilesInX; surfaceCurrentTileX++)
-            {
-                // Tile number on tile sheet
-                final int number = surfaceCurrentTileX + surfaceCurrentTileY * tilesInX;
+            super();
+
+            this.index = index;
+            this.pixels = pixels;
+            this.width = width;
+            this.tw = tw;
+            this.th = th;
+            tilesInX = width / tw;
+        }
+
+        /**
+         * Get the number of horizontal tiles.
+         * 
+         * @return The number of horizontal tiles.
+         */
+        int getTilesInX()
+        {
+            return tilesInX;
+        }
 
-                // Compare tiles between sheet and image map
-                final int xa = x * tw;
-                final int ya = y * th;
-                final int xb = surfaceCurrentTileX * tw;
-                final int yb = surfaceCurrentTileY * th;
+        /**
+         * Check if tile is ignored.
+         * 
+         * @param tx The horizontal tile.
+         * @param ty The vertical tile.
+         * @return <code>true</code> if ignored, <code>false</code> else.
+         */
+        boolean isIgnored(int tx, int ty)
+        {
+            return TilesExtractor.IGNORED_COLOR_VALUE == pixels[getOffset(tx, ty)];
+        }
 
-                if (TilesExtractor.compareTile(tw, th, tileSprite, xa, ya, sheetImage, xb, yb))
+        /**
+         * Resolve the sheet tiles of a row.
+         * 
+         * @param ty The row index.
+         * @return The row sheet tiles, <code>null</code> for each tile not found or ignored.
+         */
+        TileRef[] resolve(int ty)
+        {
+            final TileRef[] row = new TileRef[tilesInX];
+            for (int tx = 0; tx < tilesInX; tx++)
+            {
+                if (!isIgnored(tx, ty))
                 {
-                    return map.createTile(sheet, number, xa, (map.getInTileHeight() - 1.0 - y) * th);
+                    row[tx] = index.find(pixels, getOffset(tx, ty), width);
                 }
             }
+            return row;
         }
-        return null;
-    }
 
-    /**
-     * Private constructor.
-     */
-    private LevelRipConverter()
-    {
-        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+        /**
+         * Create the task resolving a row.
+         * 
+         * @param ty The row index.
+         * @return The task.
+         */
+        Callable<TileRef[]> createTask(final int ty)
+        {
+            return new Callable<TileRef[]>()
+            {
+                @Override
+                public TileRef[] call()
+                {
+                    return resolve(ty);
+                }
+            };
+        }
+
+        /**
+         * Get the first pixel index of a tile.
+         * 
+         * @param tx The horizontal tile.
+         * @param ty The vertical tile.
+         * @return The pixel index.
+         */
+        private int getOffset(int tx, int ty)
+        {
+            return ty * th * width + tx * tw;
+        }
     }
 
     /**
@@ -172,6 +172,20 @@ public interface MapTile extends SurfaceTile, Featurable
      */
     void removeListener(TileSetListener listener);
 
+    /**
+     * Add a chunk listener. Only streamed maps notify chunks loading.
+     * 
+     * @param listener The listener reference.
+     */
+    void addListener(ChunkListener listener);
+
+    /**
+     * Remove a chunk listener.
+     * 
+     * @param listener The listener reference.
+     */
+    void removeListener(ChunkListener listener);
+
     /**
      * Set a tile at specified map location.
      * <p>
@@ -22,7 +22,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 
 import com.b3dgs.lionengine.Check;
@@ -47,6 +46,12 @@ import com.b3dgs.lionengine.util.UtilRandom;
  * Abstract representation of a standard tile based map. This class uses a List of List to store tiles, a TreeMap to
  * store sheets references ({@link SpriteTiled}), and collisions.
  * <p>
+ * A compact storage can be used instead with {@link #MapTileGame(boolean)}, which only stores sheet and number of each
+ * tile in an <code>int</code> array. Tiles are then returned as lightweight views created on demand, located from their
+ * index, and equal to the previously returned views of the same tile. Tiles with features are kept as they are, so
+ * features on each tile (such as tile collisions) remove most of the memory gain.
+ * </p>
+ * <p>
  * The way to prepare a map is the following:
  * </p>
  * 
@@ -69,11 +74,21 @@ public class MapTileGame extends FeaturableModel implements MapTile
     private static final String ERROR_TILE_SIZE = "Tile size is inconsistent between sheets !";
     /** Invalid map tile size. */
     private static final String ERROR_APPEND_MAP_TILE_SIZE = "Appended map does not have the same tile size: ";
+    /** Not streamed map. */
+    private static final String ERROR_NOT_STREAMED = "Map has not been created with chunks !";
+    /** No chunk value. */
+    private static final int NO_CHUNK = 0;
 
     /** Tile set listeners. */
     private final Collection<TileSetListener> tileSetListeners = new ArrayList<TileSetListener>();
+    /** Chunk listeners. */
+    private final Collection<ChunkListener> chunkListeners = new ArrayList<ChunkListener>();
     /** Sheets list. */
     private final Map<Integer, SpriteTiled> sheets = new HashMap<Integer, SpriteTiled>();
+    /** Use compact storage flag. */
+    private final boolean compact;
+    /** Chunk size in tiles ({@link #NO_CHUNK} if not streamed). */
+    private final int chunkSize;
     /** Sheet configuration file. */
     private Media sheetsConfig;
     /** Tile width. */
@@ -87,49 +102,142 @@ public class MapTileGame extends FeaturableModel implements MapTile
     /** Map radius. */
     private int radius;
     /** Tiles map. */
-    private List<List<Tile>> tiles;
+    private TilesStorage tiles;
+    /** Chunked tiles map (<code>null</code> if not streamed). */
+    private TilesStorageChunked chunks;
 
     /**
      * Create a map tile.
      */
     public MapTileGame()
+    {
+        this(false);
+    }
+
+    /**
+     * Create a map tile.
+     * 
+     * @param compact <code>true</code> to only store tiles sheet and number, <code>false</code> to store each tile.
+     */
+    public MapTileGame(boolean compact)
     {
         super();
+
+        this.compact = compact;
+        chunkSize = NO_CHUNK;
     }
 
     /**
-     * Resize map with new size.
+     * Create a streamed map tile, where tiles are stored by chunks which can be unloaded.
+     * <p>
+     * Tiles are stored as in compact mode, inside chunks allocated when a tile is set and released with
+     * {@link #unloadChunk(int, int)}. Tiles of an unloaded chunk are seen as missing. Chunk loader must call
+     * {@link #setChunkLoaded(int, int)} once chunk tiles are set, so {@link ChunkListener} can prepare them again.
+     * </p>
      * 
-     * @param newWidth The new width in tile.
-     * @param newHeight The new height in tile.
+     * @param chunkSize The chunk size in tiles (must be strictly positive).
+     * @throws LionEngineException If invalid chunk size.
      */
-    private void resize(int newWidth, int newHeight)
+    public MapTileGame(int chunkSize)
+    {
+        super();
+
+        Check.superiorStrict(chunkSize, NO_CHUNK);
+
+        compact = true;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Notify chunk listeners that all chunk tiles have been set.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @throws LionEngineException If map is not streamed or invalid chunk.
+     */
+    public void setChunkLoaded(int cx, int cy)
     {
-        final int oldWidth = widthInTile;
-        final int oldheight = heightInTile;
+        checkChunk(cx, cy);
 
-        // Adjust height
-        for (int v = 0; v < newHeight - oldheight; v++)
+        for (final ChunkListener listener : chunkListeners)
         {
-            tiles.add(new ArrayList<Tile>(newWidth));
+            listener.onChunkLoaded(cx * chunkSize, cy * chunkSize, chunkSize);
         }
-        // Adjust width
-        for (int v = 0; v < newHeight; v++)
+    }
+
+    /**
+     * Unload chunk, removing its tiles and releasing its memory. Chunk listeners are notified, but not tile set
+     * listeners.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @throws LionEngineException If map is not streamed or invalid chunk.
+     */
+    public void unloadChunk(int cx, int cy)
+    {
+        checkChunk(cx, cy);
+
+        chunks.release(cx, cy);
+
+        for (final ChunkListener listener : chunkListeners)
         {
-            final int width;
-            if (v < oldheight)
-            {
-                width = newWidth - oldWidth;
-            }
-            else
-            {
-                width = newWidth;
-            }
-            for (int h = 0; h < width; h++)
-            {
-                tiles.get(v).add(null);
-            }
+            listener.onChunkUnloaded(cx * chunkSize, cy * chunkSize, chunkSize);
         }
+    }
+
+    /**
+     * Check if chunk has tiles loaded.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return <code>true</code> if chunk is loaded, <code>false</code> else.
+     * @throws LionEngineException If map is not streamed or invalid chunk.
+     */
+    public boolean isChunkLoaded(int cx, int cy)
+    {
+        checkChunk(cx, cy);
+
+        return chunks.isLoaded(cx, cy);
+    }
+
+    /**
+     * Get the chunk size.
+     * 
+     * @return The chunk size in tiles, <code>0</code> if map is not streamed.
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Check chunk validity.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @throws LionEngineException If map is not streamed or invalid chunk.
+     */
+    private void checkChunk(int cx, int cy)
+    {
+        if (chunks == null)
+        {
+            throw new LionEngineException(ERROR_NOT_STREAMED);
+        }
+        Check.superiorOrEqual(cx, 0);
+        Check.superiorOrEqual(cy, 0);
+        Check.inferiorStrict(cx, chunks.getChunksHorizontal());
+        Check.inferiorStrict(cy, chunks.getChunksVertical());
+    }
+
+    /**
+     * Resize map with new size.
+     * 
+     * @param newWidth The new width in tile.
+     * @param newHeight The new height in tile.
+     */
+    private void resize(int newWidth, int newHeight)
+    {
+        tiles.resize(newWidth, newHeight);
 
         widthInTile = newWidth;
         heightInTile = newHeight;
@@ -182,21 +290,32 @@ public class MapTileGame extends FeaturableModel implements MapTile
         this.heightInTile = heightInTile;
 
         radius = (int) Math.ceil(StrictMath.sqrt(widthInTile * widthInTile + heightInTile * (double) heightInTile));
-        tiles = new ArrayList<List<Tile>>(heightInTile);
-
-        for (int v = 0; v < heightInTile; v++)
+        if (tiles == null)
         {
-            tiles.add(v, new ArrayList<Tile>(widthInTile));
-            for (int h = 0; h < widthInTile; h++)
+            if (chunkSize != NO_CHUNK)
+            {
+                chunks = new TilesStorageChunked(this, chunkSize);
+                tiles = chunks;
+            }
+            else if (compact)
             {
-                tiles.get(v).add(h, null);
+                tiles = new TilesStorageCompact(this);
+            }
+            else
+            {
+                tiles = new TilesStorageList();
             }
         }
+        tiles.create(widthInTile, heightInTile);
     }
 
     @Override
     public Tile createTile(Integer sheet, int number, double x, double y)
     {
+        if (compact)
+        {
+            return new TileView(null, sheet, number, x, y, tileWidth, tileHeight);
+        }
         return new TileGame(sheet, number, x, y, tileWidth, tileHeight);
     }
 
@@ -358,10 +477,6 @@ public class MapTileGame extends FeaturableModel implements MapTile
     {
         if (tiles != null)
         {
-            for (final List<Tile> list : tiles)
-            {
-                list.clear();
-            }
             tiles.clear();
             widthInTile = 0;
             heightInTile = 0;
@@ -380,15 +495,29 @@ public class MapTileGame extends FeaturableModel implements MapTile
         tileSetListeners.remove(listener);
     }
 
+    @Override
+    public void addListener(ChunkListener listener)
+    {
+        chunkListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(ChunkListener listener)
+    {
+        chunkListeners.remove(listener);
+    }
+
     @Override
     public void setTile(Tile tile)
     {
         final int tx = tile.getInTileX();
         final int ty = tile.getInTileY();
+        Check.superiorOrEqual(tx, 0);
+        Check.superiorOrEqual(ty, 0);
         Check.inferiorStrict(tx, getInTileWidth());
         Check.inferiorStrict(ty, getInTileHeight());
 
-        tiles.get(ty).set(tx, tile);
+        tiles.set(tx, ty, tile);
 
         for (final TileSetListener listener : tileSetListeners)
         {
@@ -403,7 +532,7 @@ public class MapTileGame extends FeaturableModel implements MapTile
         {
             return null;
         }
-        return tiles.get(ty).get(tx);
+        return tiles.get(tx, ty);
     }
 
     @Override
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.game.feature.tile.TileRef;
+import com.b3dgs.lionengine.game.feature.tile.TilesIndex;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.SpriteTiled;
+
+/**
+ * Index of the tiles of the map sheets by content, used by {@link LevelRipConverter}.
+ * <p>
+ * When the same content is present more than once, the first tile in sheets order, then in tile number order, is kept.
+ * Index is read only once created, and can be shared between threads.
+ * </p>
+ */
+final class SheetsIndex
+{
+    /**
+     * Create the index of the current map sheets.
+     * 
+     * @param map The map reference.
+     * @return The created index.
+     */
+    static SheetsIndex create(MapTile map)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        final TilesIndex<TileRef> index = new TilesIndex<TileRef>(tw, th);
+        final List<SpriteTiled> sheets = new ArrayList<SpriteTiled>();
+        for (final Integer sheet : map.getSheets())
+        {
+            final SpriteTiled tileSheet = map.getSheet(sheet);
+            sheets.add(tileSheet);
+            index(index, sheet, tileSheet.getSurface());
+        }
+        return new SheetsIndex(tw, th, sheets, index);
+    }
+
+    /**
+     * Index the tiles of a sheet.
+     * 
+     * @param index The index to fill.
+     * @param sheet The sheet number.
+     * @param surface The sheet surface.
+     */
+    private static void index(TilesIndex<TileRef> index, Integer sheet, ImageBuffer surface)
+    {
+        final int tw = index.getTileWidth();
+        final int th = index.getTileHeight();
+        final int width = surface.getWidth();
+        final int height = surface.getHeight();
+        final int[] pixels = surface.getRgb(0, 0, width, height, new int[width * height], 0, width);
+        final int tilesInX = width / tw;
+        final int tilesInY = height / th;
+        final int count = tilesInX * tilesInY;
+
+        for (int number = 0; number < count; number++)
+        {
+            final int offset = number / tilesInX * th * width + number % tilesInX * tw;
+            final int hash = TilesIndex.hash(tw, th, pixels, offset, width);
+            if (index.get(hash, pixels, offset, width) == null)
+            {
+                index.put(hash, pixels, offset, width, new TileRef(sheet, number));
+            }
+        }
+    }
+
+    /** Tile width. */
+    private final int tw;
+    /** Tile height. */
+    private final int th;
+    /** Indexed sheets. */
+    private final List<SpriteTiled> sheets;
+    /** Tiles index. */
+    private final TilesIndex<TileRef> index;
+
+    /**
+     * Create index.
+     * 
+     * @param tw The tile width.
+     * @param th The tile height.
+     * @param sheets The indexed sheets.
+     * @param index The tiles index.
+     */
+    private SheetsIndex(int tw, int th, List<SpriteTiled> sheets, TilesIndex<TileRef> index)
+    {
+        super();
+
+        this.tw = tw;
+        this.th = th;
+        this.sheets = sheets;
+        this.index = index;
+    }
+
+    /**
+     * Check if index is still valid for the map, by checking its tile size and sheets.
+     * 
+     * @param map The map reference.
+     * @return <code>true</code> if index can be used, <code>false</code> if it must be created again.
+     */
+    boolean isValid(MapTile map)
+    {
+        boolean valid = tw == map.getTileWidth()
+                        && th == map.getTileHeight()
+                        && sheets.size() == map.getSheetsNumber();
+        int i = 0;
+        for (final Integer sheet : map.getSheets())
+        {
+            if (!valid)
+            {
+                break;
+            }
+            valid = sheets.get(i) == map.getSheet(sheet);
+            i++;
+        }
+        return valid;
+    }
+
+    /**
+     * Find the sheet tile with same content.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scan The pixels array line length.
+     * @return The sheet tile found, <code>null</code> if none.
+     */
+    TileRef find(int[] pixels, int offset, int scan)
+    {
+        final int hash = TilesIndex.hash(tw, th, pixels, offset, scan);
+        return index.get(hash, pixels, offset, scan);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+
+/**
+ * Storage of the map tiles.
+ */
+interface TilesStorage
+{
+    /**
+     * Create storage with the specified size, without any tile.
+     * 
+     * @param widthInTile The horizontal tiles number.
+     * @param heightInTile The vertical tiles number.
+     */
+    void create(int widthInTile, int heightInTile);
+
+    /**
+     * Resize storage, keeping current tiles.
+     * 
+     * @param widthInTile The new horizontal tiles number (superior or equal to current one).
+     * @param heightInTile The new vertical tiles number (superior or equal to current one).
+     */
+    void resize(int widthInTile, int heightInTile);
+
+    /**
+     * Remove all tiles and set size to zero.
+     */
+    void clear();
+
+    /**
+     * Set tile at its location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param tile The tile reference.
+     */
+    void set(int tx, int ty, Tile tile);
+
+    /**
+     * Get tile at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The tile found (<code>null</code> if none).
+     */
+    Tile get(int tx, int ty);
+
+    /**
+     * Keep the view if it still represents its stored tile. Called by the view when a feature is added, so the feature
+     * is found on next get.
+     * 
+     * @param view The view reference.
+     */
+    void keep(TileView view);
+}
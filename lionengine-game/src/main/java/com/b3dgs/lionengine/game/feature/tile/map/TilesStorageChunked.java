@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+
+/**
+ * Tiles storage split into square chunks, each one keeping packed sheet and tile number of its tiles (see
+ * {@link TilesStorageCompact}).
+ * <p>
+ * Chunks are allocated when a tile is set inside, and can be released to free their memory. A released chunk behaves as
+ * if it had no tile. Tiles are returned as {@link TileView} created on demand. Tiles with features are kept in a side
+ * array of their chunk, released with it, so features must be added again when chunk is loaded again.
+ * </p>
+ */
+final class TilesStorageChunked implements TilesStorage
+{
+    /**
+     * Get the number of chunks needed to cover tiles.
+     * 
+     * @param tiles The number of tiles.
+     * @param chunkSize The chunk size in tiles.
+     * @return The number of chunks.
+     */
+    private static int getChunksNumber(int tiles, int chunkSize)
+    {
+        return (tiles + chunkSize - 1) / chunkSize;
+    }
+
+    /** Map reference. */
+    private final MapTile map;
+    /** Chunk size in tiles. */
+    private final int chunkSize;
+    /** Chunks packed tiles, horizontal first (<code>null</code> if not allocated). */
+    private int[][] chunks = new int[0][];
+    /** Chunks tiles with features, indexed as packed tiles (<code>null</code> if none). */
+    private Tile[][] featured = new Tile[0][];
+    /** Number of horizontal chunks. */
+    private int chunksH;
+    /** Number of vertical chunks. */
+    private int chunksV;
+
+    /**
+     * Create storage.
+     * 
+     * @param map The map reference.
+     * @param chunkSize The chunk size in tiles.
+     */
+    TilesStorageChunked(MapTile map, int chunkSize)
+    {
+        super();
+
+        this.map = map;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Release chunk memory, removing its tiles.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     */
+    void release(int cx, int cy)
+    {
+        chunks[cx + cy * chunksH] = null;
+        featured[cx + cy * chunksH] = null;
+    }
+
+    /**
+     * Check if chunk is allocated.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return <code>true</code> if allocated, <code>false</code> else.
+     */
+    boolean isLoaded(int cx, int cy)
+    {
+        return chunks[cx + cy * chunksH] != null;
+    }
+
+    /**
+     * Get the number of horizontal chunks.
+     * 
+     * @return The horizontal chunks number.
+     */
+    int getChunksHorizontal()
+    {
+        return chunksH;
+    }
+
+    /**
+     * Get the number of vertical chunks.
+     * 
+     * @return The vertical chunks number.
+     */
+    int getChunksVertical()
+    {
+        return chunksV;
+    }
+
+    /**
+     * Get the chunk index of tile.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The chunk index.
+     */
+    private int getChunk(int tx, int ty)
+    {
+        return tx / chunkSize + ty / chunkSize * chunksH;
+    }
+
+    /**
+     * Get the tile index inside its chunk.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The tile index in chunk.
+     */
+    private int getCell(int tx, int ty)
+    {
+        return ty % chunkSize * chunkSize + tx % chunkSize;
+    }
+
+    /**
+     * Set the kept tile, allocating chunk side array if needed.
+     * 
+     * @param index The chunk index.
+     * @param cell The tile index in chunk.
+     * @param tile The tile to keep (<code>null</code> to remove).
+     */
+    private void setFeatured(int index, int cell, Tile tile)
+    {
+        if (featured[index] == null && tile != null)
+        {
+            featured[index] = new Tile[chunkSize * chunkSize];
+        }
+        if (featured[index] != null)
+        {
+            featured[index][cell] = tile;
+        }
+    }
+
+    /*
+     * TilesStorage
+     */
+
+    @Override
+    public void create(int widthInTile, int heightInTile)
+    {
+        clear();
+        resize(widthInTile, heightInTile);
+    }
+
+    @Override
+    public void resize(int newWidth, int newHeight)
+    {
+        final int newH = getChunksNumber(newWidth, chunkSize);
+        final int newV = getChunksNumber(newHeight, chunkSize);
+        final int[][] resized = new int[newH * newV][];
+        final Tile[][] resizedFeatured = new Tile[newH * newV][];
+        for (int cy = 0; cy < chunksV; cy++)
+        {
+            System.arraycopy(chunks, cy * chunksH, resized, cy * newH, chunksH);
+            System.arraycopy(featured, cy * chunksH, resizedFeatured, cy * newH, chunksH);
+        }
+        chunks = resized;
+        featured = resizedFeatured;
+        chunksH = newH;
+        chunksV = newV;
+    }
+
+    @Override
+    public void clear()
+    {
+        chunks = new int[0][];
+        featured = new Tile[0][];
+        chunksH = 0;
+        chunksV = 0;
+    }
+
+    @Override
+    public void set(int tx, int ty, Tile tile)
+    {
+        final int index = getChunk(tx, ty);
+        int[] chunk = chunks[index];
+        if (chunk == null && tile != null)
+        {
+            chunk = new int[chunkSize * chunkSize];
+            Arrays.fill(chunk, TilesStorageCompact.EMPTY);
+            chunks[index] = chunk;
+        }
+        if (chunk != null)
+        {
+            final int cell = getCell(tx, ty);
+            chunk[cell] = TilesStorageCompact.EMPTY;
+            if (tile != null)
+            {
+                chunk[cell] = TilesStorageCompact.pack(tile);
+            }
+            if (tile != null && TilesStorageCompact.hasFeatures(tile))
+            {
+                setFeatured(index, cell, tile);
+            }
+            else
+            {
+                setFeatured(index, cell, null);
+            }
+        }
+    }
+
+    @Override
+    public Tile get(int tx, int ty)
+    {
+        final int index = getChunk(tx, ty);
+        final int offset = getCell(tx, ty);
+        final int[] chunk = chunks[index];
+        int cell = TilesStorageCompact.EMPTY;
+        if (chunk != null)
+        {
+            cell = chunk[offset];
+        }
+        final Tile tile;
+        if (cell == TilesStorageCompact.EMPTY)
+        {
+            tile = null;
+        }
+        else if (featured[index] != null && featured[index][offset] != null)
+        {
+            tile = featured[index][offset];
+        }
+        else
+        {
+            final int tw = map.getTileWidth();
+            final int th = map.getTileHeight();
+            tile = new TileView(this,
+                                Integer.valueOf(cell >>> TilesStorageCompact.NUMBER_BITS),
+                                cell & TilesStorageCompact.NUMBER_MASK,
+                                tx * (double) tw,
+                                ty * (double) th,
+                                tw,
+                                th);
+        }
+        return tile;
+    }
+
+    @Override
+    public void keep(TileView view)
+    {
+        final int tx = view.getInTileX();
+        final int ty = view.getInTileY();
+        if (tx >= 0 && ty >= 0 && tx < chunksH * chunkSize && ty < chunksV * chunkSize)
+        {
+            final int index = getChunk(tx, ty);
+            final int cell = getCell(tx, ty);
+            final int[] chunk = chunks[index];
+            if (chunk != null
+                && chunk[cell] == TilesStorageCompact.pack(view)
+                && (featured[index] == null || featured[index][cell] == null))
+            {
+                setFeatured(index, cell, view);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+
+/**
+ * Tiles storage keeping only sheet and tile number of each tile, packed in an <code>int</code> array indexed by
+ * <code>ty * width + tx</code>.
+ * <p>
+ * Tiles are returned as {@link TileView} created on demand, located from their index. Tiles with features (other than
+ * {@link Identifiable}) are kept as is, including views on which a feature has been added, in a side array indexed as
+ * packed tiles, allocated on first kept tile.
+ * </p>
+ * <p>
+ * Kept tiles cost as much as with the default storage, so features should be avoided on tiles of large maps:
+ * {@link com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePathModel} does not add any, but
+ * {@link com.b3dgs.lionengine.game.feature.tile.map.collision.MapTileCollisionModel} adds one on each tile. A filled
+ * 1024x1024 map uses 4 MB with pathfinding loaded, and 500 MB once collisions are loaded (760 MB with the default
+ * storage).
+ * </p>
+ */
+final class TilesStorageCompact implements TilesStorage
+{
+    /** Empty cell. */
+    static final int EMPTY = -1;
+    /** Bits used by tile number. */
+    static final int NUMBER_BITS = 20;
+    /** Tile number mask. */
+    static final int NUMBER_MASK = (1 << NUMBER_BITS) - 1;
+    /** Maximum sheet value. */
+    private static final int SHEET_MAX = Integer.MAX_VALUE >>> NUMBER_BITS;
+
+    /**
+     * Pack tile sheet and number.
+     * 
+     * @param tile The tile reference.
+     * @return The packed value.
+     * @throws LionEngineException If sheet or number cannot be packed.
+     */
+    static int pack(Tile tile)
+    {
+        final int sheet = tile.getSheet().intValue();
+        final int number = tile.getNumber();
+        Check.inferiorOrEqual(sheet, SHEET_MAX);
+        Check.inferiorOrEqual(number, NUMBER_MASK);
+        return sheet << NUMBER_BITS | number;
+    }
+
+    /**
+     * Check if tile has features to keep.
+     * 
+     * @param tile The tile reference.
+     * @return <code>true</code> if tile must be kept, <code>false</code> if can be packed.
+     */
+    static boolean hasFeatures(Tile tile)
+    {
+        for (final Feature feature : tile.getFeatures())
+        {
+            if (!(feature instanceof Identifiable))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Map reference. */
+    private final MapTile map;
+    /** Packed tiles. */
+    private int[] cells = new int[0];
+    /** Tiles with features, indexed as packed tiles (<code>null</code> if none). */
+    private Tile[] featured;
+    /** Number of horizontal tiles. */
+    private int widthInTile;
+    /** Number of vertical tiles. */
+    private int heightInTile;
+
+    /**
+     * Create storage.
+     * 
+     * @param map The map reference.
+     */
+    TilesStorageCompact(MapTile map)
+    {
+        super();
+
+        this.map = map;
+    }
+
+    /**
+     * Get the kept tile.
+     * 
+     * @param index The tile index.
+     * @return The kept tile (<code>null</code> if none).
+     */
+    private Tile getFeatured(int index)
+    {
+        if (featured == null)
+        {
+            return null;
+        }
+        return featured[index];
+    }
+
+    /**
+     * Set the kept tile, allocating side array if needed.
+     * 
+     * @param index The tile index.
+     * @param tile The tile to keep (<code>null</code> to remove).
+     */
+    private void setFeatured(int index, Tile tile)
+    {
+        if (featured == null && tile != null)
+        {
+            featured = new Tile[cells.length];
+        }
+        if (featured != null)
+        {
+            featured[index] = tile;
+        }
+    }
+
+    /**
+     * Create the view of a stored tile.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param cell The packed tile.
+     * @return The tile view.
+     */
+    private Tile createView(int tx, int ty, int cell)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        return new TileView(this,
+                            Integer.valueOf(cell >>> NUMBER_BITS),
+                            cell & NUMBER_MASK,
+                            tx * (double) tw,
+                            ty * (double) th,
+                            tw,
+                            th);
+    }
+
+    /*
+     * TilesStorage
+     */
+
+    @Override
+    public void create(int widthInTile, int heightInTile)
+    {
+        clear();
+        resize(widthInTile, heightInTile);
+    }
+
+    @Override
+    public void resize(int newWidth, int newHeight)
+    {
+        final int[] resized = new int[newWidth * newHeight];
+        Arrays.fill(resized, EMPTY);
+        final Tile[] resizedFeatured;
+        if (featured == null)
+        {
+            resizedFeatured = null;
+        }
+        else
+        {
+            resizedFeatured = new Tile[resized.length];
+        }
+        for (int ty = 0; ty < heightInTile; ty++)
+        {
+            System.arraycopy(cells, ty * widthInTile, resized, ty * newWidth, widthInTile);
+            if (featured != null)
+            {
+                System.arraycopy(featured, ty * widthInTile, resizedFeatured, ty * newWidth, widthInTile);
+            }
+        }
+        cells = resized;
+        featured = resizedFeatured;
+        widthInTile = newWidth;
+        heightInTile = newHeight;
+    }
+
+    @Override
+    public void clear()
+    {
+        cells = new int[0];
+        featured = null;
+        widthInTile = 0;
+        heightInTile = 0;
+    }
+
+    @Override
+    public void set(int tx, int ty, Tile tile)
+    {
+        final int index = ty * widthInTile + tx;
+        if (tile == null)
+        {
+            cells[index] = EMPTY;
+            setFeatured(index, null);
+        }
+        else
+        {
+            cells[index] = pack(tile);
+            if (hasFeatures(tile))
+            {
+                setFeatured(index, tile);
+            }
+            else
+            {
+                setFeatured(index, null);
+            }
+        }
+    }
+
+    @Override
+    public Tile get(int tx, int ty)
+    {
+        final int index = ty * widthInTile + tx;
+        final int cell = cells[index];
+        final Tile tile;
+        if (cell == EMPTY)
+        {
+            tile = null;
+        }
+        else if (getFeatured(index) == null)
+        {
+            tile = createView(tx, ty, cell);
+        }
+        else
+        {
+            tile = featured[index];
+        }
+        return tile;
+    }
+
+    @Override
+    public void keep(TileView view)
+    {
+        final int tx = view.getInTileX();
+        final int ty = view.getInTileY();
+        if (tx >= 0 && ty >= 0 && tx < widthInTile && ty < heightInTile)
+        {
+            final int index = ty * widthInTile + tx;
+            if (cells[index] == pack(view) && getFeatured(index) == null)
+            {
+                setFeatured(index, view);
+            }
+        }
+    }
+}
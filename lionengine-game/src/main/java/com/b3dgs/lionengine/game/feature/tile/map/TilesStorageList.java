@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+
+/**
+ * Tiles storage keeping each tile instance, as a list of rows.
+ */
+final class TilesStorageList implements TilesStorage
+{
+    /** Tiles rows. */
+    private final List<List<Tile>> tiles = new ArrayList<List<Tile>>();
+    /** Number of horizontal tiles. */
+    private int widthInTile;
+    /** Number of vertical tiles. */
+    private int heightInTile;
+
+    /**
+     * Create storage.
+     */
+    TilesStorageList()
+    {
+        super();
+    }
+
+    /*
+     * TilesStorage
+     */
+
+    @Override
+    public void create(int widthInTile, int heightInTile)
+    {
+        clear();
+        resize(widthInTile, heightInTile);
+    }
+
+    @Override
+    public void resize(int newWidth, int newHeight)
+    {
+        final int oldWidth = widthInTile;
+        final int oldheight = heightInTile;
+
+        // Adjust height
+        for (int v = 0; v < newHeight - oldheight; v++)
+        {
+            tiles.add(new ArrayList<Tile>(newWidth));
+        }
+        // Adjust width
+        for (int v = 0; v < newHeight; v++)
+        {
+            final int width;
+            if (v < oldheight)
+            {
+                width = newWidth - oldWidth;
+            }
+            else
+            {
+                width = newWidth;
+            }
+            for (int h = 0; h < width; h++)
+            {
+                tiles.get(v).add(null);
+            }
+        }
+
+        widthInTile = newWidth;
+        heightInTile = newHeight;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (final List<Tile> list : tiles)
+        {
+            list.clear();
+        }
+        tiles.clear();
+        widthInTile = 0;
+        heightInTile = 0;
+    }
+
+    @Override
+    public void set(int tx, int ty, Tile tile)
+    {
+        tiles.get(ty).set(tx, tile);
+    }
+
+    @Override
+    public Tile get(int tx, int ty)
+    {
+        return tiles.get(ty).get(tx);
+    }
+
+    @Override
+    public void keep(TileView view)
+    {
+        // Nothing to do, views are not created
+    }
+}
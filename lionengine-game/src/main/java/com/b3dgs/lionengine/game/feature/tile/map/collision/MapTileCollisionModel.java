@@ -28,10 +28,12 @@ import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Verbose;
 import com.b3dgs.lionengine.game.Orientation;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Transformable;
 import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.TileRef;
+import com.b3dgs.lionengine.game.feature.tile.map.ChunkListener;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroup;
 import com.b3dgs.lionengine.io.Xml;
@@ -47,7 +49,7 @@ import com.b3dgs.lionengine.util.UtilMath;
  * <li>{@link MapTileGroup}</li>
  * </ul>
  */
-public class MapTileCollisionModel extends FeatureModel implements MapTileCollision
+public class MapTileCollisionModel extends FeatureModel implements MapTileCollision, ChunkListener
 {
     /** Info loading formulas. */
     private static final String INFO_LOAD_FORMULAS = "Loading collision formulas from: ";
@@ -203,13 +205,18 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     }
 
     /**
-     * Load collisions for each tile. Previous collisions will be removed.
+     * Load collisions of tiles inside area and apply their constraints. Previous collisions will be removed.
+     * 
+     * @param minX The first horizontal tile index.
+     * @param minY The first vertical tile index.
+     * @param maxX The last horizontal tile index (excluded).
+     * @param maxY The last vertical tile index (excluded).
      */
-    private void loadTilesCollisions()
+    private void loadTilesCollisions(int minX, int minY, int maxX, int maxY)
     {
-        for (int v = 0; v < map.getInTileHeight(); v++)
+        for (int v = minY; v < maxY; v++)
         {
-            for (int h = 0; h < map.getInTileWidth(); h++)
+            for (int h = minX; h < maxX; h++)
             {
                 final Tile tile = map.getTile(h, v);
                 if (tile != null)
@@ -218,6 +225,22 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
                 }
             }
         }
+        applyConstraints(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Reload collisions of chunk tiles, and of their neighbors as their constraints depend on chunk tiles.
+     * 
+     * @param tx The horizontal index of the chunk first tile.
+     * @param ty The vertical index of the chunk first tile.
+     * @param size The chunk size in tile.
+     */
+    private void loadChunkCollisions(int tx, int ty, int size)
+    {
+        loadTilesCollisions(Math.max(0, tx - 1),
+                            Math.max(0, ty - 1),
+                            Math.min(map.getInTileWidth(), tx + size + 1),
+                            Math.min(map.getInTileHeight(), ty + size + 1));
     }
 
     /**
@@ -264,14 +287,19 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     }
 
     /**
-     * Apply tile constraints depending of their adjacent collisions.
+     * Apply tile constraints inside area depending of their adjacent collisions.
+     * 
+     * @param minX The first horizontal tile index.
+     * @param minY The first vertical tile index.
+     * @param maxX The last horizontal tile index (excluded).
+     * @param maxY The last vertical tile index (excluded).
      */
-    private void applyConstraints()
+    private void applyConstraints(int minX, int minY, int maxX, int maxY)
     {
         final Map<Tile, Collection<CollisionFormula>> toRemove = new HashMap<Tile, Collection<CollisionFormula>>();
-        for (int v = 0; v < map.getInTileHeight(); v++)
+        for (int v = minY; v < maxY; v++)
         {
-            for (int h = 0; h < map.getInTileWidth(); h++)
+            for (int h = minX; h < maxX; h++)
             {
                 final Tile tile = map.getTile(h, v);
                 if (tile != null)
@@ -331,9 +359,27 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
      */
     private boolean checkConstraint(Collection<String> constraints, Tile tile)
     {
-        return tile != null
-               && constraints.contains(mapGroup.getGroup(tile))
-               && !tile.getFeature(TileCollision.class).getCollisionFormulas().isEmpty();
+        return tile != null && constraints.contains(mapGroup.getGroup(tile)) && hasCollisionFormulas(tile);
+    }
+
+    /**
+     * Check if tile has collision formulas from its groups, before constraints. Does not rely on tile collision
+     * feature, as neighbor may be outside of the reloaded area.
+     * 
+     * @param tile The tile to check.
+     * @return <code>true</code> if tile has formulas, <code>false</code> else.
+     */
+    private boolean hasCollisionFormulas(Tile tile)
+    {
+        final TileRef ref = new TileRef(tile);
+        for (final CollisionGroup collision : getCollisionGroups())
+        {
+            if (!collision.getFormulas().isEmpty() && mapGroup.getGroup(collision.getName()).contains(ref))
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -387,6 +433,18 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         return result;
     }
 
+    /*
+     * Feature
+     */
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        map.addListener(this);
+    }
+
     /*
      * MapTileCollision
      */
@@ -402,8 +460,7 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         {
             loadCollisionGroups(collisionGroups);
         }
-        loadTilesCollisions();
-        applyConstraints();
+        loadTilesCollisions(0, 0, map.getInTileWidth(), map.getInTileHeight());
     }
 
     @Override
@@ -411,8 +468,7 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     {
         loadCollisionFormulas(formulasConfig);
         loadCollisionGroups(groupsConfig);
-        loadTilesCollisions();
-        applyConstraints();
+        loadTilesCollisions(0, 0, map.getInTileWidth(), map.getInTileHeight());
     }
 
     @Override
@@ -535,4 +591,20 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     {
         return groupsConfig;
     }
+
+    /*
+     * ChunkListener
+     */
+
+    @Override
+    public void onChunkLoaded(int tx, int ty, int size)
+    {
+        loadChunkCollisions(tx, ty, size);
+    }
+
+    @Override
+    public void onChunkUnloaded(int tx, int ty, int size)
+    {
+        loadChunkCollisions(tx, ty, size);
+    }
 }
@@ -39,6 +39,34 @@ public final class Astar
         return new PathFinderImpl(map, maxSearchDistance, heuristic);
     }
 
+    /**
+     * Create the path finder using the map path features, with the closest heuristic. Searches are hierarchical if map
+     * has the {@link MapTilePathHierarchy} feature, and follow shared flow fields if map has the
+     * {@link MapTilePathFlow} feature.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @return The path finder instance.
+     */
+    static PathFinder createPathFinder(MapTile map, int maxSearchDistance)
+    {
+        final PathFinder finder;
+        if (map.hasFeature(MapTilePathHierarchy.class))
+        {
+            final MapTilePathHierarchy hierarchy = map.getFeature(MapTilePathHierarchy.class);
+            finder = hierarchy.createPathFinder(maxSearchDistance, createHeuristicClosest());
+        }
+        else
+        {
+            finder = createPathFinder(map, maxSearchDistance, createHeuristicClosest());
+        }
+        if (map.hasFeature(MapTilePathFlow.class))
+        {
+            return map.getFeature(MapTilePathFlow.class).createPathFinder(finder);
+        }
+        return finder;
+    }
+
     /**
      * Create the closest heuristic.
      * 
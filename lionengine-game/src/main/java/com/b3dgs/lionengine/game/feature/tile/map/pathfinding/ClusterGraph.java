@@ -0,0 +1,737 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+
+/**
+ * Clusters graph of a map for a mover profile. Map is cut into square clusters, and each border between two clusters
+ * is scanned for entrances (walkable tiles on both sides). Entrances of a same cluster are linked with the cost of the
+ * local path between them.
+ * <p>
+ * Only clusters invalidated by a tile change are rebuilt on {@link #update(Pathfindable, PathFinderImpl)}.
+ * </p>
+ */
+final class ClusterGraph
+{
+    /** Minimum entrance length where two nodes are placed, one at each end. */
+    private static final int ENTRANCE_LONG = 6;
+
+    /**
+     * Get the corner cluster offset of a tile on a cluster corner.
+     * 
+     * @param local The tile index inside cluster.
+     * @return <code>1</code> if tile is on the first line (corner of previous cluster), <code>0</code> else.
+     */
+    private static int getCornerOffset(int local)
+    {
+        if (local == 0)
+        {
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Entrances on right border by cluster (nodes inside cluster, linked with their neighbor). */
+    private final List<List<ClusterNode>> rights;
+    /** Entrances on bottom border by cluster (nodes inside cluster, linked with their neighbor). */
+    private final List<List<ClusterNode>> downs;
+    /** Entrances on bottom right corner by cluster (nodes of the four clusters around the corner). */
+    private final List<List<ClusterNode>> corners;
+    /** Right border to rebuild by cluster. */
+    private final boolean[] dirtyRights;
+    /** Bottom border to rebuild by cluster. */
+    private final boolean[] dirtyDowns;
+    /** Bottom right corner to rebuild by cluster. */
+    private final boolean[] dirtyCorners;
+    /** Links to rebuild by cluster. */
+    private final boolean[] dirtyLinks;
+    /** Cluster nodes cache. */
+    private final Collection<ClusterNode> nodes = new ArrayList<ClusterNode>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Cluster size in tile. */
+    private final int size;
+    /** Map width in tile. */
+    private final int widthInTile;
+    /** Map height in tile. */
+    private final int heightInTile;
+    /** Number of horizontal clusters. */
+    private final int width;
+    /** Number of vertical clusters. */
+    private final int height;
+    /** Graph version, incremented on each rebuild. */
+    private int version;
+    /** Dirty flag. */
+    private boolean dirty;
+
+    /**
+     * Create graph. All clusters have to be built on first update.
+     * 
+     * @param map The map reference.
+     * @param size The cluster size in tile.
+     */
+    ClusterGraph(MapTile map, int size)
+    {
+        super();
+
+        this.map = map;
+        this.size = size;
+        mapPath = map.getFeature(MapTilePath.class);
+        widthInTile = map.getInTileWidth();
+        heightInTile = map.getInTileHeight();
+        width = (widthInTile + size - 1) / size;
+        height = (heightInTile + size - 1) / size;
+
+        final int count = width * height;
+        rights = new ArrayList<List<ClusterNode>>(count);
+        downs = new ArrayList<List<ClusterNode>>(count);
+        corners = new ArrayList<List<ClusterNode>>(count);
+        for (int i = 0; i < count; i++)
+        {
+            rights.add(new ArrayList<ClusterNode>());
+            downs.add(new ArrayList<ClusterNode>());
+            corners.add(new ArrayList<ClusterNode>());
+        }
+        dirtyRights = new boolean[count];
+        dirtyDowns = new boolean[count];
+        dirtyCorners = new boolean[count];
+        dirtyLinks = new boolean[count];
+        Arrays.fill(dirtyRights, true);
+        Arrays.fill(dirtyDowns, true);
+        Arrays.fill(dirtyCorners, true);
+        Arrays.fill(dirtyLinks, true);
+        dirty = true;
+    }
+
+    /**
+     * Invalidate the cluster containing the tile, and its borders shared with neighbors if tile is on it.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    void invalidate(int tx, int ty)
+    {
+        if (tx >= 0 && ty >= 0 && tx < widthInTile && ty < heightInTile)
+        {
+            final int cluster = getCluster(tx, ty);
+            final int lx = tx % size;
+            final int ly = ty % size;
+
+            dirtyLinks[cluster] = true;
+            invalidateRight(cluster, tx, lx);
+            invalidateDown(cluster, ty, ly);
+            if (isBorder(lx) && isBorder(ly))
+            {
+                invalidateCorner(tx / size - getCornerOffset(lx), ty / size - getCornerOffset(ly));
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Invalidate all tiles of a square area.
+     * 
+     * @param tx The horizontal first tile index.
+     * @param ty The vertical first tile index.
+     * @param tiles The area size in tile.
+     */
+    void invalidateArea(int tx, int ty, int tiles)
+    {
+        final int maxX = Math.min(tx + tiles, widthInTile);
+        final int maxY = Math.min(ty + tiles, heightInTile);
+        for (int y = ty; y < maxY; y++)
+        {
+            for (int x = tx; x < maxX; x++)
+            {
+                invalidate(x, y);
+            }
+        }
+    }
+
+    /**
+     * Rebuild invalidated clusters.
+     * 
+     * @param mover The mover reference (defines the profile).
+     * @param finder The local path finder used to link entrances.
+     */
+    void update(Pathfindable mover, PathFinderImpl finder)
+    {
+        if (!dirty)
+        {
+            return;
+        }
+        for (int cluster = 0; cluster < dirtyLinks.length; cluster++)
+        {
+            if (dirtyRights[cluster])
+            {
+                updateRight(mover, cluster);
+                dirtyRights[cluster] = false;
+            }
+            if (dirtyDowns[cluster])
+            {
+                updateDown(mover, cluster);
+                dirtyDowns[cluster] = false;
+            }
+            if (dirtyCorners[cluster])
+            {
+                updateCorner(mover, cluster);
+                dirtyCorners[cluster] = false;
+            }
+        }
+        for (int cluster = 0; cluster < dirtyLinks.length; cluster++)
+        {
+            if (dirtyLinks[cluster])
+            {
+                updateLinks(mover, finder, cluster);
+                dirtyLinks[cluster] = false;
+            }
+        }
+        version++;
+        dirty = false;
+    }
+
+    /**
+     * Get the entrance nodes of a cluster.
+     * 
+     * @param cluster The cluster index.
+     * @param found The found nodes (cleared before).
+     */
+    void getNodes(int cluster, Collection<ClusterNode> found)
+    {
+        found.clear();
+        found.addAll(rights.get(cluster));
+        found.addAll(downs.get(cluster));
+        if (cluster % width > 0)
+        {
+            for (final ClusterNode node : rights.get(cluster - 1))
+            {
+                found.add(node.getNeighbor());
+            }
+        }
+        if (cluster >= width)
+        {
+            for (final ClusterNode node : downs.get(cluster - width))
+            {
+                found.add(node.getNeighbor());
+            }
+        }
+        final boolean left = cluster % width > 0;
+        final boolean top = cluster >= width;
+        getCornerNodes(cluster, cluster, found);
+        if (left)
+        {
+            getCornerNodes(cluster - 1, cluster, found);
+        }
+        if (top)
+        {
+            getCornerNodes(cluster - width, cluster, found);
+        }
+        if (left && top)
+        {
+            getCornerNodes(cluster - width - 1, cluster, found);
+        }
+    }
+
+    /**
+     * Find a local path without leaving the cluster.
+     * 
+     * @param finder The local path finder.
+     * @param mover The mover reference.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param cluster The cluster index.
+     * @return The path found, <code>null</code> if none.
+     */
+    Path findPath(PathFinderImpl finder,
+                  Pathfindable mover,
+                  int stx,
+                  int sty,
+                  int dtx,
+                  int dty,
+                  boolean ignoreRef,
+                  int cluster)
+    {
+        final int minTx = cluster % width * size;
+        final int minTy = cluster / width * size;
+        final int maxTx = Math.min(minTx + size, widthInTile) - 1;
+        final int maxTy = Math.min(minTy + size, heightInTile) - 1;
+
+        return finder.findPath(mover, stx, sty, dtx, dty, ignoreRef, minTx, minTy, maxTx, maxTy);
+    }
+
+    /**
+     * Compute the local costs from a tile to all tiles of its cluster, ignoring objects. Costs are then available with
+     * {@link PathFinderImpl#getFloodCost(int, int)}.
+     * 
+     * @param finder The local path finder.
+     * @param mover The mover reference.
+     * @param tx The horizontal starting tile index.
+     * @param ty The vertical starting tile index.
+     * @param cluster The cluster index.
+     */
+    void flood(PathFinderImpl finder, Pathfindable mover, int tx, int ty, int cluster)
+    {
+        final int minTx = cluster % width * size;
+        final int minTy = cluster / width * size;
+        final int maxTx = Math.min(minTx + size, widthInTile) - 1;
+        final int maxTy = Math.min(minTy + size, heightInTile) - 1;
+
+        finder.flood(mover, tx, ty, minTx, minTy, maxTx, maxTy);
+    }
+
+    /**
+     * Get the local path cost between two tiles of the same cluster, ignoring objects.
+     * 
+     * @param finder The local path finder.
+     * @param mover The mover reference.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @param cluster The cluster index.
+     * @return The path cost, {@link ClusterNode#NO_LINK} if no path.
+     */
+    double getCost(PathFinderImpl finder, Pathfindable mover, int stx, int sty, int dtx, int dty, int cluster)
+    {
+        double cost = 0.0;
+        if (stx != dtx || sty != dty)
+        {
+            final Path path = findPath(finder, mover, stx, sty, dtx, dty, true, cluster);
+            if (path == null)
+            {
+                cost = ClusterNode.NO_LINK;
+            }
+            else
+            {
+                cost = getCost(mover, path);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Get the cluster index of a tile.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cluster index.
+     */
+    int getCluster(int tx, int ty)
+    {
+        return ty / size * width + tx / size;
+    }
+
+    /**
+     * Get the graph version. It changes each time invalidated clusters are rebuilt.
+     * 
+     * @return The graph version.
+     */
+    int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Check if graph has been built for this map size.
+     * 
+     * @param widthInTile The map width in tile.
+     * @param heightInTile The map height in tile.
+     * @return <code>true</code> if same size, <code>false</code> else.
+     */
+    boolean hasSize(int widthInTile, int heightInTile)
+    {
+        return this.widthInTile == widthInTile && this.heightInTile == heightInTile;
+    }
+
+    /**
+     * Get the corner entrance nodes of a cluster.
+     * 
+     * @param corner The cluster index owning the corner (bottom right).
+     * @param cluster The cluster index of nodes to get.
+     * @param found The found nodes.
+     */
+    private void getCornerNodes(int corner, int cluster, Collection<ClusterNode> found)
+    {
+        for (final ClusterNode node : corners.get(corner))
+        {
+            if (node.getCluster() == cluster)
+            {
+                found.add(node);
+            }
+        }
+    }
+
+    /**
+     * Get the path cost, without its last tile.
+     * 
+     * @param mover The mover reference.
+     * @param path The path found.
+     * @return The path cost.
+     */
+    private double getCost(Pathfindable mover, Path path)
+    {
+        double cost = 0.0;
+        final int last = path.getLength() - 1;
+        for (int i = 0; i < last; i++)
+        {
+            cost += mapPath.getCost(mover, path.getX(i), path.getY(i));
+        }
+        return cost;
+    }
+
+    /**
+     * Check if local tile index is on cluster border.
+     * 
+     * @param local The local tile index in cluster.
+     * @return <code>true</code> if on first or last cluster tile, <code>false</code> else.
+     */
+    private boolean isBorder(int local)
+    {
+        return local == 0 || local == size - 1;
+    }
+
+    /**
+     * Invalidate the right border shared by the tile, if tile is on it.
+     * 
+     * @param cluster The cluster index of the tile.
+     * @param tx The horizontal tile index.
+     * @param lx The horizontal local tile index in cluster.
+     */
+    private void invalidateRight(int cluster, int tx, int lx)
+    {
+        if (lx == size - 1)
+        {
+            dirtyRights[cluster] = true;
+        }
+        else if (lx == 0 && tx > 0)
+        {
+            dirtyRights[cluster - 1] = true;
+        }
+    }
+
+    /**
+     * Invalidate the down border shared by the tile, if tile is on it.
+     * 
+     * @param cluster The cluster index of the tile.
+     * @param ty The vertical tile index.
+     * @param ly The vertical local tile index in cluster.
+     */
+    private void invalidateDown(int cluster, int ty, int ly)
+    {
+        if (ly == size - 1)
+        {
+            dirtyDowns[cluster] = true;
+        }
+        else if (ly == 0 && ty > 0)
+        {
+            dirtyDowns[cluster - width] = true;
+        }
+    }
+
+    /**
+     * Invalidate the bottom right corner of a cluster.
+     * 
+     * @param cx The horizontal cluster index.
+     * @param cy The vertical cluster index.
+     */
+    private void invalidateCorner(int cx, int cy)
+    {
+        if (cx >= 0 && cy >= 0)
+        {
+            dirtyCorners[cy * width + cx] = true;
+        }
+    }
+
+    /**
+     * Rebuild diagonal entrances on the bottom right corner of the cluster.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     */
+    private void updateCorner(Pathfindable mover, int cluster)
+    {
+        final List<ClusterNode> entrances = corners.get(cluster);
+        entrances.clear();
+
+        final int cx = cluster % width;
+        final int cy = cluster / width;
+        if (cx + 1 < width && cy + 1 < height)
+        {
+            dirtyLinks[cluster] = true;
+            dirtyLinks[cluster + 1] = true;
+            dirtyLinks[cluster + width] = true;
+            dirtyLinks[cluster + width + 1] = true;
+
+            final int x = cx * size + size - 1;
+            final int y = cy * size + size - 1;
+            if (isFree(mover, x, y) && isFree(mover, x + 1, y + 1))
+            {
+                addCorner(mover, entrances, x, y, 1, cluster, cluster + width + 1);
+            }
+            if (isFree(mover, x + 1, y) && isFree(mover, x, y + 1))
+            {
+                addCorner(mover, entrances, x + 1, y, -1, cluster + 1, cluster + width);
+            }
+        }
+    }
+
+    /**
+     * Add a diagonal entrance node pair, one in each cluster.
+     * 
+     * @param mover The mover reference.
+     * @param entrances The corner entrances.
+     * @param tx The horizontal tile index of the upper node.
+     * @param ty The vertical tile index of the upper node.
+     * @param sx The horizontal movement to the lower node.
+     * @param cluster The upper node cluster index.
+     * @param neighbor The lower node cluster index.
+     */
+    private void addCorner(Pathfindable mover,
+                           List<ClusterNode> entrances,
+                           int tx,
+                           int ty,
+                           int sx,
+                           int cluster,
+                           int neighbor)
+    {
+        final ClusterNode node = new ClusterNode(tx, ty, cluster);
+        final ClusterNode other = new ClusterNode(tx + sx, ty + 1, neighbor);
+        node.setNeighbor(other, getCrossCost(mover, tx, ty, sx, 1));
+        other.setNeighbor(node, getCrossCost(mover, tx + sx, ty + 1, -sx, -1));
+        entrances.add(node);
+        entrances.add(other);
+    }
+
+    /**
+     * Rebuild entrances on the right border of the cluster.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     */
+    private void updateRight(Pathfindable mover, int cluster)
+    {
+        final List<ClusterNode> entrances = rights.get(cluster);
+        entrances.clear();
+        dirtyLinks[cluster] = true;
+
+        final int cx = cluster % width;
+        if (cx + 1 < width)
+        {
+            dirtyLinks[cluster + 1] = true;
+
+            final int x = cx * size + size - 1;
+            final int start = cluster / width * size;
+            final int end = Math.min(start + size, heightInTile);
+            int run = -1;
+            for (int y = start; y <= end; y++)
+            {
+                final boolean free = y < end && isFree(mover, x, y) && isFree(mover, x + 1, y);
+                if (free && run < 0)
+                {
+                    run = y;
+                }
+                else if (!free && run > -1)
+                {
+                    addEntrances(mover, entrances, cluster, cluster + 1, x, run, 0, y - run);
+                    run = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild entrances on the bottom border of the cluster.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     */
+    private void updateDown(Pathfindable mover, int cluster)
+    {
+        final List<ClusterNode> entrances = downs.get(cluster);
+        entrances.clear();
+        dirtyLinks[cluster] = true;
+
+        final int cy = cluster / width;
+        if (cy + 1 < height)
+        {
+            dirtyLinks[cluster + width] = true;
+
+            final int y = cy * size + size - 1;
+            final int start = cluster % width * size;
+            final int end = Math.min(start + size, widthInTile);
+            int run = -1;
+            for (int x = start; x <= end; x++)
+            {
+                final boolean free = x < end && isFree(mover, x, y) && isFree(mover, x, y + 1);
+                if (free && run < 0)
+                {
+                    run = x;
+                }
+                else if (!free && run > -1)
+                {
+                    addEntrances(mover, entrances, cluster, cluster + width, run, y, 1, x - run);
+                    run = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add entrance nodes for a free border segment. A short segment has one entrance in its middle, a long one has an
+     * entrance at each end.
+     * 
+     * @param mover The mover reference.
+     * @param entrances The border entrances.
+     * @param cluster The cluster index.
+     * @param neighbor The neighbor cluster index (right or bottom).
+     * @param tx The segment first horizontal tile index inside cluster.
+     * @param ty The segment first vertical tile index inside cluster.
+     * @param horizontal <code>1</code> if segment is horizontal (bottom border), <code>0</code> if vertical.
+     * @param length The segment length.
+     */
+    private void addEntrances(Pathfindable mover,
+                              List<ClusterNode> entrances,
+                              int cluster,
+                              int neighbor,
+                              int tx,
+                              int ty,
+                              int horizontal,
+                              int length)
+    {
+        final int vertical = 1 - horizontal;
+        if (length < ENTRANCE_LONG)
+        {
+            final int middle = (length - 1) / 2;
+            addEntrance(mover, entrances, cluster, neighbor, tx + middle * horizontal, ty + middle * vertical);
+        }
+        else
+        {
+            final int last = length - 1;
+            addEntrance(mover, entrances, cluster, neighbor, tx, ty);
+            addEntrance(mover, entrances, cluster, neighbor, tx + last * horizontal, ty + last * vertical);
+        }
+    }
+
+    /**
+     * Add an entrance node pair, one in each cluster.
+     * 
+     * @param mover The mover reference.
+     * @param entrances The border entrances.
+     * @param cluster The cluster index.
+     * @param neighbor The neighbor cluster index (right or bottom).
+     * @param tx The horizontal tile index inside cluster.
+     * @param ty The vertical tile index inside cluster.
+     */
+    private void addEntrance(Pathfindable mover,
+                             List<ClusterNode> entrances,
+                             int cluster,
+                             int neighbor,
+                             int tx,
+                             int ty)
+    {
+        final int sx;
+        final int sy;
+        if (neighbor == cluster + 1)
+        {
+            sx = 1;
+            sy = 0;
+        }
+        else
+        {
+            sx = 0;
+            sy = 1;
+        }
+        final ClusterNode node = new ClusterNode(tx, ty, cluster);
+        final ClusterNode other = new ClusterNode(tx + sx, ty + sy, neighbor);
+        node.setNeighbor(other, getCrossCost(mover, tx, ty, sx, sy));
+        other.setNeighbor(node, getCrossCost(mover, tx + sx, ty + sy, -sx, -sy));
+        entrances.add(node);
+    }
+
+    /**
+     * Link all entrances of the cluster.
+     * 
+     * @param mover The mover reference.
+     * @param finder The local path finder.
+     * @param cluster The cluster index.
+     */
+    private void updateLinks(Pathfindable mover, PathFinderImpl finder, int cluster)
+    {
+        getNodes(cluster, nodes);
+        for (final ClusterNode node : nodes)
+        {
+            node.unlink();
+        }
+        for (final ClusterNode node : nodes)
+        {
+            flood(finder, mover, node.getInTileX(), node.getInTileY(), cluster);
+            for (final ClusterNode other : nodes)
+            {
+                final double cost = finder.getFloodCost(other.getInTileX(), other.getInTileY());
+                if (node != other && cost > ClusterNode.NO_LINK)
+                {
+                    node.link(other, cost);
+                }
+            }
+        }
+        nodes.clear();
+    }
+
+    /**
+     * Check if tile is free for the mover, ignoring objects.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if free, <code>false</code> if blocking.
+     */
+    private boolean isFree(Pathfindable mover, int tx, int ty)
+    {
+        return !mapPath.isBlocked(mover, tx, ty, true);
+    }
+
+    /**
+     * Get the cost to cross a border from a tile.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param sx The horizontal movement.
+     * @param sy The vertical movement.
+     * @return The cost, {@link ClusterNode#NO_LINK} if movement is not allowed.
+     */
+    private double getCrossCost(Pathfindable mover, int tx, int ty, int sx, int sy)
+    {
+        if (mover.isMovementAllowed(mapPath.getCategory(tx, ty), MovementTile.from(sx, sy)))
+        {
+            return mapPath.getCost(mover, tx, ty);
+        }
+        return ClusterNode.NO_LINK;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Represents a cluster entrance tile in the clusters graph. It is linked to the other entrances of its cluster, and to
+ * the entrance of the neighbor cluster.
+ */
+final class ClusterNode
+{
+    /** No link cost. */
+    static final double NO_LINK = -1.0;
+
+    /** Default links capacity. */
+    private static final int LINKS = 4;
+
+    /** Linked nodes inside cluster. */
+    private ClusterNode[] nodes = new ClusterNode[LINKS];
+    /** Linked nodes inside cluster costs. */
+    private double[] costs = new double[LINKS];
+    /** Linked nodes number. */
+    private int links;
+    /** Horizontal tile index. */
+    private final int tx;
+    /** Vertical tile index. */
+    private final int ty;
+    /** Cluster index. */
+    private final int cluster;
+    /** Entrance node in neighbor cluster. */
+    private ClusterNode neighbor;
+    /** Entrance node in neighbor cluster cost ({@link #NO_LINK} if movement not allowed). */
+    private double neighborCost = NO_LINK;
+
+    /**
+     * Create node.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param cluster The cluster index.
+     */
+    ClusterNode(int tx, int ty, int cluster)
+    {
+        super();
+
+        this.tx = tx;
+        this.ty = ty;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Link to another entrance node of the same cluster.
+     * 
+     * @param node The linked node.
+     * @param cost The cost to reach the node.
+     */
+    void link(ClusterNode node, double cost)
+    {
+        if (links == nodes.length)
+        {
+            nodes = Arrays.copyOf(nodes, links * 2);
+            costs = Arrays.copyOf(costs, links * 2);
+        }
+        nodes[links] = node;
+        costs[links] = cost;
+        links++;
+    }
+
+    /**
+     * Remove all links inside cluster.
+     */
+    void unlink()
+    {
+        Arrays.fill(nodes, 0, links, null);
+        links = 0;
+    }
+
+    /**
+     * Set the entrance node in neighbor cluster.
+     * 
+     * @param neighbor The neighbor entrance node.
+     * @param cost The cost to reach the neighbor ({@link #NO_LINK} if movement not allowed).
+     */
+    void setNeighbor(ClusterNode neighbor, double cost)
+    {
+        this.neighbor = neighbor;
+        neighborCost = cost;
+    }
+
+    /**
+     * Get the linked nodes number inside cluster.
+     * 
+     * @return The linked nodes number.
+     */
+    int getLinks()
+    {
+        return links;
+    }
+
+    /**
+     * Get the linked node inside cluster.
+     * 
+     * @param index The link index.
+     * @return The linked node.
+     */
+    ClusterNode getLink(int index)
+    {
+        return nodes[index];
+    }
+
+    /**
+     * Get the linked node cost inside cluster.
+     * 
+     * @param index The link index.
+     * @return The cost to reach the linked node.
+     */
+    double getLinkCost(int index)
+    {
+        return costs[index];
+    }
+
+    /**
+     * Get the entrance node in neighbor cluster.
+     * 
+     * @return The neighbor entrance node.
+     */
+    ClusterNode getNeighbor()
+    {
+        return neighbor;
+    }
+
+    /**
+     * Get the entrance node in neighbor cluster cost.
+     * 
+     * @return The cost to reach the neighbor ({@link #NO_LINK} if movement not allowed).
+     */
+    double getNeighborCost()
+    {
+        return neighborCost;
+    }
+
+    /**
+     * Get the horizontal tile index.
+     * 
+     * @return The horizontal tile index.
+     */
+    int getInTileX()
+    {
+        return tx;
+    }
+
+    /**
+     * Get the vertical tile index.
+     * 
+     * @return The vertical tile index.
+     */
+    int getInTileY()
+    {
+        return ty;
+    }
+
+    /**
+     * Get the cluster index.
+     * 
+     * @return The cluster index.
+     */
+    int getCluster()
+    {
+        return cluster;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Flow field toward a destination, for a mover profile.
+ * <p>
+ * The integration field stores the cost to reach the destination from each tile, computed once with a reverse
+ * Dijkstra search over the {@link MapTilePath} costs (objects are ignored). The direction field stores the first
+ * {@link MovementTile} to perform from each tile, so following a field is <code>O(1)</code> per step.
+ * </p>
+ */
+final class FlowField
+{
+    /** Unreached cost. */
+    private static final double UNREACHED = -1.0;
+    /** No movement value. */
+    private static final byte NO_MOVEMENT = -1;
+    /** Movements by ordinal. */
+    private static final MovementTile[] MOVEMENTS = MovementTile.values();
+
+    /** Open list. */
+    private final OpenList open;
+    /** Costs to destination ({@link #UNREACHED} if not reachable). */
+    private final double[] costs;
+    /** Movements ordinal to destination ({@link #NO_MOVEMENT} if none). */
+    private final byte[] movements;
+    /** Width in tile. */
+    private final int width;
+    /** Height in tile. */
+    private final int height;
+    /** Computed flag. */
+    private boolean computed;
+
+    /**
+     * Create field.
+     * 
+     * @param width The width in tile.
+     * @param height The height in tile.
+     */
+    FlowField(int width, int height)
+    {
+        super();
+
+        this.width = width;
+        this.height = height;
+        open = new OpenList(width * height);
+        costs = new double[width * height];
+        movements = new byte[width * height];
+    }
+
+    /**
+     * Compute the field toward destination.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     */
+    void compute(MapTilePath mapPath, Pathfindable mover, int dtx, int dty)
+    {
+        Arrays.fill(costs, UNREACHED);
+        Arrays.fill(movements, NO_MOVEMENT);
+        open.clear();
+
+        final int destination = dty * width + dtx;
+        costs[destination] = 0.0;
+        open.add(destination, 0.0);
+
+        while (open.size() != 0)
+        {
+            final int current = open.poll();
+            final int cx = current % width;
+            final int cy = current / width;
+            for (int y = -1; y < 2; y++)
+            {
+                for (int x = -1; x < 2; x++)
+                {
+                    if (!(x == 0 && y == 0))
+                    {
+                        relax(mapPath, mover, current, cx + x, cy + y, MovementTile.from(-x, -y));
+                    }
+                }
+            }
+        }
+        computed = true;
+    }
+
+    /**
+     * Invalidate field, which will be computed again on next request.
+     */
+    void invalidate()
+    {
+        computed = false;
+    }
+
+    /**
+     * Check if field is computed.
+     * 
+     * @return <code>true</code> if computed, <code>false</code> else.
+     */
+    boolean isComputed()
+    {
+        return computed;
+    }
+
+    /**
+     * Check if field has the specified size.
+     * 
+     * @param width The width in tile.
+     * @param height The height in tile.
+     * @return <code>true</code> if same size, <code>false</code> else.
+     */
+    boolean hasSize(int width, int height)
+    {
+        return this.width == width && this.height == height;
+    }
+
+    /**
+     * Get the movement to perform from location toward destination.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The movement, <code>null</code> if destination reached or not reachable.
+     */
+    MovementTile getMovement(int tx, int ty)
+    {
+        final byte movement = movements[ty * width + tx];
+        if (movement == NO_MOVEMENT)
+        {
+            return null;
+        }
+        return MOVEMENTS[movement];
+    }
+
+    /**
+     * Get the cost to reach destination from location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cost, negative if destination is not reachable.
+     */
+    double getCost(int tx, int ty)
+    {
+        return costs[ty * width + tx];
+    }
+
+    /**
+     * Relax the previous location, which reaches the current one with movement.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param current The current node index.
+     * @param tx The previous horizontal tile index.
+     * @param ty The previous vertical tile index.
+     * @param movement The movement from previous to current location.
+     */
+    private void relax(MapTilePath mapPath,
+                       Pathfindable mover,
+                       int current,
+                       int tx,
+                       int ty,
+                       MovementTile movement)
+    {
+        final String category = mapPath.getCategory(tx, ty);
+        final int previous = ty * width + tx;
+        if (category != null && mover.isMovementAllowed(category, movement))
+        {
+            final double cost = costs[current] + mover.getCost(category);
+            if (costs[previous] < 0.0 || cost < costs[previous])
+            {
+                costs[previous] = cost;
+                movements[previous] = (byte) movement.ordinal();
+                update(mapPath, mover, previous, tx, ty, cost);
+            }
+        }
+    }
+
+    /**
+     * Update the open list with the new node cost. Blocked locations are only reachable as a start location, so they
+     * are not expanded.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param node The node index.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param cost The node cost.
+     */
+    private void update(MapTilePath mapPath, Pathfindable mover, int node, int tx, int ty, double cost)
+    {
+        if (open.contains(node))
+        {
+            open.update(node, cost);
+        }
+        else if (!mapPath.isBlocked(mover, tx, ty, true))
+        {
+            open.add(node, cost);
+        }
+    }
+}
@@ -137,6 +137,15 @@ public interface MapTilePath extends Feature
      */
     double getCost(Pathfindable mover, int tx, int ty);
 
+    /**
+     * Get the category of the tile at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The category name (<code>null</code> if no tile or no category).
+     */
+    String getCategory(int tx, int ty);
+
     /**
      * Return the categories.
      * 
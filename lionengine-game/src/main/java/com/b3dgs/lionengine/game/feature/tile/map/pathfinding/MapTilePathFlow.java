@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import com.b3dgs.lionengine.game.feature.Feature;
+
+/**
+ * Represents the flow field pathfinding feature of a map tile, for group moves toward the same destination.
+ * <p>
+ * A flow field is computed once for a destination and a mover profile (blocking, costs and movements by category),
+ * and gives the next {@link MovementTile} from any tile in <code>O(1)</code>. Fields are kept in a least recently used
+ * cache, and invalidated when a tile is set. {@link #invalidate()} must be called if pathfinding is loaded again.
+ * </p>
+ * <p>
+ * When the map has this feature, {@link PathfindableModel} follows a field once its destination has been requested
+ * by enough distinct movers (as for a selection of units ordered to the same location), and searches other
+ * destinations as usual.
+ * </p>
+ */
+public interface MapTilePathFlow extends Feature
+{
+    /**
+     * Create a path finder following flow fields, using the specified finder for destinations without field.
+     * 
+     * @param finder The finder used for destinations without field.
+     * @return The path finder instance.
+     */
+    PathFinder createPathFinder(PathFinder finder);
+
+    /**
+     * Get the next movement of the mover toward destination. Field is computed if not available.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @return The next movement, <code>null</code> if destination reached or not reachable.
+     */
+    MovementTile getMovement(Pathfindable mover, int dtx, int dty);
+
+    /**
+     * Invalidate all fields. They will be computed again on next request.
+     */
+    void invalidate();
+
+    /**
+     * Get the maximum number of cached fields.
+     * 
+     * @return The fields capacity.
+     */
+    int getCapacity();
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.ChunkListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.TileSetListener;
+
+/**
+ * Map tile path flow model implementation.
+ */
+public class MapTilePathFlowModel extends FeatureModel implements MapTilePathFlow, TileSetListener, ChunkListener
+{
+    /** Default fields capacity. */
+    public static final int DEFAULT_CAPACITY = 16;
+    /** Default distinct requesters number before computing a field. */
+    public static final int DEFAULT_THRESHOLD = 2;
+    /** Cache load factor. */
+    private static final float LOAD_FACTOR = 0.75F;
+
+    /**
+     * Get the eldest value of an access ordered map, removed from it.
+     * 
+     * @param <T> The value type.
+     * @param map The map reference (must not be empty).
+     * @return The removed value.
+     */
+    private static <T> T removeEldest(Map<PathKey, T> map)
+    {
+        final Iterator<T> iterator = map.values().iterator();
+        final T eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    /** Fields by profile and destination, in access order. */
+    private final Map<PathKey, FlowField> fields;
+    /** Distinct requesters by profile and destination of fields not yet computed, in access order. */
+    private final Map<PathKey, Collection<Pathfindable>> requests;
+    /** Lookup key, reused for each request. */
+    private final PathKey lookup = new PathKey();
+    /** Map reference. */
+    private final MapTile map;
+    /** Fields capacity. */
+    private final int capacity;
+    /** Distinct requesters number before computing a field. */
+    private final int threshold;
+
+    /**
+     * Create a map tile path flow with {@link #DEFAULT_CAPACITY} and {@link #DEFAULT_THRESHOLD}.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public MapTilePathFlowModel(Services services)
+    {
+        this(services, DEFAULT_CAPACITY, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Create a map tile path flow.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param capacity The maximum number of cached fields (must be strictly positive).
+     * @param threshold The distinct requesters number on a destination before computing its field (must be strictly
+     *            positive).
+     * @throws LionEngineException If services not found or invalid arguments.
+     */
+    public MapTilePathFlowModel(Services services, int capacity, int threshold)
+    {
+        super();
+
+        Check.superiorStrict(capacity, 0);
+        Check.superiorStrict(threshold, 0);
+
+        map = services.get(MapTile.class);
+        this.capacity = capacity;
+        this.threshold = threshold;
+        fields = new LinkedHashMap<PathKey, FlowField>(capacity, LOAD_FACTOR, true);
+        requests = new LinkedHashMap<PathKey, Collection<Pathfindable>>(capacity, LOAD_FACTOR, true);
+    }
+
+    /**
+     * Get the field toward destination for the mover profile. Field is computed once it has been requested by enough
+     * distinct movers, or if forced. Until then, only requesters are tracked, so no field is allocated for a
+     * destination of a single mover, whatever its requests number.
+     * 
+     * @param mover The mover reference.
+     * @param profile The mover profile.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @param force <code>true</code> to compute field on first request, <code>false</code> to wait for threshold.
+     * @return The computed field, <code>null</code> if not computed.
+     */
+    FlowField getField(Pathfindable mover, PathProfile profile, int dtx, int dty, boolean force)
+    {
+        lookup.set(profile, PathKey.NO_START, PathKey.NO_START, dtx, dty);
+        FlowField field = fields.get(lookup);
+        if (field != null && !field.hasSize(map.getInTileWidth(), map.getInTileHeight()))
+        {
+            fields.remove(lookup);
+            field = null;
+        }
+        if (field == null && (force || request(mover) >= threshold))
+        {
+            requests.remove(lookup);
+            field = createField();
+            fields.put(new PathKey(profile, PathKey.NO_START, PathKey.NO_START, dtx, dty), field);
+        }
+        if (field != null && !field.isComputed())
+        {
+            field.compute(map.getFeature(MapTilePath.class), mover, dtx, dty);
+        }
+        return field;
+    }
+
+    /**
+     * Track a requester on the current lookup key. Least recently requested keys are forgotten if capacity is reached.
+     * 
+     * @param mover The mover requesting.
+     * @return The distinct requesters number on the key.
+     */
+    private int request(Pathfindable mover)
+    {
+        Collection<Pathfindable> requesters = requests.get(lookup);
+        if (requesters == null)
+        {
+            if (requests.size() >= capacity)
+            {
+                removeEldest(requests);
+            }
+            requesters = new ArrayList<Pathfindable>(threshold);
+            requests.put(new PathKey(lookup), requesters);
+        }
+        if (!requesters.contains(mover))
+        {
+            requesters.add(mover);
+        }
+        return requesters.size();
+    }
+
+    /**
+     * Create a new field, by recycling the least recently used one if capacity is reached.
+     * 
+     * @return The created field.
+     */
+    private FlowField createField()
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        if (fields.size() >= capacity)
+        {
+            final FlowField eldest = removeEldest(fields);
+            if (eldest.hasSize(width, height))
+            {
+                eldest.invalidate();
+                return eldest;
+            }
+        }
+        return new FlowField(width, height);
+    }
+
+    /*
+     * Feature
+     */
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        map.addListener((TileSetListener) this);
+        map.addListener((ChunkListener) this);
+    }
+
+    /*
+     * MapTilePathFlow
+     */
+
+    @Override
+    public PathFinder createPathFinder(PathFinder finder)
+    {
+        return new PathFinderFlow(map, this, finder);
+    }
+
+    @Override
+    public MovementTile getMovement(Pathfindable mover, int dtx, int dty)
+    {
+        final PathProfile profile = PathProfile.get(map.getFeature(MapTilePath.class), mover);
+        final FlowField field = getField(mover, profile, dtx, dty, true);
+        return field.getMovement(mover.getInTileX(), mover.getInTileY());
+    }
+
+    @Override
+    public void invalidate()
+    {
+        fields.clear();
+        requests.clear();
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /*
+     * TileSetListener
+     */
+
+    @Override
+    public void onTileSet(Tile tile)
+    {
+        for (final FlowField field : fields.values())
+        {
+            field.invalidate();
+        }
+    }
+
+    /*
+     * ChunkListener
+     */
+
+    @Override
+    public void onChunkLoaded(int tx, int ty, int size)
+    {
+        // Nothing to do, tiles set are already notified
+    }
+
+    @Override
+    public void onChunkUnloaded(int tx, int ty, int size)
+    {
+        for (final FlowField field : fields.values())
+        {
+            field.invalidate();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import com.b3dgs.lionengine.game.feature.Feature;
+
+/**
+ * Represents the hierarchical pathfinding feature of a map tile. Map is cut into square clusters, linked by their
+ * entrances. A long path is first searched on the clusters graph, and then refined step by step with local searches
+ * inside clusters.
+ * <p>
+ * Clusters graphs are built on first use for each mover profile (blocking, costs and movements by category), and only
+ * rebuilt for clusters where a tile has been set. {@link #invalidate()} must be called if pathfinding is loaded again.
+ * </p>
+ * <p>
+ * When the map has this feature, {@link PathfindableModel} uses it instead of the default A-Star search.
+ * </p>
+ */
+public interface MapTilePathHierarchy extends Feature
+{
+    /**
+     * Create a path finder using the shared clusters graph.
+     * 
+     * @param maxSearchDistance The maximum depth of a local search.
+     * @param heuristic The heuristic used to determine the search order.
+     * @return The path finder instance.
+     */
+    PathFinder createPathFinder(int maxSearchDistance, Heuristic heuristic);
+
+    /**
+     * Invalidate all clusters. They will be rebuilt on next search.
+     */
+    void invalidate();
+
+    /**
+     * Get the cluster size.
+     * 
+     * @return The cluster size in tile.
+     */
+    int getClusterSize();
+}
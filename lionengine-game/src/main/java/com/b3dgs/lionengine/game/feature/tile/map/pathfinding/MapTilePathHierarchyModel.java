@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.ChunkListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.TileSetListener;
+
+/**
+ * Map tile path hierarchy model implementation.
+ */
+public class MapTilePathHierarchyModel extends FeatureModel
+                                       implements MapTilePathHierarchy, TileSetListener, ChunkListener
+{
+    /** Default cluster size in tile. */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /** Clusters graphs by mover profile. */
+    private final Map<PathProfile, ClusterGraph> graphs = new HashMap<PathProfile, ClusterGraph>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Cluster size in tile. */
+    private final int clusterSize;
+
+    /**
+     * Create a map tile path hierarchy with {@link #DEFAULT_CLUSTER_SIZE}.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public MapTilePathHierarchyModel(Services services)
+    {
+        this(services, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Create a map tile path hierarchy.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param clusterSize The cluster size in tile (must be superior to 1).
+     * @throws LionEngineException If services not found or invalid cluster size.
+     */
+    public MapTilePathHierarchyModel(Services services, int clusterSize)
+    {
+        super();
+
+        Check.superiorStrict(clusterSize, 1);
+
+        map = services.get(MapTile.class);
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Get the clusters graph of the mover profile, built on first use.
+     * 
+     * @param mover The mover reference.
+     * @return The clusters graph (may need to be updated).
+     */
+    ClusterGraph getGraph(Pathfindable mover)
+    {
+        final PathProfile profile = PathProfile.get(map.getFeature(MapTilePath.class), mover);
+        ClusterGraph graph = graphs.get(profile);
+        if (graph == null || !graph.hasSize(map.getInTileWidth(), map.getInTileHeight()))
+        {
+            graph = new ClusterGraph(map, clusterSize);
+            graphs.put(profile, graph);
+        }
+        return graph;
+    }
+
+    /*
+     * Feature
+     */
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        map.addListener((TileSetListener) this);
+        map.addListener((ChunkListener) this);
+    }
+
+    /*
+     * MapTilePathHierarchy
+     */
+
+    @Override
+    public PathFinder createPathFinder(int maxSearchDistance, Heuristic heuristic)
+    {
+        return new PathFinderHierarchical(map, this, maxSearchDistance, heuristic);
+    }
+
+    @Override
+    public void invalidate()
+    {
+        graphs.clear();
+    }
+
+    @Override
+    public int getClusterSize()
+    {
+        return clusterSize;
+    }
+
+    /*
+     * TileSetListener
+     */
+
+    @Override
+    public void onTileSet(Tile tile)
+    {
+        for (final ClusterGraph graph : graphs.values())
+        {
+            graph.invalidate(tile.getInTileX(), tile.getInTileY());
+        }
+    }
+
+    /*
+     * ChunkListener
+     */
+
+    @Override
+    public void onChunkLoaded(int tx, int ty, int size)
+    {
+        // Nothing to do, tiles set are already notified
+    }
+
+    @Override
+    public void onChunkUnloaded(int tx, int ty, int size)
+    {
+        for (final ClusterGraph graph : graphs.values())
+        {
+            graph.invalidateArea(tx, ty, size);
+        }
+    }
+}
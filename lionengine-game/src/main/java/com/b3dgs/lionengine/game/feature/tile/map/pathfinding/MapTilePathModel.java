@@ -17,9 +17,11 @@
  */
 package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 import com.b3dgs.lionengine.LionEngineException;
@@ -29,6 +31,7 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Identifiable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.TileRef;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroup;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroupModel;
@@ -36,15 +39,25 @@ import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * Map tile path model implementation.
+ * <p>
+ * Tiles category is resolved from their sheet and number, with the groups defined when loading pathfinding. Objects ID
+ * are stored by location. No feature is added to tiles, so they can be stored compactly and reloaded at will.
+ * </p>
  */
 public class MapTilePathModel extends FeatureModel implements MapTilePath
 {
     /** Categories list. */
     private final Map<String, PathCategory> categories = new HashMap<String, PathCategory>();
+    /** Tiles category by sheet, indexed by tile number. */
+    private final Map<Integer, String[]> tilesCategory = new HashMap<Integer, String[]>();
+    /** Objects ID by tile index. */
+    private final Map<Integer, Collection<Integer>> objectsId = new HashMap<Integer, Collection<Integer>>();
     /** Map reference. */
     private final MapTile map;
     /** Map group reference. */
     private final MapTileGroup mapGroup;
+    /** Category of tiles without group (<code>null</code> if undefined). */
+    private String defaultCategory;
 
     /**
      * Create a map tile path.
@@ -137,7 +150,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
      * @param group The group name.
      * @return The category name (<code>null</code> if undefined).
      */
-    private String getCategory(String group)
+    private String getGroupCategory(String group)
     {
         for (final PathCategory category : categories.values())
         {
@@ -149,6 +162,153 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         return null;
     }
 
+    /**
+     * Store the category of the group tiles.
+     * 
+     * @param group The group name.
+     */
+    private void loadCategory(String group)
+    {
+        final String category = getGroupCategory(group);
+        for (final TileRef tile : mapGroup.getGroup(group))
+        {
+            final Integer sheet = tile.getSheet();
+            final int number = tile.getNumber();
+            String[] numbers = tilesCategory.get(sheet);
+            if (numbers == null || number >= numbers.length)
+            {
+                numbers = resize(numbers, number + 1);
+                tilesCategory.put(sheet, numbers);
+            }
+            numbers[number] = category;
+        }
+    }
+
+    /**
+     * Resize the sheet categories, filling new tiles with the default category.
+     * 
+     * @param numbers The current sheet categories (<code>null</code> if none).
+     * @param length The new length.
+     * @return The resized categories.
+     */
+    private String[] resize(String[] numbers, int length)
+    {
+        final String[] resized = new String[length];
+        Arrays.fill(resized, defaultCategory);
+        if (numbers != null)
+        {
+            System.arraycopy(numbers, 0, resized, 0, numbers.length);
+        }
+        return resized;
+    }
+
+    /**
+     * Get the tile category.
+     * 
+     * @param tile The tile reference.
+     * @return The category name (<code>null</code> if undefined).
+     */
+    private String getCategory(Tile tile)
+    {
+        final String[] numbers = tilesCategory.get(tile.getSheet());
+        final int number = tile.getNumber();
+        if (numbers != null && number < numbers.length)
+        {
+            return numbers[number];
+        }
+        return defaultCategory;
+    }
+
+    /**
+     * Check if location is inside map.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if inside map, <code>false</code> else.
+     */
+    private boolean isInside(int tx, int ty)
+    {
+        return tx >= 0 && ty >= 0 && tx < map.getInTileWidth() && ty < map.getInTileHeight();
+    }
+
+    /**
+     * Get the objects ID stored at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The objects ID (<code>null</code> if none or outside map).
+     */
+    private Collection<Integer> getIds(int tx, int ty)
+    {
+        if (isInside(tx, ty))
+        {
+            return objectsId.get(getIndex(tx, ty));
+        }
+        return null;
+    }
+
+    /**
+     * Get the tile index, used as objects ID key.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The tile index.
+     */
+    private Integer getIndex(int tx, int ty)
+    {
+        return Integer.valueOf(ty * map.getInTileWidth() + tx);
+    }
+
+    /**
+     * Check if location has an object not ignored by the mover.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if has a blocking object, <code>false</code> else.
+     */
+    private boolean hasBlockingObject(Pathfindable mover, int tx, int ty)
+    {
+        final Collection<Integer> ids = getObjectsId(tx, ty);
+        int ignoredCount = 0;
+        for (final Integer id : ids)
+        {
+            if (mover.isIgnoredId(id))
+            {
+                ignoredCount++;
+            }
+        }
+        return ignoredCount < ids.size();
+    }
+
+    /**
+     * Check if location has an object other than the ignored one.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param ignoreObjectId The object ID to ignore (<code>null</code> to ignore all objects).
+     * @return <code>true</code> if has another object, <code>false</code> else.
+     */
+    private boolean hasOtherObject(int tx, int ty, Integer ignoreObjectId)
+    {
+        final Collection<Integer> ids = getObjectsId(tx, ty);
+        return ignoreObjectId != null && !ids.isEmpty() && !ids.contains(ignoreObjectId);
+    }
+
+    /**
+     * Check if tile is blocking for the mover.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if blocking or no tile, <code>false</code> else.
+     */
+    private boolean isBlockingTile(Pathfindable mover, int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        return tile == null || mover.isBlocking(getCategory(tile));
+    }
+
     /*
      * MapTilePath
      */
@@ -162,52 +322,51 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         {
             categories.put(category.getName(), category);
         }
-        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        tilesCategory.clear();
+        defaultCategory = getGroupCategory(MapTileGroupModel.NO_GROUP_NAME);
+        for (final String group : mapGroup.getGroups())
         {
-            for (int tx = 0; tx < map.getInTileWidth(); tx++)
-            {
-                final Tile tile = map.getTile(tx, ty);
-                if (tile != null)
-                {
-                    final String group = mapGroup.getGroup(tile);
-                    final String category = getCategory(group);
-                    final TilePath tilePath = new TilePathModel(category);
-                    tile.addFeature(tilePath);
-                }
-            }
+            loadCategory(group);
         }
     }
 
     @Override
     public void addObjectId(int tx, int ty, Integer id)
     {
-        final Tile tile = map.getTile(tx, ty);
-        if (tile != null)
+        if (isInside(tx, ty))
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
-            tilePath.addObjectId(id);
+            final Integer index = getIndex(tx, ty);
+            Collection<Integer> ids = objectsId.get(index);
+            if (ids == null)
+            {
+                ids = new HashSet<Integer>();
+                objectsId.put(index, ids);
+            }
+            ids.add(id);
         }
     }
 
     @Override
     public void removeObjectId(int tx, int ty, Integer id)
     {
-        final Tile tile = map.getTile(tx, ty);
-        if (tile != null)
+        final Collection<Integer> ids = getIds(tx, ty);
+        if (ids != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
-            tilePath.removeObjectId(id);
+            ids.remove(id);
+            if (ids.isEmpty())
+            {
+                objectsId.remove(getIndex(tx, ty));
+            }
         }
     }
 
     @Override
     public Collection<Integer> getObjectsId(int tx, int ty)
     {
-        final Tile tile = map.getTile(tx, ty);
-        if (tile != null)
+        final Collection<Integer> ids = getIds(tx, ty);
+        if (ids != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
-            return tilePath.getObjectsId();
+            return ids;
         }
         return Collections.emptyList();
     }
@@ -222,34 +381,12 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
     public boolean isBlocked(Pathfindable mover, int tx, int ty, boolean ignoreObjectsId)
     {
         // Blocked if outside map range
-        if (ty >= 0 && tx >= 0 && ty < map.getInTileHeight() && tx < map.getInTileWidth())
+        boolean blocked = true;
+        if (isInside(tx, ty))
         {
-            // Check if all objects id are non blocking
-            if (!ignoreObjectsId)
-            {
-                final Collection<Integer> ids = getObjectsId(tx, ty);
-                int ignoredCount = 0;
-                for (final Integer id : ids)
-                {
-                    if (mover.isIgnoredId(id))
-                    {
-                        ignoredCount++;
-                    }
-                }
-                if (ignoredCount < ids.size())
-                {
-                    return true;
-                }
-            }
-            // Check if tile is blocking
-            final Tile tile = map.getTile(tx, ty);
-            if (tile != null)
-            {
-                final TilePath tilePath = tile.getFeature(TilePath.class);
-                return mover.isBlocking(tilePath.getCategory());
-            }
+            blocked = !ignoreObjectsId && hasBlockingObject(mover, tx, ty) || isBlockingTile(mover, tx, ty);
         }
-        return true;
+        return blocked;
     }
 
     @Override
@@ -258,12 +395,22 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
-            return mover.getCost(tilePath.getCategory());
+            return mover.getCost(getCategory(tile));
         }
         return 0.0;
     }
 
+    @Override
+    public String getCategory(int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile != null)
+        {
+            return getCategory(tile);
+        }
+        return null;
+    }
+
     @Override
     public Collection<String> getCategories()
     {
@@ -347,16 +494,11 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         {
             for (int ctx = tx; ctx < tx + tw; ctx++)
             {
-                final Collection<Integer> ids = getObjectsId(ctx, cty);
                 final Tile tile = map.getTile(ctx, cty);
-                if (tile != null)
+                if (tile != null
+                    && (mover.isBlocking(getCategory(tile)) || hasOtherObject(ctx, cty, ignoreObjectId)))
                 {
-                    final TilePath tilePath = tile.getFeature(TilePath.class);
-                    if (mover.isBlocking(tilePath.getCategory())
-                        || ignoreObjectId != null && !ids.isEmpty() && !ids.contains(ignoreObjectId))
-                    {
-                        return false;
-                    }
+                    return false;
                 }
             }
         }
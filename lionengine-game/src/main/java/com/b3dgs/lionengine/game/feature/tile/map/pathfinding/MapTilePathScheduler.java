@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Feature;
+
+/**
+ * Represents the asynchronous path requests scheduler feature of a map tile.
+ * <p>
+ * Requests are searched by a worker pool on an immutable snapshot of the map path data (objects excluded), and
+ * delivered on the next {@link #update(double)}, which must be called once per frame. Requests with the same start,
+ * destination and mover profile are searched once. Without worker, requests are searched synchronously by
+ * {@link #update(double)}, within a time budget per frame.
+ * </p>
+ * <p>
+ * When the map has this feature, {@link PathfindableModel} uses it for new destinations, and notifies its listeners
+ * when the path is received. {@link #close()} must be called when map is not used anymore.
+ * </p>
+ */
+public interface MapTilePathScheduler extends Feature, Updatable
+{
+    /**
+     * Request a path from the current mover location to destination. Destination is resolved immediately.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @return The request, done on next update.
+     */
+    PathRequest request(Pathfindable mover, int dtx, int dty);
+
+    /**
+     * Cancel a request which is not needed anymore. A request shared by several movers is still searched until all of
+     * them cancelled it. A cancelled request is done without path.
+     * 
+     * @param request The request to cancel.
+     */
+    void cancel(PathRequest request);
+
+    /**
+     * Invalidate all snapshots. They will be created again on next request.
+     */
+    void invalidate();
+
+    /**
+     * Stop worker pool. Pending requests are not searched anymore.
+     */
+    void close();
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.ChunkListener;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.TileSetListener;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Map tile path scheduler model implementation.
+ */
+public class MapTilePathSchedulerModel extends FeatureModel
+                                       implements MapTilePathScheduler, TileSetListener, ChunkListener
+{
+    /** Default workers number. */
+    public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    /** Default synchronous search budget per frame in milliseconds. */
+    public static final double DEFAULT_BUDGET = 2.0;
+
+    /** Snapshots by mover profile. */
+    private final Map<PathProfile, PathSnapshot> snapshots = new HashMap<PathProfile, PathSnapshot>();
+    /** Pending requests by key. */
+    private final Map<PathKey, PathRequest> pending = new HashMap<PathKey, PathRequest>();
+    /** Requests to search synchronously. */
+    private final Queue<PathRequest> queued = new ConcurrentLinkedQueue<PathRequest>();
+    /** Completed requests, to be delivered. */
+    private final Queue<PathRequest> completed = new ConcurrentLinkedQueue<PathRequest>();
+    /** Available searches. */
+    private final Queue<PathSearch> searches = new ConcurrentLinkedQueue<PathSearch>();
+    /** Heuristic used. */
+    private final Heuristic heuristic = Astar.createHeuristicClosest();
+    /** Workers pool (<code>null</code> if synchronous). */
+    private final ExecutorService executor;
+    /** Map reference. */
+    private final MapTile map;
+    /** Synchronous search budget per frame in nano seconds. */
+    private final long budget;
+
+    /**
+     * Create a map tile path scheduler with {@link #DEFAULT_THREADS} and {@link #DEFAULT_BUDGET}.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public MapTilePathSchedulerModel(Services services)
+    {
+        this(services, DEFAULT_THREADS, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Create a map tile path scheduler.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link MapTile} must provide the following features:
+     * </p>
+     * <ul>
+     * <li>{@link MapTilePath}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param threads The workers number (0 to search synchronously on update).
+     * @param budget The synchronous search budget per frame in milliseconds (at least one request is searched).
+     * @throws LionEngineException If services not found or invalid arguments.
+     */
+    public MapTilePathSchedulerModel(Services services, int threads, double budget)
+    {
+        super();
+
+        Check.superiorOrEqual(threads, 0);
+        Check.superiorOrEqual(budget, 0.0);
+
+        map = services.get(MapTile.class);
+        executor = PathWorker.createExecutor(threads);
+        this.budget = (long) (budget * Constant.NANO_TO_MILLI);
+    }
+
+    /**
+     * Get the maximum search distance, which covers the whole map.
+     * 
+     * @return The maximum search distance.
+     */
+    private int getMaxSearchDistance()
+    {
+        return (int) Math.sqrt(map.getInTileWidth() * map.getInTileWidth()
+                               + map.getInTileHeight() * (double) map.getInTileHeight());
+    }
+
+    /**
+     * Get the snapshot of the mover profile, created on first use.
+     * 
+     * @param profile The mover profile.
+     * @param mover The mover reference.
+     * @return The snapshot.
+     */
+    private PathSnapshot getSnapshot(PathProfile profile, Pathfindable mover)
+    {
+        PathSnapshot snapshot = snapshots.get(profile);
+        if (snapshot == null || !snapshot.hasSize(map.getInTileWidth(), map.getInTileHeight()))
+        {
+            if (snapshot != null)
+            {
+                snapshot.setStale();
+            }
+            snapshot = new PathSnapshot(map, mover);
+            snapshots.put(profile, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get an available search for the snapshot.
+     * 
+     * @param snapshot The snapshot to search.
+     * @return The available search.
+     */
+    private PathSearch getSearch(PathSnapshot snapshot)
+    {
+        final PathSearch search = searches.poll();
+        if (search == null || !search.hasSize(snapshot.getWidth(), snapshot.getHeight()))
+        {
+            return new PathSearch(snapshot.getWidth(), snapshot.getHeight(), getMaxSearchDistance(), heuristic);
+        }
+        return search;
+    }
+
+    /**
+     * Schedule the path search, or share the pending one with the same key.
+     * 
+     * @param mover The mover reference.
+     * @param mapPath The map path reference.
+     * @param stx The start horizontal tile index.
+     * @param sty The start vertical tile index.
+     * @param dtx The destination horizontal tile index.
+     * @param dty The destination vertical tile index.
+     * @return The request.
+     */
+    private PathRequest schedule(Pathfindable mover, MapTilePath mapPath, int stx, int sty, int dtx, int dty)
+    {
+        final PathProfile profile = PathProfile.get(mapPath, mover);
+        final PathKey key = new PathKey(profile, stx, sty, dtx, dty);
+        PathRequest request = pending.get(key);
+        if (request == null)
+        {
+            final PathSnapshot snapshot = getSnapshot(profile, mover);
+            snapshot.addRequest();
+            request = new PathRequest(key, snapshot, stx, sty, dtx, dty);
+            pending.put(key, request);
+            search(request);
+        }
+        else
+        {
+            request.addUser();
+        }
+        return request;
+    }
+
+    /**
+     * Search the request synchronously on update, or on a worker.
+     * 
+     * @param request The request to search.
+     */
+    private void search(PathRequest request)
+    {
+        if (executor == null)
+        {
+            queued.offer(request);
+        }
+        else
+        {
+            executor.execute(new PathWorker(request, searches, completed, getMaxSearchDistance(), heuristic));
+        }
+    }
+
+    /**
+     * Deliver the completed request, or search it again if its snapshot has been replaced meanwhile and request is
+     * still needed.
+     * 
+     * @param request The completed request.
+     */
+    private void complete(PathRequest request)
+    {
+        final PathSnapshot snapshot = request.getSnapshot();
+        if (snapshot != null)
+        {
+            snapshot.removeRequest();
+            final PathSnapshot current = snapshots.get(request.getKey().getProfile());
+            if (snapshot.isStale() && current != null && !request.isCancelled())
+            {
+                current.addRequest();
+                request.setSnapshot(current);
+                search(request);
+                return;
+            }
+        }
+        request.deliver();
+        if (pending.get(request.getKey()) == request)
+        {
+            pending.remove(request.getKey());
+        }
+    }
+
+    /**
+     * Update the snapshots tiles of a square area. A snapshot with requests being searched by workers is replaced by
+     * an updated copy. A snapshot which does not know a tile category is removed, and created again on next request.
+     * 
+     * @param mapPath The map path reference.
+     * @param tx The horizontal first tile index.
+     * @param ty The vertical first tile index.
+     * @param size The area size in tile.
+     */
+    private void updateSnapshots(MapTilePath mapPath, int tx, int ty, int size)
+    {
+        final int maxX = Math.min(tx + size, map.getInTileWidth());
+        final int maxY = Math.min(ty + size, map.getInTileHeight());
+        final Iterator<Map.Entry<PathProfile, PathSnapshot>> iterator = snapshots.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<PathProfile, PathSnapshot> entry = iterator.next();
+            PathSnapshot snapshot = entry.getValue();
+            if (executor != null && snapshot.hasRequests())
+            {
+                snapshot.setStale();
+                snapshot = snapshot.copy();
+                entry.setValue(snapshot);
+            }
+            if (!updateSnapshot(snapshot, mapPath, tx, ty, maxX, maxY))
+            {
+                snapshot.setStale();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Update the snapshot tiles of an area.
+     * 
+     * @param snapshot The snapshot to update.
+     * @param mapPath The map path reference.
+     * @param tx The horizontal first tile index.
+     * @param ty The vertical first tile index.
+     * @param maxX The horizontal last tile index (excluded).
+     * @param maxY The vertical last tile index (excluded).
+     * @return <code>true</code> if updated, <code>false</code> if a tile category is unknown by the snapshot.
+     */
+    private boolean updateSnapshot(PathSnapshot snapshot, MapTilePath mapPath, int tx, int ty, int maxX, int maxY)
+    {
+        boolean updated = true;
+        for (int y = ty; updated && y < maxY; y++)
+        {
+            for (int x = tx; updated && x < maxX; x++)
+            {
+                updated = snapshot.update(map, mapPath, x, y);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Create a request without path, delivered on next update.
+     * 
+     * @param stx The start horizontal tile index.
+     * @param sty The start vertical tile index.
+     * @param dtx The destination horizontal tile index.
+     * @param dty The destination vertical tile index.
+     * @return The request.
+     */
+    private PathRequest none(int stx, int sty, int dtx, int dty)
+    {
+        final PathRequest request = new PathRequest(null, null, stx, sty, dtx, dty);
+        completed.offer(request);
+        return request;
+    }
+
+    /*
+     * Feature
+     */
+
+    @Override
+    public void prepare(FeatureProvider provider)
+    {
+        super.prepare(provider);
+
+        map.addListener((TileSetListener) this);
+        map.addListener((ChunkListener) this);
+    }
+
+    /*
+     * MapTilePathScheduler
+     */
+
+    @Override
+    public PathRequest request(Pathfindable mover, int dtx, int dty)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+
+        final PathRequest request;
+        if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            request = none(stx, sty, dtx, dty);
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, true))
+        {
+            final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+            if (tile == null)
+            {
+                request = none(stx, sty, dtx, dty);
+            }
+            else
+            {
+                request = request(mover, tile.getX(), tile.getY());
+            }
+        }
+        else
+        {
+            request = schedule(mover, mapPath, stx, sty, dtx, dty);
+        }
+        return request;
+    }
+
+    @Override
+    public void cancel(PathRequest request)
+    {
+        if (!request.isDone() && request.removeUser() && pending.get(request.getKey()) == request)
+        {
+            pending.remove(request.getKey());
+        }
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        final long start = System.nanoTime();
+        PathRequest request = queued.poll();
+        while (request != null)
+        {
+            final PathSearch search = getSearch(request.getSnapshot());
+            request.search(search);
+            searches.offer(search);
+            completed.offer(request);
+
+            // Budget checked after search, so at least one request is searched
+            if (System.nanoTime() - start <= budget)
+            {
+                request = queued.poll();
+            }
+            else
+            {
+                request = null;
+            }
+        }
+
+        request = completed.poll();
+        while (request != null)
+        {
+            complete(request);
+            request = completed.poll();
+        }
+    }
+
+    @Override
+    public void invalidate()
+    {
+        for (final PathSnapshot snapshot : snapshots.values())
+        {
+            snapshot.setStale();
+        }
+        snapshots.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * TileSetListener
+     */
+
+    @Override
+    public void onTileSet(Tile tile)
+    {
+        if (!snapshots.isEmpty())
+        {
+            updateSnapshots(map.getFeature(MapTilePath.class), tile.getInTileX(), tile.getInTileY(), 1);
+        }
+    }
+
+    /*
+     * ChunkListener
+     */
+
+    @Override
+    public void onChunkLoaded(int tx, int ty, int size)
+    {
+        // Nothing to do, tiles set are already notified
+    }
+
+    @Override
+    public void onChunkUnloaded(int tx, int ty, int size)
+    {
+        if (!snapshots.isEmpty())
+        {
+            updateSnapshots(map.getFeature(MapTilePath.class), tx, ty, size);
+        }
+    }
+}
@@ -92,6 +92,26 @@ public enum MovementTile implements Nameable
         return NONE;
     }
 
+    /**
+     * Get the horizontal side.
+     * 
+     * @return The horizontal side.
+     */
+    public int getSideX()
+    {
+        return sx;
+    }
+
+    /**
+     * Get the vertical side.
+     * 
+     * @return The vertical side.
+     */
+    public int getSideY()
+    {
+        return sy;
+    }
+
     /*
      * Nameable
      */
@@ -19,7 +19,10 @@ package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
 
 /**
  * Node in the path.
+ * 
+ * @deprecated Not used by path finders anymore, which store nodes in flat arrays. Will be removed in a next release.
  */
+@Deprecated
 public final class Node implements Comparable<Node>
 {
     /** Node parent. */
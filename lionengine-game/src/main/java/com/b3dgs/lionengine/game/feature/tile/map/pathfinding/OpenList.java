@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary heap of node indexes, used as open list by the path finder.
+ * <p>
+ * Elements are node indexes in <code>[0, capacity[</code>, ordered by their priority. Equal priorities are ordered by
+ * insertion, so the extraction order is the same as a stable sorted list. Each element position is tracked, allowing
+ * a decrease-key in <code>O(log n)</code> without any allocation.
+ * </p>
+ */
+final class OpenList
+{
+    /** Not in heap position. */
+    private static final int NONE = -1;
+
+    /** Heap content (node indexes). */
+    private final int[] heap;
+    /** Heap position by node index ({@link #NONE} if absent). */
+    private final int[] positions;
+    /** Priority by node index. */
+    private final double[] priorities;
+    /** Insertion order by node index. */
+    private final long[] orders;
+    /** Current size. */
+    private int size;
+    /** Next insertion order. */
+    private long order;
+
+    /**
+     * Create open list.
+     * 
+     * @param capacity The maximum number of nodes.
+     */
+    OpenList(int capacity)
+    {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        priorities = new double[capacity];
+        orders = new long[capacity];
+        Arrays.fill(positions, NONE);
+    }
+
+    /**
+     * Add a node to the list.
+     * 
+     * @param node The node index (must not be already contained).
+     * @param priority The node priority (lowest first).
+     */
+    void add(int node, double priority)
+    {
+        priorities[node] = priority;
+        orders[node] = order++;
+        heap[size] = node;
+        positions[node] = size;
+        size++;
+        up(size - 1);
+    }
+
+    /**
+     * Update the priority of a contained node. Node is reordered as if it was removed and added again.
+     * 
+     * @param node The node index (must be contained).
+     * @param priority The new node priority.
+     */
+    void update(int node, double priority)
+    {
+        final double old = priorities[node];
+        priorities[node] = priority;
+        orders[node] = order++;
+
+        final int position = positions[node];
+        if (priority < old)
+        {
+            up(position);
+        }
+        else
+        {
+            down(position);
+        }
+    }
+
+    /**
+     * Get the first node, without removing it.
+     * 
+     * @return The first node index.
+     */
+    int first()
+    {
+        return heap[0];
+    }
+
+    /**
+     * Remove the first node.
+     * 
+     * @return The removed node index.
+     */
+    int poll()
+    {
+        final int first = heap[0];
+        positions[first] = NONE;
+        size--;
+        if (size > 0)
+        {
+            final int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            down(0);
+        }
+        return first;
+    }
+
+    /**
+     * Check if node is contained.
+     * 
+     * @param node The node index.
+     * @return <code>true</code> if contained, <code>false</code> else.
+     */
+    boolean contains(int node)
+    {
+        return positions[node] != NONE;
+    }
+
+    /**
+     * Get the number of contained nodes.
+     * 
+     * @return The list size.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Clear all nodes. Cost is proportional to the current size only.
+     */
+    void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            positions[heap[i]] = NONE;
+        }
+        size = 0;
+        order = 0L;
+    }
+
+    /**
+     * Check if first node is ordered before second node.
+     * 
+     * @param a The first node index.
+     * @param b The second node index.
+     * @return <code>true</code> if first is before second, <code>false</code> else.
+     */
+    private boolean before(int a, int b)
+    {
+        final int compare = Double.compare(priorities[a], priorities[b]);
+        return compare < 0 || compare == 0 && orders[a] < orders[b];
+    }
+
+    /**
+     * Move element up until heap order is restored.
+     * 
+     * @param start The starting position.
+     */
+    private void up(int start)
+    {
+        final int node = heap[start];
+        int position = start;
+        while (position > 0)
+        {
+            final int parent = (position - 1) >>> 1;
+            final int other = heap[parent];
+            if (!before(node, other))
+            {
+                break;
+            }
+            heap[position] = other;
+            positions[other] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    /**
+     * Move element down until heap order is restored.
+     * 
+     * @param start The starting position.
+     */
+    private void down(int start)
+    {
+        final int node = heap[start];
+        final int half = size >>> 1;
+        int position = start;
+        while (position < half)
+        {
+            int child = (position << 1) + 1;
+            final int right = child + 1;
+            if (right < size && before(heap[right], heap[child]))
+            {
+                child = right;
+            }
+            final int other = heap[child];
+            if (!before(other, node))
+            {
+                break;
+            }
+            heap[position] = other;
+            positions[other] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
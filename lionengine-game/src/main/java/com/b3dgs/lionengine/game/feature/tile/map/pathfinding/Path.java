@@ -28,6 +28,8 @@ public final class Path
 {
     /** List of steps. */
     private final List<Step> steps;
+    /** Partial flag (last step is not the destination, next part has to be found from it). */
+    private boolean partial;
 
     /**
      * Constructor.
@@ -59,6 +61,17 @@ public final class Path
         steps.add(0, new Step(x, y));
     }
 
+    /**
+     * Set the partial flag. A partial path stops before its destination, and the next part has to be found from its
+     * last step.
+     * 
+     * @param partial <code>true</code> if partial, <code>false</code> if last step is the destination.
+     */
+    public void setPartial(boolean partial)
+    {
+        this.partial = partial;
+    }
+
     /**
      * Get the length of the path, i.e. the number of steps.
      * 
@@ -91,6 +104,16 @@ public final class Path
         return getStep(index).getY();
     }
 
+    /**
+     * Check if path is partial.
+     * 
+     * @return <code>true</code> if partial, <code>false</code> if last step is the destination.
+     */
+    public boolean isPartial()
+    {
+        return partial;
+    }
+
     /**
      * Check if this path contains the given step.
      * 
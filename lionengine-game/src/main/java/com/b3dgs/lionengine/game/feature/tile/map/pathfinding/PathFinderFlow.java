@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * A path finder implementation which follows the shared flow fields, and uses another finder for destinations without
+ * field.
+ * <p>
+ * When a field is followed, the returned path only contains the current location and the next step, and is partial
+ * until the next step is the destination: the {@link Pathfindable} finds the next part from the field once the step is
+ * reached, so each step is a single field lookup, whatever the distance to destination. The mover profile is read on
+ * each search, so a mover changing its categories follows the field of its new profile.
+ * </p>
+ * <p>
+ * Only the next step is checked, with the search references flag. If it is blocked, the other finder is used to search
+ * around.
+ * </p>
+ */
+final class PathFinderFlow implements PathFinder
+{
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Flow fields reference. */
+    private final MapTilePathFlowModel flow;
+    /** Finder used for destinations without field. */
+    private final PathFinder finder;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map reference.
+     * @param flow The flow fields reference.
+     * @param finder The finder used for destinations without field.
+     */
+    PathFinderFlow(MapTile map, MapTilePathFlowModel flow, PathFinder finder)
+    {
+        super();
+
+        this.map = map;
+        this.flow = flow;
+        this.finder = finder;
+        mapPath = map.getFeature(MapTilePath.class);
+    }
+
+    /**
+     * Get the next step from the field.
+     * 
+     * @param field The field to follow.
+     * @param mover The entity that will be moving along the path.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path to the next step, <code>null</code> if none.
+     */
+    private Path follow(FlowField field, Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int tx = mover.getInTileX();
+        final int ty = mover.getInTileY();
+        final MovementTile movement = field.getMovement(tx, ty);
+        Path path = null;
+        if (movement != null)
+        {
+            final int nx = tx + movement.getSideX();
+            final int ny = ty + movement.getSideY();
+            if (mapPath.isBlocked(mover, nx, ny, ignoreRef))
+            {
+                path = finder.findPath(mover, dtx, dty, ignoreRef);
+            }
+            else
+            {
+                path = new Path();
+                path.appendStep(tx, ty);
+                path.appendStep(nx, ny);
+                path.setPartial(nx != dtx || ny != dty);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Find a path to the closest available tile of a blocked destination.
+     * 
+     * @param mover The mover reference.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal blocked destination tile index.
+     * @param dty The vertical blocked destination tile index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findClosestPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+        Path path = null;
+        if (tile != null)
+        {
+            path = findPath(mover, tile.getX(), tile.getY(), ignoreRef);
+        }
+        return path;
+    }
+
+    /**
+     * Find a path by following the field toward destination, or with the other finder if there is no field.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findFieldPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final FlowField field = flow.getField(mover, PathProfile.get(mapPath, mover), dtx, dty, false);
+        final Path path;
+        if (field == null)
+        {
+            path = finder.findPath(mover, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = follow(field, mover, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+
+        final Path path;
+        if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            path = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            path = findClosestPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = findFieldPath(mover, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+}
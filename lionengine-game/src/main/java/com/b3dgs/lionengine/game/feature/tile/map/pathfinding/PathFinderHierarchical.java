@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * A path finder implementation searching on the clusters graph of {@link MapTilePathHierarchy}. The abstract path is
+ * refined with local searches only until the next cluster is reached: the returned path is then partial, and the next
+ * part is found from its last step.
+ * <p>
+ * Searches shorter than a cluster are directly performed with the local A-Star path finder.
+ * </p>
+ */
+final class PathFinderHierarchical implements PathFinder
+{
+    /** Start cluster nodes cache. */
+    private final Collection<ClusterNode> nodes = new ArrayList<ClusterNode>();
+    /** Goal costs by cluster node. */
+    private final Map<ClusterNode, Double> goals = new HashMap<ClusterNode, Double>();
+    /** Reached costs by cluster node. */
+    private final Map<ClusterNode, Double> costs = new HashMap<ClusterNode, Double>();
+    /** Parents by cluster node. */
+    private final Map<ClusterNode, ClusterNode> parents = new HashMap<ClusterNode, ClusterNode>();
+    /** Open list. */
+    private final PriorityQueue<Open> open = new PriorityQueue<Open>();
+    /** Abstract path of the last search. */
+    private final List<ClusterNode> abstractPath = new ArrayList<ClusterNode>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Hierarchy reference. */
+    private final MapTilePathHierarchyModel hierarchy;
+    /** Local path finder. */
+    private final PathFinderImpl finder;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Last search graph. */
+    private ClusterGraph graph;
+    /** Last search graph version. */
+    private int version;
+    /** Last refined node of the abstract path. */
+    private ClusterNode refined;
+    /** Next abstract path index to refine. */
+    private int next;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param hierarchy The hierarchy reference.
+     * @param maxSearchDistance The maximum depth of a local search.
+     * @param heuristic The heuristic used to determine the search order.
+     */
+    PathFinderHierarchical(MapTile map,
+                           MapTilePathHierarchyModel hierarchy,
+                           int maxSearchDistance,
+                           Heuristic heuristic)
+    {
+        this.map = map;
+        this.hierarchy = hierarchy;
+        this.heuristic = heuristic;
+        mapPath = map.getFeature(MapTilePath.class);
+        finder = new PathFinderImpl(map, maxSearchDistance, heuristic);
+    }
+
+    /**
+     * Search the abstract path on the clusters graph, from start to goal.
+     * 
+     * @param start The start node.
+     * @param goal The goal node.
+     * @return <code>true</code> if goal reached, <code>false</code> else.
+     */
+    private boolean search(ClusterNode start, ClusterNode goal)
+    {
+        costs.clear();
+        parents.clear();
+        open.clear();
+        costs.put(start, Double.valueOf(0.0));
+        open.add(new Open(start, 0.0));
+
+        while (!open.isEmpty())
+        {
+            final ClusterNode current = open.poll().node;
+            if (current == goal)
+            {
+                return true;
+            }
+            final double cost = costs.get(current).doubleValue();
+            for (int i = 0; i < current.getLinks(); i++)
+            {
+                relax(current, current.getLink(i), cost + current.getLinkCost(i), goal);
+            }
+            if (current.getNeighborCost() > ClusterNode.NO_LINK)
+            {
+                relax(current, current.getNeighbor(), cost + current.getNeighborCost(), goal);
+            }
+            final Double toGoal = goals.get(current);
+            if (toGoal != null)
+            {
+                relax(current, goal, cost + toGoal.doubleValue(), goal);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Update node if reached with a lower cost.
+     * 
+     * @param parent The parent node.
+     * @param node The reached node.
+     * @param cost The cost to reach node.
+     * @param goal The goal node.
+     */
+    private void relax(ClusterNode parent, ClusterNode node, double cost, ClusterNode goal)
+    {
+        final Double old = costs.get(node);
+        if (old == null || cost < old.doubleValue())
+        {
+            costs.put(node, Double.valueOf(cost));
+            parents.put(node, parent);
+            final double priority = cost
+                                    + heuristic.getCost(node.getInTileX(),
+                                                        node.getInTileY(),
+                                                        goal.getInTileX(),
+                                                        goal.getInTileY());
+            open.add(new Open(node, priority));
+        }
+    }
+
+    /**
+     * Connect start and goal to the clusters graph.
+     * 
+     * @param graph The clusters graph.
+     * @param mover The mover reference.
+     * @param start The start node.
+     * @param goal The goal node.
+     */
+    private void connect(ClusterGraph graph, Pathfindable mover, ClusterNode start, ClusterNode goal)
+    {
+        final int stx = start.getInTileX();
+        final int sty = start.getInTileY();
+        final int dtx = goal.getInTileX();
+        final int dty = goal.getInTileY();
+
+        graph.getNodes(start.getCluster(), nodes);
+        graph.flood(finder, mover, stx, sty, start.getCluster());
+        for (final ClusterNode node : nodes)
+        {
+            final double cost = finder.getFloodCost(node.getInTileX(), node.getInTileY());
+            if (cost > ClusterNode.NO_LINK)
+            {
+                start.link(node, cost);
+            }
+        }
+        if (start.getCluster() == goal.getCluster())
+        {
+            final double cost = finder.getFloodCost(dtx, dty);
+            if (cost > ClusterNode.NO_LINK)
+            {
+                start.link(goal, cost);
+            }
+        }
+
+        goals.clear();
+        graph.getNodes(goal.getCluster(), nodes);
+        for (final ClusterNode node : nodes)
+        {
+            final double cost = graph.getCost(finder,
+                                              mover,
+                                              node.getInTileX(),
+                                              node.getInTileY(),
+                                              dtx,
+                                              dty,
+                                              goal.getCluster());
+            if (cost > ClusterNode.NO_LINK)
+            {
+                goals.put(node, Double.valueOf(cost));
+            }
+        }
+        nodes.clear();
+    }
+
+    /**
+     * Store the abstract path found from start to goal.
+     * 
+     * @param start The start node.
+     * @param goal The goal node.
+     */
+    private void store(ClusterNode start, ClusterNode goal)
+    {
+        abstractPath.clear();
+        ClusterNode node = goal;
+        while (node != start)
+        {
+            abstractPath.add(node);
+            node = parents.get(node);
+        }
+        Collections.reverse(abstractPath);
+        refined = start;
+        next = 0;
+    }
+
+    /**
+     * Check if the last abstract path can be refined from this location to this destination.
+     * 
+     * @param current The current graph.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @return <code>true</code> if can continue, <code>false</code> if a new search is required.
+     */
+    private boolean canContinue(ClusterGraph current, int stx, int sty, int dtx, int dty)
+    {
+        if (current != graph || current.getVersion() != version || next >= abstractPath.size())
+        {
+            return false;
+        }
+        final ClusterNode goal = abstractPath.get(abstractPath.size() - 1);
+        return refined.getInTileX() == stx
+               && refined.getInTileY() == sty
+               && goal.getInTileX() == dtx
+               && goal.getInTileY() == dty;
+    }
+
+    /**
+     * Refine the abstract path from the last refined node, until the next cluster is reached.
+     * 
+     * @param mover The mover reference.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The refined path, <code>null</code> if none.
+     */
+    private Path refine(Pathfindable mover, boolean ignoreRef)
+    {
+        final Path path = new Path();
+        path.appendStep(refined.getInTileX(), refined.getInTileY());
+
+        while (next < abstractPath.size())
+        {
+            final ClusterNode node = abstractPath.get(next);
+            next++;
+            if (node == refined.getNeighbor())
+            {
+                path.appendStep(node.getInTileX(), node.getInTileY());
+                refined = node;
+                break;
+            }
+            if (!appendLocal(mover, path, refined, node, ignoreRef))
+            {
+                abstractPath.clear();
+                return null;
+            }
+            refined = node;
+        }
+        path.setPartial(next < abstractPath.size());
+
+        return path;
+    }
+
+    /**
+     * Append local path between two nodes of a same cluster.
+     * 
+     * @param mover The mover reference.
+     * @param path The path to complete.
+     * @param from The starting node.
+     * @param to The destination node.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return <code>true</code> if appended, <code>false</code> if no local path.
+     */
+    private boolean appendLocal(Pathfindable mover,
+                                Path path,
+                                ClusterNode from,
+                                ClusterNode to,
+                                boolean ignoreRef)
+    {
+        final int stx = from.getInTileX();
+        final int sty = from.getInTileY();
+        final int dtx = to.getInTileX();
+        final int dty = to.getInTileY();
+        boolean appended = true;
+        if (stx != dtx || sty != dty)
+        {
+            Path local = graph.findPath(finder, mover, stx, sty, dtx, dty, ignoreRef, from.getCluster());
+            if (local == null && !ignoreRef)
+            {
+                local = graph.findPath(finder, mover, stx, sty, dtx, dty, true, from.getCluster());
+            }
+            appended = local != null;
+            if (appended)
+            {
+                for (int i = 1; i < local.getLength(); i++)
+                {
+                    path.appendStep(local.getX(i), local.getY(i));
+                }
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Find a path to the closest available tile of a blocked destination.
+     * 
+     * @param mover The mover reference.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal blocked destination tile index.
+     * @param dty The vertical blocked destination tile index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findClosestPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+        Path path = null;
+        if (tile != null)
+        {
+            path = findPath(mover, tile.getX(), tile.getY(), ignoreRef);
+        }
+        return path;
+    }
+
+    /**
+     * Find a path with the abstract graph, continuing the previous abstract path if still valid.
+     * 
+     * @param mover The mover reference.
+     * @param stx The horizontal starting tile index.
+     * @param sty The vertical starting tile index.
+     * @param dtx The horizontal destination tile index.
+     * @param dty The vertical destination tile index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findAbstractPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final ClusterGraph current = hierarchy.getGraph(mover);
+        current.update(mover, finder);
+
+        if (!canContinue(current, stx, sty, dtx, dty))
+        {
+            graph = current;
+            version = current.getVersion();
+            abstractPath.clear();
+
+            final ClusterNode start = new ClusterNode(stx, sty, current.getCluster(stx, sty));
+            final ClusterNode goal = new ClusterNode(dtx, dty, current.getCluster(dtx, dty));
+            connect(current, mover, start, goal);
+            if (search(start, goal))
+            {
+                store(start, goal);
+            }
+            goals.clear();
+            costs.clear();
+            parents.clear();
+            open.clear();
+        }
+        Path path = null;
+        if (!abstractPath.isEmpty())
+        {
+            path = refine(mover, ignoreRef);
+        }
+        return path;
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+        final int size = hierarchy.getClusterSize();
+
+        final Path path;
+        if (Math.abs(dtx - stx) <= size && Math.abs(dty - sty) <= size)
+        {
+            path = finder.findPath(mover, dtx, dty, ignoreRef);
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            path = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            path = findClosestPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = findAbstractPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+
+    /**
+     * Open node with its priority.
+     */
+    private static final class Open implements Comparable<Open>
+    {
+        /** Node reference. */
+        private final ClusterNode node;
+        /** Node priority. */
+        private final double priority;
+
+        /**
+         * Create open node.
+         * 
+         * @param node The node reference.
+         * @param priority The node priority (lowest first).
+         */
+        Open(ClusterNode node, double priority)
+        {
+            super();
+
+            this.node = node;
+            this.priority = priority;
+        }
+
+        /*
+         * Comparable
+         */
+
+        @Override
+        public int compareTo(Open other)
+        {
+            return Double.compare(priority, other.priority);
+        }
+    }
+}
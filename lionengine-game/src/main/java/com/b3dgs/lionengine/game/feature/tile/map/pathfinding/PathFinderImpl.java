@@ -17,32 +17,29 @@
  */
 package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
-import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * A path finder implementation that uses the AStar heuristic based algorithm to determine a path.
+ * <p>
+ * The search itself is done by a {@link PathSearch} on the current map data, objects being checked unless ignored.
+ * </p>
  */
-final class PathFinderImpl implements PathFinder
+final class PathFinderImpl implements PathFinder, PathSource
 {
-    /** Closed list. */
-    private final Collection<Node> closed = new ArrayList<Node>(8);
-    /** Open list. */
-    private final SortedList<Node> open = new SortedList<Node>();
+    /** Search used. */
+    private final PathSearch search;
     /** Map reference. */
     private final MapTile map;
     /** Map path reference. */
     private final MapTilePath mapPath;
-    /** Max distance to search. */
-    private final int maxSearchDistance;
-    /** Nodes array. */
-    private final Node[][] nodes;
     /** Heuristic used. */
     private final Heuristic heuristic;
+    /** Current mover (only set while searching). */
+    private Pathfindable mover;
+    /** Current ignore map array reference checking. */
+    private boolean ignoreRef;
 
     /**
      * Internal constructor.
@@ -55,17 +52,8 @@ final class PathFinderImpl implements PathFinder
     {
         this.heuristic = heuristic;
         this.map = map;
-        this.maxSearchDistance = maxSearchDistance;
         mapPath = map.getFeature(MapTilePath.class);
-        nodes = new Node[map.getInTileHeight()][map.getInTileWidth()];
-
-        for (int ty = 0; ty < map.getInTileHeight(); ty++)
-        {
-            for (int tx = 0; tx < map.getInTileWidth(); tx++)
-            {
-                nodes[ty][tx] = new Node(tx, ty);
-            }
-        }
+        search = new PathSearch(map.getInTileWidth(), map.getInTileHeight(), maxSearchDistance, heuristic);
     }
 
     /**
@@ -96,102 +84,7 @@ final class PathFinderImpl implements PathFinder
     }
 
     /**
-     * Check if a given location is valid for the supplied mover.
-     * 
-     * @param mover The mover that would hold a given location.
-     * @param stx The starting x coordinate.
-     * @param sty The starting y coordinate.
-     * @param dtx The x coordinate of the location to check.
-     * @param dty The y coordinate of the location to check.
-     * @param ignoreRef The ignore map reference array checking.
-     * @return <code>true</code> if the location is valid for the given mover, <code>false</code> else.
-     */
-    private boolean isValidLocation(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
-    {
-        boolean invalid = dtx < 0 || dty < 0 || dtx >= map.getInTileWidth() || dty >= map.getInTileHeight();
-
-        if (!invalid && (stx != dtx || sty != dty))
-        {
-            invalid = mapPath.isBlocked(mover, dtx, dty, ignoreRef);
-        }
-
-        return !invalid;
-    }
-
-    /**
-     * Get the first element from the open list. This is the next one to be searched.
-     * 
-     * @return The first element in the open list.
-     */
-    private Node getFirstInOpen()
-    {
-        return open.first();
-    }
-
-    /**
-     * Add a node to the open list.
-     * 
-     * @param node The node to be added to the open list.
-     */
-    private void addToOpen(Node node)
-    {
-        open.add(node);
-    }
-
-    /**
-     * Check if a node is in the open list.
-     * 
-     * @param node The node to check for.
-     * @return <code>true</code> if the node given is in the open list, <code>false</code> else.
-     */
-    private boolean inOpenList(Node node)
-    {
-        return open.contains(node);
-    }
-
-    /**
-     * Remove a node from the open list.
-     * 
-     * @param node The node to remove from the open list.
-     */
-    private void removeFromOpen(Node node)
-    {
-        open.remove(node);
-    }
-
-    /**
-     * Add a node to the closed list.
-     * 
-     * @param node The node to add to the closed list.
-     */
-    private void addToClosed(Node node)
-    {
-        closed.add(node);
-    }
-
-    /**
-     * Check if the node supplied is in the closed list.
-     * 
-     * @param node The node to search for.
-     * @return <code>true</code> if the node specified is in the closed list, <code>false</code> else.
-     */
-    private boolean inClosedList(Node node)
-    {
-        return closed.contains(node);
-    }
-
-    /**
-     * Remove a node from the closed list.
-     * 
-     * @param node The node to remove from the closed list.
-     */
-    private void removeFromClosed(Node node)
-    {
-        closed.remove(node);
-    }
-
-    /**
-     * Update the open and closed list to find the path.
+     * Find a path between two locations, without leaving the specified area. Destination is not checked for blocking.
      * 
      * @param mover The entity that will be moving along the path.
      * @param stx The x coordinate of the start location.
@@ -199,116 +92,60 @@ final class PathFinderImpl implements PathFinder
      * @param dtx The x coordinate of the destination location.
      * @param dty The y coordinate of the destination location.
      * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
-     * @param current The current node.
-     * @param maxDepth The last max depth.
-     * @return The next max depth.
+     * @param minTx The minimum horizontal tile index of the search area.
+     * @param minTy The minimum vertical tile index of the search area.
+     * @param maxTx The maximum horizontal tile index of the search area (included).
+     * @param maxTy The maximum vertical tile index of the search area (included).
+     * @return The path found, <code>null</code> if none.
      */
-    private int updateList(Pathfindable mover,
-                           int stx,
-                           int sty,
-                           int dtx,
-                           int dty,
-                           boolean ignoreRef,
-                           Node current,
-                           int maxDepth)
+    Path findPath(Pathfindable mover,
+                  int stx,
+                  int sty,
+                  int dtx,
+                  int dty,
+                  boolean ignoreRef,
+                  int minTx,
+                  int minTy,
+                  int maxTx,
+                  int maxTy)
     {
-        int depth = maxDepth;
-        final Tile tile = map.getTile(current.getX(), current.getY());
-        final TilePath tilePath = tile.getFeature(TilePath.class);
-        for (int y = -1; y < 2; y++)
-        {
-            for (int x = -1; x < 2; x++)
-            {
-                if (!(x == 0 && y == 0))
-                {
-                    depth = check(tilePath, depth, x, y, mover, stx, sty, dtx, dty, ignoreRef, current, maxDepth);
-                }
-            }
-        }
-        return depth;
+        this.mover = mover;
+        this.ignoreRef = ignoreRef;
+        final Path path = search.findPath(this, stx, sty, dtx, dty, minTx, minTy, maxTx, maxTy);
+        this.mover = null;
+        return path;
     }
 
     /**
-     * Update the open and closed list to find the path.
+     * Compute the costs to reach all locations of an area from a starting location, ignoring references. Costs can
+     * then be retrieved with {@link #getFloodCost(int, int)}, until next search.
      * 
-     * @param tilePath The current tile.
-     * @param nextDepth The next depth value.
-     * @param x The current horizontal movement.
-     * @param y The current vertical movement.
-     * @param mover The entity that will be moving along the path.
+     * @param mover The entity that will be moving.
      * @param stx The x coordinate of the start location.
      * @param sty The y coordinate of the start location.
-     * @param dtx The x coordinate of the destination location.
-     * @param dty The y coordinate of the destination location.
-     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
-     * @param current The current node.
-     * @param maxDepth The last max depth.
-     * @return The next max depth.
+     * @param minTx The minimum horizontal tile index of the area.
+     * @param minTy The minimum vertical tile index of the area.
+     * @param maxTx The maximum horizontal tile index of the area (included).
+     * @param maxTy The maximum vertical tile index of the area (included).
      */
-    private int check(TilePath tilePath,
-                      int nextDepth,
-                      int x,
-                      int y,
-                      Pathfindable mover,
-                      int stx,
-                      int sty,
-                      int dtx,
-                      int dty,
-                      boolean ignoreRef,
-                      Node current,
-                      int maxDepth)
+    void flood(Pathfindable mover, int stx, int sty, int minTx, int minTy, int maxTx, int maxTy)
     {
-        final MovementTile movement = MovementTile.from(x, y);
-        if (mover.isMovementAllowed(tilePath.getCategory(), movement))
-        {
-            final int xp = x + current.getX();
-            final int yp = y + current.getY();
-
-            if (isValidLocation(mover, stx, sty, xp, yp, ignoreRef))
-            {
-                return updateNeighbour(mover, dtx, dty, current, xp, yp, maxDepth);
-            }
-        }
-        return nextDepth;
+        this.mover = mover;
+        ignoreRef = true;
+        search.flood(this, stx, sty, minTx, minTy, maxTx, maxTy);
+        this.mover = null;
     }
 
     /**
-     * Update the current neighbor on search.
+     * Get the cost to reach a location from the last {@link #flood(Pathfindable, int, int, int, int, int, int)} start.
      * 
-     * @param mover The entity that will be moving along the path.
-     * @param dtx The x coordinate of the destination location.
-     * @param dty The y coordinate of the destination location.
-     * @param current The current node.
-     * @param xp The x coordinate of the destination location.
-     * @param yp The y coordinate of the destination location.
-     * @param maxDepth The last max depth.
-     * @return The next max depth.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cost, negative if location has not been reached.
      */
-    private int updateNeighbour(Pathfindable mover, int dtx, int dty, Node current, int xp, int yp, int maxDepth)
+    double getFloodCost(int tx, int ty)
     {
-        int nextDepth = maxDepth;
-        final double nextStepCost = current.getCost() + getMovementCost(mover, current.getX(), current.getY());
-        final Node neighbour = nodes[yp][xp];
-
-        if (nextStepCost < neighbour.getCost())
-        {
-            if (inOpenList(neighbour))
-            {
-                removeFromOpen(neighbour);
-            }
-            if (inClosedList(neighbour))
-            {
-                removeFromClosed(neighbour);
-            }
-        }
-        if (!inOpenList(neighbour) && !inClosedList(neighbour))
-        {
-            neighbour.setCost(nextStepCost);
-            neighbour.setHeuristic(getHeuristicCost(xp, yp, dtx, dty));
-            nextDepth = Math.max(maxDepth, neighbour.setParent(current));
-            addToOpen(neighbour);
-        }
-        return nextDepth;
+        return search.getFloodCost(tx, ty);
     }
 
     /*
@@ -321,53 +158,58 @@ final class PathFinderImpl implements PathFinder
         final int stx = mover.getInTileX();
         final int sty = mover.getInTileY();
 
+        final Path path;
         if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
         {
-            return null;
+            path = null;
         }
-        if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
         {
             final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
             if (tile == null)
             {
-                return null;
+                path = null;
             }
-            return findPath(mover, tile.getX(), tile.getY(), ignoreRef);
-        }
-
-        nodes[sty][stx].setCost(0);
-        nodes[sty][stx].setDepth(0);
-        closed.clear();
-        open.clear();
-        open.add(nodes[sty][stx]);
-        nodes[dty][dtx].setParent(null);
-
-        int maxDepth = 0;
-        while (maxDepth < maxSearchDistance && open.size() != 0)
-        {
-            final Node current = getFirstInOpen();
-            if (current == nodes[dty][dtx])
+            else
             {
-                break;
+                path = findPath(mover, tile.getX(), tile.getY(), ignoreRef);
             }
-            removeFromOpen(current);
-            addToClosed(current);
-            maxDepth = updateList(mover, stx, sty, dtx, dty, ignoreRef, current, maxDepth);
         }
-        if (nodes[dty][dtx].getParent() == null)
+        else
         {
-            return null;
+            path = findPath(mover,
+                            stx,
+                            sty,
+                            dtx,
+                            dty,
+                            ignoreRef,
+                            0,
+                            0,
+                            map.getInTileWidth() - 1,
+                            map.getInTileHeight() - 1);
         }
-        final Path path = new Path();
-        Node target = nodes[dty][dtx];
+        return path;
+    }
 
-        while (target != nodes[sty][stx])
-        {
-            path.prependStep(target.getX(), target.getY());
-            target = target.getParent();
-        }
-        path.prependStep(stx, sty);
+    /*
+     * PathSource
+     */
 
-        return path;
+    @Override
+    public boolean isBlocked(int tx, int ty)
+    {
+        return mapPath.isBlocked(mover, tx, ty, ignoreRef);
+    }
+
+    @Override
+    public double getCost(int tx, int ty)
+    {
+        return getMovementCost(mover, tx, ty);
+    }
+
+    @Override
+    public int getMovements(int tx, int ty)
+    {
+        return PathSnapshot.getMovements(mover, mapPath.getCategory(tx, ty));
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+/**
+ * Path data key, by mover profile, start and destination. The same key instance can be reused for lookups with
+ * {@link #set(PathProfile, int, int, int, int)}.
+ */
+final class PathKey
+{
+    /** Undefined start, for destination only keys. */
+    static final int NO_START = -1;
+
+    /** Mover profile. */
+    private PathProfile profile;
+    /** Start horizontal tile index. */
+    private int stx;
+    /** Start vertical tile index. */
+    private int sty;
+    /** Destination horizontal tile index. */
+    private int dtx;
+    /** Destination vertical tile index. */
+    private int dty;
+
+    /**
+     * Create an empty key, to be set before use.
+     */
+    PathKey()
+    {
+        super();
+    }
+
+    /**
+     * Create key.
+     * 
+     * @param profile The mover profile.
+     * @param stx The start horizontal tile index ({@link #NO_START} if undefined).
+     * @param sty The start vertical tile index ({@link #NO_START} if undefined).
+     * @param dtx The destination horizontal tile index.
+     * @param dty The destination vertical tile index.
+     */
+    PathKey(PathProfile profile, int stx, int sty, int dtx, int dty)
+    {
+        super();
+
+        set(profile, stx, sty, dtx, dty);
+    }
+
+    /**
+     * Create a copy of a key.
+     * 
+     * @param key The key to copy.
+     */
+    PathKey(PathKey key)
+    {
+        this(key.profile, key.stx, key.sty, key.dtx, key.dty);
+    }
+
+    /**
+     * Set key values.
+     * 
+     * @param profile The mover profile.
+     * @param stx The start horizontal tile index ({@link #NO_START} if undefined).
+     * @param sty The start vertical tile index ({@link #NO_START} if undefined).
+     * @param dtx The destination horizontal tile index.
+     * @param dty The destination vertical tile index.
+     */
+    void set(PathProfile profile, int stx, int sty, int dtx, int dty)
+    {
+        this.profile = profile;
+        this.stx = stx;
+        this.sty = sty;
+        this.dtx = dtx;
+        this.dty = dty;
+    }
+
+    /**
+     * Get the mover profile.
+     * 
+     * @return The mover profile.
+     */
+    PathProfile getProfile()
+    {
+        return profile;
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + profile.hashCode();
+        result = prime * result + stx;
+        result = prime * result + sty;
+        result = prime * result + dtx;
+        result = prime * result + dty;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (object == null || object.getClass() != getClass())
+        {
+            return false;
+        }
+        final PathKey other = (PathKey) object;
+        return stx == other.stx
+               && sty == other.sty
+               && dtx == other.dtx
+               && dty == other.dty
+               && profile.equals(other.profile);
+    }
+}
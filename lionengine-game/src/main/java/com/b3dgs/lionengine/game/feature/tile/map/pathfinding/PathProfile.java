@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Mover profile. Movers with the same profile have the same blocking, costs and allowed movements on each category, so
+ * they can share the same precomputed path data.
+ * <p>
+ * Profile is stored as an <code>int</code> array (cost bits and movements mask of each category), so it can be used as
+ * a key without building a string.
+ * </p>
+ */
+final class PathProfile
+{
+    /** Blocking category movements value. */
+    private static final int BLOCKING = -1;
+    /** Values number by category. */
+    private static final int VALUES = 3;
+    /** Cost high bits shift. */
+    private static final int HIGH = 32;
+
+    /**
+     * Get the mover profile.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @return The mover profile.
+     */
+    static PathProfile get(MapTilePath mapPath, Pathfindable mover)
+    {
+        final Collection<String> categories = mapPath.getCategories();
+        final int[] values = new int[categories.size() * VALUES];
+        int i = 0;
+        for (final String category : categories)
+        {
+            if (mover.isBlocking(category))
+            {
+                values[i + 2] = BLOCKING;
+            }
+            else
+            {
+                final long cost = Double.doubleToLongBits(mover.getCost(category));
+                values[i] = (int) (cost >>> HIGH);
+                values[i + 1] = (int) cost;
+                values[i + 2] = getMovements(mover, category);
+            }
+            i += VALUES;
+        }
+        return new PathProfile(values);
+    }
+
+    /**
+     * Get the allowed movements mask of the category, by movement ordinal.
+     * 
+     * @param mover The mover reference.
+     * @param category The category name.
+     * @return The allowed movements mask.
+     */
+    private static int getMovements(Pathfindable mover, String category)
+    {
+        int mask = 0;
+        for (final MovementTile movement : MovementTile.values())
+        {
+            if (mover.isMovementAllowed(category, movement))
+            {
+                mask |= 1 << movement.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /** Profile values. */
+    private final int[] values;
+    /** Cached hash code. */
+    private final int hash;
+
+    /**
+     * Create profile.
+     * 
+     * @param values The profile values.
+     */
+    private PathProfile(int[] values)
+    {
+        super();
+
+        this.values = values;
+        hash = Arrays.hashCode(values);
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true;
+        }
+        if (object == null || object.getClass() != getClass())
+        {
+            return false;
+        }
+        final PathProfile other = (PathProfile) object;
+        return hash == other.hash && Arrays.equals(values, other.values);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+/**
+ * Represents a path request scheduled with {@link MapTilePathScheduler}. Result is available once done, which happens
+ * on a {@link MapTilePathScheduler#update(double)} call. The same request may be shared by several movers with the same
+ * start, destination and profile.
+ */
+public final class PathRequest
+{
+    /** Coalescing key. */
+    private final PathKey key;
+    /** Snapshot to search (<code>null</code> if nothing to search). */
+    private PathSnapshot snapshot;
+    /** Start horizontal tile index. */
+    private final int stx;
+    /** Start vertical tile index. */
+    private final int sty;
+    /** Destination horizontal tile index. */
+    private final int dtx;
+    /** Destination vertical tile index. */
+    private final int dty;
+    /** Path found (<code>null</code> if none). */
+    private Path path;
+    /** Movers sharing the request. */
+    private int users = 1;
+    /** Cancelled flag. */
+    private volatile boolean cancelled;
+    /** Delivered flag. */
+    private boolean done;
+
+    /**
+     * Create request.
+     * 
+     * @param key The coalescing key.
+     * @param snapshot The snapshot to search (<code>null</code> if nothing to search).
+     * @param stx The start horizontal tile index.
+     * @param sty The start vertical tile index.
+     * @param dtx The destination horizontal tile index.
+     * @param dty The destination vertical tile index.
+     */
+    PathRequest(PathKey key, PathSnapshot snapshot, int stx, int sty, int dtx, int dty)
+    {
+        super();
+
+        this.key = key;
+        this.snapshot = snapshot;
+        this.stx = stx;
+        this.sty = sty;
+        this.dtx = dtx;
+        this.dty = dty;
+    }
+
+    /**
+     * Search the path.
+     * 
+     * @param search The search to use.
+     */
+    void search(PathSearch search)
+    {
+        if (snapshot != null && !cancelled)
+        {
+            path = search.findPath(snapshot, stx, sty, dtx, dty);
+        }
+    }
+
+    /**
+     * Add a mover sharing the request.
+     */
+    void addUser()
+    {
+        users++;
+    }
+
+    /**
+     * Remove a mover sharing the request, and cancel it if it was the last one.
+     * 
+     * @return <code>true</code> if cancelled, <code>false</code> if still shared.
+     */
+    boolean removeUser()
+    {
+        users--;
+        cancelled = users == 0;
+        return cancelled;
+    }
+
+    /**
+     * Check if request has been cancelled by all its movers.
+     * 
+     * @return <code>true</code> if cancelled, <code>false</code> else.
+     */
+    boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Deliver the result.
+     */
+    void deliver()
+    {
+        done = true;
+    }
+
+    /**
+     * Get the coalescing key.
+     * 
+     * @return The coalescing key.
+     */
+    PathKey getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Set the snapshot to search again, when the searched one is stale.
+     * 
+     * @param snapshot The snapshot to search.
+     */
+    void setSnapshot(PathSnapshot snapshot)
+    {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get the snapshot to search.
+     * 
+     * @return The snapshot to search (<code>null</code> if nothing to search).
+     */
+    PathSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Get the path found. Path must not be modified as it may be shared.
+     * 
+     * @return The path found, <code>null</code> if none or not done.
+     */
+    public Path getPath()
+    {
+        if (done)
+        {
+            return path;
+        }
+        return null;
+    }
+
+    /**
+     * Get the destination horizontal tile index.
+     * 
+     * @return The destination horizontal tile index.
+     */
+    public int getDestinationX()
+    {
+        return dtx;
+    }
+
+    /**
+     * Get the destination vertical tile index.
+     * 
+     * @return The destination vertical tile index.
+     */
+    public int getDestinationY()
+    {
+        return dty;
+    }
+
+    /**
+     * Check if request is done and result available.
+     * 
+     * @return <code>true</code> if done, <code>false</code> else.
+     */
+    public boolean isDone()
+    {
+        return done;
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * A-Star search over a {@link PathSource}, shared by {@link PathFinderImpl} and the {@link MapTilePathScheduler}
+ * workers.
+ * <p>
+ * Nodes are stored as flat primitive arrays indexed by <code>ty * width + tx</code>. Open list is an indexed binary
+ * heap, and nodes are generation stamped, so a new search does not have to reset the whole map. A visited node which is
+ * not in the open list is closed. An instance must only be used by one thread at a time.
+ * </p>
+ */
+final class PathSearch
+{
+    /** No parent index. */
+    private static final int NO_PARENT = -1;
+
+    /** Open list. */
+    private final OpenList open;
+    /** Nodes cost. */
+    private final double[] costs;
+    /** Nodes depth. */
+    private final int[] depths;
+    /** Nodes parent index. */
+    private final int[] parents;
+    /** Nodes visited generation. Node data are valid only if equal to current generation, closed if not open. */
+    private final int[] visited;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Max distance to search. */
+    private final int maxSearchDistance;
+    /** Width in tile. */
+    private final int width;
+    /** Height in tile. */
+    private final int height;
+    /** Current search generation. */
+    private int generation;
+    /** Search area minimum horizontal tile index. */
+    private int minTx;
+    /** Search area minimum vertical tile index. */
+    private int minTy;
+    /** Search area maximum horizontal tile index. */
+    private int maxTx;
+    /** Search area maximum vertical tile index. */
+    private int maxTy;
+    /** Flood mode (search without destination nor heuristic). */
+    private boolean flood;
+
+    /**
+     * Create search.
+     * 
+     * @param width The width in tile.
+     * @param height The height in tile.
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     */
+    PathSearch(int width, int height, int maxSearchDistance, Heuristic heuristic)
+    {
+        super();
+
+        this.width = width;
+        this.height = height;
+        this.maxSearchDistance = maxSearchDistance;
+        this.heuristic = heuristic;
+
+        final int count = width * height;
+        open = new OpenList(count);
+        costs = new double[count];
+        depths = new int[count];
+        parents = new int[count];
+        visited = new int[count];
+    }
+
+    /**
+     * Check if search has the specified size.
+     * 
+     * @param width The width in tile.
+     * @param height The height in tile.
+     * @return <code>true</code> if same size, <code>false</code> else.
+     */
+    boolean hasSize(int width, int height)
+    {
+        return this.width == width && this.height == height;
+    }
+
+    /**
+     * Find a path between two locations. Destination is not checked for blocking.
+     * 
+     * @param source The tiles data to search.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @return The path found, <code>null</code> if none.
+     */
+    Path findPath(PathSource source, int stx, int sty, int dtx, int dty)
+    {
+        return findPath(source, stx, sty, dtx, dty, 0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Find a path between two locations, without leaving the specified area. Destination is not checked for blocking.
+     * 
+     * @param source The tiles data to search.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param minTx The minimum horizontal tile index of the search area.
+     * @param minTy The minimum vertical tile index of the search area.
+     * @param maxTx The maximum horizontal tile index of the search area (included).
+     * @param maxTy The maximum vertical tile index of the search area (included).
+     * @return The path found, <code>null</code> if none.
+     */
+    Path findPath(PathSource source,
+                  int stx,
+                  int sty,
+                  int dtx,
+                  int dty,
+                  int minTx,
+                  int minTy,
+                  int maxTx,
+                  int maxTy)
+    {
+        setArea(minTx, minTy, maxTx, maxTy);
+        search(source, stx, sty, dtx, dty);
+
+        final int start = index(stx, sty);
+        final int destination = index(dtx, dty);
+        if (start == destination || visited[destination] != generation)
+        {
+            return null;
+        }
+        final Path path = new Path();
+        int target = destination;
+        while (target != start)
+        {
+            path.prependStep(target % width, target / width);
+            target = parents[target];
+        }
+        path.prependStep(stx, sty);
+
+        return path;
+    }
+
+    /**
+     * Compute the costs to reach all locations of an area from a starting location. Costs can then be retrieved with
+     * {@link #getFloodCost(int, int)}, until next search.
+     * 
+     * @param source The tiles data to search.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param minTx The minimum horizontal tile index of the area.
+     * @param minTy The minimum vertical tile index of the area.
+     * @param maxTx The maximum horizontal tile index of the area (included).
+     * @param maxTy The maximum vertical tile index of the area (included).
+     */
+    void flood(PathSource source, int stx, int sty, int minTx, int minTy, int maxTx, int maxTy)
+    {
+        setArea(minTx, minTy, maxTx, maxTy);
+        flood = true;
+        search(source, stx, sty, -1, -1);
+        flood = false;
+    }
+
+    /**
+     * Get the cost to reach a location from the last
+     * {@link #flood(PathSource, int, int, int, int, int, int)} start.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cost, negative if location has not been reached.
+     */
+    double getFloodCost(int tx, int ty)
+    {
+        final int index = index(tx, ty);
+        if (visited[index] == generation)
+        {
+            return costs[index];
+        }
+        return -1.0;
+    }
+
+    /**
+     * Get the node index.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The node index.
+     */
+    private int index(int tx, int ty)
+    {
+        return ty * width + tx;
+    }
+
+    /**
+     * Set the search area.
+     * 
+     * @param minTx The minimum horizontal tile index of the area.
+     * @param minTy The minimum vertical tile index of the area.
+     * @param maxTx The maximum horizontal tile index of the area (included).
+     * @param maxTy The maximum vertical tile index of the area (included).
+     */
+    private void setArea(int minTx, int minTy, int maxTx, int maxTy)
+    {
+        this.minTx = minTx;
+        this.minTy = minTy;
+        this.maxTx = maxTx;
+        this.maxTy = maxTy;
+    }
+
+    /**
+     * Start a new search generation, invalidating all nodes data.
+     */
+    private void nextGeneration()
+    {
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(visited, 0);
+            generation = 0;
+        }
+        generation++;
+        open.clear();
+    }
+
+    /**
+     * Search from start until destination is reached, or all locations of the area have been visited if destination
+     * is outside of the area.
+     * 
+     * @param source The tiles data to search.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     */
+    private void search(PathSource source, int stx, int sty, int dtx, int dty)
+    {
+        nextGeneration();
+
+        final int start = index(stx, sty);
+        final int destination = index(dtx, dty);
+        visited[start] = generation;
+        costs[start] = 0.0;
+        depths[start] = 0;
+        parents[start] = NO_PARENT;
+        open.add(start, heuristic.getCost(stx, sty, dtx, dty));
+
+        int maxDepth = 0;
+        while (maxDepth < maxSearchDistance && open.size() != 0 && open.first() != destination)
+        {
+            maxDepth = expand(source, open.poll(), start, dtx, dty, maxDepth);
+        }
+    }
+
+    /**
+     * Check if location is valid: inside search area, and not blocking unless it is the start location.
+     * 
+     * @param source The tiles data to search.
+     * @param start The start node index.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if valid, <code>false</code> else.
+     */
+    private boolean isValid(PathSource source, int start, int tx, int ty)
+    {
+        if (tx < minTx || ty < minTy || tx > maxTx || ty > maxTy)
+        {
+            return false;
+        }
+        return index(tx, ty) == start || !source.isBlocked(tx, ty);
+    }
+
+    /**
+     * Expand the current node to its neighbors.
+     * 
+     * @param source The tiles data to search.
+     * @param current The current node index.
+     * @param start The start node index.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param maxDepth The last max depth.
+     * @return The next max depth.
+     */
+    private int expand(PathSource source, int current, int start, int dtx, int dty, int maxDepth)
+    {
+        int depth = maxDepth;
+        final int cx = current % width;
+        final int cy = current / width;
+        final int movements = source.getMovements(cx, cy);
+        final double nextStepCost = costs[current] + source.getCost(cx, cy);
+
+        for (int y = -1; y < 2; y++)
+        {
+            for (int x = -1; x < 2; x++)
+            {
+                if (!(x == 0 && y == 0) && (movements & 1 << MovementTile.from(x, y).ordinal()) != 0)
+                {
+                    depth = check(source, current, start, cx + x, cy + y, dtx, dty, nextStepCost, depth);
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Check the neighbor location and update it if better.
+     * 
+     * @param source The tiles data to search.
+     * @param current The current node index.
+     * @param start The start node index.
+     * @param xp The x coordinate of the neighbor location.
+     * @param yp The y coordinate of the neighbor location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param nextStepCost The cost to reach neighbor from current node.
+     * @param maxDepth The last max depth.
+     * @return The next max depth.
+     */
+    private int check(PathSource source,
+                      int current,
+                      int start,
+                      int xp,
+                      int yp,
+                      int dtx,
+                      int dty,
+                      double nextStepCost,
+                      int maxDepth)
+    {
+        int depth = maxDepth;
+        if (isBetter(source, start, xp, yp, nextStepCost))
+        {
+            final int neighbour = index(xp, yp);
+            visited[neighbour] = generation;
+            costs[neighbour] = nextStepCost;
+            parents[neighbour] = current;
+            depths[neighbour] = depths[current] + 1;
+
+            double priority = nextStepCost;
+            if (!flood)
+            {
+                priority += heuristic.getCost(xp, yp, dtx, dty);
+            }
+            if (open.contains(neighbour))
+            {
+                open.update(neighbour, priority);
+            }
+            else
+            {
+                open.add(neighbour, priority);
+            }
+            depth = Math.max(maxDepth, depths[neighbour]);
+        }
+        return depth;
+    }
+
+    /**
+     * Check if the neighbor location is valid, and not reached yet with a lower or equal cost.
+     * 
+     * @param source The tiles data to search.
+     * @param start The start node index.
+     * @param xp The x coordinate of the neighbor location.
+     * @param yp The y coordinate of the neighbor location.
+     * @param nextStepCost The cost to reach neighbor from current node.
+     * @return <code>true</code> if neighbor is reached with a better cost, <code>false</code> else.
+     */
+    private boolean isBetter(PathSource source, int start, int xp, int yp, double nextStepCost)
+    {
+        return isValid(source, start, xp, yp)
+               && (visited[index(xp, yp)] != generation || nextStepCost < costs[index(xp, yp)]);
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+
+/**
+ * View of the map path data for a mover profile: blocking, cost and allowed movements of each tile, objects excluded.
+ * <p>
+ * Data of each category are computed once from the mover, so a changed tile is updated without the mover with
+ * {@link #update(MapTile, MapTilePath, int, int)}. A snapshot searched by a worker must not be updated: a patched
+ * {@link #copy()} replaces it, and it is marked as stale, so its requests are searched again on the new one.
+ * </p>
+ */
+final class PathSnapshot implements PathSource
+{
+    /** Movements to check. */
+    private static final MovementTile[] MOVEMENTS =
+    {
+        MovementTile.UP, MovementTile.DOWN, MovementTile.LEFT, MovementTile.RIGHT, MovementTile.DIAGONAL_UP_LEFT,
+        MovementTile.DIAGONAL_UP_RIGHT, MovementTile.DIAGONAL_DOWN_LEFT, MovementTile.DIAGONAL_DOWN_RIGHT
+    };
+
+    /**
+     * Get the allowed movements mask of a category.
+     * 
+     * @param mover The mover reference.
+     * @param category The category name.
+     * @return The movements mask (bit by movement ordinal).
+     */
+    static int getMovements(Pathfindable mover, String category)
+    {
+        int mask = 0;
+        for (final MovementTile movement : MOVEMENTS)
+        {
+            if (mover.isMovementAllowed(category, movement))
+            {
+                mask |= 1 << movement.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /** Tiles cost. */
+    private final double[] costs;
+    /** Tiles allowed movements mask. */
+    private final int[] movements;
+    /** Tiles blocking flag. */
+    private final boolean[] blocked;
+    /** Data by category (shared with copies). */
+    private final Map<String, Category> categories;
+    /** Width in tile. */
+    private final int width;
+    /** Height in tile. */
+    private final int height;
+    /** Requests not yet delivered. */
+    private int requests;
+    /** Stale flag (replaced by an updated snapshot). */
+    private boolean stale;
+
+    /**
+     * Create snapshot from current map state.
+     * 
+     * @param map The map reference.
+     * @param mover The mover reference.
+     */
+    PathSnapshot(MapTile map, Pathfindable mover)
+    {
+        super();
+
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+        costs = new double[width * height];
+        movements = new int[width * height];
+        blocked = new boolean[width * height];
+        categories = new HashMap<String, Category>();
+
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (final String category : mapPath.getCategories())
+        {
+            categories.put(category, new Category(mover, category));
+        }
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (tile != null)
+                {
+                    final String category = mapPath.getCategory(tx, ty);
+                    if (!categories.containsKey(category))
+                    {
+                        categories.put(category, new Category(mover, category));
+                    }
+                }
+                set(tx, ty, tile, mapPath);
+            }
+        }
+    }
+
+    /**
+     * Create a copy of a snapshot.
+     * 
+     * @param snapshot The snapshot to copy.
+     */
+    private PathSnapshot(PathSnapshot snapshot)
+    {
+        super();
+
+        width = snapshot.width;
+        height = snapshot.height;
+        costs = snapshot.costs.clone();
+        movements = snapshot.movements.clone();
+        blocked = snapshot.blocked.clone();
+        categories = snapshot.categories;
+    }
+
+    /**
+     * Create a copy of this snapshot, without its requests.
+     * 
+     * @return The snapshot copy.
+     */
+    PathSnapshot copy()
+    {
+        return new PathSnapshot(this);
+    }
+
+    /**
+     * Update the tile data from current map state.
+     * 
+     * @param map The map reference.
+     * @param mapPath The map path reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if updated, <code>false</code> if tile category is unknown by snapshot.
+     */
+    boolean update(MapTile map, MapTilePath mapPath, int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile != null && !categories.containsKey(mapPath.getCategory(tx, ty)))
+        {
+            return false;
+        }
+        set(tx, ty, tile, mapPath);
+        return true;
+    }
+
+    /**
+     * Count a new request searching this snapshot.
+     */
+    void addRequest()
+    {
+        requests++;
+    }
+
+    /**
+     * Remove a delivered request.
+     */
+    void removeRequest()
+    {
+        requests--;
+    }
+
+    /**
+     * Check if requests searching this snapshot are not yet delivered.
+     * 
+     * @return <code>true</code> if requests pending, <code>false</code> else.
+     */
+    boolean hasRequests()
+    {
+        return requests > 0;
+    }
+
+    /**
+     * Mark snapshot as stale.
+     */
+    void setStale()
+    {
+        stale = true;
+    }
+
+    /**
+     * Check if snapshot is stale.
+     * 
+     * @return <code>true</code> if replaced by an updated snapshot, <code>false</code> else.
+     */
+    boolean isStale()
+    {
+        return stale;
+    }
+
+    /**
+     * Check if snapshot has the specified size.
+     * 
+     * @param width The width in tile.
+     * @param height The height in tile.
+     * @return <code>true</code> if same size, <code>false</code> else.
+     */
+    boolean hasSize(int width, int height)
+    {
+        return this.width == width && this.height == height;
+    }
+
+    /**
+     * Get the width.
+     * 
+     * @return The width in tile.
+     */
+    int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Get the height.
+     * 
+     * @return The height in tile.
+     */
+    int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Set the tile data from its category.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param tile The tile reference (<code>null</code> if none).
+     * @param mapPath The map path reference.
+     */
+    private void set(int tx, int ty, Tile tile, MapTilePath mapPath)
+    {
+        final int index = ty * width + tx;
+        if (tile == null)
+        {
+            blocked[index] = true;
+            costs[index] = 0.0;
+            movements[index] = 0;
+        }
+        else
+        {
+            final Category category = categories.get(mapPath.getCategory(tx, ty));
+            blocked[index] = category.blocking;
+            costs[index] = category.cost;
+            movements[index] = category.movements;
+        }
+    }
+
+    /*
+     * PathSource
+     */
+
+    @Override
+    public boolean isBlocked(int tx, int ty)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height)
+        {
+            return true;
+        }
+        return blocked[ty * width + tx];
+    }
+
+    @Override
+    public double getCost(int tx, int ty)
+    {
+        return costs[ty * width + tx];
+    }
+
+    @Override
+    public int getMovements(int tx, int ty)
+    {
+        return movements[ty * width + tx];
+    }
+
+    /**
+     * Category data for the mover.
+     */
+    private static final class Category
+    {
+        /** Blocking flag. */
+        private final boolean blocking;
+        /** Cost. */
+        private final double cost;
+        /** Allowed movements mask. */
+        private final int movements;
+
+        /**
+         * Create category data.
+         * 
+         * @param mover The mover reference.
+         * @param category The category name.
+         */
+        Category(Pathfindable mover, String category)
+        {
+            super();
+
+            blocking = mover.isBlocking(category);
+            cost = mover.getCost(category);
+            movements = getMovements(mover, category);
+        }
+    }
+}
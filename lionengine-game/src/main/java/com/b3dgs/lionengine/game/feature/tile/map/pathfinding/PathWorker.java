@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Searches a path request on a worker thread, and queues it as completed.
+ */
+final class PathWorker implements Runnable
+{
+    /**
+     * Create the workers pool.
+     * 
+     * @param threads The workers number.
+     * @return The workers pool, <code>null</code> if no worker.
+     */
+    static ExecutorService createExecutor(int threads)
+    {
+        if (threads == 0)
+        {
+            return null;
+        }
+        return Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, MapTilePathScheduler.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Request to search. */
+    private final PathRequest request;
+    /** Available searches. */
+    private final Queue<PathSearch> searches;
+    /** Completed requests. */
+    private final Queue<PathRequest> completed;
+    /** Max distance to search. */
+    private final int maxSearchDistance;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+
+    /**
+     * Create worker.
+     * 
+     * @param request The request to search.
+     * @param searches The available searches (must be thread safe).
+     * @param completed The completed requests (must be thread safe).
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     */
+    PathWorker(PathRequest request,
+               Queue<PathSearch> searches,
+               Queue<PathRequest> completed,
+               int maxSearchDistance,
+               Heuristic heuristic)
+    {
+        super();
+
+        this.request = request;
+        this.searches = searches;
+        this.completed = completed;
+        this.maxSearchDistance = maxSearchDistance;
+        this.heuristic = heuristic;
+    }
+
+    /*
+     * Runnable
+     */
+
+    @Override
+    public void run()
+    {
+        if (!request.isCancelled())
+        {
+            final PathSnapshot snapshot = request.getSnapshot();
+            PathSearch search = searches.poll();
+            if (search == null || !search.hasSize(snapshot.getWidth(), snapshot.getHeight()))
+            {
+                search = new PathSearch(snapshot.getWidth(), snapshot.getHeight(), maxSearchDistance, heuristic);
+            }
+            request.search(search);
+            searches.offer(search);
+        }
+        completed.offer(request);
+    }
+}
@@ -73,6 +73,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
     private final MapTilePath mapPath;
     /** Pathfinder reference. */
     private final PathFinder pathfinder;
+    /** Path scheduler reference (<code>null</code> if none). */
+    private final MapTilePathScheduler scheduler;
     /** List of categories. */
     private final Map<String, PathData> categories;
     /** Transformable model. */
@@ -81,6 +83,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
     private final OrientableModel orientable;
     /** Last valid path found. */
     private Path path;
+    /** Pending path request (<code>null</code> if none). */
+    private PathRequest request;
     /** Text debug rendering. */
     private Text text;
     /** Current step index on path. */
@@ -134,6 +138,12 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
      * <li>{@link Viewer}</li>
      * </ul>
      * <p>
+     * If the {@link MapTile} has the {@link MapTilePathHierarchy} feature, it is used to search paths. If it has the
+     * {@link MapTilePathFlow} feature, shared flow fields are followed for common destinations. If it has the
+     * {@link MapTilePathScheduler} feature, paths to new destinations are requested asynchronously, and listeners are
+     * notified of the move start when the path is received.
+     * </p>
+     * <p>
      * If the {@link Featurable} is a {@link PathfindableListener}, it will automatically
      * {@link #addListener(PathfindableListener)} on it.
      * </p>
@@ -153,7 +163,15 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
 
         final int range = (int) Math.sqrt(map.getInTileWidth() * map.getInTileWidth()
                                           + map.getInTileHeight() * (double) map.getInTileHeight());
-        pathfinder = Astar.createPathFinder(map, range, Astar.createHeuristicClosest());
+        pathfinder = Astar.createPathFinder(map, range);
+        if (map.hasFeature(MapTilePathScheduler.class))
+        {
+            scheduler = map.getFeature(MapTilePathScheduler.class);
+        }
+        else
+        {
+            scheduler = null;
+        }
 
         recycle();
     }
@@ -283,8 +301,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
                 final Tile tile = map.getTile(path.getX(i), path.getY(i));
                 if (tile != null)
                 {
-                    final TilePath tilePath = tile.getFeature(TilePath.class);
-                    text.draw(g, x + 2, y - th + 2, String.valueOf(getCost(tilePath.getCategory())));
+                    final String category = mapPath.getCategory(path.getX(i), path.getY(i));
+                    text.draw(g, x + 2, y - th + 2, String.valueOf(getCost(category)));
                 }
             }
         }
@@ -420,6 +438,83 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
         }
     }
 
+    /**
+     * Find the next part of a partial path, from the current location, with the same reference checking as the first
+     * part.
+     */
+    private void continuePath()
+    {
+        path = pathfinder.findPath(this, destX, destY, true);
+        currentStep = 0;
+        if (path == null)
+        {
+            onArrived();
+        }
+        // First step is the current location, already reached
+        else if (getMaxStep() > 1)
+        {
+            updateObjectId(0, 1);
+            if (!pathStoppedRequested)
+            {
+                currentStep = 1;
+            }
+            checkPathfinderChanges();
+        }
+    }
+
+    /**
+     * Take the requested path if received, and notify the move start.
+     */
+    private void checkRequest()
+    {
+        if (request != null && request.isDone())
+        {
+            path = request.getPath();
+            request = null;
+            currentStep = 0;
+            for (final PathfindableListener listener : listeners)
+            {
+                listener.notifyStartMove();
+            }
+        }
+    }
+
+    /**
+     * Find the first path to destination, or request it to the scheduler, replacing the pending request.
+     * 
+     * @param tx The horizontal destination tile index.
+     * @param ty The vertical destination tile index.
+     */
+    private void startPath(int tx, int ty)
+    {
+        currentStep = 0;
+        if (scheduler == null)
+        {
+            path = pathfinder.findPath(this, tx, ty, true);
+            for (final PathfindableListener listener : listeners)
+            {
+                listener.notifyStartMove();
+            }
+        }
+        else
+        {
+            cancelRequest();
+            request = scheduler.request(this, tx, ty);
+        }
+    }
+
+    /**
+     * Cancel the pending path request if any, so it is not searched anymore if no other mover shares it.
+     */
+    private void cancelRequest()
+    {
+        if (request != null)
+        {
+            scheduler.cancel(request);
+            request = null;
+        }
+    }
+
     /**
      * Check if the object id location is available for the pathfindable.
      * 
@@ -573,6 +668,7 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
     @Override
     public void stopMoves()
     {
+        cancelRequest();
         pathStoppedRequested = true;
     }
 
@@ -590,6 +686,12 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
             reCheckRef = true;
             return;
         }
+        checkRequest();
+        // Partial path end is reached, continue with next part
+        if (path != null && currentStep >= getMaxStep() && path.isPartial() && !pathStopped)
+        {
+            continuePath();
+        }
         if (path != null)
         {
             // Continue until max step
@@ -694,13 +796,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
             // New first path, when object is not moving
             if (path == null)
             {
-                currentStep = 0;
-                path = pathfinder.findPath(this, tx, ty, true);
+                startPath(tx, ty);
                 pathFoundChanged = false;
-                for (final PathfindableListener listener : listeners)
-                {
-                    listener.notifyStartMove();
-                }
                 prepareDestination(tx, ty);
                 return true;
             }
@@ -868,6 +965,7 @@ public class PathfindableModel extends FeatureModel implements Pathfindable, Rec
         pathFoundChanged = false;
         currentStep = 0;
         path = null;
+        cancelRequest();
         moveX = 0.0;
         moveY = 0.0;
         sharedPathIds.clear();
@@ -27,7 +27,9 @@ import java.util.Set;
  * Sorted list implementation.
  * 
  * @param <E> The comparable type.
+ * @deprecated Not used by path finders anymore, which use an indexed binary heap. Will be removed in a next release.
  */
+@Deprecated
 public final class SortedList<E extends Comparable<E>>
 {
     /** List of object. */
@@ -0,0 +1,644 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.persister;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.io.FileReading;
+import com.b3dgs.lionengine.io.FileWriting;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Chunked map file, where tiles are stored by fixed size square chunks, each one compressed separately.
+ * <p>
+ * File is stored this way:
+ * </p>
+ * 
+ * <pre>
+ * <code>(int)</code> {@link #MAGIC} (negative, so it can not be confused with a legacy tile width)
+ * <code>(int)</code> body length in bytes
+ * body:
+ *   <code>(int)</code> format version
+ *   <code>(int)</code> tile width
+ *   <code>(int)</code> tile height
+ *   <code>(int)</code> width in tiles
+ *   <code>(int)</code> height in tiles
+ *   <code>(int)</code> chunk size in tiles
+ *   <code>(byte)</code> has sheets configuration
+ *   <code>(String)</code> sheets configuration (only if defined)
+ *   for each chunk (horizontal first): directory entry
+ *     <code>(int)</code> compressed data offset (relative to first chunk data)
+ *     <code>(int)</code> compressed data length
+ *     <code>(int)</code> uncompressed data length
+ *   for each chunk: deflated runs of identical tiles (horizontal first inside the chunk)
+ *     <code>(int)</code> run length
+ *     <code>(int)</code> sheet number ({@value #EMPTY} for no tile)
+ *     <code>(int)</code> tile number
+ * </pre>
+ * <p>
+ * The body is accessed through a {@link ByteBuffer}, which is a memory mapped file region when opened with
+ * {@link #map(Media)}. Only the directory is parsed on opening, chunks are decompressed on
+ * {@link #loadChunk(MapTile, int, int)}, allowing to load a map chunk by chunk.
+ * </p>
+ */
+public final class MapTileChunkFile
+{
+    /** Chunked map file magic number. */
+    public static final int MAGIC = 0xB3D6C4F1;
+    /** Format version. */
+    private static final int VERSION = 1;
+    /** Empty tile sheet value. */
+    private static final int EMPTY = -1;
+    /** Magic and length size in bytes. */
+    private static final int HEADER_SIZE = 8;
+    /** Run size in bytes. */
+    private static final int RUN_SIZE = 12;
+    /** Unsigned short mask. */
+    private static final int SHORT_MASK = 0xFFFF;
+    /** Compression buffer size. */
+    private static final int BUFFER_SIZE = 4096;
+    /** Error version message. */
+    private static final String ERROR_VERSION = "Unsupported chunked map version: ";
+    /** Error corrupted message. */
+    private static final String ERROR_CORRUPTED = "Corrupted chunk: ";
+    /** Error sheet missing message. */
+    private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
+
+    /**
+     * Save map to chunked format.
+     * 
+     * @param map The map reference.
+     * @param chunkSize The chunk size in tiles (must be strictly positive).
+     * @param output The output file.
+     * @throws IOException If error on writing.
+     */
+    public static void save(MapTile map, int chunkSize, FileWriting output) throws IOException
+    {
+        Check.notNull(map);
+        Check.superiorStrict(chunkSize, 0);
+        Check.notNull(output);
+
+        final int chunksH = getChunksNumber(map.getInTileWidth(), chunkSize);
+        final int chunksV = getChunksNumber(map.getInTileHeight(), chunkSize);
+        final byte[][] compressed = new byte[chunksH * chunksV][];
+        final int[] raws = new int[compressed.length];
+        for (int cy = 0; cy < chunksV; cy++)
+        {
+            for (int cx = 0; cx < chunksH; cx++)
+            {
+                final byte[] raw = encodeChunk(map, chunkSize, cx, cy);
+                compressed[cx + cy * chunksH] = deflate(raw);
+                raws[cx + cy * chunksH] = raw.length;
+            }
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream body = new DataOutputStream(bytes);
+        writeHeader(body, map, chunkSize);
+        writeChunks(body, compressed, raws);
+        body.flush();
+
+        output.writeInteger(MAGIC);
+        output.writeInteger(bytes.size());
+        output.writeBytes(bytes.toByteArray());
+    }
+
+    /**
+     * Read chunked map from stream. {@link #MAGIC} must have already been read.
+     * 
+     * @param input The input file, positioned just after {@link #MAGIC}.
+     * @return The chunked map file.
+     * @throws IOException If error on reading.
+     */
+    public static MapTileChunkFile read(FileReading input) throws IOException
+    {
+        Check.notNull(input);
+
+        final byte[] body = new byte[input.readInteger()];
+        input.readBytes(body);
+        return new MapTileChunkFile(ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Open chunked map by mapping its body in memory. Media must be a file system media.
+     * 
+     * @param level The level media.
+     * @return The chunked map file, <code>null</code> if media is not a chunked map file.
+     * @throws IOException If error on reading.
+     */
+    public static MapTileChunkFile map(Media level) throws IOException
+    {
+        Check.notNull(level);
+
+        MapTileChunkFile chunks = null;
+        final RandomAccessFile file = new RandomAccessFile(level.getFile(), "r");
+        try
+        {
+            final FileChannel channel = file.getChannel();
+            if (channel.size() >= HEADER_SIZE && file.readInt() == MAGIC)
+            {
+                final int length = file.readInt();
+                chunks = new MapTileChunkFile(channel.map(MapMode.READ_ONLY, HEADER_SIZE, length));
+            }
+        }
+        finally
+        {
+            UtilStream.safeClose(file);
+        }
+        return chunks;
+    }
+
+    /**
+     * Get the number of chunks needed to cover tiles.
+     * 
+     * @param tiles The number of tiles.
+     * @param chunkSize The chunk size in tiles.
+     * @return The number of chunks.
+     */
+    private static int getChunksNumber(int tiles, int chunkSize)
+    {
+        return (tiles + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Read a string written as modified UTF-8.
+     * 
+     * @param body The body buffer.
+     * @return The read string.
+     */
+    private static String readString(ByteBuffer body)
+    {
+        final byte[] bytes = new byte[body.getShort() & SHORT_MASK];
+        body.get(bytes);
+        return new String(bytes, Constant.UTF_8);
+    }
+
+    /**
+     * Read the sheets configuration path.
+     * 
+     * @param body The body buffer.
+     * @return The configuration path, <code>null</code> if none.
+     */
+    private static String readConfig(ByteBuffer body)
+    {
+        String config = null;
+        if (body.get() != 0)
+        {
+            config = readString(body);
+        }
+        return config;
+    }
+
+    /**
+     * Write the header, from format version to sheets configuration.
+     * 
+     * @param body The body output.
+     * @param map The map reference.
+     * @param chunkSize The chunk size in tiles.
+     * @throws IOException If error on writing.
+     */
+    private static void writeHeader(DataOutputStream body, MapTile map, int chunkSize) throws IOException
+    {
+        body.writeInt(VERSION);
+        body.writeInt(map.getTileWidth());
+        body.writeInt(map.getTileHeight());
+        body.writeInt(map.getInTileWidth());
+        body.writeInt(map.getInTileHeight());
+        body.writeInt(chunkSize);
+
+        final boolean hasConfig = map.getMedia() != null;
+        body.writeBoolean(hasConfig);
+        if (hasConfig)
+        {
+            body.writeUTF(map.getMedia().getPath());
+        }
+    }
+
+    /**
+     * Write the chunks directory, followed by the chunks data.
+     * 
+     * @param body The body output.
+     * @param compressed The compressed chunks.
+     * @param raws The chunks uncompressed length.
+     * @throws IOException If error on writing.
+     */
+    private static void writeChunks(DataOutputStream body, byte[][] compressed, int[] raws) throws IOException
+    {
+        int offset = 0;
+        for (int i = 0; i < compressed.length; i++)
+        {
+            body.writeInt(offset);
+            body.writeInt(compressed[i].length);
+            body.writeInt(raws[i]);
+            offset += compressed[i].length;
+        }
+        for (final byte[] chunk : compressed)
+        {
+            body.write(chunk);
+        }
+    }
+
+    /**
+     * Encode chunk tiles as runs of identical tiles.
+     * 
+     * @param map The map reference.
+     * @param chunkSize The chunk size in tiles.
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The encoded runs.
+     * @throws IOException If error on encoding.
+     */
+    private static byte[] encodeChunk(MapTile map, int chunkSize, int cx, int cy) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream runs = new DataOutputStream(bytes);
+        final int endX = Math.min((cx + 1) * chunkSize, map.getInTileWidth());
+        final int endY = Math.min((cy + 1) * chunkSize, map.getInTileHeight());
+
+        int count = 0;
+        int sheet = EMPTY;
+        int number = 0;
+        for (int ty = cy * chunkSize; ty < endY; ty++)
+        {
+            for (int tx = cx * chunkSize; tx < endX; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                int currentSheet = EMPTY;
+                int currentNumber = 0;
+                if (tile != null)
+                {
+                    currentSheet = tile.getSheet().intValue();
+                    currentNumber = tile.getNumber();
+                }
+                if (count > 0 && (currentSheet != sheet || currentNumber != number))
+                {
+                    writeRun(runs, count, sheet, number);
+                    count = 0;
+                }
+                sheet = currentSheet;
+                number = currentNumber;
+                count++;
+            }
+        }
+        writeRun(runs, count, sheet, number);
+        runs.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Write a run of identical tiles.
+     * 
+     * @param runs The runs output.
+     * @param count The run length.
+     * @param sheet The tile sheet.
+     * @param number The tile number.
+     * @throws IOException If error on writing.
+     */
+    private static void writeRun(DataOutputStream runs, int count, int sheet, int number) throws IOException
+    {
+        runs.writeInt(count);
+        runs.writeInt(sheet);
+        runs.writeInt(number);
+    }
+
+    /**
+     * Compress data.
+     * 
+     * @param raw The data to compress.
+     * @return The compressed data.
+     */
+    private static byte[] deflate(byte[] raw)
+    {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            deflater.setInput(raw);
+            deflater.finish();
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length / 2 + 1);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished())
+            {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress data.
+     * 
+     * @param compressed The compressed data.
+     * @param length The expected uncompressed length.
+     * @return The uncompressed data.
+     * @throws IOException If data are corrupted.
+     */
+    private static byte[] inflate(byte[] compressed, int length) throws IOException
+    {
+        final Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(compressed);
+            final byte[] raw = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished() && !inflater.needsInput())
+            {
+                read += inflater.inflate(raw, read, length - read);
+            }
+            if (read != length || !inflater.finished())
+            {
+                throw new IOException(ERROR_CORRUPTED + Constant.DOUBLE_DOT + read);
+            }
+            return raw;
+        }
+        catch (final DataFormatException exception)
+        {
+            throw new IOException(ERROR_CORRUPTED + exception.getMessage(), exception);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    /** Chunks data (shared, only absolute access). */
+    private final ByteBuffer data;
+    /** Chunks compressed data offset. */
+    private final int[] offsets;
+    /** Chunks compressed data length. */
+    private final int[] lengths;
+    /** Chunks uncompressed data length. */
+    private final int[] raws;
+    /** Sheets configuration path (<code>null</code> if none). */
+    private final String config;
+    /** Tile width. */
+    private final int tileWidth;
+    /** Tile height. */
+    private final int tileHeight;
+    /** Width in tiles. */
+    private final int widthInTile;
+    /** Height in tiles. */
+    private final int heightInTile;
+    /** Chunk size in tiles. */
+    private final int chunkSize;
+    /** Horizontal chunks number. */
+    private final int chunksH;
+    /** Vertical chunks number. */
+    private final int chunksV;
+
+    /**
+     * Create chunked map file by parsing its header and directory.
+     * 
+     * @param body The file body.
+     * @throws IOException If invalid body.
+     */
+    private MapTileChunkFile(ByteBuffer body) throws IOException
+    {
+        super();
+
+        final int version = body.getInt();
+        if (version != VERSION)
+        {
+            throw new IOException(ERROR_VERSION + version);
+        }
+        tileWidth = body.getInt();
+        tileHeight = body.getInt();
+        widthInTile = body.getInt();
+        heightInTile = body.getInt();
+        chunkSize = body.getInt();
+        config = readConfig(body);
+        chunksH = getChunksNumber(widthInTile, chunkSize);
+        chunksV = getChunksNumber(heightInTile, chunkSize);
+
+        final int chunks = chunksH * chunksV;
+        offsets = new int[chunks];
+        lengths = new int[chunks];
+        raws = new int[chunks];
+        for (int i = 0; i < chunks; i++)
+        {
+            offsets[i] = body.getInt();
+            lengths[i] = body.getInt();
+            raws[i] = body.getInt();
+        }
+        data = body.slice();
+    }
+
+    /**
+     * Load chunk tiles into map. Map must have been created with the file size and sheets.
+     * 
+     * @param map The map reference.
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @throws IOException If error on reading or if tile sheet is missing.
+     */
+    public void loadChunk(MapTile map, int cx, int cy) throws IOException
+    {
+        setChunk(map, cx, cy, readChunk(cx, cy));
+    }
+
+    /**
+     * Read and decompress chunk data, without accessing any map. Can be called concurrently, to decompress chunks
+     * outside of the thread using the map.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The chunk data, to be used with {@link #setChunk(MapTile, int, int, byte[])}.
+     * @throws IOException If error on reading.
+     */
+    public byte[] readChunk(int cx, int cy) throws IOException
+    {
+        Check.superiorOrEqual(cx, 0);
+        Check.inferiorStrict(cx, chunksH);
+        Check.superiorOrEqual(cy, 0);
+        Check.inferiorStrict(cy, chunksV);
+
+        final int index = cx + cy * chunksH;
+        final byte[] compressed = new byte[lengths[index]];
+        final ByteBuffer source = data.duplicate();
+        source.position(offsets[index]);
+        source.get(compressed);
+
+        return inflate(compressed, raws[index]);
+    }
+
+    /**
+     * Set chunk tiles into map from its data. Map must have been created with the file size and sheets.
+     * 
+     * @param map The map reference.
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @param chunk The chunk data read with {@link #readChunk(int, int)}.
+     * @throws IOException If tile sheet is missing.
+     */
+    public void setChunk(MapTile map, int cx, int cy, byte[] chunk) throws IOException
+    {
+        Check.notNull(map);
+        Check.notNull(chunk);
+
+        final ByteBuffer runs = ByteBuffer.wrap(chunk);
+        final int startX = cx * chunkSize;
+        final int startY = cy * chunkSize;
+        final int width = Math.min(startX + chunkSize, widthInTile) - startX;
+
+        int cell = 0;
+        while (runs.remaining() >= RUN_SIZE)
+        {
+            final int count = runs.getInt();
+            final int sheet = runs.getInt();
+            final int number = runs.getInt();
+            if (sheet != EMPTY)
+            {
+                setTiles(map, Integer.valueOf(sheet), number, startX, startY, width, cell, count);
+            }
+            cell += count;
+        }
+    }
+
+    /**
+     * Get the tile width.
+     * 
+     * @return The tile width.
+     */
+    public int getTileWidth()
+    {
+        return tileWidth;
+    }
+
+    /**
+     * Get the tile height.
+     * 
+     * @return The tile height.
+     */
+    public int getTileHeight()
+    {
+        return tileHeight;
+    }
+
+    /**
+     * Get the width in tiles.
+     * 
+     * @return The width in tiles.
+     */
+    public int getInTileWidth()
+    {
+        return widthInTile;
+    }
+
+    /**
+     * Get the height in tiles.
+     * 
+     * @return The height in tiles.
+     */
+    public int getInTileHeight()
+    {
+        return heightInTile;
+    }
+
+    /**
+     * Get the chunk size in tiles.
+     * 
+     * @return The chunk size.
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Get the number of horizontal chunks.
+     * 
+     * @return The horizontal chunks number.
+     */
+    public int getChunksHorizontal()
+    {
+        return chunksH;
+    }
+
+    /**
+     * Get the number of vertical chunks.
+     * 
+     * @return The vertical chunks number.
+     */
+    public int getChunksVertical()
+    {
+        return chunksV;
+    }
+
+    /**
+     * Get the sheets configuration path.
+     * 
+     * @return The sheets configuration path, <code>null</code> if none.
+     */
+    public String getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * Set a run of identical tiles.
+     * 
+     * @param map The map reference.
+     * @param sheet The tile sheet.
+     * @param number The tile number.
+     * @param startX The chunk horizontal tile start.
+     * @param startY The chunk vertical tile start.
+     * @param width The chunk width in tiles.
+     * @param cell The first cell index inside chunk.
+     * @param count The run length.
+     * @throws IOException If tile sheet is missing.
+     */
+    private void setTiles(MapTile map,
+                          Integer sheet,
+                          int number,
+                          int startX,
+                          int startY,
+                          int width,
+                          int cell,
+                          int count) throws IOException
+    {
+        if (sheet.intValue() > map.getSheetsNumber())
+        {
+            throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + sheet);
+        }
+        for (int i = cell; i < cell + count; i++)
+        {
+            final int tx = startX + i % width;
+            final int ty = startY + i / width;
+            map.setTile(map.createTile(sheet, number, tx * (double) tileWidth, ty * (double) tileHeight));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.persister;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Read chunks of a chunked map file in background, on a single daemon thread.
+ * 
+ * @see MapTileStreamer
+ */
+final class MapTileChunkReader
+{
+    /**
+     * Create the reading executor.
+     * 
+     * @return The executor instance.
+     */
+    private static ExecutorService createExecutor()
+    {
+        return Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, MapTileStreamer.class.getSimpleName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** Chunk reading executor. */
+    private final ExecutorService executor = createExecutor();
+    /** Chunked map file. */
+    private final MapTileChunkFile file;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param file The chunked map file.
+     */
+    MapTileChunkReader(MapTileChunkFile file)
+    {
+        super();
+
+        this.file = file;
+    }
+
+    /**
+     * Submit chunk reading.
+     * 
+     * @param index The chunk index.
+     * @return The pending chunk data.
+     */
+    Future<byte[]> submit(int index)
+    {
+        final int cx = index % file.getChunksHorizontal();
+        final int cy = index / file.getChunksHorizontal();
+        return executor.submit(new Callable<byte[]>()
+        {
+            @Override
+            public byte[] call() throws IOException
+            {
+                return file.readChunk(cx, cy);
+            }
+        });
+    }
+
+    /**
+     * Stop reading, pending chunks are dropped.
+     */
+    void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -17,13 +17,25 @@
  */
 package com.b3dgs.lionengine.game.feature.tile.map.persister;
 
+import java.io.IOException;
+
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.Persistable;
 import com.b3dgs.lionengine.game.feature.Feature;
 
 /**
  * Handle the map persistence by providing saving and loading functions.
+ * <p>
+ * Both legacy and chunked ({@link MapTileChunkFile}) formats can be loaded.
+ * </p>
  */
 public interface MapTilePersister extends Feature, Persistable
 {
-    // Marker
+    /**
+     * Load a map from a level file. Chunked map file is memory mapped, legacy map file is read as stream.
+     * 
+     * @param level The level file (must be a file system media).
+     * @throws IOException If error on reading.
+     */
+    void load(Media level) throws IOException;
 }
@@ -21,6 +21,7 @@ import java.io.IOException;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Services;
@@ -28,9 +29,14 @@ import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.io.FileReading;
 import com.b3dgs.lionengine.io.FileWriting;
+import com.b3dgs.lionengine.util.UtilStream;
 
 /**
  * Handle the map persistence by providing saving and loading functions.
+ * <p>
+ * Map is saved with the legacy format, or with the chunked format ({@link MapTileChunkFile}) if a chunk size has been
+ * defined. Both formats are supported on loading.
+ * </p>
  */
 public class MapTilePersisterModel extends FeatureModel implements MapTilePersister
 {
@@ -38,9 +44,13 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
     /** Number of horizontal tiles to make a bloc. Used to reduce saved map file size. */
     private static final int BLOC_SIZE = 256;
+    /** Legacy format chunk size value. */
+    private static final int LEGACY = 0;
 
     /** The services reference. */
     private final MapTile map;
+    /** Chunk size in tiles ({@link #LEGACY} for legacy format). */
+    private final int chunkSize;
 
     /**
      * Create the persister.
@@ -58,6 +68,29 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
         super();
 
         map = services.get(MapTile.class);
+        chunkSize = LEGACY;
+    }
+
+    /**
+     * Create the persister, saving with the chunked format.
+     * <p>
+     * The {@link Services} must provide:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param chunkSize The chunk size in tiles (must be strictly positive).
+     */
+    public MapTilePersisterModel(Services services, int chunkSize)
+    {
+        super();
+
+        Check.superiorStrict(chunkSize, LEGACY);
+
+        map = services.get(MapTile.class);
+        this.chunkSize = chunkSize;
     }
 
     /**
@@ -108,6 +141,59 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
         return map.createTile(sheet, number, x, y);
     }
 
+    /**
+     * Load map from chunked file, chunk by chunk.
+     * 
+     * @param chunks The chunked map file.
+     * @throws IOException If error on reading.
+     */
+    private void load(MapTileChunkFile chunks) throws IOException
+    {
+        map.create(chunks.getTileWidth(), chunks.getTileHeight(), chunks.getInTileWidth(), chunks.getInTileHeight());
+        if (chunks.getConfig() != null)
+        {
+            map.loadSheets(Medias.create(chunks.getConfig()));
+        }
+        for (int cy = 0; cy < chunks.getChunksVertical(); cy++)
+        {
+            for (int cx = 0; cx < chunks.getChunksHorizontal(); cx++)
+            {
+                chunks.loadChunk(map, cx, cy);
+            }
+        }
+    }
+
+    /**
+     * Load map from legacy file.
+     * 
+     * @param tileWidth The already read tile width.
+     * @param input The input level file.
+     * @throws IOException If error on reading.
+     */
+    private void loadLegacy(int tileWidth, FileReading input) throws IOException
+    {
+        map.create(tileWidth, input.readInteger(), input.readInteger(), input.readInteger());
+        if (input.readBoolean())
+        {
+            map.loadSheets(Medias.create(input.readString()));
+        }
+
+        final int t = input.readShort();
+        for (int v = 0; v < t; v++)
+        {
+            final int n = input.readShort();
+            for (int h = 0; h < n; h++)
+            {
+                final Tile tile = loadTile(input, v);
+                if (tile.getSheet().intValue() > map.getSheetsNumber())
+                {
+                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
+                }
+                map.setTile(tile);
+            }
+        }
+    }
+
     /**
      * Count the active tiles.
      * 
@@ -156,31 +242,13 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
         }
     }
 
-    /*
-     * Persistable
-     */
-
     /**
-     * Save map to specified file as binary data. Data are saved this way (using specific types to save space):
-     * 
-     * <pre>
-     * <code>(String)</code> sheets configuration file
-     * <code>(short)</code> width in tiles
-     * <code>(short)</code> height in tiles
-     * <code>(byte)</code> tile width (use of byte because tile width &lt; 255)
-     * <code>(byte)</code> tile height (use of byte because tile height &lt; 255)
-     * <code>(short)</code> number of {@value #BLOC_SIZE} horizontal blocs (widthInTile / {@value #BLOC_SIZE})
-     * for each blocs tile
-     *   <code>(short)</code> number of tiles in this bloc
-     *   for each tile in this bloc
-     *     call tile.save(file)
-     * </pre>
+     * Save map to legacy file.
      * 
      * @param output The output level file.
      * @throws IOException If error on writing.
      */
-    @Override
-    public void save(FileWriting output) throws IOException
+    private void saveLegacy(FileWriting output) throws IOException
     {
         final int widthInTile = map.getInTileWidth();
 
@@ -210,6 +278,73 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
         }
     }
 
+    /*
+     * MapTilePersister
+     */
+
+    @Override
+    public void load(Media level) throws IOException
+    {
+        final MapTileChunkFile chunks = MapTileChunkFile.map(level);
+        if (chunks != null)
+        {
+            load(chunks);
+        }
+        else
+        {
+            FileReading input = null;
+            try
+            {
+                input = new FileReading(level);
+                load(input);
+            }
+            finally
+            {
+                UtilStream.safeClose(input);
+            }
+        }
+    }
+
+    /*
+     * Persistable
+     */
+
+    /**
+     * Save map to specified file as binary data. Data are saved this way (using specific types to save space):
+     * 
+     * <pre>
+     * <code>(String)</code> sheets configuration file
+     * <code>(short)</code> width in tiles
+     * <code>(short)</code> height in tiles
+     * <code>(byte)</code> tile width (use of byte because tile width &lt; 255)
+     * <code>(byte)</code> tile height (use of byte because tile height &lt; 255)
+     * <code>(short)</code> number of {@value #BLOC_SIZE} horizontal blocs (widthInTile / {@value #BLOC_SIZE})
+     * for each blocs tile
+     *   <code>(short)</code> number of tiles in this bloc
+     *   for each tile in this bloc
+     *     call tile.save(file)
+     * </pre>
+     * 
+     * <p>
+     * If a chunk size has been defined, map is saved with the chunked format instead (see {@link MapTileChunkFile}).
+     * </p>
+     * 
+     * @param output The output level file.
+     * @throws IOException If error on writing.
+     */
+    @Override
+    public void save(FileWriting output) throws IOException
+    {
+        if (chunkSize != LEGACY)
+        {
+            MapTileChunkFile.save(map, chunkSize, output);
+        }
+        else
+        {
+            saveLegacy(output);
+        }
+    }
+
     /**
      * Load a map from a specified file as binary data.
      * <p>
@@ -231,31 +366,24 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
      *     call setTile(...) to update map with this new tile
      * </pre>
      * 
+     * <p>
+     * Chunked format is detected by its leading {@link MapTileChunkFile#MAGIC} and read from stream.
+     * </p>
+     * 
      * @param input The input level file.
      * @throws IOException If error on reading.
      */
     @Override
     public void load(FileReading input) throws IOException
     {
-        map.create(input.readInteger(), input.readInteger(), input.readInteger(), input.readInteger());
-        if (input.readBoolean())
+        final int first = input.readInteger();
+        if (first == MapTileChunkFile.MAGIC)
         {
-            map.loadSheets(Medias.create(input.readString()));
+            load(MapTileChunkFile.read(input));
         }
-
-        final int t = input.readShort();
-        for (int v = 0; v < t; v++)
+        else
         {
-            final int n = input.readShort();
-            for (int h = 0; h < n; h++)
-            {
-                final Tile tile = loadTile(input, v);
-                if (tile.getSheet().intValue() > map.getSheetsNumber())
-                {
-                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
-                }
-                map.setTile(tile);
-            }
+            loadLegacy(first, input);
         }
     }
 }
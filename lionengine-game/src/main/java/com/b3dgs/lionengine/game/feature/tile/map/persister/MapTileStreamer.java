@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.persister;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.IdentifiableListener;
+import com.b3dgs.lionengine.game.feature.RefreshableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Transformable;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
+
+/**
+ * Stream a chunked map file into a streamed {@link MapTileGame}, keeping only chunks around the {@link Camera} and the
+ * tracked elements (such as pathfindable objects).
+ * <p>
+ * On each update, chunks seen by the camera (extended by a margin, and ahead of the camera movement) and chunks around
+ * tracked elements are requested. Missing chunks are decompressed by a background thread, and set into the map by the
+ * updating thread on a later update (tile set listeners are notified as usual, then chunk listeners). When loaded
+ * chunks exceed the memory budget, least recently requested chunks are unloaded (chunk listeners are notified).
+ * </p>
+ * <p>
+ * Elements outside loaded chunks see missing tiles.
+ * </p>
+ */
+public class MapTileStreamer extends FeaturableModel
+{
+    /** Error chunk size message. */
+    private static final String ERROR_CHUNK_SIZE = "Map chunk size differs from file chunk size: ";
+    /** Error worker message. */
+    private static final String ERROR_WORKER = "Chunk loading failure !";
+    /** Memory used by a chunk tile in bytes. */
+    private static final int TILE_BYTES = 4;
+    /** Loaded chunks initial capacity. */
+    private static final int CAPACITY = 16;
+    /** Loaded chunks load factor. */
+    private static final float LOAD_FACTOR = 0.75F;
+    /** Default margin in chunks. */
+    private static final int DEFAULT_MARGIN = 1;
+
+    /** Tracked elements. */
+    private final Collection<Localizable> tracked = new ArrayList<Localizable>();
+    /** Loaded chunks, least recently requested first. */
+    private final Map<Integer, Boolean> loaded = new LinkedHashMap<Integer, Boolean>(CAPACITY, LOAD_FACTOR, true);
+    /** Chunks being read. */
+    private final Map<Integer, Future<byte[]>> pending = new HashMap<Integer, Future<byte[]>>();
+    /** Chunks requested by last update. */
+    private final Collection<Integer> requested = new HashSet<Integer>();
+    /** Chunked map file. */
+    private final MapTileChunkFile file;
+    /** Streamed map. */
+    private final MapTileGame map;
+    /** Camera reference. */
+    private final Camera camera;
+    /** Maximum loaded chunks. */
+    private final int maxChunks;
+    /** Chunk reader. */
+    private final MapTileChunkReader reader;
+    /** Margin in chunks around camera and tracked elements. */
+    private int margin = DEFAULT_MARGIN;
+
+    /**
+     * Create streamer, and create the map with the file size and sheets.
+     * <p>
+     * The {@link Services} must provide:
+     * </p>
+     * <ul>
+     * <li>{@link Camera}</li>
+     * <li>{@link MapTileGame} created with the file chunk size</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param file The chunked map file.
+     * @param budget The memory budget in bytes for loaded chunks (at least one chunk is kept).
+     * @throws LionEngineException If missing service, or if map chunk size differs from file one.
+     */
+    public MapTileStreamer(Services services, MapTileChunkFile file, long budget)
+    {
+        super();
+
+        Check.notNull(file);
+
+        this.file = file;
+        camera = services.get(Camera.class);
+        map = services.get(MapTileGame.class);
+        if (map.getChunkSize() != file.getChunkSize())
+        {
+            throw new LionEngineException(ERROR_CHUNK_SIZE + map.getChunkSize());
+        }
+        final long chunkBytes = (long) file.getChunkSize() * file.getChunkSize() * TILE_BYTES;
+        maxChunks = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, budget / chunkBytes));
+        reader = new MapTileChunkReader(file);
+
+        map.create(file.getTileWidth(), file.getTileHeight(), file.getInTileWidth(), file.getInTileHeight());
+        if (file.getConfig() != null)
+        {
+            map.loadSheets(Medias.create(file.getConfig()));
+        }
+
+        addFeature(new RefreshableModel(new Updatable()
+        {
+            @Override
+            public void update(double extrp)
+            {
+                apply(false);
+                request();
+                evict();
+            }
+        }));
+        getFeature(Identifiable.class).addListener(new IdentifiableListener()
+        {
+            @Override
+            public void notifyDestroyed(Integer id)
+            {
+                reader.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Track the specified localizable, keeping its surrounding chunks loaded.
+     * 
+     * @param localizable The localizable to track.
+     */
+    public void track(Localizable localizable)
+    {
+        Check.notNull(localizable);
+
+        tracked.add(localizable);
+    }
+
+    /**
+     * Track the specified featurable, keeping its surrounding chunks loaded.
+     * <p>
+     * The {@link Featurable} must have:
+     * </p>
+     * <ul>
+     * <li>{@link Transformable}</li>
+     * </ul>
+     * 
+     * @param featurable The featurable to track.
+     * @throws LionEngineException If missing feature.
+     */
+    public void track(Featurable featurable)
+    {
+        track(featurable.getFeature(Transformable.class));
+    }
+
+    /**
+     * Stop tracking the specified localizable.
+     * 
+     * @param localizable The tracked localizable.
+     */
+    public void untrack(Localizable localizable)
+    {
+        tracked.remove(localizable);
+    }
+
+    /**
+     * Stop tracking the specified featurable.
+     * 
+     * @param featurable The tracked featurable.
+     * @throws LionEngineException If missing feature.
+     */
+    public void untrack(Featurable featurable)
+    {
+        untrack(featurable.getFeature(Transformable.class));
+    }
+
+    /**
+     * Set the margin around camera and tracked elements.
+     * 
+     * @param margin The margin in chunks (must be positive).
+     */
+    public void setMargin(int margin)
+    {
+        Check.superiorOrEqual(margin, 0);
+
+        this.margin = margin;
+    }
+
+    /**
+     * Request chunks for the current camera and tracked elements, and wait until they are set into map. Can be used on
+     * level start or after a teleport.
+     * 
+     * @throws LionEngineException If unable to load a chunk.
+     */
+    public void flush()
+    {
+        request();
+        apply(true);
+        evict();
+    }
+
+    /**
+     * Get the number of loaded chunks.
+     * 
+     * @return The loaded chunks number.
+     */
+    public int getLoadedChunks()
+    {
+        return loaded.size();
+    }
+
+    /**
+     * Get the maximum number of loaded chunks allowed by budget.
+     * 
+     * @return The maximum loaded chunks number.
+     */
+    public int getMaxChunks()
+    {
+        return maxChunks;
+    }
+
+    /**
+     * Set read chunks into map.
+     * 
+     * @param wait <code>true</code> to wait for all pending chunks, <code>false</code> to only set the read ones.
+     * @throws LionEngineException If unable to load a chunk.
+     */
+    private void apply(boolean wait)
+    {
+        final Iterator<Map.Entry<Integer, Future<byte[]>>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<Integer, Future<byte[]>> entry = iterator.next();
+            if (wait || entry.getValue().isDone())
+            {
+                final int index = entry.getKey().intValue();
+                final int cx = index % file.getChunksHorizontal();
+                final int cy = index / file.getChunksHorizontal();
+                try
+                {
+                    file.setChunk(map, cx, cy, entry.getValue().get());
+                    map.setChunkLoaded(cx, cy);
+                }
+                catch (final IOException exception)
+                {
+                    throw new LionEngineException(exception, ERROR_WORKER);
+                }
+                catch (final ExecutionException exception)
+                {
+                    throw new LionEngineException(exception.getCause(), ERROR_WORKER);
+                }
+                catch (final InterruptedException exception)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new LionEngineException(exception, ERROR_WORKER);
+                }
+                iterator.remove();
+                loaded.put(entry.getKey(), Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Request chunks around camera and tracked elements, reading the missing ones.
+     */
+    private void request()
+    {
+        requested.clear();
+
+        final double chunkWidth = file.getChunkSize() * (double) file.getTileWidth();
+        final double chunkHeight = file.getChunkSize() * (double) file.getTileHeight();
+        final int aheadX = (int) Math.signum(camera.getMovementHorizontal());
+        final int aheadY = (int) Math.signum(camera.getMovementVertical());
+        final int minX = (int) Math.floor(camera.getX() / chunkWidth) - margin + Math.min(0, aheadX);
+        final int minY = (int) Math.floor(camera.getY() / chunkHeight) - margin + Math.min(0, aheadY);
+        final int maxX = (int) Math.floor((camera.getX() + camera.getWidth()) / chunkWidth)
+                         + margin
+                         + Math.max(0, aheadX);
+        final int maxY = (int) Math.floor((camera.getY() + camera.getHeight()) / chunkHeight)
+                         + margin
+                         + Math.max(0, aheadY);
+        addArea(minX, minY, maxX, maxY);
+
+        for (final Localizable localizable : tracked)
+        {
+            final int cx = (int) Math.floor(localizable.getX() / chunkWidth);
+            final int cy = (int) Math.floor(localizable.getY() / chunkHeight);
+            addArea(cx - margin, cy - margin, cx + margin, cy + margin);
+        }
+
+        for (final Integer key : requested)
+        {
+            if (loaded.get(key) == null && !pending.containsKey(key))
+            {
+                pending.put(key, reader.submit(key.intValue()));
+            }
+        }
+    }
+
+    /**
+     * Add chunks area to requested ones, clamped to map.
+     * 
+     * @param minX The minimum horizontal chunk.
+     * @param minY The minimum vertical chunk.
+     * @param maxX The maximum horizontal chunk (included).
+     * @param maxY The maximum vertical chunk (included).
+     */
+    private void addArea(int minX, int minY, int maxX, int maxY)
+    {
+        final int chunksH = file.getChunksHorizontal();
+        final int endX = Math.min(maxX, chunksH - 1);
+        final int endY = Math.min(maxY, file.getChunksVertical() - 1);
+        for (int cy = Math.max(0, minY); cy <= endY; cy++)
+        {
+            for (int cx = Math.max(0, minX); cx <= endX; cx++)
+            {
+                requested.add(Integer.valueOf(cx + cy * chunksH));
+            }
+        }
+    }
+
+    /**
+     * Unload least recently requested chunks until budget is respected. Requested chunks are never unloaded.
+     */
+    private void evict()
+    {
+        final Iterator<Integer> iterator = loaded.keySet().iterator();
+        while (loaded.size() > maxChunks && iterator.hasNext())
+        {
+            final Integer key = iterator.next();
+            if (!requested.contains(key))
+            {
+                iterator.remove();
+                final int index = key.intValue();
+                map.unloadChunk(index % file.getChunksHorizontal(), index / file.getChunksHorizontal());
+            }
+        }
+    }
+}
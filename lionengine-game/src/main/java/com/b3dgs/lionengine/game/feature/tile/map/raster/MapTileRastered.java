@@ -45,6 +45,17 @@ public interface MapTileRastered extends Feature, MapTileRenderer
      */
     void loadSheets(Media rasterConfig, boolean smooth);
 
+    /**
+     * Load tile sheets as rastered. Rasters are generated on first use, and can be saved next to the raster file, so
+     * next loads skip the generation.
+     * 
+     * @param rasterConfig The raster file that define the colors.
+     * @param smooth <code>true</code> for a smoothed raster (may be slower), <code>false</code> else.
+     * @param save <code>true</code> to save generated rasters, <code>false</code> else.
+     * @throws LionEngineException If error when reading sheets.
+     */
+    void loadSheets(Media rasterConfig, boolean smooth, boolean save);
+
     /**
      * Get raster index from input tile (depending of its height).
      * 
@@ -17,10 +17,8 @@
  */
 package com.b3dgs.lionengine.game.feature.tile.map.raster;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -32,17 +30,22 @@ import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.graphic.Graphic;
-import com.b3dgs.lionengine.graphic.ImageBuffer;
 import com.b3dgs.lionengine.graphic.RasterColor;
 import com.b3dgs.lionengine.graphic.SpriteTiled;
 
 /**
  * Rastered map tile implementation.
+ * <p>
+ * Rastered sheets are generated on their first rendering, and shared through the
+ * {@link com.b3dgs.lionengine.core.RasterCache}.
+ * </p>
  */
 public class MapTileRasteredModel extends FeatureModel implements MapTileRastered
 {
-    /** List of rastered sheets. */
-    private final Map<Integer, List<SpriteTiled>> rasterSheets = new TreeMap<Integer, List<SpriteTiled>>();
+    /** Rastered images by sheet. */
+    private final Map<Integer, RasterImage> rasterImages = new TreeMap<Integer, RasterImage>();
+    /** Rastered sheets by sheet, created on first use. */
+    private final Map<Integer, SpriteTiled[]> rasterSheets = new TreeMap<Integer, SpriteTiled[]>();
     /** Map tile reference. */
     private final MapTile map;
     /** Rasters smooth flag. */
@@ -66,29 +69,18 @@ public class MapTileRasteredModel extends FeatureModel implements MapTileRastere
         map = services.get(MapTile.class);
     }
 
-    /**
-     * Get the associated raster sheets for a sheet number. Create it if needed.
-     * 
-     * @param sheet The sheet number
-     * @return The raster sheets collection found.
-     */
-    private List<SpriteTiled> getRasters(Integer sheet)
-    {
-        List<SpriteTiled> rasters = rasterSheets.get(sheet);
-        if (rasters == null)
-        {
-            rasters = new ArrayList<SpriteTiled>(RasterColor.MAX_RASTERS);
-            rasterSheets.put(sheet, rasters);
-        }
-        return rasters;
-    }
-
     /*
      * MapTileRastered
      */
 
     @Override
     public void loadSheets(Media rasterConfig, boolean smooth)
+    {
+        loadSheets(rasterConfig, smooth, false);
+    }
+
+    @Override
+    public void loadSheets(Media rasterConfig, boolean smooth, boolean save)
     {
         final Collection<Integer> sheets = map.getSheets();
         final Iterator<Integer> itr = sheets.iterator();
@@ -98,14 +90,10 @@ public class MapTileRasteredModel extends FeatureModel implements MapTileRastere
         {
             final Integer sheet = itr.next();
             final RasterImage raster = new RasterImage(map.getSheet(sheet).getSurface(), rasterConfig, th, smooth);
-            raster.loadRasters(map.getTileHeight(), false, sheet.toString());
+            raster.prepareRasters(th, save, sheet.toString());
 
-            final List<SpriteTiled> rastersSheet = getRasters(sheet);
-            for (final ImageBuffer bufferRaster : raster.getRasters())
-            {
-                final SpriteTiled sheetRaster = Drawable.loadSpriteTiled(bufferRaster, map.getTileWidth(), th);
-                rastersSheet.add(sheetRaster);
-            }
+            rasterImages.put(sheet, raster);
+            rasterSheets.put(sheet, new SpriteTiled[raster.getRastersNumber()]);
         }
     }
 
@@ -134,6 +122,14 @@ public class MapTileRasteredModel extends FeatureModel implements MapTileRastere
     @Override
     public SpriteTiled getRasterSheet(Integer sheet, int rasterIndex)
     {
-        return rasterSheets.get(sheet).get(rasterIndex);
+        final SpriteTiled[] sprites = rasterSheets.get(sheet);
+        SpriteTiled sprite = sprites[rasterIndex];
+        if (sprite == null)
+        {
+            final RasterImage raster = rasterImages.get(sheet);
+            sprite = Drawable.loadSpriteTiled(raster.getRaster(rasterIndex), map.getTileWidth(), map.getTileHeight());
+            sprites[rasterIndex] = sprite;
+        }
+        return sprite;
     }
 }
@@ -26,12 +26,24 @@ import com.b3dgs.lionengine.game.feature.tile.map.MapTileRenderer;
 public interface MapTileViewer extends Displayable
 {
     /**
-     * Add a map tile renderer.
+     * Add a map tile renderer, rendering each visible tile on each frame.
      * 
      * @param renderer The map tile renderer reference.
      */
     void addRenderer(MapTileRenderer renderer);
 
+    /**
+     * Add a map tile renderer.
+     * <p>
+     * A cached renderer must only depend on tiles. When chunk cache is enabled, its rendering is done once in chunk
+     * images, updated on tile set. Cached renderers are rendered before the other ones.
+     * </p>
+     * 
+     * @param renderer The map tile renderer reference.
+     * @param cached <code>true</code> if rendering can be cached, <code>false</code> to render on each frame.
+     */
+    void addRenderer(MapTileRenderer renderer, boolean cached);
+
     /**
      * Remove a map tile renderer.
      * 
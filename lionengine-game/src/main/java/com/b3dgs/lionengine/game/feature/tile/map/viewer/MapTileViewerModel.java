@@ -19,27 +19,74 @@ package com.b3dgs.lionengine.game.feature.tile.map.viewer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Viewer;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.tile.Tile;
+import com.b3dgs.lionengine.game.feature.tile.map.ChunkListener;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileRenderer;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileRendererModel;
+import com.b3dgs.lionengine.game.feature.tile.map.TileSetListener;
+import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.Graphics;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
 
 /**
  * Map tile renderer default implementation.
+ * <p>
+ * An optional chunk cache can be enabled: cached renderers are then rendered once into chunk images, updated when a
+ * tile is set or when a streamed map chunk is loaded or unloaded, and each frame only renders the visible chunk images,
+ * followed by the other renderers for each visible tile. Chunk images out of view are disposed.
+ * </p>
  */
 public class MapTileViewerModel extends FeatureModel implements MapTileViewer
 {
-    /** Map tiles renderers. */
+    /** No cache value. */
+    private static final int NO_CACHE = 0;
+    /** Opaque alpha mask. */
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    /**
+     * Check if all pixels are opaque.
+     * 
+     * @param pixels The pixels to check.
+     * @return <code>true</code> if all opaque, <code>false</code> else.
+     */
+    private static boolean isOpaque(int[] pixels)
+    {
+        for (final int pixel : pixels)
+        {
+            if ((pixel & ALPHA_MASK) != ALPHA_MASK)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Map tiles renderers rendered on each frame. */
     private final Collection<MapTileRenderer> renderers = new ArrayList<MapTileRenderer>();
+    /** Map tiles renderers which can be cached. */
+    private final Collection<MapTileRenderer> cachedRenderers = new ArrayList<MapTileRenderer>();
+    /** Cached chunks images by chunk index. */
+    private final Map<Integer, ImageBuffer> chunks = new HashMap<Integer, ImageBuffer>();
     /** Map reference. */
     private final MapTile map;
     /** Viewer reference. */
     private final Viewer viewer;
+    /** Chunk size in tiles ({@link #NO_CACHE} if disabled). */
+    private final int chunkSize;
+    /** Number of horizontal chunks of cache. */
+    private int chunksH;
+    /** Map height in tile of cache. */
+    private int cachedHeight;
 
     /**
      * Create the viewer. It is shipped with a default renderer: {@link MapTileRendererModel}.
@@ -59,8 +106,58 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
 
         map = services.get(MapTile.class);
         viewer = services.get(Viewer.class);
+        chunkSize = NO_CACHE;
+
+        cachedRenderers.add(new MapTileRendererModel());
+    }
+
+    /**
+     * Create the viewer with chunk cache. It is shipped with a default cached renderer: {@link MapTileRendererModel}.
+     * <p>
+     * The {@link Services} must provide:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * <li>{@link Viewer}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param chunkSize The cached chunk size in tiles (must be strictly positive).
+     */
+    public MapTileViewerModel(Services services, int chunkSize)
+    {
+        super();
+
+        Check.superiorStrict(chunkSize, NO_CACHE);
+
+        map = services.get(MapTile.class);
+        viewer = services.get(Viewer.class);
+        this.chunkSize = chunkSize;
 
-        renderers.add(new MapTileRendererModel());
+        cachedRenderers.add(new MapTileRendererModel());
+        map.addListener(new TileSetListener()
+        {
+            @Override
+            public void onTileSet(Tile tile)
+            {
+                invalidate(tile.getInTileX() / MapTileViewerModel.this.chunkSize,
+                           tile.getInTileY() / MapTileViewerModel.this.chunkSize);
+            }
+        });
+        map.addListener(new ChunkListener()
+        {
+            @Override
+            public void onChunkLoaded(int tx, int ty, int size)
+            {
+                invalidate(tx, ty, size);
+            }
+
+            @Override
+            public void onChunkUnloaded(int tx, int ty, int size)
+            {
+                invalidate(tx, ty, size);
+            }
+        });
     }
 
     /**
@@ -80,10 +177,28 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
             final int x = (int) (tile.getX() - viewX);
             final int y = (int) (-tile.getY() + viewY - tile.getHeight());
 
-            for (final MapTileRenderer renderer : renderers)
+            if (chunkSize == NO_CACHE)
             {
-                renderer.renderTile(g, map, tile, x, y);
+                render(g, cachedRenderers, tile, x, y);
             }
+            render(g, renderers, tile, x, y);
+        }
+    }
+
+    /**
+     * Render tile with renderers.
+     * 
+     * @param g The graphic output.
+     * @param renderers The renderers to use.
+     * @param tile The tile to render.
+     * @param x The horizontal rendering location.
+     * @param y The vertical rendering location.
+     */
+    private void render(Graphic g, Collection<MapTileRenderer> renderers, Tile tile, int x, int y)
+    {
+        for (final MapTileRenderer renderer : renderers)
+        {
+            renderer.renderTile(g, map, tile, x, y);
         }
     }
 
@@ -110,6 +225,222 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
         }
     }
 
+    /**
+     * Render visible tiles.
+     * 
+     * @param g The graphic output.
+     * @param viewY The vertical view offset.
+     */
+    private void renderTiles(Graphic g, double viewY)
+    {
+        final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight());
+        final int sy = (int) Math.floor((viewer.getY() - viewer.getViewY()) / map.getTileHeight());
+
+        for (int v = 0; v <= inTileHeight; v++)
+        {
+            final int ty = v + sy;
+            if (!(ty < 0 || ty >= map.getInTileHeight()))
+            {
+                renderHorizontal(g, ty, viewY);
+            }
+        }
+    }
+
+    /**
+     * Render visible chunks from cache.
+     * 
+     * @param g The graphic output.
+     * @param viewY The vertical view offset.
+     */
+    private void renderChunks(Graphic g, double viewY)
+    {
+        if (chunksH != getChunksNumber(map.getInTileWidth()) || cachedHeight != map.getInTileHeight())
+        {
+            invalidate();
+            chunksH = getChunksNumber(map.getInTileWidth());
+            cachedHeight = map.getInTileHeight();
+        }
+
+        final int inTileWidth = (int) Math.ceil(viewer.getWidth() / (double) map.getTileWidth());
+        final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight());
+        final int sx = (int) Math.floor((viewer.getX() + viewer.getViewX()) / map.getTileWidth());
+        final int sy = (int) Math.floor((viewer.getY() - viewer.getViewY()) / map.getTileHeight());
+        final int minX = Math.max(0, sx) / chunkSize;
+        final int minY = Math.max(0, sy) / chunkSize;
+        final int maxX = Math.min(sx + inTileWidth, map.getInTileWidth() - 1) / chunkSize;
+        final int maxY = Math.min(sy + inTileHeight, map.getInTileHeight() - 1) / chunkSize;
+        final double viewX = viewer.getX();
+
+        for (int cy = minY; cy <= maxY; cy++)
+        {
+            for (int cx = minX; cx <= maxX; cx++)
+            {
+                final int endY = Math.min((cy + 1) * chunkSize, map.getInTileHeight());
+                final int x = (int) (cx * chunkSize * (double) map.getTileWidth() - viewX);
+                final int y = (int) (viewY - endY * (double) map.getTileHeight());
+                g.drawImage(getChunk(cx, cy), x, y);
+            }
+        }
+        disposeHidden(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Get the chunk image, rendering it if not cached.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The chunk image.
+     */
+    private ImageBuffer getChunk(int cx, int cy)
+    {
+        final Integer key = Integer.valueOf(cx + cy * chunksH);
+        ImageBuffer image = chunks.get(key);
+        if (image == null)
+        {
+            image = createChunk(cx, cy);
+            chunks.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Render chunk tiles into a new image with the cached renderers. Image is opaque if fully covered by opaque pixels,
+     * as it is faster to render.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The chunk image.
+     */
+    private ImageBuffer createChunk(int cx, int cy)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        final int startX = cx * chunkSize;
+        final int startY = cy * chunkSize;
+        final int endX = Math.min(startX + chunkSize, map.getInTileWidth());
+        final int endY = Math.min(startY + chunkSize, map.getInTileHeight());
+
+        final int width = (endX - startX) * tw;
+        final int height = (endY - startY) * th;
+        final ImageBuffer image = Graphics.createImageBuffer(width, height, ColorRgba.TRANSPARENT);
+        final Graphic g = image.createGraphic();
+        try
+        {
+            for (int ty = startY; ty < endY; ty++)
+            {
+                for (int tx = startX; tx < endX; tx++)
+                {
+                    final Tile tile = map.getTile(tx, ty);
+                    if (tile != null)
+                    {
+                        render(g, cachedRenderers, tile, (tx - startX) * tw, (endY - ty - 1) * th);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            g.dispose();
+        }
+
+        final int[] pixels = image.getRgb(0, 0, width, height, new int[width * height], 0, width);
+        final ImageBuffer chunk;
+        if (isOpaque(pixels))
+        {
+            image.dispose();
+            chunk = Graphics.createImageBuffer(width, height);
+            chunk.setRgb(0, 0, width, height, pixels, 0, width);
+        }
+        else
+        {
+            chunk = image;
+        }
+        chunk.prepare();
+        return chunk;
+    }
+
+    /**
+     * Dispose cached chunks which are not around the visible area.
+     * 
+     * @param minX The minimum visible horizontal chunk.
+     * @param minY The minimum visible vertical chunk.
+     * @param maxX The maximum visible horizontal chunk.
+     * @param maxY The maximum visible vertical chunk.
+     */
+    private void disposeHidden(int minX, int minY, int maxX, int maxY)
+    {
+        final Iterator<Map.Entry<Integer, ImageBuffer>> iterator = chunks.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<Integer, ImageBuffer> entry = iterator.next();
+            final int cx = entry.getKey().intValue() % chunksH;
+            final int cy = entry.getKey().intValue() / chunksH;
+            if (cx < minX - 1 || cx > maxX + 1 || cy < minY - 1 || cy > maxY + 1)
+            {
+                entry.getValue().dispose();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get the number of chunks needed to cover tiles.
+     * 
+     * @param tiles The number of tiles.
+     * @return The number of chunks.
+     */
+    private int getChunksNumber(int tiles)
+    {
+        return (tiles + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Invalidate cached chunk.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     */
+    private void invalidate(int cx, int cy)
+    {
+        final ImageBuffer image = chunks.remove(Integer.valueOf(cx + cy * chunksH));
+        if (image != null)
+        {
+            image.dispose();
+        }
+    }
+
+    /**
+     * Invalidate cached chunks covering the tiles area.
+     * 
+     * @param tx The first horizontal tile index.
+     * @param ty The first vertical tile index.
+     * @param size The area size in tile.
+     */
+    private void invalidate(int tx, int ty, int size)
+    {
+        final int maxX = Math.min((tx + size - 1) / chunkSize, chunksH - 1);
+        final int maxY = (ty + size - 1) / chunkSize;
+        for (int cy = ty / chunkSize; cy <= maxY; cy++)
+        {
+            for (int cx = tx / chunkSize; cx <= maxX; cx++)
+            {
+                invalidate(cx, cy);
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached chunks.
+     */
+    private void invalidate()
+    {
+        for (final ImageBuffer image : chunks.values())
+        {
+            image.dispose();
+        }
+        chunks.clear();
+    }
+
     /*
      * MapTileViewer
      */
@@ -120,16 +451,36 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
         renderers.add(renderer);
     }
 
+    @Override
+    public void addRenderer(MapTileRenderer renderer, boolean cached)
+    {
+        if (cached)
+        {
+            cachedRenderers.add(renderer);
+            invalidate();
+        }
+        else
+        {
+            renderers.add(renderer);
+        }
+    }
+
     @Override
     public void removeRenderer(MapTileRenderer renderer)
     {
         renderers.remove(renderer);
+        if (cachedRenderers.remove(renderer))
+        {
+            invalidate();
+        }
     }
 
     @Override
     public void clear()
     {
         renderers.clear();
+        cachedRenderers.clear();
+        invalidate();
     }
 
     @Override
@@ -137,17 +488,14 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
     {
         if (map.isCreated())
         {
-            final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight());
-            final int sy = (int) Math.floor((viewer.getY() - viewer.getViewY()) / map.getTileHeight());
             final double viewY = viewer.getY() - viewer.getViewY() + viewer.getScreenHeight() - viewer.getViewY();
-
-            for (int v = 0; v <= inTileHeight; v++)
+            if (chunkSize != NO_CACHE)
             {
-                final int ty = v + sy;
-                if (!(ty < 0 || ty >= map.getInTileHeight()))
-                {
-                    renderHorizontal(g, ty, viewY);
-                }
+                renderChunks(g, viewY);
+            }
+            if (chunkSize == NO_CACHE || !renderers.isEmpty())
+            {
+                renderTiles(g, viewY);
             }
         }
     }
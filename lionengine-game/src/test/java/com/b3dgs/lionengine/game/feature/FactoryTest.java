@@ -210,4 +210,86 @@ public class FactoryTest
 
         Assert.assertNotEquals(featurable, factory.create(Medias.create("object.xml"), ObjectWithIdentifiable.class));
     }
+
+    /**
+     * Test the pool warm.
+     */
+    @Test
+    public void testPoolWarm()
+    {
+        final Media media = UtilSetup.createMedia(ObjectPooled.class);
+        factory.setPool(media, 2, 3);
+        factory.warm();
+
+        final FactoryPool pool = factory.getPool(media);
+        Assert.assertEquals(2, pool.getWarm());
+        Assert.assertEquals(3, pool.getMax());
+        Assert.assertEquals(2, pool.getSize());
+
+        factory.warm();
+
+        Assert.assertEquals(2, pool.getSize());
+
+        final Featurable featurable1 = factory.create(media);
+        final Featurable featurable2 = factory.create(media);
+        final Featurable featurable3 = factory.create(media);
+
+        Assert.assertEquals(0, pool.getSize());
+        Assert.assertEquals(2, pool.getHits());
+        Assert.assertEquals(1, pool.getMisses());
+
+        factory.notifyHandlableRemoved(featurable1);
+        factory.notifyHandlableRemoved(featurable2);
+        factory.notifyHandlableRemoved(featurable3);
+
+        Assert.assertEquals(3, pool.getSize());
+        Assert.assertEquals(0, pool.getEvictions());
+    }
+
+    /**
+     * Test the pool eviction.
+     */
+    @Test
+    public void testPoolEviction()
+    {
+        final Media media = UtilSetup.createMedia(ObjectPooled.class);
+        final Featurable featurable1 = factory.create(media);
+        final Featurable featurable2 = factory.create(media);
+        final Featurable featurable3 = factory.create(media);
+
+        factory.setPool(media, 0, 1);
+        factory.notifyHandlableRemoved(featurable1);
+        factory.notifyHandlableRemoved(featurable2);
+
+        final FactoryPool pool = factory.getPool(media);
+        Assert.assertEquals(1, pool.getSize());
+        Assert.assertEquals(1, pool.getEvictions());
+        Assert.assertEquals(featurable1, factory.create(media));
+
+        factory.notifyHandlableRemoved(featurable1);
+        factory.notifyHandlableRemoved(featurable3);
+        factory.setPool(media, 0, 0);
+
+        Assert.assertEquals(0, pool.getSize());
+        Assert.assertEquals(3, pool.getEvictions());
+    }
+
+    /**
+     * Test the pool warm without recycler.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testPoolWarmWithoutRecycler()
+    {
+        factory.setPool(UtilSetup.createMedia(ObjectWithIdentifiable.class), 1, 1);
+        factory.warm();
+    }
+
+    /**
+     * Test the pool with invalid configuration.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testPoolInvalid()
+    {
+        factory.setPool(Medias.create("object.xml"), 2, 1);
+    }
 }
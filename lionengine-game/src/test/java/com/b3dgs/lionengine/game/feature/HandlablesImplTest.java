@@ -17,6 +17,8 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.util.Iterator;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -127,6 +129,38 @@ public class HandlablesImplTest
         Assert.assertFalse(featurables.get(Mirrorable.class).iterator().hasNext());
     }
 
+    /**
+     * Test removal keeps other objects of same type, each listed once.
+     */
+    @Test
+    public void testRemoveKeepOthers()
+    {
+        final Featurable other = new ObjectComplex();
+        final Featurable last = new ObjectComplex();
+        featurables.add(object);
+        featurables.add(other);
+        featurables.add(last);
+
+        featurables.remove(object, object.getFeature(Identifiable.class).getId());
+
+        int i = 0;
+        for (final Identifiable identifiable : featurables.get(Identifiable.class))
+        {
+            Assert.assertNotEquals(object.getFeature(Identifiable.class), identifiable);
+            i++;
+        }
+        Assert.assertEquals(2, i);
+
+        featurables.remove(last, last.getFeature(Identifiable.class).getId());
+
+        final Iterator<Updatable> updatables = featurables.get(Updatable.class).iterator();
+        Assert.assertEquals(other, updatables.next());
+        Assert.assertFalse(updatables.hasNext());
+
+        other.getFeature(Identifiable.class).notifyDestroyed();
+        last.getFeature(Identifiable.class).notifyDestroyed();
+    }
+
     /**
      * Test type with complex object manipulation.
      */
@@ -167,6 +201,45 @@ public class HandlablesImplTest
         Assert.assertEquals(1, i);
     }
 
+    /**
+     * Test adding twice keeps each object once.
+     */
+    @Test
+    public void testAddTwice()
+    {
+        final Mirrorable mirrorable = new MirrorableModel();
+        object.addFeatureAndGet(mirrorable);
+        featurables.add(object);
+        featurables.add(object);
+
+        final Iterator<Mirrorable> mirrorables = featurables.get(Mirrorable.class).iterator();
+        Assert.assertEquals(mirrorable, mirrorables.next());
+        Assert.assertFalse(mirrorables.hasNext());
+
+        featurables.remove(object, object.getFeature(Identifiable.class).getId());
+
+        Assert.assertFalse(featurables.get(Mirrorable.class).iterator().hasNext());
+        Assert.assertFalse(featurables.get(Featurable.class).iterator().hasNext());
+    }
+
+    /**
+     * Test iterator is reused once iteration ended, and not while nested.
+     */
+    @Test
+    public void testIterator()
+    {
+        featurables.add(object);
+
+        final Iterator<Featurable> first = featurables.get(Featurable.class).iterator();
+        final Iterator<Featurable> nested = featurables.get(Featurable.class).iterator();
+        Assert.assertNotSame(first, nested);
+        Assert.assertEquals(object, first.next());
+        Assert.assertEquals(object, nested.next());
+        Assert.assertFalse(first.hasNext());
+
+        Assert.assertSame(first, featurables.get(Featurable.class).iterator());
+    }
+
     /**
      * Complex object with interface.
      */
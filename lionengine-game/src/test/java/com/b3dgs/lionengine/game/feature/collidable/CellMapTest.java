@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the cell map class.
+ */
+public class CellMapTest
+{
+    /**
+     * Create a cell.
+     * 
+     * @param x The horizontal cell index.
+     * @param y The vertical cell index.
+     * @return The created cell.
+     */
+    private static Cell create(int x, int y)
+    {
+        final Cell cell = new Cell();
+        cell.setKey(CellMap.key(x, y));
+        return cell;
+    }
+
+    /**
+     * Test the key.
+     */
+    @Test
+    public void testKey()
+    {
+        Assert.assertEquals(CellMap.key(1, 2), CellMap.key(1, 2));
+        Assert.assertNotEquals(CellMap.key(1, 2), CellMap.key(2, 1));
+        Assert.assertNotEquals(CellMap.key(-1, 0), CellMap.key(0, -1));
+    }
+
+    /**
+     * Test the put, get and remove.
+     */
+    @Test
+    public void testMap()
+    {
+        final CellMap map = new CellMap();
+        final Cell cell = create(-1, 2);
+        map.put(cell);
+
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(cell, map.get(CellMap.key(-1, 2)));
+        Assert.assertNull(map.get(CellMap.key(2, -1)));
+
+        map.remove(CellMap.key(2, -1));
+
+        Assert.assertEquals(1, map.size());
+
+        map.remove(CellMap.key(-1, 2));
+
+        Assert.assertEquals(0, map.size());
+        Assert.assertNull(map.get(CellMap.key(-1, 2)));
+    }
+
+    /**
+     * Test the map against a reference map, with growth and removals.
+     */
+    @Test
+    public void testReference()
+    {
+        final CellMap map = new CellMap();
+        final Map<Long, Cell> reference = new HashMap<Long, Cell>();
+        final Random random = new Random(0L);
+
+        for (int i = 0; i < 10000; i++)
+        {
+            final Cell cell = create(random.nextInt(40) - 20, random.nextInt(40) - 20);
+            final Long key = Long.valueOf(cell.getKey());
+            if (reference.containsKey(key))
+            {
+                map.remove(cell.getKey());
+                reference.remove(key);
+            }
+            else
+            {
+                map.put(cell);
+                reference.put(key, cell);
+            }
+        }
+
+        Assert.assertEquals(reference.size(), map.size());
+        int count = 0;
+        for (int slot = 0; slot < map.getCapacity(); slot++)
+        {
+            final Cell cell = map.getCell(slot);
+            if (cell != null)
+            {
+                Assert.assertEquals(reference.get(Long.valueOf(cell.getKey())), cell);
+                Assert.assertEquals(cell, map.get(cell.getKey()));
+                count++;
+            }
+        }
+        Assert.assertEquals(reference.size(), count);
+    }
+}
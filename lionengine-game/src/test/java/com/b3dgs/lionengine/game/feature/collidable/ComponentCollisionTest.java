@@ -17,6 +17,12 @@
  */
 package com.b3dgs.lionengine.game.feature.collidable;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.AfterClass;
@@ -26,7 +32,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.Camera;
 import com.b3dgs.lionengine.game.feature.Featurable;
@@ -74,6 +82,8 @@ public class ComponentCollisionTest
     private final Handler handler = new Handler(services);
     private final Setup setup = new Setup(config);
     private final AtomicReference<Collidable> collide = new AtomicReference<Collidable>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final ComponentCollision component = new ComponentCollision();
 
     private final Featurable nonCollidable = new FeaturableModel();
 
@@ -120,7 +130,6 @@ public class ComponentCollisionTest
         collidable3 = featurable3.addFeatureAndGet(new CollidableModel(services, setup));
         collidable3.setGroup(0);
 
-        final ComponentCollision component = new ComponentCollision();
         handler.addComponent(component);
         handler.add(featurable1);
         handler.add(featurable2);
@@ -133,6 +142,7 @@ public class ComponentCollisionTest
             public void notifyCollided(Collidable collidable)
             {
                 collide.set(collidable);
+                count.incrementAndGet();
             }
         };
         collidable2.addListener(listener);
@@ -162,6 +172,168 @@ public class ComponentCollisionTest
         Assert.assertNull(featurable1.called.get());
     }
 
+    /**
+     * Test collidables sharing several cells are checked and notified once.
+     */
+    @Test
+    public void testNotifiedOnce()
+    {
+        transformable1.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable2.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable3.teleport(ComponentCollision.REDUCE_FACTOR * 2.0, ComponentCollision.REDUCE_FACTOR * 2.0);
+
+        handler.update(1.0);
+
+        Assert.assertEquals(collidable1, collide.get());
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(1, component.getPairsCount());
+        Assert.assertEquals(2, component.getTestsCount());
+    }
+
+    /**
+     * Test collidables checked by sweep.
+     */
+    @Test
+    public void testSweep()
+    {
+        component.setSweepThreshold(1);
+
+        transformable1.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable2.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable3.teleport(ComponentCollision.REDUCE_FACTOR * 2.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+
+        handler.update(1.0);
+
+        Assert.assertEquals(collidable1, collide.get());
+        Assert.assertEquals(collidable2, featurable1.called.get());
+        Assert.assertEquals(1, count.get());
+
+        collide.set(null);
+        featurable1.called.set(null);
+        transformable1.teleport(ComponentCollision.REDUCE_FACTOR + 10.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+
+        handler.update(1.0);
+
+        Assert.assertNull(collide.get());
+        Assert.assertNull(featurable1.called.get());
+        Assert.assertEquals(0, component.getTestsCount());
+    }
+
+    /**
+     * Test collidables checked by workers.
+     */
+    @Test
+    public void testThreads()
+    {
+        component.setThreads(2);
+
+        transformable1.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable2.teleport(ComponentCollision.REDUCE_FACTOR - 1.0, ComponentCollision.REDUCE_FACTOR - 1.0);
+        transformable3.teleport(ComponentCollision.REDUCE_FACTOR * 4.0, ComponentCollision.REDUCE_FACTOR);
+
+        handler.update(1.0);
+
+        Assert.assertEquals(collidable1, collide.get());
+        Assert.assertEquals(collidable2, featurable1.called.get());
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(1, component.getPairsCount());
+        Assert.assertEquals(2, component.getTestsCount());
+
+        component.setThreads(1);
+    }
+
+    /**
+     * Test collidables spanning regions borders are notified the same way and in the same order with several threads.
+     * Each frame is updated with one thread, then with several threads on the same unchanged grid. Centered automatic
+     * collisions are swept from their box to their centered location.
+     */
+    @Test
+    public void testThreadsDeterministic()
+    {
+        final int number = 200;
+        final int area = 256;
+        final int frames = 20;
+        final Random random = new Random(number);
+        final List<String> notified = new ArrayList<String>();
+        final Map<Collidable, Integer> indexes = new HashMap<Collidable, Integer>();
+        final ComponentCollision collision = new ComponentCollision(8.0);
+
+        final Handler handlerRandom = new Handler(services);
+        handlerRandom.addComponent(collision);
+
+        final List<Transformable> transformables = new ArrayList<Transformable>();
+        for (int i = 0; i < number; i++)
+        {
+            final Featurable featurable = new FeaturableModel();
+            final Transformable transformable = featurable.addFeatureAndGet(new TransformableModel());
+            transformable.setSize(6 + i % 6, 6 + i % 4);
+            final Collidable collidable = featurable.addFeatureAndGet(new CollidableModel(services, setup));
+            collidable.setOrigin(Origin.MIDDLE);
+            collidable.addCollision(Collision.AUTOMATIC);
+            collidable.setGroup(i % 2);
+            collidable.addAccept(0);
+            collidable.addAccept(1);
+            indexes.put(collidable, Integer.valueOf(i));
+
+            final String name = String.valueOf(i);
+            collidable.addListener(new CollidableListener()
+            {
+                @Override
+                public void notifyCollided(Collidable other)
+                {
+                    notified.add(name + '>' + indexes.get(other));
+                }
+            });
+            transformables.add(transformable);
+            handlerRandom.add(featurable);
+        }
+        int total = 0;
+        for (int frame = 0; frame < frames; frame++)
+        {
+            for (final Transformable transformable : transformables)
+            {
+                transformable.teleport(random.nextInt(area), random.nextInt(area));
+            }
+            final List<String> expected = update(handlerRandom, collision, notified, 1);
+            total += expected.size();
+
+            Assert.assertEquals(expected, update(handlerRandom, collision, notified, 4));
+            Assert.assertEquals(expected, update(handlerRandom, collision, notified, 3));
+        }
+        collision.setThreads(1);
+
+        Assert.assertTrue(total > 0);
+    }
+
+    /**
+     * Update handler with threads number and get notifications.
+     * 
+     * @param updated The handler to update.
+     * @param collision The collision component.
+     * @param notified The notifications buffer.
+     * @param threads The threads number.
+     * @return The notifications, in order.
+     */
+    private static List<String> update(Handler updated,
+                                       ComponentCollision collision,
+                                       List<String> notified,
+                                       int threads)
+    {
+        collision.setThreads(threads);
+        notified.clear();
+        updated.update(1.0);
+        return new ArrayList<String>(notified);
+    }
+
+    /**
+     * Test invalid threads number.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testThreadsInvalid()
+    {
+        component.setThreads(0);
+    }
+
     /**
      * Test collidable in extremity case, where their position correspond to an adjacent map case, but size collide
      * neighbor map.
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.collidable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the pair set class.
+ */
+public class PairSetTest
+{
+    /**
+     * Test the pair key is symmetric.
+     */
+    @Test
+    public void testKey()
+    {
+        Assert.assertEquals(PairSet.key(1, 2), PairSet.key(2, 1));
+        Assert.assertNotEquals(PairSet.key(1, 2), PairSet.key(1, 3));
+    }
+
+    /**
+     * Test the add, grow and clear.
+     */
+    @Test
+    public void testSet()
+    {
+        final PairSet set = new PairSet();
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertTrue(set.add(PairSet.key(i, i + 1)));
+        }
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertFalse(set.add(PairSet.key(i + 1, i)));
+        }
+
+        Assert.assertEquals(1000, set.size());
+
+        set.clear();
+
+        Assert.assertEquals(0, set.size());
+        Assert.assertTrue(set.add(PairSet.key(0, 1)));
+        Assert.assertFalse(set.add(PairSet.key(0, 1)));
+    }
+}
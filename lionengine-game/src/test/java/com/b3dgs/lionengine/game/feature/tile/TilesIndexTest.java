@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the tiles index class.
+ */
+public class TilesIndexTest
+{
+    /** Pixels of a 4x2 image containing two 2x2 tiles. */
+    private final int[] pixels = new int[]
+    {
+        1, 2, 5, 6, 3, 4, 7, 8
+    };
+
+    /**
+     * Test the index.
+     */
+    @Test
+    public void testIndex()
+    {
+        final TilesIndex<String> index = new TilesIndex<String>(2, 2);
+        final int hash1 = TilesIndex.hash(2, 2, pixels, 0, 4);
+        final int hash2 = TilesIndex.hash(2, 2, pixels, 2, 4);
+
+        Assert.assertNotEquals(hash1, hash2);
+        Assert.assertNull(index.get(hash1, pixels, 0, 4));
+
+        index.put(hash1, pixels, 0, 4, "first");
+
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals("first", index.get(hash1, pixels, 0, 4));
+        Assert.assertNull(index.get(hash2, pixels, 2, 4));
+        Assert.assertArrayEquals(new int[]
+        {
+            1, 2, 3, 4
+        }, index.getPixels(0));
+
+        final int[] copy = index.getPixels(0);
+        Assert.assertEquals(hash1, TilesIndex.hash(2, 2, copy, 0, 2));
+        Assert.assertEquals("first", index.get(hash1, copy, 0, 2));
+
+        index.put(hash2, pixels, 2, 4, "second");
+
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals("second", index.get(hash2, pixels, 2, 4));
+        Assert.assertEquals("second", index.getValue(1));
+        Assert.assertEquals(2, index.getTileWidth());
+        Assert.assertEquals(2, index.getTileHeight());
+    }
+
+    /**
+     * Test the index with same hash and different pixels.
+     */
+    @Test
+    public void testCollision()
+    {
+        final TilesIndex<String> index = new TilesIndex<String>(2, 2);
+        index.put(0, pixels, 0, 4, "first");
+        index.put(0, pixels, 2, 4, "second");
+
+        Assert.assertEquals("first", index.get(0, pixels, 0, 4));
+        Assert.assertEquals("second", index.get(0, pixels, 2, 4));
+        Assert.assertNull(index.get(1, pixels, 2, 4));
+    }
+}
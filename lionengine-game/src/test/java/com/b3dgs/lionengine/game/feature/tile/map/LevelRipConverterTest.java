@@ -20,6 +20,7 @@ package com.b3dgs.lionengine.game.feature.tile.map;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.util.UtilTests;
 
 /**
@@ -37,4 +38,13 @@ public class LevelRipConverterTest
     {
         UtilTests.testPrivateConstructor(LevelRipConverter.class);
     }
+
+    /**
+     * Test the converter with invalid threads number.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidThreads()
+    {
+        LevelRipConverter.start(Medias.create("level.png"), new MapTileGame(), null, null, 0);
+    }
 }
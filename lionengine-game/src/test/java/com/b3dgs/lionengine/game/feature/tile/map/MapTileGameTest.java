@@ -19,6 +19,7 @@ package com.b3dgs.lionengine.game.feature.tile.map;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
@@ -27,6 +28,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.TileGame;
 import com.b3dgs.lionengine.geom.Geom;
@@ -352,4 +354,203 @@ public class MapTileGameTest
         map2.create(1, 2, 1, 1);
         map.append(Arrays.asList(map1, map2), 0, 0, 0, 0);
     }
+
+    /**
+     * Test the compact map set and get tile.
+     */
+    @Test
+    public void testCompactSetGetTile()
+    {
+        final MapTileGame compact = new MapTileGame(true);
+        compact.create(16, 16, 3, 3);
+
+        final AtomicReference<Tile> set = new AtomicReference<Tile>();
+        compact.addListener(new TileSetListener()
+        {
+            @Override
+            public void onTileSet(Tile tile)
+            {
+                set.set(tile);
+            }
+        });
+
+        Assert.assertEquals(0, compact.getTilesNumber());
+        Assert.assertNull(compact.getTile(1, 2));
+
+        final Tile tile = compact.createTile(Integer.valueOf(2), 5, 16.0, 32.0);
+        compact.setTile(tile);
+
+        Assert.assertEquals(tile, set.get());
+        Assert.assertEquals(1, compact.getTilesNumber());
+        Assert.assertEquals(tile, compact.getTile(1, 2));
+        Assert.assertEquals(tile.hashCode(), compact.getTile(1, 2).hashCode());
+        Assert.assertEquals(2, compact.getTile(1, 2).getSheet().intValue());
+        Assert.assertEquals(5, compact.getTile(1, 2).getNumber());
+        Assert.assertEquals(16.0, compact.getTile(1, 2).getX(), UtilTests.PRECISION);
+        Assert.assertEquals(32.0, compact.getTile(1, 2).getY(), UtilTests.PRECISION);
+        Assert.assertEquals(tile, compact.getTileAt(20.0, 40.0));
+        Assert.assertNull(compact.getTile(2, 1));
+
+        compact.setTile(new TileGame(Integer.valueOf(1), 3, 16.0, 32.0, 16, 16));
+
+        Assert.assertEquals(1, compact.getTilesNumber());
+        Assert.assertEquals(1, compact.getTile(1, 2).getSheet().intValue());
+        Assert.assertEquals(3, compact.getTile(1, 2).getNumber());
+
+        compact.clear();
+
+        Assert.assertEquals(0, compact.getTilesNumber());
+    }
+
+    /**
+     * Test the compact map keeps tile with features.
+     */
+    @Test
+    public void testCompactFeature()
+    {
+        final MapTileGame compact = new MapTileGame(true);
+        compact.create(16, 16, 3, 3);
+        compact.setTile(compact.createTile(Integer.valueOf(0), 1, 0.0, 0.0));
+
+        final Tile tile = compact.getTile(0, 0);
+        Assert.assertFalse(tile.hasFeature(FeatureModel.class));
+
+        final FeatureModel feature = new FeatureModel();
+        tile.addFeature(feature);
+
+        Assert.assertSame(tile, compact.getTile(0, 0));
+        Assert.assertEquals(feature, compact.getTile(0, 0).getFeature(FeatureModel.class));
+
+        final MapTileGame other = new MapTileGame(true);
+        other.create(16, 16, 3, 3);
+        other.setTile(other.createTile(Integer.valueOf(0), 1, 0.0, 0.0));
+        compact.append(other, 3, 3);
+
+        Assert.assertEquals(6, compact.getInTileWidth());
+        Assert.assertSame(tile, compact.getTile(0, 0));
+        Assert.assertFalse(compact.getTile(3, 3).hasFeature(FeatureModel.class));
+        Assert.assertEquals(2, compact.getTilesNumber());
+
+        compact.setTile(compact.createTile(Integer.valueOf(0), 2, 0.0, 0.0));
+
+        Assert.assertFalse(compact.getTile(0, 0).hasFeature(FeatureModel.class));
+    }
+
+    /**
+     * Test the compact map with a tile number too high.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testCompactNumberOverflow()
+    {
+        final MapTileGame compact = new MapTileGame(true);
+        compact.create(16, 16, 3, 3);
+        compact.setTile(compact.createTile(Integer.valueOf(0), 1 << 20, 0.0, 0.0));
+    }
+
+    /**
+     * Test the streamed storage with chunks.
+     */
+    @Test
+    public void testChunkedSetGetTile()
+    {
+        final MapTileGame chunked = new MapTileGame(2);
+        chunked.create(16, 16, 3, 3);
+
+        Assert.assertEquals(2, chunked.getChunkSize());
+        Assert.assertFalse(chunked.isChunkLoaded(0, 0));
+        Assert.assertFalse(chunked.isChunkLoaded(1, 1));
+
+        final Tile tile = chunked.createTile(Integer.valueOf(1), 3, 32.0, 16.0);
+        chunked.setTile(tile);
+
+        Assert.assertTrue(chunked.isChunkLoaded(1, 0));
+        Assert.assertFalse(chunked.isChunkLoaded(0, 0));
+        Assert.assertEquals(1, chunked.getTilesNumber());
+        Assert.assertEquals(tile, chunked.getTile(2, 1));
+        Assert.assertEquals(1, chunked.getTile(2, 1).getSheet().intValue());
+        Assert.assertEquals(3, chunked.getTile(2, 1).getNumber());
+        Assert.assertNull(chunked.getTile(1, 1));
+
+        final MapTileGame other = new MapTileGame(2);
+        other.create(16, 16, 3, 3);
+        other.setTile(other.createTile(Integer.valueOf(0), 1, 0.0, 0.0));
+        chunked.append(other, 3, 3);
+
+        Assert.assertEquals(6, chunked.getInTileWidth());
+        Assert.assertEquals(tile, chunked.getTile(2, 1));
+        Assert.assertEquals(1, chunked.getTile(3, 3).getNumber());
+        Assert.assertEquals(2, chunked.getTilesNumber());
+
+        chunked.unloadChunk(1, 0);
+
+        Assert.assertFalse(chunked.isChunkLoaded(1, 0));
+        Assert.assertNull(chunked.getTile(2, 1));
+        Assert.assertEquals(1, chunked.getTilesNumber());
+    }
+
+    /**
+     * Test the streamed storage keeps tile with features until chunk unload, and notifies chunk listeners.
+     */
+    @Test
+    public void testChunkedFeatureListener()
+    {
+        final MapTileGame chunked = new MapTileGame(2);
+        chunked.create(16, 16, 3, 3);
+        final List<String> events = new ArrayList<String>();
+        final ChunkListener listener = new ChunkListener()
+        {
+            @Override
+            public void onChunkLoaded(int tx, int ty, int size)
+            {
+                events.add("load " + tx + " " + ty + " " + size);
+            }
+
+            @Override
+            public void onChunkUnloaded(int tx, int ty, int size)
+            {
+                events.add("unload " + tx + " " + ty + " " + size);
+            }
+        };
+        chunked.addListener(listener);
+
+        chunked.setTile(chunked.createTile(Integer.valueOf(0), 1, 32.0, 16.0));
+        chunked.setChunkLoaded(1, 0);
+        final Tile tile = chunked.getTile(2, 1);
+        final FeatureModel feature = new FeatureModel();
+        tile.addFeature(feature);
+
+        Assert.assertSame(tile, chunked.getTile(2, 1));
+        Assert.assertEquals(feature, chunked.getTile(2, 1).getFeature(FeatureModel.class));
+
+        chunked.unloadChunk(1, 0);
+        chunked.setTile(chunked.createTile(Integer.valueOf(0), 1, 32.0, 16.0));
+
+        Assert.assertFalse(chunked.getTile(2, 1).hasFeature(FeatureModel.class));
+        Assert.assertEquals(Arrays.asList("load 2 0 2", "unload 2 0 2"), events);
+
+        chunked.removeListener(listener);
+        chunked.unloadChunk(1, 0);
+
+        Assert.assertEquals(2, events.size());
+    }
+
+    /**
+     * Test the streamed storage with invalid chunk size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testChunkedInvalidSize()
+    {
+        Assert.assertNull(new MapTileGame(0));
+    }
+
+    /**
+     * Test the chunk unloading on a not streamed map.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testChunkedNotStreamed()
+    {
+        final MapTileGame compact = new MapTileGame(true);
+        compact.create(16, 16, 3, 3);
+        compact.unloadChunk(0, 0);
+    }
 }
@@ -261,6 +261,39 @@ public class MapTileCollisionModelTest
         Assert.assertNull(mapCollision.getCollisionGroup("void"));
     }
 
+    /**
+     * Test the tile collisions applied again on streamed chunk reload.
+     */
+    @Test
+    public void testChunkReload()
+    {
+        final Services streamed = new Services();
+        final MapTileGame chunked = streamed.add(new MapTileGame(2));
+        chunked.addFeature(new MapTileGroupModel());
+        chunked.create(1, 1, 3, 3);
+        UtilMap.setGroups(chunked);
+        UtilMap.fill(chunked, UtilMap.TILE_GROUND);
+        final MapTileCollision collision = chunked.addFeatureAndGet(new MapTileCollisionModel(streamed));
+        // Configurations created again as map groups use the same file
+        formulasConfig = UtilConfig.createFormulaConfig(formulaV, formulaH);
+        groupsConfig = UtilConfig.createGroupsConfig(group);
+        collision.loadCollisions(formulasConfig, groupsConfig);
+
+        Assert.assertTrue(chunked.getTile(2, 2).hasFeature(TileCollision.class));
+
+        chunked.unloadChunk(1, 1);
+
+        Assert.assertNull(chunked.getTile(2, 2));
+        Assert.assertEquals(2, chunked.getTile(1, 1).getFeature(TileCollision.class).getCollisionFormulas().size());
+
+        chunked.setTile(chunked.createTile(UtilMap.SHEET, UtilMap.TILE_GROUND, 2, 2));
+        chunked.setChunkLoaded(1, 1);
+
+        final TileCollision reloaded = chunked.getTile(2, 2).getFeature(TileCollision.class);
+        Assert.assertTrue(reloaded.getCollisionFormulas().contains(formulaV));
+        Assert.assertTrue(reloaded.getCollisionFormulas().contains(formulaH));
+    }
+
     /**
      * Create object test.
      * 
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the clusters graph.
+ */
+public class ClusterGraphTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 32;
+    /** Cluster size in tile. */
+    private static final int CLUSTER = 8;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Get the entrance nodes of a cluster.
+     * 
+     * @param graph The graph reference.
+     * @param cluster The cluster index.
+     * @return The cluster nodes.
+     */
+    private static List<ClusterNode> getNodes(ClusterGraph graph, int cluster)
+    {
+        final Collection<ClusterNode> found = new ArrayList<ClusterNode>();
+        graph.getNodes(cluster, found);
+        return new ArrayList<ClusterNode>(found);
+    }
+
+    /**
+     * Check that both lists contain the same node instances.
+     * 
+     * @param expected The expected nodes.
+     * @param nodes The nodes to check.
+     */
+    private static void assertSame(List<ClusterNode> expected, List<ClusterNode> nodes)
+    {
+        Assert.assertEquals(expected.size(), nodes.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Assert.assertSame(expected.get(i), nodes.get(i));
+        }
+    }
+
+    /** Services reference. */
+    private Services services;
+    /** Map reference. */
+    private MapTile map;
+    /** Hierarchy reference. */
+    private MapTilePathHierarchyModel hierarchy;
+    /** Mover reference. */
+    private Pathfindable mover;
+    /** Local finder. */
+    private PathFinderImpl finder;
+
+    /**
+     * Prepare graph.
+     */
+    @Before
+    public void prepare()
+    {
+        services = new Services();
+        map = UtilPathfinding.createMap(services, SIZE);
+        hierarchy = map.addFeatureAndGet(new MapTilePathHierarchyModel(services, CLUSTER));
+        mover = UtilPathfinding.createMover(services, 1, 1);
+        finder = new PathFinderImpl(map, SIZE, Astar.createHeuristicClosest());
+    }
+
+    /**
+     * Test the clusters location and the entrances built on first update.
+     */
+    @Test
+    public void testClusters()
+    {
+        final ClusterGraph graph = hierarchy.getGraph(mover);
+
+        Assert.assertTrue(graph.hasSize(SIZE, SIZE));
+        Assert.assertFalse(graph.hasSize(SIZE, SIZE + 1));
+        Assert.assertEquals(0, graph.getCluster(CLUSTER - 1, CLUSTER - 1));
+        Assert.assertEquals(1, graph.getCluster(CLUSTER, 0));
+        Assert.assertEquals(SIZE / CLUSTER, graph.getCluster(0, CLUSTER));
+
+        graph.update(mover, finder);
+
+        Assert.assertEquals(1, graph.getVersion());
+        Assert.assertFalse(getNodes(graph, 0).isEmpty());
+        for (final ClusterNode node : getNodes(graph, 0))
+        {
+            Assert.assertEquals(0, graph.getCluster(node.getInTileX(), node.getInTileY()));
+        }
+        Assert.assertSame(graph, hierarchy.getGraph(mover));
+    }
+
+    /**
+     * Test entrances are not created on blocking borders.
+     */
+    @Test
+    public void testBlockedBorder()
+    {
+        UtilPathfinding.setColumn(map, CLUSTER - 1, 0, CLUSTER - 1, UtilMap.TILE_WATER);
+        UtilPathfinding.setColumn(map, CLUSTER, 0, CLUSTER - 1, UtilMap.TILE_WATER);
+
+        final ClusterGraph graph = hierarchy.getGraph(mover);
+        graph.update(mover, finder);
+
+        for (final ClusterNode node : getNodes(graph, 1))
+        {
+            Assert.assertFalse(node.getInTileX() == CLUSTER && node.getInTileY() < CLUSTER - 1);
+        }
+    }
+
+    /**
+     * Test only the clusters around the set tile are rebuilt.
+     */
+    @Test
+    public void testIncrementalInvalidation()
+    {
+        final ClusterGraph graph = hierarchy.getGraph(mover);
+        graph.update(mover, finder);
+
+        final int far = graph.getCluster(SIZE - 1, SIZE - 1);
+        final List<ClusterNode> farNodes = getNodes(graph, far);
+        final List<ClusterNode> firstNodes = getNodes(graph, 0);
+
+        graph.update(mover, finder);
+        Assert.assertEquals(1, graph.getVersion());
+
+        UtilPathfinding.setTile(map, CLUSTER / 2, CLUSTER / 2, UtilMap.TILE_WATER);
+        graph.update(mover, finder);
+
+        Assert.assertEquals(2, graph.getVersion());
+        assertSame(farNodes, getNodes(graph, far));
+        assertSame(firstNodes, getNodes(graph, 0));
+
+        UtilPathfinding.setTile(map, CLUSTER - 1, CLUSTER / 2, UtilMap.TILE_WATER);
+        graph.update(mover, finder);
+
+        Assert.assertEquals(3, graph.getVersion());
+        assertSame(farNodes, getNodes(graph, far));
+        Assert.assertNotEquals(firstNodes, getNodes(graph, 0));
+    }
+
+    /**
+     * Test the graph is dropped on hierarchy invalidation.
+     */
+    @Test
+    public void testInvalidate()
+    {
+        final ClusterGraph graph = hierarchy.getGraph(mover);
+        hierarchy.invalidate();
+
+        Assert.assertNotSame(graph, hierarchy.getGraph(mover));
+    }
+}
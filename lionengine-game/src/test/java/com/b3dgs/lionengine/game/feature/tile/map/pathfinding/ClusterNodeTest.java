@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the cluster node class.
+ */
+public class ClusterNodeTest
+{
+    /**
+     * Test the links.
+     */
+    @Test
+    public void testLinks()
+    {
+        final ClusterNode node = new ClusterNode(1, 2, 3);
+        final ClusterNode[] others = new ClusterNode[5];
+        for (int i = 0; i < others.length; i++)
+        {
+            others[i] = new ClusterNode(i, 0, 3);
+            node.link(others[i], i * 2.0);
+        }
+
+        Assert.assertEquals(1, node.getInTileX());
+        Assert.assertEquals(2, node.getInTileY());
+        Assert.assertEquals(3, node.getCluster());
+        Assert.assertEquals(others.length, node.getLinks());
+        for (int i = 0; i < others.length; i++)
+        {
+            Assert.assertEquals(others[i], node.getLink(i));
+            Assert.assertEquals(i * 2.0, node.getLinkCost(i), 0.0);
+        }
+
+        node.unlink();
+
+        Assert.assertEquals(0, node.getLinks());
+    }
+
+    /**
+     * Test the neighbor.
+     */
+    @Test
+    public void testNeighbor()
+    {
+        final ClusterNode node = new ClusterNode(0, 0, 0);
+        final ClusterNode neighbor = new ClusterNode(1, 0, 1);
+
+        Assert.assertNull(node.getNeighbor());
+        Assert.assertEquals(ClusterNode.NO_LINK, node.getNeighborCost(), 0.0);
+
+        node.setNeighbor(neighbor, 1.0);
+
+        Assert.assertEquals(neighbor, node.getNeighbor());
+        Assert.assertEquals(1.0, node.getNeighborCost(), 0.0);
+    }
+}
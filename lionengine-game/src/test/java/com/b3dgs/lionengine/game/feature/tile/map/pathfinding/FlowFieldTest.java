@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the flow field.
+ */
+public class FlowFieldTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 16;
+    /** Destination location. */
+    private static final int DEST = 8;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Follow the field from location, and get the steps number to destination.
+     * 
+     * @param field The field reference.
+     * @param map The map reference.
+     * @param mover The mover reference.
+     * @param tx The horizontal start location.
+     * @param ty The vertical start location.
+     * @return The steps number.
+     */
+    private static int follow(FlowField field, MapTile map, Pathfindable mover, int tx, int ty)
+    {
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        int x = tx;
+        int y = ty;
+        int steps = 0;
+        MovementTile movement = field.getMovement(x, y);
+        while (movement != null && steps < SIZE * SIZE)
+        {
+            x += movement.getSideX();
+            y += movement.getSideY();
+            Assert.assertFalse(mapPath.isBlocked(mover, x, y, true));
+            steps++;
+            movement = field.getMovement(x, y);
+        }
+        Assert.assertEquals(DEST, x);
+        Assert.assertEquals(DEST, y);
+        return steps;
+    }
+
+    /** Services reference. */
+    private Services services;
+    /** Map reference. */
+    private MapTile map;
+    /** Mover reference. */
+    private Pathfindable mover;
+    /** Field reference. */
+    private FlowField field;
+
+    /**
+     * Prepare field.
+     */
+    @Before
+    public void prepare()
+    {
+        services = new Services();
+        map = UtilPathfinding.createMap(services, SIZE);
+        mover = UtilPathfinding.createMover(services, 0, 0);
+        field = new FlowField(SIZE, SIZE);
+    }
+
+    /**
+     * Test the field costs on an open map.
+     */
+    @Test
+    public void testCosts()
+    {
+        Assert.assertFalse(field.isComputed());
+        Assert.assertTrue(field.hasSize(SIZE, SIZE));
+        Assert.assertFalse(field.hasSize(SIZE, SIZE + 1));
+
+        field.compute(map.getFeature(MapTilePath.class), mover, DEST, DEST);
+
+        Assert.assertTrue(field.isComputed());
+        Assert.assertEquals(0.0, field.getCost(DEST, DEST), 0.0);
+        Assert.assertNull(field.getMovement(DEST, DEST));
+        Assert.assertEquals(DEST, field.getCost(0, DEST), 0.0);
+        Assert.assertEquals(DEST, field.getCost(0, 0), 0.0);
+        Assert.assertEquals(1.0, field.getCost(DEST + 1, DEST + 1), 0.0);
+        Assert.assertEquals(MovementTile.RIGHT, field.getMovement(DEST - 1, DEST));
+        Assert.assertEquals(MovementTile.DIAGONAL_UP_RIGHT, field.getMovement(DEST - 1, DEST - 1));
+        Assert.assertEquals(MovementTile.DIAGONAL_DOWN_LEFT, field.getMovement(DEST + 1, DEST + 1));
+    }
+
+    /**
+     * Test following the field reaches destination with the shortest steps number. Blocked locations can be left as a
+     * start location.
+     */
+    @Test
+    public void testFollow()
+    {
+        UtilPathfinding.setColumn(map, DEST - 2, 0, SIZE - 3, UtilMap.TILE_WATER);
+        field.compute(map.getFeature(MapTilePath.class), mover, DEST, DEST);
+
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < SIZE; ty++)
+        {
+            for (int tx = 0; tx < SIZE; tx++)
+            {
+                final int steps = follow(field, map, mover, tx, ty);
+                if (!mapPath.isBlocked(mover, tx, ty, true))
+                {
+                    Assert.assertEquals(field.getCost(tx, ty), steps, 0.0);
+                }
+            }
+        }
+        Assert.assertTrue(field.getCost(0, DEST) > DEST);
+    }
+
+    /**
+     * Test an unreachable destination area.
+     */
+    @Test
+    public void testUnreachable()
+    {
+        UtilPathfinding.setColumn(map, DEST - 2, 0, SIZE - 1, UtilMap.TILE_WATER);
+        field.compute(map.getFeature(MapTilePath.class), mover, DEST, DEST);
+
+        Assert.assertTrue(field.getCost(0, 0) < 0.0);
+        Assert.assertNull(field.getMovement(0, 0));
+        Assert.assertEquals(1.0, field.getCost(DEST - 1, DEST), 0.0);
+    }
+
+    /**
+     * Test the field invalidation.
+     */
+    @Test
+    public void testInvalidate()
+    {
+        field.compute(map.getFeature(MapTilePath.class), mover, DEST, DEST);
+        field.invalidate();
+
+        Assert.assertFalse(field.isComputed());
+
+        UtilPathfinding.setColumn(map, DEST - 2, 0, SIZE - 1, UtilMap.TILE_WATER);
+        field.compute(map.getFeature(MapTilePath.class), mover, DEST, DEST);
+
+        Assert.assertTrue(field.isComputed());
+        Assert.assertTrue(field.getCost(0, 0) < 0.0);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the map tile path flow model.
+ */
+public class MapTilePathFlowModelTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 16;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /** Services reference. */
+    private Services services;
+    /** Map reference. */
+    private MapTile map;
+    /** Mover reference. */
+    private Pathfindable mover;
+    /** Mover profile. */
+    private PathProfile profile;
+
+    /**
+     * Prepare map.
+     */
+    @Before
+    public void prepare()
+    {
+        services = new Services();
+        map = UtilPathfinding.createMap(services, SIZE);
+        mover = UtilPathfinding.createMover(services, 0, 0);
+        profile = PathProfile.get(map.getFeature(MapTilePath.class), mover);
+    }
+
+    /**
+     * Test invalid arguments.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidThreshold()
+    {
+        Assert.assertNull(new MapTilePathFlowModel(services, 1, 0));
+    }
+
+    /**
+     * Test the field is only created once requested by enough distinct movers.
+     */
+    @Test
+    public void testThreshold()
+    {
+        final MapTilePathFlowModel flow = map.addFeatureAndGet(new MapTilePathFlowModel(services, 2, 3));
+        final Pathfindable second = UtilPathfinding.createMover(services, 1, 0);
+        final Pathfindable third = UtilPathfinding.createMover(services, 2, 0);
+
+        Assert.assertNull(flow.getField(mover, profile, 8, 8, false));
+        Assert.assertNull(flow.getField(mover, profile, 8, 8, false));
+        Assert.assertNull(flow.getField(mover, profile, 8, 8, false));
+        Assert.assertNull(flow.getField(second, profile, 8, 8, false));
+        Assert.assertNull(flow.getField(third, profile, 4, 4, false));
+        Assert.assertNull(flow.getField(second, profile, 8, 8, false));
+
+        final FlowField field = flow.getField(third, profile, 8, 8, false);
+        Assert.assertNotNull(field);
+        Assert.assertTrue(field.isComputed());
+        Assert.assertSame(field, flow.getField(mover, profile, 8, 8, false));
+
+        Assert.assertNotNull(flow.getField(mover, profile, 2, 2, true));
+        Assert.assertEquals(2, flow.getCapacity());
+    }
+
+    /**
+     * Test the least recently used field is recycled when capacity is reached.
+     */
+    @Test
+    public void testCapacity()
+    {
+        final MapTilePathFlowModel flow = map.addFeatureAndGet(new MapTilePathFlowModel(services, 1, 1));
+
+        final FlowField first = flow.getField(mover, profile, 8, 8, false);
+        final FlowField second = flow.getField(mover, profile, 4, 4, false);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(0.0, second.getCost(4, 4), 0.0);
+        Assert.assertEquals(4.0, second.getCost(8, 8), 0.0);
+
+        flow.invalidate();
+        Assert.assertNotSame(second, flow.getField(mover, profile, 4, 4, false));
+    }
+
+    /**
+     * Test the fields are computed again when a tile is set.
+     */
+    @Test
+    public void testTileSet()
+    {
+        final MapTilePathFlow flow = map.addFeatureAndGet(new MapTilePathFlowModel(services, 2, 1));
+
+        Assert.assertEquals(MovementTile.DIAGONAL_UP_RIGHT, flow.getMovement(mover, 8, 8));
+
+        UtilPathfinding.setTile(map, 1, 1, UtilMap.TILE_WATER);
+
+        Assert.assertNotEquals(MovementTile.DIAGONAL_UP_RIGHT, flow.getMovement(mover, 8, 8));
+    }
+
+    /**
+     * Test the path finder follows the field once computed, one step at a time.
+     */
+    @Test
+    public void testPathFinder()
+    {
+        final MapTilePathFlow flow = map.addFeatureAndGet(new MapTilePathFlowModel(services, 2, 2));
+        final PathFinder flat = Astar.createPathFinder(map, SIZE * 2, Astar.createHeuristicClosest());
+        final PathFinder finder = flow.createPathFinder(flat);
+        UtilPathfinding.setColumn(map, 4, 0, SIZE - 3, UtilMap.TILE_WATER);
+        final Pathfindable other = UtilPathfinding.createMover(services, 0, SIZE - 1);
+
+        final Path searched = finder.findPath(mover, 8, 0, false);
+        Assert.assertNotNull(searched);
+        Assert.assertFalse(searched.isPartial());
+        Assert.assertFalse(finder.findPath(mover, 8, 0, false).isPartial());
+        Assert.assertTrue(finder.findPath(other, 8, 0, false).isPartial());
+
+        int steps = 0;
+        Path followed = finder.findPath(mover, 8, 0, false);
+        while (followed != null && steps < SIZE * SIZE)
+        {
+            UtilPathfinding.assertValid(map, mover, followed);
+            Assert.assertEquals(2, followed.getLength());
+            Assert.assertEquals(mover.getInTileX(), followed.getX(0));
+            Assert.assertEquals(mover.getInTileY(), followed.getY(0));
+            Assert.assertEquals(flow.getMovement(mover, 8, 0),
+                                MovementTile.from(followed.getX(1) - followed.getX(0),
+                                                  followed.getY(1) - followed.getY(0)));
+
+            mover.setLocation(followed.getX(1), followed.getY(1));
+            steps++;
+            followed = followed.isPartial() ? finder.findPath(mover, 8, 0, false) : null;
+        }
+
+        Assert.assertEquals(searched.getLength() - 1, steps);
+        Assert.assertEquals(8, mover.getInTileX());
+        Assert.assertEquals(0, mover.getInTileY());
+    }
+
+    /**
+     * Test mover following the field step by step until destination.
+     */
+    @Test
+    public void testMoverFollow()
+    {
+        map.addFeature(new MapTilePathFlowModel(services, 2, 1));
+        final Pathfindable follower = UtilPathfinding.createMover(services, 0, 0);
+        UtilPathfinding.setColumn(map, 4, 0, 5, UtilMap.TILE_WATER);
+        follower.setSpeed(1.0, 1.0);
+
+        Assert.assertTrue(follower.setDestination(8, 0));
+
+        int updates = 0;
+        while (!follower.isDestinationReached() && updates < SIZE * SIZE)
+        {
+            follower.update(1.0);
+            updates++;
+        }
+
+        Assert.assertTrue(follower.isDestinationReached());
+        Assert.assertEquals(8, follower.getInTileX());
+        Assert.assertEquals(0, follower.getInTileY());
+    }
+}
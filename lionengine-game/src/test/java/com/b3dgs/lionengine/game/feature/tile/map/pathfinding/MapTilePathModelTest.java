@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the map tile path model.
+ */
+public class MapTilePathModelTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 8;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /** Services reference. */
+    private final Services services = new Services();
+    /** Map reference. */
+    private MapTile map;
+    /** Map path reference. */
+    private MapTilePath mapPath;
+    /** Mover reference. */
+    private Pathfindable mover;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        map = UtilPathfinding.createMap(services, new MapTileGame(true), SIZE);
+        mapPath = map.getFeature(MapTilePath.class);
+        mover = UtilPathfinding.createMover(services, 0, 0);
+    }
+
+    /**
+     * Test the tiles category, resolved from their group without any tile feature.
+     */
+    @Test
+    public void testCategory()
+    {
+        Assert.assertEquals(UtilMap.GROUND, mapPath.getCategory(1, 1));
+        Assert.assertNotSame(map.getTile(1, 1), map.getTile(1, 1));
+        Assert.assertFalse(map.getTile(1, 1).getFeatures().iterator().hasNext());
+        Assert.assertFalse(mapPath.isBlocked(mover, 1, 1, false));
+        Assert.assertEquals(1.0, mapPath.getCost(mover, 1, 1), 0.0);
+
+        UtilPathfinding.setTile(map, 1, 1, UtilMap.TILE_WATER);
+
+        Assert.assertEquals(UtilMap.WATER, mapPath.getCategory(1, 1));
+        Assert.assertTrue(mapPath.isBlocked(mover, 1, 1, false));
+
+        map.setTile(map.createTile(UtilMap.SHEET, UtilMap.TILE_GROUND, 1, 1));
+
+        Assert.assertEquals(UtilMap.GROUND, mapPath.getCategory(1, 1));
+        Assert.assertNull(mapPath.getCategory(-1, 0));
+        Assert.assertNull(mapPath.getCategory(SIZE, 0));
+        Assert.assertTrue(mapPath.isBlocked(mover, -1, 0, false));
+    }
+
+    /**
+     * Test the objects ID, stored by location without any tile feature.
+     */
+    @Test
+    public void testObjectsId()
+    {
+        final Integer id = Integer.valueOf(1);
+        final Integer other = Integer.valueOf(2);
+        mapPath.addObjectId(2, 3, id);
+        mapPath.addObjectId(2, 3, other);
+        mapPath.addObjectId(-1, 0, id);
+        mapPath.addObjectId(SIZE, 0, id);
+
+        Assert.assertEquals(2, mapPath.getObjectsId(2, 3).size());
+        Assert.assertTrue(mapPath.getObjectsId(2, 3).containsAll(Arrays.asList(id, other)));
+        Assert.assertTrue(mapPath.getObjectsId(3, 2).isEmpty());
+        Assert.assertTrue(mapPath.getObjectsId(-1, 0).isEmpty());
+        Assert.assertTrue(mapPath.getObjectsId(SIZE, 0).isEmpty());
+        Assert.assertTrue(mapPath.getObjectsId(0, 1).isEmpty());
+        Assert.assertFalse(map.getTile(2, 3).getFeatures().iterator().hasNext());
+        Assert.assertTrue(mapPath.isBlocked(mover, 2, 3, false));
+        Assert.assertFalse(mapPath.isBlocked(mover, 2, 3, true));
+        Assert.assertFalse(mapPath.isAreaAvailable(mover, 2, 3, 1, 1, Integer.valueOf(3)));
+
+        map.setTile(map.createTile(UtilMap.SHEET, UtilMap.TILE_GROUND, 2, 3));
+
+        Assert.assertEquals(2, mapPath.getObjectsId(2, 3).size());
+
+        mapPath.removeObjectId(2, 3, id);
+        mapPath.removeObjectId(2, 3, other);
+        mapPath.removeObjectId(-1, 0, id);
+
+        Assert.assertTrue(mapPath.getObjectsId(2, 3).isEmpty());
+        Assert.assertFalse(mapPath.isBlocked(mover, 2, 3, false));
+        Assert.assertTrue(mapPath.isAreaAvailable(mover, 2, 3, 1, 1, Integer.valueOf(3)));
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the map tile path scheduler model.
+ */
+public class MapTilePathSchedulerModelTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 16;
+    /** Wall horizontal location. */
+    private static final int WALL = 8;
+    /** Start vertical location. */
+    private static final int START = 7;
+    /** Asynchronous completion timeout in milli seconds. */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /** Services reference. */
+    private Services services;
+    /** Map reference. */
+    private MapTile map;
+    /** Mover reference. */
+    private Pathfindable mover;
+    /** Scheduler reference. */
+    private MapTilePathScheduler scheduler;
+
+    /**
+     * Check if path crosses the wall between the vertical locations.
+     * 
+     * @param path The path reference.
+     * @param fromTy The first vertical location.
+     * @param toTy The last vertical location (included).
+     * @return <code>true</code> if crosses, <code>false</code> else.
+     */
+    private static boolean crosses(Path path, int fromTy, int toTy)
+    {
+        for (int ty = fromTy; ty <= toTy; ty++)
+        {
+            if (path.contains(WALL, ty))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prepare map with a water wall opened at its top.
+     */
+    @Before
+    public void prepare()
+    {
+        services = new Services();
+        map = UtilPathfinding.createMap(services, SIZE);
+        UtilPathfinding.setColumn(map, WALL, 2, SIZE - 1, UtilMap.TILE_WATER);
+        mover = UtilPathfinding.createMover(services, WALL - 2, START);
+    }
+
+    /**
+     * Clean test.
+     */
+    @After
+    public void clean()
+    {
+        if (scheduler != null)
+        {
+            scheduler.close();
+        }
+    }
+
+    /**
+     * Test invalid arguments.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidThreads()
+    {
+        Assert.assertNull(new MapTilePathSchedulerModel(services, -1, 0.0));
+    }
+
+    /**
+     * Test a zero budget still searches one request per update.
+     */
+    @Test
+    public void testBudget()
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 0, 0.0));
+
+        final PathRequest first = scheduler.request(mover, WALL + 2, START);
+        final PathRequest second = scheduler.request(mover, WALL + 2, START + 1);
+        final PathRequest third = scheduler.request(mover, WALL + 2, START + 2);
+
+        Assert.assertFalse(first.isDone());
+        Assert.assertNull(first.getPath());
+
+        scheduler.update(1.0);
+
+        Assert.assertTrue(first.isDone());
+        Assert.assertFalse(second.isDone());
+        Assert.assertFalse(third.isDone());
+
+        scheduler.update(1.0);
+        scheduler.update(1.0);
+
+        Assert.assertTrue(second.isDone());
+        Assert.assertTrue(third.isDone());
+        UtilPathfinding.assertValid(map, mover, first.getPath());
+        Assert.assertTrue(crosses(first.getPath(), 0, 1));
+    }
+
+    /**
+     * Test a large budget searches all requests in one update, and same requests are shared.
+     */
+    @Test
+    public void testCoalesce()
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 0, 1000.0));
+
+        final PathRequest first = scheduler.request(mover, WALL + 2, START);
+        final PathRequest second = scheduler.request(mover, WALL + 2, START + 1);
+
+        Assert.assertSame(first, scheduler.request(mover, WALL + 2, START));
+
+        scheduler.update(1.0);
+
+        Assert.assertTrue(first.isDone());
+        Assert.assertTrue(second.isDone());
+        Assert.assertNotSame(first, scheduler.request(mover, WALL + 2, START));
+    }
+
+    /**
+     * Test cancelled requests are not searched once cancelled by all their movers.
+     */
+    @Test
+    public void testCancel()
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 0, 1000.0));
+
+        final PathRequest shared = scheduler.request(mover, WALL + 2, START);
+        Assert.assertSame(shared, scheduler.request(mover, WALL + 2, START));
+        final PathRequest cancelled = scheduler.request(mover, WALL + 2, START + 1);
+
+        scheduler.cancel(shared);
+        scheduler.cancel(cancelled);
+
+        Assert.assertNotSame(cancelled, scheduler.request(mover, WALL + 2, START + 1));
+
+        scheduler.update(1.0);
+
+        Assert.assertTrue(shared.isDone());
+        Assert.assertNotNull(shared.getPath());
+        Assert.assertTrue(cancelled.isDone());
+        Assert.assertNull(cancelled.getPath());
+    }
+
+    /**
+     * Test pending requests are kept on tile set, and searched on the updated snapshot.
+     */
+    @Test
+    public void testTileSet()
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 0, 1000.0));
+
+        final PathRequest before = scheduler.request(mover, WALL + 2, START);
+
+        UtilPathfinding.setColumn(map, WALL, 0, 1, UtilMap.TILE_WATER);
+        UtilPathfinding.setColumn(map, WALL, SIZE - 2, SIZE - 1, UtilMap.TILE_GROUND);
+
+        final PathRequest after = scheduler.request(mover, WALL + 2, START);
+        Assert.assertSame(before, after);
+
+        scheduler.update(1.0);
+
+        Assert.assertTrue(after.isDone());
+        Assert.assertTrue(crosses(after.getPath(), SIZE - 2, SIZE - 1));
+        UtilPathfinding.assertValid(map, mover, after.getPath());
+
+        final PathRequest next = scheduler.request(mover, WALL + 2, START + 1);
+        Assert.assertSame(before.getSnapshot(), next.getSnapshot());
+    }
+
+    /**
+     * Test requests searched by workers on a tile set are searched again on the updated snapshot.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testTileSetAsynchronous() throws InterruptedException
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 2, 0.0));
+
+        final PathRequest request = scheduler.request(mover, WALL + 2, START);
+        final PathSnapshot snapshot = request.getSnapshot();
+
+        UtilPathfinding.setColumn(map, WALL, 0, 1, UtilMap.TILE_WATER);
+        UtilPathfinding.setColumn(map, WALL, SIZE - 2, SIZE - 1, UtilMap.TILE_GROUND);
+
+        Assert.assertTrue(snapshot.isStale());
+
+        final long start = System.currentTimeMillis();
+        while (!request.isDone() && System.currentTimeMillis() - start < TIMEOUT)
+        {
+            Thread.sleep(1L);
+            scheduler.update(1.0);
+        }
+
+        Assert.assertTrue(request.isDone());
+        Assert.assertNotSame(snapshot, request.getSnapshot());
+        Assert.assertTrue(crosses(request.getPath(), SIZE - 2, SIZE - 1));
+        UtilPathfinding.assertValid(map, mover, request.getPath());
+    }
+
+    /**
+     * Test requests are searched by workers and delivered on update.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testAsynchronous() throws InterruptedException
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 2, 0.0));
+
+        final PathRequest first = scheduler.request(mover, WALL + 2, START);
+        final PathRequest second = scheduler.request(mover, WALL + 2, START + 1);
+
+        final long start = System.currentTimeMillis();
+        while (!(first.isDone() && second.isDone()) && System.currentTimeMillis() - start < TIMEOUT)
+        {
+            Thread.sleep(1L);
+            scheduler.update(1.0);
+        }
+
+        Assert.assertTrue(first.isDone());
+        Assert.assertTrue(second.isDone());
+        UtilPathfinding.assertValid(map, mover, first.getPath());
+        Assert.assertEquals(START + 1, second.getPath().getY(second.getPath().getLength() - 1));
+    }
+
+    /**
+     * Test a request without path.
+     */
+    @Test
+    public void testNoPath()
+    {
+        scheduler = map.addFeatureAndGet(new MapTilePathSchedulerModel(services, 0, 0.0));
+        UtilPathfinding.setColumn(map, WALL, 0, 1, UtilMap.TILE_WATER);
+
+        final PathRequest request = scheduler.request(mover, WALL + 2, START);
+        scheduler.update(1.0);
+
+        Assert.assertTrue(request.isDone());
+        Assert.assertNull(request.getPath());
+    }
+}
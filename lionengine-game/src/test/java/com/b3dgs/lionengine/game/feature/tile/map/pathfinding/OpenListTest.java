@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the open list class.
+ */
+public class OpenListTest
+{
+    /**
+     * Test the priority order.
+     */
+    @Test
+    public void testOrder()
+    {
+        final OpenList open = new OpenList(5);
+        open.add(0, 3.0);
+        open.add(1, 1.0);
+        open.add(2, 2.0);
+        open.add(3, 1.0);
+
+        Assert.assertEquals(4, open.size());
+        Assert.assertTrue(open.contains(3));
+        Assert.assertFalse(open.contains(4));
+        Assert.assertEquals(1, open.first());
+
+        Assert.assertEquals(1, open.poll());
+        Assert.assertEquals(3, open.poll());
+        Assert.assertEquals(2, open.poll());
+        Assert.assertEquals(0, open.poll());
+        Assert.assertEquals(0, open.size());
+        Assert.assertFalse(open.contains(0));
+    }
+
+    /**
+     * Test the priority update.
+     */
+    @Test
+    public void testUpdate()
+    {
+        final OpenList open = new OpenList(3);
+        open.add(0, 1.0);
+        open.add(1, 2.0);
+        open.add(2, 3.0);
+
+        open.update(2, 0.5);
+        Assert.assertEquals(2, open.first());
+
+        open.update(2, 1.0);
+        Assert.assertEquals(0, open.poll());
+        Assert.assertEquals(2, open.poll());
+        Assert.assertEquals(1, open.poll());
+    }
+
+    /**
+     * Test the clear.
+     */
+    @Test
+    public void testClear()
+    {
+        final OpenList open = new OpenList(2);
+        open.add(0, 1.0);
+        open.add(1, 2.0);
+        open.clear();
+
+        Assert.assertEquals(0, open.size());
+        Assert.assertFalse(open.contains(0));
+        Assert.assertFalse(open.contains(1));
+
+        open.add(1, 1.0);
+        Assert.assertEquals(1, open.first());
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the hierarchical path finder against the flat one.
+ */
+public class PathFinderHierarchicalTest
+{
+    /** Map size in tile. */
+    private static final int SIZE = 48;
+    /** Cluster size in tile. */
+    private static final int CLUSTER = 8;
+    /** Wall horizontal location. */
+    private static final int WALL = 20;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Follow the hierarchical path until destination, each partial path starting from the previous end.
+     * 
+     * @param map The map reference.
+     * @param finder The path finder.
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination.
+     * @param dty The vertical destination.
+     * @return The full path, <code>null</code> if none.
+     */
+    private static Path follow(MapTile map, PathFinder finder, Pathfindable mover, int dtx, int dty)
+    {
+        final Path full = new Path();
+        full.appendStep(mover.getInTileX(), mover.getInTileY());
+        Path path = finder.findPath(mover, dtx, dty, false);
+        int count = 0;
+        while (path != null && count < SIZE)
+        {
+            UtilPathfinding.assertValid(map, mover, path);
+            Assert.assertEquals(mover.getInTileX(), path.getX(0));
+            Assert.assertEquals(mover.getInTileY(), path.getY(0));
+            for (int i = 1; i < path.getLength(); i++)
+            {
+                full.appendStep(path.getX(i), path.getY(i));
+            }
+            mover.setLocation(path.getX(path.getLength() - 1), path.getY(path.getLength() - 1));
+            path = path.isPartial() ? finder.findPath(mover, dtx, dty, false) : null;
+            count++;
+        }
+        if (mover.getInTileX() == dtx && mover.getInTileY() == dty)
+        {
+            return full;
+        }
+        return null;
+    }
+
+    /**
+     * Check if path crosses the wall between the vertical locations.
+     * 
+     * @param path The path reference.
+     * @param fromTy The first vertical location.
+     * @param toTy The last vertical location (included).
+     * @return <code>true</code> if crosses, <code>false</code> else.
+     */
+    private static boolean crosses(Path path, int fromTy, int toTy)
+    {
+        for (int ty = fromTy; ty <= toTy; ty++)
+        {
+            if (path.contains(WALL, ty))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Services reference. */
+    private Services services;
+    /** Map reference. */
+    private MapTile map;
+    /** Hierarchy reference. */
+    private MapTilePathHierarchy hierarchy;
+
+    /**
+     * Prepare map with a water wall opened at its bottom.
+     */
+    @Before
+    public void prepare()
+    {
+        services = new Services();
+        map = UtilPathfinding.createMap(services, SIZE);
+        hierarchy = map.addFeatureAndGet(new MapTilePathHierarchyModel(services, CLUSTER));
+        UtilPathfinding.setColumn(map, WALL, 0, SIZE - 5, UtilMap.TILE_WATER);
+    }
+
+    /**
+     * Test the hierarchical path reaches the same destination than the flat one, with a close length.
+     */
+    @Test
+    public void testSameAsFlat()
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services, 2, 2);
+        final Path flat = Astar.createPathFinder(map, SIZE * 2, Astar.createHeuristicClosest())
+                               .findPath(mover, 40, 2, false);
+        Assert.assertNotNull(flat);
+        Assert.assertFalse(flat.isPartial());
+        UtilPathfinding.assertValid(map, mover, flat);
+
+        final PathFinder finder = hierarchy.createPathFinder(SIZE * 2, Astar.createHeuristicClosest());
+        final Path path = follow(map, finder, mover, 40, 2);
+
+        Assert.assertNotNull(path);
+        UtilPathfinding.assertValid(map, mover, path);
+        Assert.assertTrue(crosses(path, SIZE - 4, SIZE - 1));
+        Assert.assertTrue(path.getLength() >= flat.getLength());
+        Assert.assertTrue(path.getLength() <= flat.getLength() + CLUSTER);
+    }
+
+    /**
+     * Test the hierarchical path is returned one cluster at a time.
+     */
+    @Test
+    public void testPartial()
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services, 2, 2);
+        final PathFinder finder = hierarchy.createPathFinder(SIZE * 2, Astar.createHeuristicClosest());
+        final Path path = finder.findPath(mover, 40, 2, false);
+
+        Assert.assertNotNull(path);
+        Assert.assertTrue(path.isPartial());
+        Assert.assertTrue(path.getLength() <= CLUSTER * 2);
+
+        final int last = path.getLength() - 1;
+        Assert.assertTrue(path.getX(last) / CLUSTER != 0 || path.getY(last) / CLUSTER != 0);
+
+        final Path near = finder.findPath(mover, 5, 5, false);
+        Assert.assertNotNull(near);
+        Assert.assertFalse(near.isPartial());
+    }
+
+    /**
+     * Test no path is found when destination is enclosed, as for the flat search.
+     */
+    @Test
+    public void testNoPath()
+    {
+        UtilPathfinding.setColumn(map, WALL, SIZE - 4, SIZE - 1, UtilMap.TILE_WATER);
+
+        final Pathfindable mover = UtilPathfinding.createMover(services, 2, 2);
+        Assert.assertNull(Astar.createPathFinder(map, SIZE * 2, Astar.createHeuristicClosest())
+                               .findPath(mover, 40, 2, false));
+
+        final PathFinder finder = hierarchy.createPathFinder(SIZE * 2, Astar.createHeuristicClosest());
+        Assert.assertNull(follow(map, finder, mover, 40, 2));
+    }
+
+    /**
+     * Test the clusters are rebuilt when tiles are set, and paths use the new opening.
+     */
+    @Test
+    public void testTileSet()
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services, 2, 2);
+        final PathFinder finder = hierarchy.createPathFinder(SIZE * 2, Astar.createHeuristicClosest());
+        Assert.assertNotNull(follow(map, finder, mover, 40, 2));
+
+        UtilPathfinding.setColumn(map, WALL, SIZE - 4, SIZE - 1, UtilMap.TILE_WATER);
+        UtilPathfinding.setColumn(map, WALL, 2, 4, UtilMap.TILE_GROUND);
+
+        mover.setLocation(2, 2);
+        final Path path = follow(map, finder, mover, 40, 2);
+
+        Assert.assertNotNull(path);
+        UtilPathfinding.assertValid(map, mover, path);
+        Assert.assertTrue(crosses(path, 2, 4));
+        Assert.assertFalse(crosses(path, SIZE - 4, SIZE - 1));
+        Assert.assertTrue(path.getLength() < SIZE);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+
+/**
+ * Test the path profile class.
+ */
+public class PathProfileTest
+{
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Test the profiles equality.
+     */
+    @Test
+    public void testEquals()
+    {
+        final Services services = new Services();
+        final MapTile map = UtilPathfinding.createMap(services, 2);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final Pathfindable mover = UtilPathfinding.createMover(services, 0, 0);
+        final Pathfindable other = UtilPathfinding.createMover(services, 1, 1);
+
+        final PathProfile profile = PathProfile.get(mapPath, mover);
+
+        Assert.assertEquals(profile, profile);
+        Assert.assertEquals(profile, PathProfile.get(mapPath, other));
+        Assert.assertEquals(profile.hashCode(), PathProfile.get(mapPath, other).hashCode());
+        Assert.assertNotEquals(profile, null);
+        Assert.assertNotEquals(profile, new Object());
+
+        final PathKey key = new PathKey(profile, 0, 0, 1, 1);
+        final PathKey lookup = new PathKey();
+        lookup.set(PathProfile.get(mapPath, other), 0, 0, 1, 1);
+
+        Assert.assertEquals(key, lookup);
+        Assert.assertEquals(key.hashCode(), lookup.hashCode());
+        Assert.assertEquals(key, new PathKey(lookup));
+        Assert.assertNotEquals(key, new PathKey(profile, PathKey.NO_START, PathKey.NO_START, 1, 1));
+        Assert.assertNotEquals(key, null);
+        Assert.assertNotEquals(key, UtilMap.GROUND);
+    }
+}
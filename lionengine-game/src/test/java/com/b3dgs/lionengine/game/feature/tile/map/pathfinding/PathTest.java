@@ -52,4 +52,19 @@ public class PathTest
         Assert.assertEquals(0, path.getX(1));
         Assert.assertEquals(1, path.getY(1));
     }
+
+    /**
+     * Test the partial flag.
+     */
+    @Test
+    public void testPartial()
+    {
+        final Path path = new Path();
+
+        Assert.assertFalse(path.isPartial());
+
+        path.setPartial(true);
+
+        Assert.assertTrue(path.isPartial());
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.pathfinding;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.TransformableModel;
+import com.b3dgs.lionengine.game.feature.tile.TileGroupsConfig;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroupModel;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+import com.b3dgs.lionengine.io.Xml;
+
+/**
+ * Utility related to pathfinding tests. Maps are filled with {@link UtilMap#GROUND}, walkable in all directions, while
+ * {@link UtilMap#WATER} and {@link UtilMap#TREE} are blocking.
+ */
+public class UtilPathfinding
+{
+    /**
+     * Create the pathfinding configuration.
+     * 
+     * @return The configuration media.
+     */
+    public static Media createConfig()
+    {
+        final Media media = Medias.create(PathfindingConfig.FILENAME);
+        final Xml root = new Xml(PathfindingConfig.PATHFINDING);
+        for (final String category : Arrays.asList(UtilMap.GROUND, UtilMap.WATER, UtilMap.TREE))
+        {
+            final Xml node = root.createChild(PathfindingConfig.TILE_PATH);
+            node.writeString(PathfindingConfig.CATEGORY, category);
+            node.createChild(TileGroupsConfig.NODE_GROUP).setText(category);
+        }
+        root.save(media);
+        return media;
+    }
+
+    /**
+     * Create a ground map with pathfinding loaded. A {@link Camera} is added to services for movers.
+     * 
+     * @param services The services reference.
+     * @param size The map size in tile.
+     * @return The created map.
+     */
+    public static MapTile createMap(Services services, int size)
+    {
+        return createMap(services, new MapTileGame(), size);
+    }
+
+    /**
+     * Create a ground map with pathfinding loaded. A {@link Camera} is added to services for movers.
+     * 
+     * @param services The services reference.
+     * @param map The map to create.
+     * @param size The map size in tile.
+     * @return The created map.
+     */
+    public static MapTile createMap(Services services, MapTileGame map, int size)
+    {
+        services.add(new Camera());
+        services.add(map);
+        map.addFeature(new MapTileGroupModel());
+        map.addFeature(new MapTilePathModel(services));
+        map.create(1, 1, size, size);
+        UtilMap.setGroups(map);
+        UtilMap.fill(map, UtilMap.TILE_GROUND);
+
+        final Media config = createConfig();
+        map.getFeature(MapTilePath.class).loadPathfinding(config);
+        Assert.assertTrue(config.getFile().delete());
+
+        return map;
+    }
+
+    /**
+     * Create a mover walking on ground in all directions.
+     * 
+     * @param services The services reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The created mover.
+     */
+    public static Pathfindable createMover(Services services, int tx, int ty)
+    {
+        final Map<String, PathData> categories = new HashMap<String, PathData>();
+        categories.put(UtilMap.GROUND,
+                       new PathData(UtilMap.GROUND, 1.0, false, Arrays.asList(MovementTile.values())));
+        categories.put(UtilMap.WATER, new PathData(UtilMap.WATER, 0.0, true, Arrays.asList(MovementTile.values())));
+        categories.put(UtilMap.TREE, new PathData(UtilMap.TREE, 0.0, true, Arrays.asList(MovementTile.values())));
+
+        final Media media = Medias.create("mover.xml");
+        final Xml root = new Xml("test");
+        root.add(PathfindableConfig.exports(categories));
+        root.save(media);
+
+        final FeaturableModel featurable = new FeaturableModel();
+        featurable.addFeature(new TransformableModel());
+        final Pathfindable mover = featurable.addFeatureAndGet(new PathfindableModel(services, new Setup(media)));
+        mover.setLocation(tx, ty);
+        Assert.assertTrue(media.getFile().delete());
+
+        return mover;
+    }
+
+    /**
+     * Set a tile on map.
+     * 
+     * @param map The map reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param number The tile number.
+     */
+    public static void setTile(MapTile map, int tx, int ty, int number)
+    {
+        map.setTile(map.createTile(UtilMap.SHEET, number, tx, ty));
+    }
+
+    /**
+     * Set a vertical line of tiles.
+     * 
+     * @param map The map reference.
+     * @param tx The horizontal tile location.
+     * @param fromTy The first vertical tile location.
+     * @param toTy The last vertical tile location (included).
+     * @param number The tile number.
+     */
+    public static void setColumn(MapTile map, int tx, int fromTy, int toTy, int number)
+    {
+        for (int ty = fromTy; ty <= toTy; ty++)
+        {
+            setTile(map, tx, ty, number);
+        }
+    }
+
+    /**
+     * Check that each step of the path is adjacent to the previous one and not blocking.
+     * 
+     * @param map The map reference.
+     * @param mover The mover reference.
+     * @param path The path to check.
+     */
+    public static void assertValid(MapTile map, Pathfindable mover, Path path)
+    {
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int i = 0; i < path.getLength(); i++)
+        {
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+            if (i > 0)
+            {
+                Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+                Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            }
+        }
+    }
+}
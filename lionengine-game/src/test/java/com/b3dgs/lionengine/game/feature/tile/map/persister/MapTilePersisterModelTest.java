@@ -28,6 +28,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.Services;
@@ -35,6 +36,8 @@ import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
 import com.b3dgs.lionengine.game.feature.tile.map.TileSheetsConfig;
+import com.b3dgs.lionengine.io.FileWriting;
+import com.b3dgs.lionengine.util.UtilStream;
 import com.b3dgs.lionengine.util.UtilTests;
 
 /**
@@ -51,35 +54,14 @@ public class MapTilePersisterModelTest
         Medias.setResourcesDirectory(null);
     }
 
-    /** Temp folder. */
-    @Rule public final TemporaryFolder folder = new TemporaryFolder();
-
-    /**
-     * Prepare test.
-     */
-    @Before
-    public void prepare()
-    {
-        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
-    }
-
     /**
-     * Test the save and load map from file.
+     * Check loaded map against the test map.
      * 
-     * @throws IOException If error.
+     * @param map The saved map.
+     * @param mapLoaded The loaded map.
      */
-    @Test
-    public void testSaveLoad() throws IOException
+    private static void assertMap(MapTile map, MapTile mapLoaded)
     {
-        final File file = folder.newFile();
-        final MapTile map = UtilMapTilePersister.createMap();
-
-        Assert.assertEquals(map.getInTileWidth() * (map.getInTileHeight() - 1), map.getTilesNumber());
-
-        final Media level = Medias.get(file);
-        UtilMapTilePersister.saveMap(map, level);
-        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
-
         Assert.assertEquals(map.getTileWidth(), mapLoaded.getTileWidth());
         Assert.assertEquals(map.getTileHeight(), mapLoaded.getTileHeight());
         Assert.assertEquals(map.getInTileWidth(), mapLoaded.getInTileWidth());
@@ -106,6 +88,38 @@ public class MapTilePersisterModelTest
             }
         }
         Assert.assertEquals(map.getTilesNumber(), mapLoaded.getTilesNumber());
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+    }
+
+    /**
+     * Test the save and load map from file.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoad() throws IOException
+    {
+        final File file = folder.newFile();
+        final MapTile map = UtilMapTilePersister.createMap();
+
+        Assert.assertEquals(map.getInTileWidth() * (map.getInTileHeight() - 1), map.getTilesNumber());
+
+        final Media level = Medias.get(file);
+        UtilMapTilePersister.saveMap(map, level);
+        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+
+        assertMap(map, mapLoaded);
         Assert.assertTrue(file.delete());
     }
 
@@ -168,6 +182,122 @@ public class MapTilePersisterModelTest
         Assert.assertTrue(levelFile.delete());
     }
 
+    /**
+     * Test the save and load map with chunked format, from stream and memory mapped.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoadChunked() throws IOException
+    {
+        final File file = folder.newFile();
+        final MapTile map = UtilMapTilePersister.createMap();
+        final Media level = Medias.get(file);
+
+        UtilMapTilePersister.saveMapChunked(map, level, 2);
+        assertMap(map, UtilMapTilePersister.loadMap(level));
+        assertMap(map, UtilMapTilePersister.loadMapMapped(level));
+
+        final Services services = new Services();
+        services.add(map);
+        final MapTilePersister persister = new MapTilePersisterModel(services, 1);
+        FileWriting output = null;
+        try
+        {
+            output = new FileWriting(level);
+            persister.save(output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        assertMap(map, UtilMapTilePersister.loadMapMapped(level));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    /**
+     * Test the chunked file content.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testChunkFile() throws IOException
+    {
+        final File file = folder.newFile();
+        final MapTile map = UtilMapTilePersister.createMap();
+        final Media level = Medias.get(file);
+        UtilMapTilePersister.saveMapChunked(map, level, 2);
+
+        final MapTileChunkFile chunks = MapTileChunkFile.map(level);
+        Assert.assertEquals(map.getTileWidth(), chunks.getTileWidth());
+        Assert.assertEquals(map.getTileHeight(), chunks.getTileHeight());
+        Assert.assertEquals(map.getInTileWidth(), chunks.getInTileWidth());
+        Assert.assertEquals(map.getInTileHeight(), chunks.getInTileHeight());
+        Assert.assertEquals(2, chunks.getChunkSize());
+        Assert.assertEquals(2, chunks.getChunksHorizontal());
+        Assert.assertEquals(2, chunks.getChunksVertical());
+        Assert.assertNull(chunks.getConfig());
+
+        final Services services = new Services();
+        final MapTile loaded = services.create(MapTileGame.class);
+        loaded.create(map.getTileWidth(), map.getTileHeight(), map.getInTileWidth(), map.getInTileHeight());
+        chunks.loadChunk(loaded, 1, 0);
+        chunks.loadChunk(loaded, 1, 1);
+
+        Assert.assertEquals(2, loaded.getTilesNumber());
+        Assert.assertEquals(4, loaded.getTile(2, 2).getNumber());
+        Assert.assertEquals(2, loaded.getTile(2, 1).getNumber());
+        Assert.assertNull(loaded.getTile(1, 1));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    /**
+     * Test the legacy format loaded by media.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadLegacyMedia() throws IOException
+    {
+        final File file = folder.newFile();
+        final MapTile map = UtilMapTilePersister.createMap();
+        final Media level = Medias.get(file);
+
+        UtilMapTilePersister.saveMap(map, level);
+
+        Assert.assertNull(MapTileChunkFile.map(level));
+        assertMap(map, UtilMapTilePersister.loadMapMapped(level));
+
+        Assert.assertTrue(file.delete());
+    }
+
+    /**
+     * Test the chunked map with invalid tile sheet number.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testChunkedInvalidSheet() throws IOException
+    {
+        final MapTile map = UtilMapTilePersister.createMap();
+        final Media level = Medias.get(folder.newFile());
+        map.setTile(map.createTile(Integer.valueOf(Integer.MAX_VALUE), 0, 0, 0));
+        UtilMapTilePersister.saveMapChunked(map, level, 2);
+
+        Assert.assertNull(UtilMapTilePersister.loadMapMapped(level));
+    }
+
+    /**
+     * Test the constructor with invalid chunk size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidChunkSize()
+    {
+        Assert.assertNull(new MapTilePersisterModel(new Services(), 0));
+    }
+
     /**
      * Test the constructor with services with map.
      */
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.tile.map.persister;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Camera;
+import com.b3dgs.lionengine.game.feature.Identifiable;
+import com.b3dgs.lionengine.game.feature.Refreshable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
+import com.b3dgs.lionengine.game.feature.tile.map.MapTileGroupModel;
+import com.b3dgs.lionengine.game.feature.tile.map.UtilMap;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Astar;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.MapTilePathModel;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Path;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.PathFinder;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.feature.tile.map.pathfinding.UtilPathfinding;
+import com.b3dgs.lionengine.geom.Geom;
+import com.b3dgs.lionengine.graphic.SpriteTiled;
+
+/**
+ * Test the map tile streamer.
+ */
+public class MapTileStreamerTest
+{
+    /** Chunk size. */
+    private static final int CHUNK = 2;
+    /** Budget of four chunks. */
+    private static final long BUDGET = 4L * CHUNK * CHUNK * 4L;
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(null);
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+    /** Services. */
+    private final Services services = new Services();
+    /** Camera. */
+    private final Camera camera = services.create(Camera.class);
+    /** Chunked file. */
+    private MapTileChunkFile file;
+
+    /**
+     * Prepare test.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+
+        final MapTile source = new MapTileGame();
+        source.create(16, 16, 8, 8);
+        source.loadSheets(new ArrayList<SpriteTiled>());
+        for (int ty = 0; ty < source.getInTileHeight(); ty++)
+        {
+            for (int tx = 0; tx < source.getInTileWidth(); tx++)
+            {
+                source.setTile(source.createTile(Integer.valueOf(0), tx + ty * 8, tx * 16.0, ty * 16.0));
+            }
+        }
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMapChunked(source, level, CHUNK);
+        file = MapTileChunkFile.map(level);
+
+        camera.setView(0, 0, 32, 32, 32);
+        camera.teleport(0.0, 0.0);
+    }
+
+    /**
+     * Test the streaming around camera, with eviction.
+     */
+    @Test
+    public void testStreamCamera()
+    {
+        final MapTileGame map = services.add(new MapTileGame(CHUNK));
+        final MapTileStreamer streamer = new MapTileStreamer(services, file, BUDGET);
+        streamer.setMargin(0);
+
+        Assert.assertEquals(4, streamer.getMaxChunks());
+        Assert.assertEquals(8, map.getInTileWidth());
+        Assert.assertEquals(0, map.getTilesNumber());
+
+        streamer.flush();
+
+        Assert.assertEquals(4, streamer.getLoadedChunks());
+        Assert.assertEquals(16, map.getTilesNumber());
+        Assert.assertEquals(9, map.getTile(1, 1).getNumber());
+        Assert.assertNull(map.getTile(4, 4));
+
+        camera.teleport(64.0, 64.0);
+        streamer.flush();
+
+        Assert.assertEquals(4, streamer.getLoadedChunks());
+        Assert.assertNull(map.getTile(1, 1));
+        Assert.assertEquals(45, map.getTile(5, 5).getNumber());
+        Assert.assertFalse(map.isChunkLoaded(0, 0));
+        Assert.assertTrue(map.isChunkLoaded(3, 3));
+
+        streamer.getFeature(Identifiable.class).destroy();
+    }
+
+    /**
+     * Test the streaming around tracked element, loaded on update.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testStreamTracked() throws InterruptedException
+    {
+        final MapTileGame map = services.add(new MapTileGame(CHUNK));
+        final MapTileStreamer streamer = new MapTileStreamer(services, file, 0L);
+        streamer.setMargin(0);
+        camera.teleport(64.0, 64.0);
+        streamer.track(Geom.createLocalizable(0.0, 0.0));
+
+        Assert.assertEquals(1, streamer.getMaxChunks());
+
+        final Refreshable refreshable = streamer.getFeature(Refreshable.class);
+        for (int i = 0; i < 100 && streamer.getLoadedChunks() < 5; i++)
+        {
+            refreshable.update(1.0);
+            Thread.sleep(10L);
+        }
+
+        Assert.assertEquals(0, map.getTile(0, 0).getNumber());
+        Assert.assertEquals(45, map.getTile(5, 5).getNumber());
+        Assert.assertEquals(5, streamer.getLoadedChunks());
+
+        streamer.getFeature(Identifiable.class).destroy();
+    }
+
+    /**
+     * Test the pathfinding through a chunk evicted then loaded again. The only way across the tree wall is inside an
+     * evicted chunk, while start and destination chunks stay tracked.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testStreamPathfinding() throws IOException
+    {
+        final MapTile source = UtilPathfinding.createMap(new Services(), 8);
+        UtilPathfinding.setColumn(source, 3, 0, 2, UtilMap.TILE_TREE);
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMapChunked(source, level, CHUNK);
+
+        final Services streamed = new Services();
+        final Camera view = streamed.add(new Camera());
+        view.setView(0, 0, 8, 3, 3);
+        view.teleport(0.0, 0.0);
+        final MapTileGame map = streamed.add(new MapTileGame(CHUNK));
+        map.addFeature(new MapTileGroupModel());
+        final MapTilePath mapPath = map.addFeatureAndGet(new MapTilePathModel(streamed));
+        final MapTileStreamer streamer = new MapTileStreamer(streamed, MapTileChunkFile.map(level), BUDGET / 4L * 10L);
+        streamer.setMargin(0);
+        streamer.track(Geom.createLocalizable(0.0, 0.0));
+        streamer.track(Geom.createLocalizable(7.0, 0.0));
+        UtilMap.setGroups(map);
+        final Media config = UtilPathfinding.createConfig();
+        mapPath.loadPathfinding(config);
+        Assert.assertTrue(config.getFile().delete());
+
+        final Pathfindable mover = UtilPathfinding.createMover(streamed, 0, 0);
+        final PathFinder finder = Astar.createPathFinder(map, 64, Astar.createHeuristicClosest());
+        streamer.flush();
+
+        Assert.assertNotNull(finder.findPath(mover, 7, 0, false));
+
+        view.teleport(0.0, 4.0);
+        streamer.flush();
+
+        Assert.assertFalse(map.isChunkLoaded(1, 1));
+        Assert.assertTrue(map.isChunkLoaded(0, 0));
+        Assert.assertTrue(map.isChunkLoaded(3, 0));
+        Assert.assertNull(mapPath.getCategory(3, 3));
+        Assert.assertNull(finder.findPath(mover, 7, 0, false));
+
+        view.teleport(0.0, 0.0);
+        streamer.flush();
+
+        Assert.assertTrue(map.isChunkLoaded(1, 1));
+        Assert.assertEquals(UtilMap.GROUND, mapPath.getCategory(3, 3));
+        Assert.assertEquals(UtilMap.TREE, mapPath.getCategory(3, 2));
+
+        final Path path = finder.findPath(mover, 7, 0, false);
+        Assert.assertNotNull(path);
+        Assert.assertTrue(path.contains(3, 3));
+        UtilPathfinding.assertValid(map, mover, path);
+
+        streamer.getFeature(Identifiable.class).destroy();
+    }
+
+    /**
+     * Test the streamer with a map having another chunk size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testChunkSizeMismatch()
+    {
+        services.add(new MapTileGame(CHUNK + 1));
+        Assert.assertNull(new MapTileStreamer(services, file, BUDGET));
+    }
+}
@@ -84,6 +84,28 @@ public class UtilMapTilePersister
         }
     }
 
+    /**
+     * Save map to file with chunked format.
+     * 
+     * @param map The map to save.
+     * @param level The level media.
+     * @param chunkSize The chunk size in tiles.
+     * @throws IOException If error.
+     */
+    public static void saveMapChunked(MapTile map, Media level, int chunkSize) throws IOException
+    {
+        FileWriting output = null;
+        try
+        {
+            output = new FileWriting(level);
+            MapTileChunkFile.save(map, chunkSize, output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+    }
+
     /**
      * Load map from file.
      * 
@@ -108,4 +130,20 @@ public class UtilMapTilePersister
         }
         return map;
     }
+
+    /**
+     * Load map from file by media (memory mapped if chunked).
+     * 
+     * @param level The level media.
+     * @return The loaded map.
+     * @throws IOException If error.
+     */
+    public static MapTile loadMapMapped(Media level) throws IOException
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel(services));
+        map.getFeature(MapTilePersister.class).load(level);
+        return map;
+    }
 }
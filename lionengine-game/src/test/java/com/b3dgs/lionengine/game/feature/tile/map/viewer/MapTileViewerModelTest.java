@@ -19,11 +19,13 @@ package com.b3dgs.lionengine.game.feature.tile.map.viewer;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.ViewerMock;
 import com.b3dgs.lionengine.core.drawable.Drawable;
 import com.b3dgs.lionengine.game.feature.Camera;
@@ -32,8 +34,10 @@ import com.b3dgs.lionengine.game.feature.tile.Tile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTile;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileGame;
 import com.b3dgs.lionengine.game.feature.tile.map.MapTileRenderer;
+import com.b3dgs.lionengine.graphic.FactoryGraphicMock;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.GraphicMock;
+import com.b3dgs.lionengine.graphic.Graphics;
 import com.b3dgs.lionengine.graphic.ImageBufferMock;
 
 /**
@@ -41,6 +45,24 @@ import com.b3dgs.lionengine.graphic.ImageBufferMock;
  */
 public class MapTileViewerModelTest
 {
+    /**
+     * Create a renderer counting rendered tiles.
+     * 
+     * @param count The rendered tiles counter.
+     * @return The renderer.
+     */
+    private static MapTileRenderer createRenderer(final AtomicInteger count)
+    {
+        return new MapTileRenderer()
+        {
+            @Override
+            public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+            {
+                count.incrementAndGet();
+            }
+        };
+    }
+
     private final Services services = new Services();
     private MapTileViewer mapViewer;
 
@@ -106,4 +128,122 @@ public class MapTileViewerModelTest
 
         Assert.assertFalse(rendered.get());
     }
+
+    /**
+     * Test the viewer with chunk cache.
+     */
+    @Test
+    public void testCache()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+        try
+        {
+            final Services cacheServices = new Services();
+            cacheServices.add(new ViewerMock());
+            final MapTileGame map = cacheServices.add(new MapTileGame());
+            map.create(16, 16, 4, 4);
+            map.loadSheets(Arrays.asList(Drawable.loadSpriteTiled(new ImageBufferMock(16, 16), 16, 16)));
+            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            {
+                for (int tx = 0; tx < map.getInTileWidth(); tx++)
+                {
+                    map.setTile(map.createTile(Integer.valueOf(0), 0, tx * 16.0, ty * 16.0));
+                }
+            }
+
+            final MapTileViewer viewer = new MapTileViewerModel(cacheServices, 2);
+            final AtomicInteger cached = new AtomicInteger();
+            final AtomicInteger dynamic = new AtomicInteger();
+            viewer.clear();
+            viewer.addRenderer(createRenderer(cached), true);
+            viewer.addRenderer(createRenderer(dynamic));
+
+            final Graphic g = new GraphicMock();
+            viewer.render(g);
+
+            Assert.assertEquals(16, cached.get());
+            Assert.assertEquals(16, dynamic.get());
+
+            viewer.render(g);
+
+            Assert.assertEquals(16, cached.get());
+            Assert.assertEquals(32, dynamic.get());
+
+            map.setTile(map.createTile(Integer.valueOf(0), 1, 16.0, 16.0));
+            viewer.render(g);
+
+            Assert.assertEquals(20, cached.get());
+            Assert.assertEquals(48, dynamic.get());
+
+            viewer.addRenderer(createRenderer(new AtomicInteger()), true);
+            viewer.render(g);
+
+            Assert.assertEquals(36, cached.get());
+        }
+        finally
+        {
+            Graphics.setFactoryGraphic(null);
+        }
+    }
+
+    /**
+     * Test the viewer cache invalidated by streamed map chunks unloading and loading.
+     */
+    @Test
+    public void testCacheChunk()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+        try
+        {
+            final Services cacheServices = new Services();
+            cacheServices.add(new ViewerMock());
+            final MapTileGame map = cacheServices.add(new MapTileGame(2));
+            map.create(16, 16, 4, 4);
+            map.loadSheets(Arrays.asList(Drawable.loadSpriteTiled(new ImageBufferMock(16, 16), 16, 16)));
+            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            {
+                for (int tx = 0; tx < map.getInTileWidth(); tx++)
+                {
+                    map.setTile(map.createTile(Integer.valueOf(0), 0, tx * 16.0, ty * 16.0));
+                }
+            }
+
+            final MapTileViewer viewer = new MapTileViewerModel(cacheServices, 4);
+            final AtomicInteger cached = new AtomicInteger();
+            viewer.clear();
+            viewer.addRenderer(createRenderer(cached), true);
+
+            final Graphic g = new GraphicMock();
+            viewer.render(g);
+
+            Assert.assertEquals(16, cached.get());
+
+            map.unloadChunk(1, 1);
+            viewer.render(g);
+
+            Assert.assertEquals(28, cached.get());
+
+            map.setChunkLoaded(1, 1);
+            viewer.render(g);
+
+            Assert.assertEquals(40, cached.get());
+
+            viewer.render(g);
+
+            Assert.assertEquals(40, cached.get());
+        }
+        finally
+        {
+            Graphics.setFactoryGraphic(null);
+        }
+    }
+
+    /**
+     * Test the viewer with invalid chunk cache size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testCacheInvalid()
+    {
+        Assert.assertNull(new MapTileViewerModel(services, 0));
+    }
 }
@@ -0,0 +1,496 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Shape;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.purview.Networkable;
+
+/**
+ * Area of interest of each client, filtering the broadcast messages of located networkables.
+ * <p>
+ * Located networkables are stored in a grid of cells sized to the interest range, so only the cells around each
+ * client focus are checked. A networkable enters the client interest when its distance to the focus area is lower
+ * than the radius, and leaves it when its distance is greater than the radius plus the hysteresis, avoiding
+ * repeated enter and leave on the border.
+ * </p>
+ * <p>
+ * Filtering is disabled until a range is set, and clients without focus receive all messages.
+ * </p>
+ */
+final class AreaOfInterest implements MessageFilter
+{
+    /** Low bits mask. */
+    private static final long LOW_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Get the packed cell key.
+     * 
+     * @param cx The cell horizontal index.
+     * @param cy The cell vertical index.
+     * @return The cell key.
+     */
+    private static long getKey(int cx, int cy)
+    {
+        return (long) cx << Integer.SIZE | cy & LOW_MASK;
+    }
+
+    /**
+     * Get the squared distance between a location and an area.
+     * 
+     * @param location The location.
+     * @param area The area.
+     * @return The squared distance, 0 if inside.
+     */
+    private static double getDistanceSquared(Localizable location, Shape area)
+    {
+        final double x = location.getX();
+        final double y = location.getY();
+        final double dx = Math.max(0.0, Math.max(area.getX() - x, x - area.getX() - area.getWidth()));
+        final double dy = Math.max(0.0, Math.max(area.getY() - y, y - area.getY() - area.getHeight()));
+        return dx * dx + dy * dy;
+    }
+
+    /** Located networkables. */
+    private final Map<Networkable, Located> located;
+    /** Located networkables by cell key. */
+    private final Map<Long, Collection<Located>> cells;
+    /** Clients interest. */
+    private final Map<Byte, Interest> clients;
+    /** Current messages source. */
+    private final Map<NetworkMessage, Networkable> sources;
+    /** Interest listeners. */
+    private final Collection<InterestListener> listeners;
+    /** Enter radius squared. */
+    private double enter;
+    /** Leave radius squared. */
+    private double leave;
+    /** Cell size (0 if disabled). */
+    private double cellSize;
+
+    /**
+     * Internal constructor.
+     */
+    AreaOfInterest()
+    {
+        located = new HashMap<Networkable, Located>();
+        cells = new HashMap<Long, Collection<Located>>();
+        clients = new HashMap<Byte, Interest>();
+        sources = new IdentityHashMap<NetworkMessage, Networkable>();
+        listeners = new ArrayList<InterestListener>();
+    }
+
+    /**
+     * Add an interest listener.
+     * 
+     * @param listener The listener to add.
+     */
+    void addListener(InterestListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Set the interest range, enabling filtering.
+     * 
+     * @param radius The radius around focus where networkables enter interest (strictly positive).
+     * @param hysteresis The additional distance before networkables leave interest (positive).
+     */
+    void setRange(double radius, double hysteresis)
+    {
+        Check.superiorStrict(radius, 0.0);
+        Check.superiorOrEqual(hysteresis, 0.0);
+
+        enter = radius * radius;
+        leave = (radius + hysteresis) * (radius + hysteresis);
+        cellSize = radius + hysteresis;
+        cells.clear();
+        for (final Located entry : located.values())
+        {
+            entry.cell = getCell(entry.location);
+            getCell(entry.cell).add(entry);
+        }
+    }
+
+    /**
+     * Add a located networkable.
+     * 
+     * @param networkable The networkable.
+     * @param location The networkable location.
+     */
+    void add(Networkable networkable, Localizable location)
+    {
+        remove(networkable);
+        final Located entry = new Located(networkable, location);
+        located.put(networkable, entry);
+        if (cellSize > 0.0)
+        {
+            entry.cell = getCell(location);
+            getCell(entry.cell).add(entry);
+        }
+    }
+
+    /**
+     * Remove a located networkable. Clients interested are notified that it left.
+     * 
+     * @param networkable The networkable.
+     */
+    void remove(Networkable networkable)
+    {
+        final Located entry = located.remove(networkable);
+        if (entry != null)
+        {
+            removeFromCell(entry);
+            for (final Map.Entry<Byte, Interest> client : clients.entrySet())
+            {
+                if (client.getValue().current.remove(networkable))
+                {
+                    notifyLeft(client.getKey(), networkable);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the client focus area.
+     * 
+     * @param client The client id.
+     * @param focus The focus area.
+     */
+    void setFocus(Byte client, Shape focus)
+    {
+        final Interest interest = clients.get(client);
+        if (interest == null)
+        {
+            clients.put(client, new Interest(focus));
+        }
+        else
+        {
+            interest.focus = focus;
+        }
+    }
+
+    /**
+     * Remove a client, without notification.
+     * 
+     * @param client The client id.
+     */
+    void removeClient(Byte client)
+    {
+        clients.remove(client);
+    }
+
+    /**
+     * Check if client is interested by the networkable.
+     * 
+     * @param client The client id.
+     * @param networkable The networkable.
+     * @return <code>true</code> if interested, <code>false</code> else.
+     */
+    boolean isInterested(Byte client, Networkable networkable)
+    {
+        final Interest interest = clients.get(client);
+        return cellSize == 0.0
+               || interest == null
+               || !located.containsKey(networkable)
+               || interest.current.contains(networkable);
+    }
+
+    /**
+     * Update networkables cells and clients interest, notifying entered and left networkables.
+     */
+    void update()
+    {
+        if (cellSize > 0.0)
+        {
+            for (final Located entry : located.values())
+            {
+                updateCell(entry);
+            }
+            for (final Map.Entry<Byte, Interest> client : clients.entrySet())
+            {
+                updateInterest(client.getKey(), client.getValue());
+            }
+        }
+    }
+
+    /**
+     * Register the messages of a networkable, to filter them until {@link #clearMessages()}.
+     * 
+     * @param networkable The networkable source.
+     * @param messages The networkable messages.
+     */
+    void registerMessages(Networkable networkable, Collection<NetworkMessage> messages)
+    {
+        if (located.containsKey(networkable))
+        {
+            for (final NetworkMessage message : messages)
+            {
+                sources.put(message, networkable);
+            }
+        }
+    }
+
+    /**
+     * Clear registered messages.
+     */
+    void clearMessages()
+    {
+        sources.clear();
+    }
+
+    /**
+     * Get the cell index of a location.
+     * 
+     * @param value The location value.
+     * @return The cell index.
+     */
+    private int getIndex(double value)
+    {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    /**
+     * Get the cell key of a location.
+     * 
+     * @param location The location.
+     * @return The cell key.
+     */
+    private long getCell(Localizable location)
+    {
+        return getKey(getIndex(location.getX()), getIndex(location.getY()));
+    }
+
+    /**
+     * Get the cell content, created if missing.
+     * 
+     * @param key The cell key.
+     * @return The cell content.
+     */
+    private Collection<Located> getCell(long key)
+    {
+        final Long cell = Long.valueOf(key);
+        Collection<Located> content = cells.get(cell);
+        if (content == null)
+        {
+            content = new ArrayList<Located>();
+            cells.put(cell, content);
+        }
+        return content;
+    }
+
+    /**
+     * Remove entry from its cell, and the cell if empty.
+     * 
+     * @param entry The entry to remove.
+     */
+    private void removeFromCell(Located entry)
+    {
+        final Long cell = Long.valueOf(entry.cell);
+        final Collection<Located> content = cells.get(cell);
+        if (content != null && content.remove(entry) && content.isEmpty())
+        {
+            cells.remove(cell);
+        }
+    }
+
+    /**
+     * Move entry to its current cell if changed.
+     * 
+     * @param entry The entry to update.
+     */
+    private void updateCell(Located entry)
+    {
+        final long cell = getCell(entry.location);
+        if (cell != entry.cell)
+        {
+            removeFromCell(entry);
+            entry.cell = cell;
+            getCell(cell).add(entry);
+        }
+    }
+
+    /**
+     * Update a client interest from the cells around its focus.
+     * 
+     * @param client The client id.
+     * @param interest The client interest.
+     */
+    private void updateInterest(Byte client, Interest interest)
+    {
+        final Shape focus = interest.focus;
+        final int minX = getIndex(focus.getX() - cellSize);
+        final int maxX = getIndex(focus.getX() + focus.getWidth() + cellSize);
+        final int minY = getIndex(focus.getY() - cellSize);
+        final int maxY = getIndex(focus.getY() + focus.getHeight() + cellSize);
+
+        for (int cx = minX; cx <= maxX; cx++)
+        {
+            for (int cy = minY; cy <= maxY; cy++)
+            {
+                final Collection<Located> content = cells.get(Long.valueOf(getKey(cx, cy)));
+                if (content != null)
+                {
+                    updateInterest(client, interest, content);
+                }
+            }
+        }
+        for (final Networkable networkable : interest.current)
+        {
+            if (!interest.next.contains(networkable))
+            {
+                notifyLeft(client, networkable);
+            }
+        }
+        interest.swap();
+    }
+
+    /**
+     * Update a client interest with the content of a cell.
+     * 
+     * @param client The client id.
+     * @param interest The client interest.
+     * @param content The cell content.
+     */
+    private void updateInterest(Byte client, Interest interest, Collection<Located> content)
+    {
+        for (final Located entry : content)
+        {
+            final double distance = getDistanceSquared(entry.location, interest.focus);
+            final boolean inside = interest.current.contains(entry.networkable);
+            if (distance <= enter || inside && distance <= leave)
+            {
+                interest.next.add(entry.networkable);
+            }
+            if (!inside && distance <= enter)
+            {
+                notifyEntered(client, entry.networkable);
+            }
+        }
+    }
+
+    /**
+     * Notify listeners that a networkable entered a client interest.
+     * 
+     * @param client The client id.
+     * @param networkable The networkable.
+     */
+    private void notifyEntered(Byte client, Networkable networkable)
+    {
+        for (final InterestListener listener : listeners)
+        {
+            listener.notifyInterestEntered(client, networkable);
+        }
+    }
+
+    /**
+     * Notify listeners that a networkable left a client interest.
+     * 
+     * @param client The client id.
+     * @param networkable The networkable.
+     */
+    private void notifyLeft(Byte client, Networkable networkable)
+    {
+        for (final InterestListener listener : listeners)
+        {
+            listener.notifyInterestLeft(client, networkable);
+        }
+    }
+
+    /*
+     * MessageFilter
+     */
+
+    @Override
+    public boolean accept(NetworkMessage message, byte client)
+    {
+        final Networkable source = sources.get(message);
+        return source == null || isInterested(Byte.valueOf(client), source);
+    }
+
+    /**
+     * Located networkable.
+     */
+    private static final class Located
+    {
+        /** The networkable. */
+        private final Networkable networkable;
+        /** The networkable location. */
+        private final Localizable location;
+        /** Current cell key. */
+        private long cell;
+
+        /**
+         * Create located networkable.
+         * 
+         * @param networkable The networkable.
+         * @param location The networkable location.
+         */
+        Located(Networkable networkable, Localizable location)
+        {
+            this.networkable = networkable;
+            this.location = location;
+        }
+    }
+
+    /**
+     * Client interest.
+     */
+    private static final class Interest
+    {
+        /** Current interest. */
+        private Set<Networkable> current;
+        /** Next interest, filled on update. */
+        private Set<Networkable> next;
+        /** Focus area. */
+        private Shape focus;
+
+        /**
+         * Create client interest.
+         * 
+         * @param focus The focus area.
+         */
+        Interest(Shape focus)
+        {
+            this.focus = focus;
+            current = new HashSet<Networkable>();
+            next = new HashSet<Networkable>();
+        }
+
+        /**
+         * Use next interest as current, and clear next one.
+         */
+        void swap()
+        {
+            final Set<Networkable> old = current;
+            current = next;
+            next = old;
+            next.clear();
+        }
+    }
+}
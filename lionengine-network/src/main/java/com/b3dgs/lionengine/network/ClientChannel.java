@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Client reliable channel with the server, over a non blocking socket exchanging length prefixed frames.
+ * 
+ * @see FrameInputStream
+ * @see FrameOutputStream
+ */
+final class ClientChannel
+{
+    /** Socket channel. */
+    private final SocketChannel socket;
+    /** Frame input. */
+    private final FrameInputStream input;
+    /** Frame output. */
+    private final FrameOutputStream output;
+    /** Input stream, limited to the current message. */
+    private final DataInputStream in;
+    /** Output stream. */
+    private final DataOutputStream out;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param address The server address.
+     * @param port The server port.
+     * @throws IOException If unable to connect.
+     */
+    ClientChannel(InetAddress address, int port) throws IOException
+    {
+        socket = SocketChannel.open(new InetSocketAddress(address, port));
+        try
+        {
+            socket.configureBlocking(false);
+            socket.socket().setTcpNoDelay(true);
+        }
+        catch (final IOException exception)
+        {
+            UtilStream.safeClose(socket);
+            throw exception;
+        }
+        input = new FrameInputStream(socket);
+        output = new FrameOutputStream(socket);
+        in = new DataInputStream(input);
+        out = new DataOutputStream(output);
+    }
+
+    /**
+     * Receive available data from the server, without blocking.
+     * 
+     * @return <code>true</code> if still connected, <code>false</code> if connection has been closed.
+     * @throws IOException If error on reading.
+     */
+    boolean receive() throws IOException
+    {
+        return input.receive();
+    }
+
+    /**
+     * Select the next received message, which can then be read from {@link #getIn()}.
+     * 
+     * @return <code>true</code> if a message is available, <code>false</code> if no more message.
+     * @throws IOException If received an invalid message.
+     */
+    boolean nextMessage() throws IOException
+    {
+        return input.nextFrame();
+    }
+
+    /**
+     * Queue a user message frame.
+     * 
+     * @param frame The encoded frame.
+     * @see MessageEncoder
+     */
+    void queue(ByteBuffer frame)
+    {
+        output.queue(frame);
+    }
+
+    /**
+     * Send all pending messages with a single write.
+     * 
+     * @throws IOException If error on writing.
+     */
+    void send() throws IOException
+    {
+        if (output.hasPending())
+        {
+            output.send();
+        }
+    }
+
+    /**
+     * Close the channel.
+     * 
+     * @throws IOException If error on closing.
+     */
+    void close() throws IOException
+    {
+        socket.close();
+    }
+
+    /**
+     * Get the server address.
+     * 
+     * @return The server address.
+     */
+    SocketAddress getAddress()
+    {
+        return socket.socket().getRemoteSocketAddress();
+    }
+
+    /**
+     * Get the input stream, limited to the current message.
+     * 
+     * @return The input stream.
+     */
+    DataInputStream getIn()
+    {
+        return in;
+    }
+
+    /**
+     * Get the output stream. Written messages are terminated by {@link DataOutputStream#flush()}, and sent with
+     * {@link #send()}.
+     * 
+     * @return The output stream.
+     */
+    DataOutputStream getOut()
+    {
+        return out;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Client datagram channel with the server, carrying the unreliable messages once the link is opened.
+ * 
+ * @see DatagramLink
+ */
+final class ClientDatagram
+{
+    /** Datagram channel. */
+    private final DatagramChannel channel;
+    /** Received datagram. */
+    private final DatagramInputStream input;
+    /** Received datagram messages. */
+    private final DataInputStream in;
+    /** Traffic sent over the datagram link. */
+    private final ClientStats stats;
+    /** Datagram link (<code>null</code> until opened). */
+    private DatagramLink link;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param server The server address.
+     * @throws IOException If unable to open channel.
+     */
+    ClientDatagram(SocketAddress server) throws IOException
+    {
+        input = new DatagramInputStream(DatagramLink.MAX_SIZE + 1);
+        in = new DataInputStream(input);
+        stats = new ClientStats();
+        channel = DatagramChannel.open();
+        try
+        {
+            channel.configureBlocking(false);
+            channel.connect(server);
+        }
+        catch (final IOException exception)
+        {
+            UtilStream.safeClose(channel);
+            throw exception;
+        }
+    }
+
+    /**
+     * Open the datagram link, once connected on the reliable channel.
+     * 
+     * @param id The client id.
+     * @param token The link token, received on the reliable channel.
+     */
+    void open(byte id, int token)
+    {
+        link = new DatagramLink(channel, id, token, channel.socket().getRemoteSocketAddress(), stats);
+    }
+
+    /**
+     * Check if link is opened.
+     * 
+     * @return <code>true</code> if opened, <code>false</code> else.
+     */
+    boolean isOpened()
+    {
+        return link != null;
+    }
+
+    /**
+     * Queue a user message frame, if link is opened and established.
+     * 
+     * @param frame The encoded frame, not consumed.
+     * @return <code>true</code> if queued, <code>false</code> if must be sent on the reliable channel.
+     * @throws IOException If error on sending.
+     */
+    boolean queue(ByteBuffer frame) throws IOException
+    {
+        return link != null && link.queue(frame);
+    }
+
+    /**
+     * Send the pending datagram, if link is opened.
+     * 
+     * @throws IOException If error on sending.
+     */
+    void send() throws IOException
+    {
+        if (link != null)
+        {
+            link.send();
+        }
+    }
+
+    /**
+     * Receive the next available datagram, which messages can then be selected with {@link #nextMessage()}. Link
+     * must be opened, stale and invalid datagrams are skipped.
+     * 
+     * @return <code>true</code> if a datagram has been received, <code>false</code> if none available.
+     * @throws IOException If error on receiving.
+     */
+    boolean receive() throws IOException
+    {
+        final ByteBuffer buffer = input.getBuffer();
+        boolean received = false;
+        buffer.clear();
+        while (!received && channel.receive(buffer) != null)
+        {
+            buffer.flip();
+            received = accept(buffer);
+            buffer.clear();
+        }
+        return received;
+    }
+
+    /**
+     * Select the next message of the received datagram, which can then be read from {@link #getIn()}.
+     * 
+     * @return <code>true</code> if a message is available, <code>false</code> if no more message.
+     */
+    boolean nextMessage()
+    {
+        return input.nextFrame();
+    }
+
+    /**
+     * Close the channel.
+     */
+    void close()
+    {
+        UtilStream.safeClose(channel);
+        link = null;
+    }
+
+    /**
+     * Get the input stream, limited to the current message.
+     * 
+     * @return The input stream.
+     */
+    DataInputStream getIn()
+    {
+        return in;
+    }
+
+    /**
+     * Accept a received datagram, selecting its messages.
+     * 
+     * @param buffer The datagram content.
+     * @return <code>true</code> if accepted, <code>false</code> if stale or invalid.
+     */
+    private boolean accept(ByteBuffer buffer)
+    {
+        final boolean accepted = buffer.hasRemaining()
+                                 && buffer.limit() <= DatagramLink.MAX_SIZE
+                                 && buffer.get() == -1
+                                 && link.receive(buffer);
+        if (accepted)
+        {
+            input.select();
+        }
+        return accepted;
+    }
+}
@@ -17,15 +17,12 @@
  */
 package com.b3dgs.lionengine.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.InetAddress;
-import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
@@ -36,22 +33,33 @@ import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
 
 /**
- * Client implementation.
+ * Client implementation, over a non blocking channel exchanging length prefixed frames. If a message type is
+ * unreliable, a datagram link with the server is also opened once connected.
+ * 
+ * @see ClientChannel
+ * @see ClientDatagram
  */
 final class ClientImpl extends NetworkModel<ConnectionListener> implements Client
 {
+    /** Send messages error. */
+    private static final String ERROR_SEND = "Unable to send the messages for client: ";
+
     /** Ping timer. */
     private final Timing pingTimer;
     /** Ping request timer. */
     private final Timing pingRequestTimer;
     /** Average bandwidth. */
     private final Timing bandwidthTimer;
-    /** Socket. */
-    private Socket socket;
+    /** Messages encoder. */
+    private final MessageEncoder encoder;
+    /** Reliable channel. */
+    private ClientChannel channel;
     /** Output stream. */
-    private ObjectOutputStream out;
-    /** Input stream. */
-    private ObjectInputStream in;
+    private DataOutputStream out;
+    /** Input stream, limited to the current message. */
+    private DataInputStream in;
+    /** Datagram channel (<code>null</code> if all messages are reliable). */
+    private ClientDatagram datagram;
     /** Client id. */
     private byte clientId;
     /** Client name. */
@@ -76,6 +84,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         pingTimer = new Timing();
         pingRequestTimer = new Timing();
         bandwidthTimer = new Timing();
+        encoder = new MessageEncoder();
         connected = false;
         clientId = -1;
         clientName = null;
@@ -95,35 +104,68 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         messagesOut.clear();
         try
         {
-            out.close();
+            channel.close();
         }
         catch (final IOException exception)
         {
-            Verbose.exception(exception, "Error on closing output");
+            Verbose.exception(exception, "Error on closing socket");
         }
-        try
+        closeDatagram();
+        for (final ConnectionListener listener : listeners)
         {
-            in.close();
+            listener.notifyConnectionTerminated(Byte.valueOf(getId()));
         }
-        catch (final IOException exception)
+        listeners.clear();
+        connected = false;
+        Verbose.info("Disconnected from the server !");
+    }
+
+    /**
+     * Close the datagram link, all messages are then sent over the reliable channel.
+     */
+    private void closeDatagram()
+    {
+        if (datagram != null)
         {
-            Verbose.exception(exception, "Error on closing input");
+            datagram.close();
+            datagram = null;
         }
+    }
+
+    /**
+     * Receive all available datagrams. Link is closed if the server does not have a datagram channel.
+     */
+    private void receiveDatagrams()
+    {
         try
         {
-            socket.close();
+            while (datagram.receive())
+            {
+                receiveDatagram();
+            }
         }
         catch (final IOException exception)
         {
-            Verbose.exception(exception, "Error on closing socket");
+            Verbose.info("Client: Datagram link unavailable, using reliable channel only: ", exception.getMessage());
+            closeDatagram();
         }
-        for (final ConnectionListener listener : listeners)
+    }
+
+    /**
+     * Receive the messages of the received datagram.
+     * 
+     * @throws IOException If error on reading.
+     */
+    private void receiveDatagram() throws IOException
+    {
+        final DataInputStream datagramIn = datagram.getIn();
+        while (datagram.nextMessage())
         {
-            listener.notifyConnectionTerminated(Byte.valueOf(getId()));
+            if (datagramIn.readByte() == NetworkMessageSystemId.USER_MESSAGE)
+            {
+                updateUserMessage(datagramIn);
+            }
         }
-        listeners.clear();
-        connected = false;
-        Verbose.info("Disconnected from the server !");
     }
 
     /**
@@ -178,7 +220,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
                 updateOtherClientRenamed();
                 break;
             case NetworkMessageSystemId.USER_MESSAGE:
-                updateUserMessage();
+                updateUserMessage(in);
                 break;
             default:
                 break;
@@ -220,6 +262,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         {
             return;
         }
+        final int token = in.readInt();
         for (final ConnectionListener listener : listeners)
         {
             listener.notifyConnectionEstablished(Byte.valueOf(clientId), clientName);
@@ -248,6 +291,10 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         out.write(NetworkMessageSystemId.CONNECTED);
         out.write(clientId);
         out.flush();
+        if (datagram != null)
+        {
+            datagram.open(clientId, token);
+        }
         Verbose.info("Client: Connected to the server !");
     }
 
@@ -297,86 +344,65 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
     }
 
     /**
-     * Update the other client renamed case.
+     * Update the user message case.
      * 
-     * @throws IOException If error when writing data.
+     * @param input The message input.
+     * @throws IOException If error when reading data.
      */
-    private void updateUserMessage() throws IOException
+    private void updateUserMessage(DataInputStream input) throws IOException
     {
-        final byte from = in.readByte();
-        final byte dest = in.readByte();
-        final byte type = in.readByte();
-        final int size = in.readInt();
+        final byte from = input.readByte();
+        final byte dest = input.readByte();
+        final byte type = input.readByte();
+        final int size = input.readInt();
         if (size > 0)
         {
-            final byte[] data = new byte[size];
-            if (in.read(data) != -1)
-            {
-                final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
-                try
-                {
-                    decodeMessage(type, from, dest, buffer);
-                }
-                finally
-                {
-                    try
-                    {
-                        buffer.close();
-                    }
-                    catch (final IOException exception)
-                    {
-                        Verbose.exception(exception);
-                    }
-                }
-            }
+            decodeMessage(type, from, dest, input);
         }
         final int headerSize = 4;
         bandwidth += headerSize + size;
     }
 
     /**
-     * Send message over the network.
+     * Queue message, sent with the next write.
      * 
      * @param message The message to send.
      */
     private void sendMessage(NetworkMessage message)
     {
-        ByteArrayOutputStream encode = null;
         try
         {
-            encode = message.encode();
-            final byte[] encoded = encode.toByteArray();
-            // Message header
-            out.writeByte(NetworkMessageSystemId.USER_MESSAGE);
-            out.writeByte(message.getClientId());
-            out.writeByte(message.getClientDestId());
-            out.writeByte(message.getType());
-            // Message content
-            out.writeInt(encoded.length);
-            out.write(encoded);
-            out.flush();
-
-            final int headerSize = 8;
-            bandwidth += headerSize + encoded.length;
+            final ByteBuffer frame = encoder.encode(message);
+            if (isReliable(message.getType()) || datagram == null || !datagram.queue(frame))
+            {
+                channel.queue(frame);
+            }
+            bandwidth += frame.remaining();
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception, "Unable to send the message for client: ", String.valueOf(clientId));
         }
-        finally
+    }
+
+    /**
+     * Send all pending messages with a single write, and the pending datagram if any.
+     */
+    private void send()
+    {
+        try
         {
-            try
-            {
-                if (encode != null)
-                {
-                    encode.close();
-                }
-            }
-            catch (final IOException exception)
+            channel.send();
+            if (datagram != null)
             {
-                Verbose.exception(exception);
+                datagram.send();
             }
         }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
+            kick();
+        }
     }
 
     /*
@@ -392,9 +418,13 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
 
         try
         {
-            socket = new Socket(InetAddress.getByName(ip), port);
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in = new ObjectInputStream(socket.getInputStream());
+            channel = new ClientChannel(InetAddress.getByName(ip), port);
+            in = channel.getIn();
+            out = channel.getOut();
+            if (hasUnreliable())
+            {
+                datagram = new ClientDatagram(channel.getAddress());
+            }
             connected = true;
             clientId = -1;
             pingRequestTimer.start();
@@ -402,6 +432,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         }
         catch (final IOException exception)
         {
+            closeDatagram();
             throw new LionEngineException(exception, "Cannot connect to the server !");
         }
     }
@@ -471,6 +502,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
             out.write(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
             out.write(clientId);
             out.flush();
+            channel.send();
             kick();
         }
         catch (final SocketException exception)
@@ -507,14 +539,16 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
             }
             catch (final IOException exception)
             {
-                Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+                Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
             }
         }
         // Send messages
+        encoder.clear();
         for (final NetworkMessage message : messagesOut)
         {
             sendMessage(message);
         }
+        send();
         final long bandwidthMilli = 1000L;
         if (bandwidthTimer.elapsed(bandwidthMilli))
         {
@@ -536,16 +570,25 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         messagesIn.clear();
         try
         {
-            if (in.available() == 0)
+            final boolean open = channel.receive();
+            while (connected && channel.nextMessage())
+            {
+                final byte messageSystemId = in.readByte();
+                updateMessage(messageSystemId);
+            }
+            if (datagram != null && datagram.isOpened())
             {
-                return;
+                receiveDatagrams();
+            }
+            if (!open)
+            {
+                kick();
             }
-            final byte messageSystemId = in.readByte();
-            updateMessage(messageSystemId);
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception, "Unable to receive the messages for client: ", String.valueOf(clientId));
+            kick();
         }
     }
 }
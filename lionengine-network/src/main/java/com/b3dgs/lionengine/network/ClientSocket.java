@@ -17,48 +17,67 @@
  */
 package com.b3dgs.lionengine.network;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Verbose;
 
 /**
- * Client socket (bridge between server and client).
+ * Client socket (bridge between server and client), over a non blocking channel exchanging length prefixed frames.
+ * 
+ * @see FrameInputStream
+ * @see FrameOutputStream
  */
 final class ClientSocket
 {
-    /** Client socket. */
-    private final Socket socket;
+    /** Client channel. */
+    private final SocketChannel channel;
+    /** Frame input. */
+    private final FrameInputStream input;
+    /** Frame output. */
+    private final FrameOutputStream output;
+    /** Sent traffic. */
+    private final ClientStats stats;
     /** Output stream. */
-    private final ObjectOutputStream out;
+    private final DataOutputStream out;
     /** Input stream. */
-    private final ObjectInputStream in;
+    private final DataInputStream in;
     /** Client id. */
     private final byte clientId;
     /** State. */
     private StateConnection state;
     /** Name. */
     private String name;
+    /** Datagram link (<code>null</code> if none). */
+    private DatagramLink datagram;
 
     /**
      * Internal constructor.
      * 
      * @param id The client id.
-     * @param socket The socket reference.
-     * @throws LionEngineException If error on client socket.
+     * @param channel The channel reference.
+     * @throws LionEngineException If error on client channel.
      */
-    ClientSocket(final byte id, final Socket socket)
+    ClientSocket(final byte id, final SocketChannel channel)
     {
         clientId = id;
-        this.socket = socket;
+        this.channel = channel;
         name = null;
+        input = new FrameInputStream(channel);
+        output = new FrameOutputStream(channel);
+        in = new DataInputStream(input);
+        out = new DataOutputStream(output);
+        stats = new ClientStats();
         try
         {
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in = new ObjectInputStream(socket.getInputStream());
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
         }
         catch (final IOException exception)
         {
@@ -113,23 +132,7 @@ final class ClientSocket
     {
         try
         {
-            in.close();
-        }
-        catch (final IOException exception)
-        {
-            Verbose.exception(exception);
-        }
-        try
-        {
-            out.close();
-        }
-        catch (final IOException exception)
-        {
-            Verbose.exception(exception);
-        }
-        try
-        {
-            socket.close();
+            channel.close();
         }
         catch (final IOException exception)
         {
@@ -139,34 +142,34 @@ final class ClientSocket
     }
 
     /**
-     * Receive messages data from the client.
+     * Receive available data from the client, without blocking.
      * 
-     * @return The messages data.
+     * @return <code>true</code> if client is still connected, <code>false</code> if connection has been closed.
      */
-    public byte[] receiveMessages()
+    public boolean receive()
     {
         try
         {
-            final byte[] data;
-            final int size = in.available();
-            if (size <= 0)
-            {
-                data = null;
-            }
-            else
-            {
-                data = new byte[size];
-                in.readFully(data);
-            }
-            return data;
+            return input.receive();
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception);
-            return new byte[0];
+            return false;
         }
     }
 
+    /**
+     * Select the next received message, which can then be read from {@link #getIn()}.
+     * 
+     * @return <code>true</code> if a message is available, <code>false</code> if no more message.
+     * @throws IOException If received an invalid message.
+     */
+    public boolean nextMessage() throws IOException
+    {
+        return input.nextFrame();
+    }
+
     /**
      * Send message to the client.
      * 
@@ -178,6 +181,7 @@ final class ClientSocket
         {
             out.write(data);
             out.flush();
+            send();
         }
         catch (final IOException exception)
         {
@@ -196,29 +200,136 @@ final class ClientSocket
         {
             out.write(data);
             out.flush();
+            send();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+    }
+
+    /**
+     * Open the datagram link with the client, established on its first datagram with the link token.
+     * 
+     * @param channel The server datagram channel.
+     * @param token The link token, sent to the client on the reliable channel.
+     */
+    public void openDatagram(DatagramChannel channel, int token)
+    {
+        datagram = new DatagramLink(channel, (byte) -1, token, null, stats);
+    }
+
+    /**
+     * Get the datagram link.
+     * 
+     * @return The datagram link, <code>null</code> if not opened.
+     */
+    public DatagramLink getDatagram()
+    {
+        return datagram;
+    }
+
+    /**
+     * Get the datagram link token.
+     * 
+     * @return The link token, <code>0</code> if no datagram link.
+     */
+    public int getToken()
+    {
+        int token = 0;
+        if (datagram != null)
+        {
+            token = datagram.getToken();
+        }
+        return token;
+    }
+
+    /**
+     * Get the client address.
+     * 
+     * @return The client address.
+     */
+    public InetAddress getAddress()
+    {
+        return channel.socket().getInetAddress();
+    }
+
+    /**
+     * Queue an unreliable user message frame on the datagram link, if established.
+     * 
+     * @param frame The encoded frame.
+     * @return <code>true</code> if queued, <code>false</code> if must be sent with {@link #queueMessage(ByteBuffer)}.
+     */
+    public boolean queueDatagram(ByteBuffer frame)
+    {
+        boolean queued = false;
+        try
+        {
+            queued = datagram != null && datagram.queue(frame);
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception);
         }
+        return queued;
+    }
+
+    /**
+     * Queue a user message frame, encoded once for all its destinations.
+     * 
+     * @param frame The encoded frame.
+     * @see MessageEncoder
+     */
+    public void queueMessage(ByteBuffer frame)
+    {
+        output.queue(frame);
+        stats.addMessage();
+    }
+
+    /**
+     * Send all pending messages to the client, with a single write, and the pending datagram if any.
+     * 
+     * @throws IOException If error on writing.
+     */
+    public void send() throws IOException
+    {
+        if (output.hasPending())
+        {
+            stats.addFlush(output.send());
+        }
+        if (datagram != null)
+        {
+            datagram.send();
+        }
+    }
+
+    /**
+     * Get the sent traffic.
+     * 
+     * @return The sent traffic.
+     */
+    public ClientStats getStats()
+    {
+        return stats;
     }
 
     /**
-     * Get the output stream.
+     * Get the output stream. Written messages are terminated by {@link DataOutputStream#flush()}, and sent with
+     * {@link #send()}.
      * 
      * @return The output stream.
      */
-    public ObjectOutputStream getOut()
+    public DataOutputStream getOut()
     {
         return out;
     }
 
     /**
-     * Get the input stream.
+     * Get the input stream, limited to the current message.
      * 
      * @return The input stream.
      */
-    public ObjectInputStream getIn()
+    public DataInputStream getIn()
     {
         return in;
     }
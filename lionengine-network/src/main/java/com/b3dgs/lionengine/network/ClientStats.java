@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+/**
+ * Cumulated traffic sent to a client since its connection, over its reliable channel and its datagram link.
+ */
+public final class ClientStats
+{
+    /** Sent bytes. */
+    private long bytes;
+    /** Sent user messages. */
+    private long messages;
+    /** Writes to the client channel. */
+    private long flushes;
+    /** Sent datagrams. */
+    private long datagrams;
+    /** Sent datagrams acknowledged. */
+    private long acknowledged;
+    /** Sent datagrams lost. */
+    private long lost;
+
+    /**
+     * Internal constructor.
+     */
+    ClientStats()
+    {
+        super();
+    }
+
+    /**
+     * Count a sent user message.
+     */
+    void addMessage()
+    {
+        messages++;
+    }
+
+    /**
+     * Count a write to the client channel.
+     * 
+     * @param sent The bytes sent by this write.
+     */
+    void addFlush(long sent)
+    {
+        flushes++;
+        bytes += sent;
+    }
+
+    /**
+     * Count a datagram sent to the client.
+     * 
+     * @param sent The datagram size.
+     */
+    void addDatagram(long sent)
+    {
+        datagrams++;
+        bytes += sent;
+    }
+
+    /**
+     * Count a datagram acknowledged by the client.
+     */
+    void addDatagramAcknowledged()
+    {
+        acknowledged++;
+    }
+
+    /**
+     * Count a datagram not acknowledged by the client.
+     */
+    void addDatagramLost()
+    {
+        lost++;
+    }
+
+    /**
+     * Get the bytes sent to the client.
+     * 
+     * @return The sent bytes.
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Get the user messages sent to the client.
+     * 
+     * @return The sent messages.
+     */
+    public long getMessages()
+    {
+        return messages;
+    }
+
+    /**
+     * Get the number of writes to the client channel, at most one per {@link NetworkedWorld#sendMessages()}.
+     * 
+     * @return The writes number.
+     */
+    public long getFlushes()
+    {
+        return flushes;
+    }
+
+    /**
+     * Get the datagrams sent to the client, carrying its unreliable messages.
+     * 
+     * @return The sent datagrams.
+     */
+    public long getDatagrams()
+    {
+        return datagrams;
+    }
+
+    /**
+     * Get the datagrams acknowledged by the client.
+     * 
+     * @return The acknowledged datagrams.
+     */
+    public long getDatagramsAcknowledged()
+    {
+        return acknowledged;
+    }
+
+    /**
+     * Get the datagrams lost, not acknowledged by the client once out of the acknowledge window.
+     * 
+     * @return The lost datagrams.
+     */
+    public long getDatagramsLost()
+    {
+        return lost;
+    }
+}
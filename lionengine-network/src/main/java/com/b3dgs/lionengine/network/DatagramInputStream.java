@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Datagram input, reading the length prefixed frames of the received datagram. Reads are limited to the current
+ * frame.
+ * 
+ * @see DatagramLink
+ */
+final class DatagramInputStream extends ByteArrayInputStream
+{
+    /** Received datagram buffer, sharing the stream data. */
+    private final ByteBuffer buffer;
+    /** End of frames. */
+    private int end;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param capacity The maximum datagram size.
+     */
+    DatagramInputStream(int capacity)
+    {
+        super(new byte[capacity], 0, 0);
+
+        buffer = ByteBuffer.wrap(buf);
+    }
+
+    /**
+     * Get the buffer where to receive the datagram.
+     * 
+     * @return The datagram buffer.
+     */
+    ByteBuffer getBuffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Select the frames of the received datagram, from the buffer position to its limit.
+     */
+    void select()
+    {
+        pos = buffer.position();
+        count = pos;
+        end = buffer.limit();
+    }
+
+    /**
+     * Select the next frame. Remaining data of the current frame are skipped, and an invalid frame ends the datagram.
+     * 
+     * @return <code>true</code> if a frame is available, <code>false</code> if no more frame.
+     */
+    boolean nextFrame()
+    {
+        pos = count;
+        int size = -1;
+        if (end - pos >= FrameOutputStream.HEADER)
+        {
+            size = buffer.getInt(pos);
+        }
+        final boolean available = size > -1 && size <= end - pos - FrameOutputStream.HEADER;
+        if (available)
+        {
+            pos += FrameOutputStream.HEADER;
+            count = pos + size;
+        }
+        else
+        {
+            pos = end;
+            count = end;
+        }
+        return available;
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Unreliable datagram link with a peer, next to its reliable channel.
+ * <p>
+ * Each datagram starts with the sender id, the link token, its sequence, the last received remote sequence and the bit
+ * field of the {@link #ACK_BITS} previous received remote sequences, followed by user message frames (see
+ * {@link MessageEncoder}). Datagrams with another token are ignored. Received datagrams older than the last one are
+ * stale and dropped, but still acknowledged. Sent datagrams which were not acknowledged once out of the acknowledge
+ * window are counted as lost.
+ * </p>
+ * <p>
+ * Received datagrams with messages are acknowledged by the next sent datagram, even without messages. A datagram
+ * without messages is only answered if it does not acknowledge the last sent one, so idle peers stop sending.
+ * </p>
+ * <p>
+ * The link is established once a datagram has been received from the peer: until then, the peer address may be
+ * unknown or unreachable, and unreliable messages must be sent on the reliable channel. The token is exchanged on the
+ * reliable channel, so the peer address can be bound from the first datagram with a valid token.
+ * </p>
+ * <p>
+ * Delivery is only tracked for the traffic statistics: lost messages are not sent again, and callers needing delivery
+ * must use the reliable channel.
+ * </p>
+ */
+final class DatagramLink
+{
+    /** Datagram header size (sender id, token, sequence, acknowledged sequence, acknowledged bits). */
+    static final int HEADER = 13;
+    /** Maximum datagram size, below usual network MTU. */
+    static final int MAX_SIZE = 1200;
+    /** Acknowledged bits. */
+    static final int ACK_BITS = Integer.SIZE;
+    /** Sequence mask (unsigned short). */
+    private static final int SEQUENCE_MASK = 0xFFFF;
+    /** Half of sequence range. */
+    private static final int SEQUENCE_HALF = 0x8000;
+    /** Tracked sent sequences, covering acknowledges received late. */
+    private static final int SENT = ACK_BITS * 2;
+    /** Token offset in header. */
+    private static final int OFFSET_TOKEN = 1;
+    /** Sequence offset in header. */
+    private static final int OFFSET_SEQUENCE = 5;
+    /** Acknowledged sequence offset in header. */
+    private static final int OFFSET_ACK = 7;
+    /** Acknowledged bits offset in header. */
+    private static final int OFFSET_ACK_BITS = 9;
+
+    /**
+     * Check if sequence is more recent than the other, supporting sequence wrap around.
+     * 
+     * @param sequence The sequence to check.
+     * @param other The other sequence.
+     * @return <code>true</code> if more recent, <code>false</code> if older or equal.
+     */
+    static boolean isNewer(int sequence, int other)
+    {
+        final int delta = sequence - other & SEQUENCE_MASK;
+        return delta != 0 && delta < SEQUENCE_HALF;
+    }
+
+    /**
+     * Get the distance from an older sequence, supporting sequence wrap around.
+     * 
+     * @param sequence The newer sequence.
+     * @param older The older sequence.
+     * @return The sequences distance.
+     */
+    private static int getDistance(int sequence, int older)
+    {
+        return sequence - older & SEQUENCE_MASK;
+    }
+
+    /** Datagram channel. */
+    private final DatagramChannel channel;
+    /** Sent traffic. */
+    private final ClientStats stats;
+    /** Datagram being filled. */
+    private final ByteBuffer output;
+    /** Sent sequences by slot. */
+    private final int[] sent;
+    /** Sent sequences acknowledged by slot. */
+    private final boolean[] acknowledged;
+    /** Sender id. */
+    private final byte id;
+    /** Link token. */
+    private final int token;
+    /** Peer address (<code>null</code> if unknown). */
+    private SocketAddress address;
+    /** Next local sequence. */
+    private int sequence;
+    /** Last received remote sequence. */
+    private int remote;
+    /** Received remote sequences before the last one. */
+    private int remoteBits;
+    /** Received from peer flag. */
+    private boolean received;
+    /** Acknowledge to send flag. */
+    private boolean pending;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The datagram channel.
+     * @param id The sender id written in each datagram.
+     * @param token The link token, shared by both peers.
+     * @param address The peer address (<code>null</code> if unknown until first received datagram).
+     * @param stats The sent traffic.
+     */
+    DatagramLink(DatagramChannel channel, byte id, int token, SocketAddress address, ClientStats stats)
+    {
+        this.channel = channel;
+        this.id = id;
+        this.token = token;
+        this.address = address;
+        this.stats = stats;
+        output = ByteBuffer.allocateDirect(MAX_SIZE);
+        output.position(HEADER);
+        sent = new int[SENT];
+        acknowledged = new boolean[SENT];
+        Arrays.fill(sent, -1);
+    }
+
+    /**
+     * Check if link is established, when a datagram has been received from peer.
+     * 
+     * @return <code>true</code> if established, <code>false</code> else.
+     */
+    boolean isEstablished()
+    {
+        return received;
+    }
+
+    /**
+     * Set the peer address, learned from its datagrams.
+     * 
+     * @param address The peer address.
+     */
+    void setAddress(SocketAddress address)
+    {
+        this.address = address;
+    }
+
+    /**
+     * Get the peer address.
+     * 
+     * @return The peer address, <code>null</code> if unknown.
+     */
+    SocketAddress getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * Get the link token.
+     * 
+     * @return The link token.
+     */
+    int getToken()
+    {
+        return token;
+    }
+
+    /**
+     * Queue a user message frame. Current datagram is sent first if frame does not fit.
+     * 
+     * @param frame The encoded frame, not consumed.
+     * @return <code>true</code> if queued, <code>false</code> if link not established or frame too large.
+     * @throws IOException If error on sending.
+     */
+    boolean queue(ByteBuffer frame) throws IOException
+    {
+        final boolean queued = received && frame.remaining() <= MAX_SIZE - HEADER;
+        if (queued)
+        {
+            if (frame.remaining() > output.remaining())
+            {
+                send();
+            }
+            output.put(frame.duplicate());
+            stats.addMessage();
+        }
+        return queued;
+    }
+
+    /**
+     * Send the current datagram if it has messages or acknowledges to send, or to establish the link.
+     * 
+     * @throws IOException If error on sending.
+     */
+    void send() throws IOException
+    {
+        if (address != null && (output.position() > HEADER || pending || !received))
+        {
+            output.put(0, id);
+            output.putInt(OFFSET_TOKEN, token);
+            output.putShort(OFFSET_SEQUENCE, (short) sequence);
+            output.putShort(OFFSET_ACK, (short) remote);
+            output.putInt(OFFSET_ACK_BITS, remoteBits);
+            output.flip();
+
+            final int size = output.remaining();
+            channel.send(output, address);
+            track(sequence);
+            stats.addDatagram(size);
+            sequence = sequence + 1 & SEQUENCE_MASK;
+            pending = false;
+
+            output.clear();
+            output.position(HEADER);
+        }
+    }
+
+    /**
+     * Receive a datagram header, after its sender id.
+     * 
+     * @param datagram The received datagram.
+     * @return <code>true</code> if its messages can be read, <code>false</code> if stale or invalid.
+     */
+    boolean receive(ByteBuffer datagram)
+    {
+        boolean newer = false;
+        if (datagram.remaining() >= HEADER - 1 && datagram.getInt() == token)
+        {
+            final int value = datagram.getShort() & SEQUENCE_MASK;
+            final int ack = datagram.getShort() & SEQUENCE_MASK;
+            final int ackBits = datagram.getInt();
+            acknowledgeAll(ack, ackBits);
+
+            newer = !received || isNewer(value, remote);
+            if (newer)
+            {
+                updateRemote(value);
+            }
+            else
+            {
+                updateRemoteOld(value);
+            }
+            received = true;
+            pending = pending || datagram.hasRemaining() || !isAcknowledged(sequence - 1 & SEQUENCE_MASK);
+        }
+        return newer;
+    }
+
+    /**
+     * Check if a sent sequence has been acknowledged.
+     * 
+     * @param value The sent sequence.
+     * @return <code>true</code> if sent and acknowledged, <code>false</code> else.
+     */
+    private boolean isAcknowledged(int value)
+    {
+        final int slot = value % SENT;
+        return sent[slot] == value && acknowledged[slot];
+    }
+
+    /**
+     * Track a sent sequence, counting the lost one replaced if not acknowledged.
+     * 
+     * @param value The sent sequence.
+     */
+    private void track(int value)
+    {
+        final int slot = value % SENT;
+        if (sent[slot] > -1 && !acknowledged[slot])
+        {
+            stats.addDatagramLost();
+        }
+        sent[slot] = value;
+        acknowledged[slot] = false;
+    }
+
+    /**
+     * Acknowledge sent sequences.
+     * 
+     * @param ack The last sequence received by peer.
+     * @param ackBits The previous sequences received by peer.
+     */
+    private void acknowledgeAll(int ack, int ackBits)
+    {
+        acknowledge(ack);
+        for (int i = 0; i < ACK_BITS; i++)
+        {
+            if ((ackBits >>> i & 1) != 0)
+            {
+                acknowledge(ack - 1 - i & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Acknowledge a sent sequence.
+     * 
+     * @param ack The sequence received by peer.
+     */
+    private void acknowledge(int ack)
+    {
+        final int slot = ack % SENT;
+        if (sent[slot] == ack && !acknowledged[slot])
+        {
+            acknowledged[slot] = true;
+            stats.addDatagramAcknowledged();
+        }
+    }
+
+    /**
+     * Update last remote sequence with a newer one.
+     * 
+     * @param value The received sequence.
+     */
+    private void updateRemote(int value)
+    {
+        final int shift = getDistance(value, remote);
+        if (!received || shift > ACK_BITS)
+        {
+            remoteBits = 0;
+        }
+        else if (shift == ACK_BITS)
+        {
+            remoteBits = 1 << ACK_BITS - 1;
+        }
+        else
+        {
+            remoteBits = remoteBits << shift | 1 << shift - 1;
+        }
+        remote = value;
+    }
+
+    /**
+     * Update received remote sequences with an older one.
+     * 
+     * @param value The received sequence.
+     */
+    private void updateRemoteOld(int value)
+    {
+        final int distance = getDistance(remote, value);
+        if (distance > 0 && distance <= ACK_BITS)
+        {
+            remoteBits |= 1 << distance - 1;
+        }
+    }
+}
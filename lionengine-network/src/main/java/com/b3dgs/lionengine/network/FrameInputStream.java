@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Input stream reading length prefixed frames from a non blocking channel, received in a direct buffer.
+ * <p>
+ * {@link #receive()} reads data available from the channel, then each {@link #nextFrame()} selects the next complete
+ * frame, which can be read until its end. Incomplete frames are kept until their remaining data are received. Unread
+ * data of a frame are skipped when selecting the next one. Buffered data are limited to the maximum frame size with its
+ * header: once reached, remaining channel data are read on next {@link #receive()}.
+ * </p>
+ * 
+ * @see FrameOutputStream
+ */
+final class FrameInputStream extends InputStream
+{
+    /** Initial buffer capacity. */
+    private static final int CAPACITY = 8192;
+    /** Maximum frame size. */
+    private static final int MAX_SIZE = 16777216;
+    /** No frame value. */
+    private static final int NONE = -1;
+    /** Invalid frame size error. */
+    private static final String ERROR_SIZE = "Invalid frame size: ";
+
+    /** Channel to read from. */
+    private final ReadableByteChannel channel;
+    /** Maximum frame size. */
+    private final int maxSize;
+    /** Maximum buffer capacity. */
+    private final int maxCapacity;
+    /** Received data buffer, limited to the current frame. */
+    private ByteBuffer buffer;
+    /** Received data end. */
+    private int end;
+    /** Next frame start. */
+    private int next;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The channel to read from.
+     */
+    FrameInputStream(ReadableByteChannel channel)
+    {
+        this(channel, MAX_SIZE);
+    }
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The channel to read from.
+     * @param maxSize The maximum frame size, which limits buffered data.
+     */
+    FrameInputStream(ReadableByteChannel channel, int maxSize)
+    {
+        super();
+
+        this.channel = channel;
+        this.maxSize = maxSize;
+        maxCapacity = maxSize + FrameOutputStream.HEADER;
+        buffer = ByteBuffer.allocateDirect(Math.min(CAPACITY, maxCapacity));
+        buffer.limit(0);
+        end = 0;
+        next = 0;
+    }
+
+    /**
+     * Receive data available from channel, without blocking, until buffer is full at its maximum capacity.
+     * 
+     * @return <code>true</code> if channel is still open, <code>false</code> if end of stream has been reached.
+     * @throws IOException If error on reading.
+     */
+    boolean receive() throws IOException
+    {
+        buffer.limit(end);
+        buffer.position(next);
+        buffer.compact();
+
+        int read;
+        do
+        {
+            if (!buffer.hasRemaining() && buffer.capacity() < maxCapacity)
+            {
+                grow();
+            }
+            // Nothing read once full at maximum capacity
+            read = channel.read(buffer);
+        }
+        while (read > 0);
+
+        buffer.flip();
+        end = buffer.limit();
+        next = 0;
+        buffer.limit(0);
+
+        return read != NONE;
+    }
+
+    /**
+     * Select the next complete frame, which can then be read until its end.
+     * 
+     * @return <code>true</code> if a frame is available, <code>false</code> if no more complete frame.
+     * @throws IOException If received an invalid frame.
+     */
+    boolean nextFrame() throws IOException
+    {
+        buffer.limit(end);
+        final int size = getFrameSize();
+        final boolean available = size > NONE && end - next - FrameOutputStream.HEADER >= size;
+        if (available)
+        {
+            buffer.position(next + FrameOutputStream.HEADER);
+            next += FrameOutputStream.HEADER + size;
+        }
+        else
+        {
+            buffer.position(next);
+        }
+        buffer.limit(next);
+
+        return available;
+    }
+
+    /**
+     * Get the next frame size.
+     * 
+     * @return The next frame size, {@link #NONE} if its header is not fully received.
+     * @throws IOException If invalid frame size.
+     */
+    private int getFrameSize() throws IOException
+    {
+        final int size;
+        if (end - next < FrameOutputStream.HEADER)
+        {
+            size = NONE;
+        }
+        else
+        {
+            size = buffer.getInt(next);
+            if (size < 0 || size > maxSize)
+            {
+                throw new IOException(ERROR_SIZE + size);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Grow the buffer up to its maximum capacity, keeping its content.
+     */
+    private void grow()
+    {
+        final ByteBuffer bigger = ByteBuffer.allocateDirect((int) Math.min(buffer.capacity() * 2L, maxCapacity));
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+
+    /*
+     * InputStream
+     */
+
+    @Override
+    public int read()
+    {
+        final int value;
+        if (buffer.hasRemaining())
+        {
+            value = buffer.get() & 0xFF;
+        }
+        else
+        {
+            value = NONE;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] data, int offset, int length)
+    {
+        final int read;
+        if (length > 0 && !buffer.hasRemaining())
+        {
+            read = NONE;
+        }
+        else
+        {
+            read = Math.min(length, buffer.remaining());
+            buffer.get(data, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count)
+    {
+        final int skipped = (int) Math.max(0L, Math.min(count, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+        return buffer.remaining();
+    }
+}
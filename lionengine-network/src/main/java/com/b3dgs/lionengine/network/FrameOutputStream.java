@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Output stream writing length prefixed frames in a direct buffer, sent to a non blocking channel.
+ * <p>
+ * Written data are part of the current frame until {@link #flush()}, which terminates the frame (prefixed by its size
+ * as an <code>int</code>). Frames encoded once for several streams can also be queued by reference with
+ * {@link #queue(ByteBuffer)}. Nothing is sent until {@link #send()}, which writes all pending frames with a single
+ * gathering write. Data not accepted by the channel are kept and sent on next send, the buffer grows if needed, up to
+ * a maximum pending size: a peer not reading its data fast enough is then considered as lost.
+ * </p>
+ * 
+ * @see MessageEncoder
+ */
+final class FrameOutputStream extends OutputStream
+{
+    /** Frame header size (frame size as <code>int</code>). */
+    static final int HEADER = 4;
+    /** Default maximum pending data size. */
+    static final int MAX_PENDING = 16777216;
+    /** Initial buffer capacity. */
+    private static final int CAPACITY = 8192;
+    /** No frame value. */
+    private static final int NONE = -1;
+    /** Pending data exceeded error. */
+    private static final String ERROR_PENDING = "Too many pending data: ";
+
+    /** Channel to write to. */
+    private final GatheringByteChannel channel;
+    /** Queued frames, sent after buffer. */
+    private final List<ByteBuffer> queued;
+    /** Maximum pending data size. */
+    private final int maxPending;
+    /** Pending data buffer. */
+    private ByteBuffer buffer;
+    /** Gathering write buffers. */
+    private ByteBuffer[] gather;
+    /** Current frame start ({@link #NONE} if no frame). */
+    private int frame;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The channel to write to.
+     */
+    FrameOutputStream(GatheringByteChannel channel)
+    {
+        this(channel, MAX_PENDING);
+    }
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The channel to write to.
+     * @param maxPending The maximum data size kept when not accepted by the channel.
+     */
+    FrameOutputStream(GatheringByteChannel channel, int maxPending)
+    {
+        super();
+
+        this.channel = channel;
+        this.maxPending = maxPending;
+        queued = new ArrayList<ByteBuffer>();
+        buffer = ByteBuffer.allocateDirect(CAPACITY);
+        gather = new ByteBuffer[1];
+        frame = NONE;
+    }
+
+    /**
+     * Queue a complete frame, sent after previous frames. Frame content must not change until next {@link #send()}.
+     * 
+     * @param data The frame data, from its position to its limit (not modified).
+     */
+    void queue(ByteBuffer data)
+    {
+        endFrame();
+        queued.add(data.duplicate());
+    }
+
+    /**
+     * Send all pending frames to the channel, with a single gathering write.
+     * 
+     * @return The number of bytes sent.
+     * @throws IOException If error on writing, or if remaining data exceed the maximum pending size.
+     */
+    long send() throws IOException
+    {
+        endFrame();
+        final int count = queued.size() + 1;
+        if (gather.length < count)
+        {
+            gather = new ByteBuffer[count * 2];
+        }
+        buffer.flip();
+        gather[0] = buffer;
+        for (int i = 1; i < count; i++)
+        {
+            gather[i] = queued.get(i - 1);
+        }
+
+        long sent = 0L;
+        try
+        {
+            long written;
+            do
+            {
+                written = channel.write(gather, 0, count);
+                sent += written;
+            }
+            while (written > 0 && gather[count - 1].hasRemaining());
+        }
+        finally
+        {
+            buffer.compact();
+            keepQueued();
+            Arrays.fill(gather, 0, count, null);
+        }
+        if (buffer.position() > maxPending)
+        {
+            throw new IOException(ERROR_PENDING + buffer.position());
+        }
+        return sent;
+    }
+
+    /**
+     * Check if there are data to send.
+     * 
+     * @return <code>true</code> if data are pending, <code>false</code> else.
+     */
+    boolean hasPending()
+    {
+        return buffer.position() > 0 || !queued.isEmpty();
+    }
+
+    /**
+     * Terminate the current frame if opened.
+     */
+    private void endFrame()
+    {
+        if (frame != NONE)
+        {
+            buffer.putInt(frame, buffer.position() - frame - HEADER);
+            frame = NONE;
+        }
+    }
+
+    /**
+     * Copy queued frames remaining data in buffer, keeping frames order.
+     */
+    private void keepQueued()
+    {
+        for (final ByteBuffer data : queued)
+        {
+            ensure(data.remaining());
+            buffer.put(data);
+        }
+        queued.clear();
+    }
+
+    /**
+     * Prepare the buffer to write data, opening a new frame if needed.
+     * 
+     * @param size The data size to write.
+     */
+    private void prepare(int size)
+    {
+        if (frame == NONE)
+        {
+            keepQueued();
+            frame = buffer.position();
+            ensure(HEADER + size);
+            buffer.position(frame + HEADER);
+        }
+        else
+        {
+            ensure(size);
+        }
+    }
+
+    /**
+     * Ensure buffer can store the data size, by growing it if needed.
+     * 
+     * @param size The data size to store.
+     */
+    private void ensure(int size)
+    {
+        if (buffer.remaining() < size)
+        {
+            final ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2,
+                                                                         buffer.position() + size));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    /*
+     * OutputStream
+     */
+
+    @Override
+    public void write(int value)
+    {
+        prepare(1);
+        buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length)
+    {
+        prepare(length);
+        buffer.put(data, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Terminate the current frame, sent on next {@link #send()}.
+     * </p>
+     */
+    @Override
+    public void flush()
+    {
+        endFrame();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import com.b3dgs.lionengine.network.purview.Networkable;
+
+/**
+ * Listen to networkables entering or leaving the area of interest of a client.
+ * 
+ * @see NetworkedWorldServer#setInterestRange(double, double)
+ */
+public interface InterestListener
+{
+    /**
+     * Notify when a networkable entered the client area of interest. Its broadcast messages are now sent to this
+     * client, which may need a message addressed to it to create the entity.
+     * 
+     * @param clientId The client id.
+     * @param networkable The entering networkable.
+     */
+    void notifyInterestEntered(Byte clientId, Networkable networkable);
+
+    /**
+     * Notify when a networkable left the client area of interest, or has been removed while inside. Its broadcast
+     * messages are not sent anymore to this client, which may need a message addressed to it to remove the entity.
+     * 
+     * @param clientId The client id.
+     * @param networkable The leaving networkable.
+     */
+    void notifyInterestLeft(Byte clientId, Networkable networkable);
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Encode user messages as ready to send frames, in a buffer reused from one send to another.
+ * <p>
+ * Each encoded frame is a view on the shared buffer, which can be queued to several {@link FrameOutputStream} without
+ * copy. Frames remain valid until {@link #clear()}.
+ * </p>
+ */
+final class MessageEncoder extends ByteArrayOutputStream
+{
+    /** User message header size (system id, source, destination, type, size). */
+    static final int HEADER = 8;
+    /** Initial buffer capacity. */
+    private static final int CAPACITY = 16384;
+
+    /** Encoded frames buffer. */
+    private ByteBuffer frames;
+
+    /**
+     * Internal constructor.
+     */
+    MessageEncoder()
+    {
+        super();
+
+        frames = ByteBuffer.allocateDirect(CAPACITY);
+    }
+
+    /**
+     * Encode a user message as a frame.
+     * 
+     * @param message The message to encode.
+     * @return The encoded frame, valid until next {@link #clear()}.
+     * @throws IOException If error on encoding.
+     */
+    ByteBuffer encode(NetworkMessage message) throws IOException
+    {
+        reset();
+        message.encodeTo(this);
+
+        final int frameSize = HEADER + count;
+        ensure(FrameOutputStream.HEADER + frameSize);
+
+        final int start = frames.position();
+        frames.putInt(frameSize);
+        frames.put(NetworkMessageSystemId.USER_MESSAGE);
+        frames.put(message.getClientId());
+        frames.put(message.getClientDestId());
+        frames.put(message.getType());
+        frames.putInt(count);
+        frames.put(buf, 0, count);
+
+        final ByteBuffer frame = frames.duplicate();
+        frame.limit(frames.position());
+        frame.position(start);
+        return frame;
+    }
+
+    /**
+     * Clear encoded frames, buffer will be reused.
+     */
+    void clear()
+    {
+        frames.clear();
+    }
+
+    /**
+     * Ensure buffer can store the frame size. A bigger buffer is allocated if needed, previous frames remain valid.
+     * 
+     * @param size The frame size.
+     */
+    private void ensure(int size)
+    {
+        if (frames.remaining() < size)
+        {
+            frames = ByteBuffer.allocateDirect(Math.max(frames.capacity() * 2, size));
+        }
+    }
+}
@@ -32,6 +32,11 @@ import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
  */
 abstract class NetworkModel<L extends ClientListener> implements Networker<L>
 {
+    /** Number of message types. */
+    private static final int TYPES = 256;
+    /** Unsigned byte mask. */
+    private static final int UNSIGNED_MASK = 255;
+
     /** Messages list. */
     protected final Collection<NetworkMessage> messagesOut;
     /** Messages list. */
@@ -40,6 +45,8 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
     protected final NetworkMessageDecoder decoder;
     /** The client connection listener. */
     protected final Collection<L> listeners;
+    /** Unreliable message types, indexed by unsigned type. */
+    private final boolean[] unreliable;
 
     /**
      * Internal constructor.
@@ -52,6 +59,35 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
         messagesOut = new ArrayList<NetworkMessage>();
         messagesIn = new ArrayList<NetworkMessage>();
         listeners = new ArrayList<L>(1);
+        unreliable = new boolean[TYPES];
+    }
+
+    /**
+     * Check if message type is reliable.
+     * 
+     * @param type The message type.
+     * @return <code>true</code> if reliable, <code>false</code> if can be sent on the datagram link.
+     */
+    protected boolean isReliable(byte type)
+    {
+        return !unreliable[type & UNSIGNED_MASK];
+    }
+
+    /**
+     * Check if at least one message type is unreliable, requiring a datagram link.
+     * 
+     * @return <code>true</code> if has unreliable type, <code>false</code> else.
+     */
+    protected boolean hasUnreliable()
+    {
+        for (final boolean value : unreliable)
+        {
+            if (value)
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -81,6 +117,12 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
      * Networker
      */
 
+    @Override
+    public void setReliable(byte type, boolean reliable)
+    {
+        unreliable[type & UNSIGNED_MASK] = !reliable;
+    }
+
     @Override
     public void addListener(L listener)
     {
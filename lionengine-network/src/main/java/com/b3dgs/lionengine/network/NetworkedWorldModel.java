@@ -92,6 +92,12 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         listeners.clear();
     }
 
+    @Override
+    public void setReliable(byte type, boolean reliable)
+    {
+        network.setReliable(type, reliable);
+    }
+
     @Override
     public void addNetworkable(Networkable networkable)
     {
@@ -17,14 +17,32 @@
  */
 package com.b3dgs.lionengine.network;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Shape;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.SnapshotServer;
 
 /**
  * Networkable world implementation server side.
+ * <p>
+ * Connected clients are registered to the added {@link SnapshotServer}, and unregistered on disconnection.
+ * </p>
  */
 public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListener, ServerImpl>
                                        implements NetworkedWorldServer
 {
+    /** Clients area of interest. */
+    private final AreaOfInterest interest;
+    /** Snapshot servers. */
+    private final Collection<SnapshotServer<?>> snapshots;
+    /** Connected clients. */
+    private final Collection<Byte> clients;
+
     /**
      * Constructor.
      * 
@@ -33,6 +51,11 @@ public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListene
     public NetworkedWorldModelServer(NetworkMessageDecoder decoder)
     {
         super(new ServerImpl(decoder));
+
+        interest = new AreaOfInterest();
+        snapshots = new ArrayList<SnapshotServer<?>>(1);
+        clients = new HashSet<Byte>();
+        network.setFilter(interest);
     }
 
     /*
@@ -51,10 +74,105 @@ public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListene
         network.start(name, port);
     }
 
+    @Override
+    public void setInterestRange(double radius, double hysteresis)
+    {
+        interest.setRange(radius, hysteresis);
+    }
+
+    @Override
+    public void addNetworkable(Networkable networkable, Localizable location)
+    {
+        addNetworkable(networkable);
+        interest.add(networkable, location);
+    }
+
+    @Override
+    public void setClientFocus(Byte clientId, Shape focus)
+    {
+        interest.setFocus(clientId, focus);
+    }
+
+    @Override
+    public boolean isInterested(Byte clientId, Networkable networkable)
+    {
+        return interest.isInterested(clientId, networkable);
+    }
+
+    @Override
+    public void addInterestListener(InterestListener listener)
+    {
+        interest.addListener(listener);
+    }
+
+    @Override
+    public ClientStats getClientStats(Byte clientId)
+    {
+        return network.getStats(clientId);
+    }
+
     @Override
     public void disconnect()
     {
         super.disconnect();
         network.removeListener(this);
     }
+
+    @Override
+    public void addNetworkable(Networkable networkable)
+    {
+        super.addNetworkable(networkable);
+        if (networkable instanceof SnapshotServer)
+        {
+            final SnapshotServer<?> snapshot = (SnapshotServer<?>) networkable;
+            snapshots.add(snapshot);
+            for (final Byte client : clients)
+            {
+                snapshot.addClient(client);
+            }
+        }
+    }
+
+    @Override
+    public void removeNetworkable(Networkable networkable)
+    {
+        super.removeNetworkable(networkable);
+        interest.remove(networkable);
+        snapshots.remove(networkable);
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        interest.update();
+        for (final Networkable networkable : networkables)
+        {
+            interest.registerMessages(networkable, networkable.getNetworkMessages());
+            network.addMessages(networkable.getNetworkMessages());
+            networkable.clearNetworkMessages();
+        }
+        network.sendMessages();
+        interest.clearMessages();
+    }
+
+    @Override
+    public void notifyClientConnected(Byte id, String name)
+    {
+        clients.add(id);
+        for (final SnapshotServer<?> snapshot : snapshots)
+        {
+            snapshot.addClient(id);
+        }
+    }
+
+    @Override
+    public void notifyClientDisconnected(Byte id, String name)
+    {
+        interest.removeClient(id);
+        clients.remove(id);
+        for (final SnapshotServer<?> snapshot : snapshots)
+        {
+            snapshot.removeClient(id);
+        }
+    }
 }
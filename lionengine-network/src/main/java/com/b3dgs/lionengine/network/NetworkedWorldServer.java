@@ -18,6 +18,9 @@
 package com.b3dgs.lionengine.network;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.Shape;
+import com.b3dgs.lionengine.network.purview.Networkable;
 
 /**
  * Networkable world interface server side.
@@ -33,4 +36,57 @@ public interface NetworkedWorldServer extends NetworkedWorld
      * @throws LionEngineException If unable to start server.
      */
     void startServer(String name, int port, String messageOfTheDay);
+
+    /**
+     * Get the traffic sent to a client (bytes, messages and writes).
+     * 
+     * @param clientId The client id.
+     * @return The client sent traffic, <code>null</code> if no client with this id.
+     */
+    ClientStats getClientStats(Byte clientId);
+
+    /**
+     * Set the area of interest range, enabling broadcast messages filtering for the networkables added with a location
+     * and the clients with a focus. A networkable enters the client interest when its distance to the focus is lower
+     * than the radius, and leaves it when its distance is greater than the radius plus the hysteresis.
+     * 
+     * @param radius The interest radius (strictly positive).
+     * @param hysteresis The additional distance before leaving interest (positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    void setInterestRange(double radius, double hysteresis);
+
+    /**
+     * Add a networkable with its location. Its broadcast messages are only sent to the clients interested, messages
+     * with a destination are always sent.
+     * 
+     * @param networkable The networkable to add.
+     * @param location The networkable location.
+     */
+    void addNetworkable(Networkable networkable, Localizable location);
+
+    /**
+     * Set the client focus area, such as its {@link com.b3dgs.lionengine.game.feature.Camera} or the
+     * {@link com.b3dgs.lionengine.game.feature.Transformable} it follows. Clients without focus receive all messages.
+     * 
+     * @param clientId The client id.
+     * @param focus The focus area.
+     */
+    void setClientFocus(Byte clientId, Shape focus);
+
+    /**
+     * Check if a client is interested by a networkable.
+     * 
+     * @param clientId The client id.
+     * @param networkable The networkable.
+     * @return <code>true</code> if its broadcast messages are sent to the client, <code>false</code> else.
+     */
+    boolean isInterested(Byte clientId, Networkable networkable);
+
+    /**
+     * Add an interest listener.
+     * 
+     * @param listener The listener to add.
+     */
+    void addInterestListener(InterestListener listener);
 }
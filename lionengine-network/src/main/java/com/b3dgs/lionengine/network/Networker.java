@@ -33,6 +33,17 @@ interface Networker<L extends ClientListener>
      */
     void disconnect();
 
+    /**
+     * Set the reliability of a message type. Messages of an unreliable type are sent over the datagram link, where
+     * they can be lost, and stale ones dropped, without delaying the others. Other messages are sent over the reliable
+     * channel, as unreliable ones until the datagram link is established. The datagram link is only opened if an
+     * unreliable type has been set before starting or connecting. All types are reliable by default.
+     * 
+     * @param type The message type.
+     * @param reliable <code>true</code> if reliable, <code>false</code> if can be lost.
+     */
+    void setReliable(byte type, boolean reliable);
+
     /**
      * Add a client connection listener.
      * 
@@ -54,6 +54,14 @@ interface Server extends Networker<ClientListener>
      */
     int getNumberOfClients();
 
+    /**
+     * Get the traffic sent to a client.
+     * 
+     * @param clientId The client id.
+     * @return The client sent traffic, <code>null</code> if no client with this id.
+     */
+    ClientStats getStats(Byte clientId);
+
     /**
      * Get the server port.
      * 
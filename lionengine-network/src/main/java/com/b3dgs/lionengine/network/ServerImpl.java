@@ -17,17 +17,23 @@
  */
 package com.b3dgs.lionengine.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Timing;
@@ -37,10 +43,27 @@ import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
 import com.b3dgs.lionengine.util.UtilStream;
 
 /**
- * Server implementation.
+ * Server implementation. Clients are accepted and read without blocking by a selector, polled on each
+ * {@link #receiveMessages()}. If a message type is unreliable, a datagram channel is also bound on the server port,
+ * receiving the datagrams of all clients.
+ * 
+ * @see ClientSocket
+ * @see DatagramLink
  */
 final class ServerImpl extends NetworkModel<ClientListener> implements Server
 {
+    /** Server log prefix. */
+    private static final String LOG_SERVER = "Server: ";
+    /** Accept all messages filter. */
+    private static final MessageFilter ACCEPT_ALL = new MessageFilter()
+    {
+        @Override
+        public boolean accept(NetworkMessage message, byte client)
+        {
+            return true;
+        }
+    };
+
     /**
      * Send the id and the name to the client.
      * 
@@ -72,16 +95,62 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         return from >= 0 && client.getState() == expected;
     }
 
+    /**
+     * Check if datagram is from the client. The client datagram address is bound by the first datagram with a valid
+     * token, from the client host. Datagrams must then come from the same address and port.
+     * 
+     * @param client The client reference.
+     * @param address The datagram source.
+     * @return <code>true</code> if may be from client, <code>false</code> else.
+     */
+    private static boolean isFrom(ClientSocket client, SocketAddress address)
+    {
+        final SocketAddress bound = client.getDatagram().getAddress();
+        if (bound == null)
+        {
+            return ((InetSocketAddress) address).getAddress().equals(client.getAddress());
+        }
+        return bound.equals(address);
+    }
+
+    /**
+     * Check if client can receive a datagram, when connected with a datagram link, from its datagram address.
+     * 
+     * @param client The client reference.
+     * @param address The datagram source.
+     * @return <code>true</code> if can receive, <code>false</code> else.
+     */
+    private static boolean canReceive(ClientSocket client, SocketAddress address)
+    {
+        return client.getDatagram() != null
+               && client.getState() == StateConnection.CONNECTED
+               && isFrom(client, address);
+    }
+
     /** Client list. */
     private final Map<Byte, ClientSocket> clients;
     /** Remove list. */
     private final Collection<ClientSocket> toRemove;
+    /** Closed connections list, removed once their last messages are read. */
+    private final Collection<ClientSocket> closed;
     /** Average bandwidth. */
     private final Timing bandwidthTimer;
-    /** Connection listener. */
-    private ClientConnecter clientConnectionListener;
-    /** Server socket. */
-    private ServerSocket serverSocket;
+    /** Messages encoder. */
+    private final MessageEncoder encoder;
+    /** Received datagram. */
+    private final DatagramInputStream datagramInput;
+    /** Received datagram messages. */
+    private final DataInputStream datagramIn;
+    /** Datagram link tokens generator. */
+    private final Random tokens;
+    /** Broadcast messages filter. */
+    private MessageFilter filter;
+    /** Channels selector. */
+    private Selector selector;
+    /** Server channel. */
+    private ServerSocketChannel serverChannel;
+    /** Datagram channel (<code>null</code> if all messages are reliable). */
+    private DatagramChannel datagram;
     /** Current port. */
     private int port;
     /** Message of the day. */
@@ -109,7 +178,13 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         super(decoder);
         clients = new HashMap<Byte, ClientSocket>(1);
         toRemove = new HashSet<ClientSocket>(1);
+        closed = new ArrayList<ClientSocket>(1);
         bandwidthTimer = new Timing();
+        encoder = new MessageEncoder();
+        datagramInput = new DatagramInputStream(DatagramLink.MAX_SIZE + 1);
+        datagramIn = new DataInputStream(datagramInput);
+        tokens = new SecureRandom();
+        filter = ACCEPT_ALL;
         willRemove = false;
         clientsNumber = 0;
         messageOfTheDay = null;
@@ -119,12 +194,22 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         lastId = 0;
     }
 
+    /**
+     * Set the filter selecting the clients receiving each broadcast message.
+     * 
+     * @param filter The filter to use.
+     */
+    void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
     /**
      * Add a client.
      * 
      * @param socket The socket to add.
      */
-    void notifyNewClientConnected(Socket socket)
+    void notifyNewClientConnected(SocketChannel socket)
     {
         try
         {
@@ -145,6 +230,11 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             client.getOut().writeByte(NetworkMessageSystemId.CONNECTING);
             client.getOut().writeByte(client.getId());
             client.getOut().flush();
+            socket.register(selector, SelectionKey.OP_READ, client);
+            if (datagram != null)
+            {
+                client.openDatagram(datagram, tokens.nextInt());
+            }
 
             // Update list
             clients.put(Byte.valueOf(client.getId()), client);
@@ -161,22 +251,274 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     }
 
     /**
-     * Remove a client from the server.
+     * Remove a client from the server. If it was connected, listeners and other clients are notified of its
+     * disconnection, whatever the removal cause (disconnection message, closed socket, invalid data or server stop).
      * 
      * @param client The client to remove.
      */
     void removeClient(ClientSocket client)
     {
-        if (client != null)
+        if (client != null && toRemove.add(client))
         {
-            toRemove.add(client);
+            if (client.getState() == StateConnection.CONNECTED)
+            {
+                notifyClientDisconnected(client);
+            }
             client.terminate();
             clientsNumber--;
             willRemove = true;
-            Verbose.info("Server: ", client.getName(), " disconnected");
+            Verbose.info(LOG_SERVER, client.getName(), " disconnected");
+        }
+    }
+
+    /**
+     * Notify listeners and other connected clients that a client has been disconnected.
+     * 
+     * @param client The disconnected client.
+     */
+    private void notifyClientDisconnected(ClientSocket client)
+    {
+        client.setState(StateConnection.DISCONNECTED);
+        for (final ClientListener listener : listeners)
+        {
+            listener.notifyClientDisconnected(Byte.valueOf(client.getId()), client.getName());
+        }
+        for (final ClientSocket other : getConnectedClients(client.getId()))
+        {
+            try
+            {
+                other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
+                ServerImpl.writeIdAndName(other, client.getId(), client.getName());
+                other.getOut().flush();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to notify client: ", String.valueOf(other.getId()));
+            }
+        }
+    }
+
+    /**
+     * Accept all pending clients.
+     * 
+     * @throws IOException If error on accepting.
+     */
+    private void acceptClients() throws IOException
+    {
+        SocketChannel socket = serverChannel.accept();
+        while (socket != null)
+        {
+            notifyNewClientConnected(socket);
+            socket = serverChannel.accept();
+        }
+    }
+
+    /**
+     * Receive available data from a client channel.
+     * 
+     * @param client The ready client.
+     */
+    private void receiveClient(ClientSocket client)
+    {
+        if (!client.receive())
+        {
+            closed.add(client);
+        }
+    }
+
+    /**
+     * Handle a selected key, accepting new clients or receiving client data.
+     * 
+     * @param key The selected key.
+     * @throws IOException If error on accepting.
+     */
+    private void select(SelectionKey key) throws IOException
+    {
+        if (key.isValid() && key.isAcceptable())
+        {
+            acceptClients();
+        }
+        else if (key.isValid() && key.isReadable())
+        {
+            receiveClient((ClientSocket) key.attachment());
+        }
+    }
+
+    /**
+     * Receive available data from ready channels, and accept new clients.
+     */
+    private void selectClients()
+    {
+        try
+        {
+            selector.selectNow();
+            for (final SelectionKey key : selector.selectedKeys())
+            {
+                select(key);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on selecting clients");
+        }
+        finally
+        {
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Receive all available datagrams.
+     */
+    private void receiveDatagrams()
+    {
+        final ByteBuffer buffer = datagramInput.getBuffer();
+        try
+        {
+            buffer.clear();
+            SocketAddress address = datagram.receive(buffer);
+            while (address != null)
+            {
+                buffer.flip();
+                receiveDatagram(address, buffer);
+                buffer.clear();
+                address = datagram.receive(buffer);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on receiving datagrams");
+        }
+    }
+
+    /**
+     * Receive the messages of a datagram. Datagram is ignored if not from a connected client address, with another
+     * token, or stale.
+     * 
+     * @param address The datagram source.
+     * @param buffer The datagram content.
+     * @throws IOException If error on reading.
+     */
+    private void receiveDatagram(SocketAddress address, ByteBuffer buffer) throws IOException
+    {
+        ClientSocket client = null;
+        if (buffer.hasRemaining() && buffer.limit() <= DatagramLink.MAX_SIZE)
+        {
+            client = clients.get(Byte.valueOf(buffer.get()));
+        }
+        if (client != null && canReceive(client, address) && client.getDatagram().receive(buffer))
+        {
+            if (client.getDatagram().getAddress() == null)
+            {
+                client.getDatagram().setAddress(address);
+            }
+            datagramInput.select();
+            receiveDatagramMessages(client);
+        }
+    }
+
+    /**
+     * Receive the user messages of the selected datagram.
+     * 
+     * @param client The client sender.
+     * @throws IOException If error on reading.
+     */
+    private void receiveDatagramMessages(ClientSocket client) throws IOException
+    {
+        while (datagramInput.nextFrame())
+        {
+            final byte messageSystemId = datagramIn.readByte();
+            final byte from = datagramIn.readByte();
+            if (messageSystemId == NetworkMessageSystemId.USER_MESSAGE && from == client.getId())
+            {
+                receiveMessage(client, datagramIn, from, StateConnection.CONNECTED);
+            }
+        }
+    }
+
+    /**
+     * Update all received messages of a client.
+     * 
+     * @param client The client to update.
+     */
+    private void receiveMessages(ClientSocket client)
+    {
+        final DataInputStream buffer = client.getIn();
+        try
+        {
+            while (client.nextMessage())
+            {
+                final byte messageSystemId = buffer.readByte();
+                final byte from = buffer.readByte();
+
+                // Check id
+                if (from == client.getId())
+                {
+                    // Check message header type
+                    updateMessage(client, buffer, messageSystemId, from);
+                }
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Invalid data from client: ", String.valueOf(client.getId()));
+            closed.add(client);
+        }
+    }
+
+    /**
+     * Queue a message frame for a client, on its datagram link if unreliable and established.
+     * 
+     * @param client The client destination.
+     * @param message The message to send.
+     * @param frame The encoded message frame.
+     */
+    private void queueMessage(ClientSocket client, NetworkMessage message, ByteBuffer frame)
+    {
+        if (isReliable(message.getType()) || !client.queueDatagram(frame))
+        {
+            client.queueMessage(frame);
         }
     }
 
+    /**
+     * Queue a message frame for each of its destination clients.
+     * 
+     * @param message The message to send.
+     * @param frame The encoded message frame.
+     */
+    private void queueMessage(NetworkMessage message, ByteBuffer frame)
+    {
+        final byte dest = message.getClientDestId();
+        for (final ClientSocket client : clients.values())
+        {
+            if (dest == client.getId() || dest == NetworkMessage.DEST_ALL && filter.accept(message, client.getId()))
+            {
+                queueMessage(client, message, frame);
+                bandwidth += frame.remaining();
+            }
+        }
+    }
+
+    /**
+     * Get the connected clients, which have sent their name.
+     * 
+     * @param except The client id to exclude.
+     * @return The connected clients.
+     */
+    private Collection<ClientSocket> getConnectedClients(byte except)
+    {
+        final Collection<ClientSocket> connected = new ArrayList<ClientSocket>(clients.size());
+        for (final ClientSocket other : clients.values())
+        {
+            if (other.getId() != except && other.getState() == StateConnection.CONNECTED)
+            {
+                connected.add(other);
+            }
+        }
+        return connected;
+    }
+
     /**
      * Error on new client connection.
      * 
@@ -217,15 +559,14 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             client.setState(StateConnection.CONNECTED);
             client.getOut().writeByte(NetworkMessageSystemId.CONNECTED);
             client.getOut().writeByte(client.getId());
-            client.getOut().writeByte(clientsNumber - 1);
+            client.getOut().writeInt(client.getToken());
 
             // Send the list of other clients
-            for (final ClientSocket other : clients.values())
+            final Collection<ClientSocket> others = getConnectedClients(from);
+            client.getOut().writeByte(others.size());
+            for (final ClientSocket other : others)
             {
-                if (other.getId() != from)
-                {
-                    ServerImpl.writeIdAndName(client, other.getId(), other.getName());
-                }
+                ServerImpl.writeIdAndName(client, other.getId(), other.getName());
             }
             // Send message of the day if has
             if (messageOfTheDay != null)
@@ -252,19 +593,15 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         if (ServerImpl.checkValidity(client, from, expected))
         {
             // Terminate last connection step and accept it
-            Verbose.info("Server: ", client.getName(), " connected");
+            Verbose.info(LOG_SERVER, client.getName(), " connected");
             for (final ClientListener listener : listeners)
             {
                 listener.notifyClientConnected(Byte.valueOf(client.getId()), client.getName());
             }
 
             // Notify other clients
-            for (final ClientSocket other : clients.values())
+            for (final ClientSocket other : getConnectedClients(from))
             {
-                if (other.getId() == from)
-                {
-                    continue;
-                }
                 other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_CONNECTED);
                 ServerImpl.writeIdAndName(other, client.getId(), client.getName());
                 // Send
@@ -279,30 +616,13 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
      * @param client The current client.
      * @param from The id from.
      * @param expected The expected client state.
-     * @throws IOException If error.
      */
-    private void receiveDisconnected(ClientSocket client, byte from, StateConnection expected) throws IOException
+    private void receiveDisconnected(ClientSocket client, byte from, StateConnection expected)
     {
         if (ServerImpl.checkValidity(client, from, expected))
         {
-            // Notify other clients
-            client.setState(StateConnection.DISCONNECTED);
-            for (final ClientListener listener : listeners)
-            {
-                listener.notifyClientDisconnected(Byte.valueOf(client.getId()), client.getName());
-            }
-            for (final ClientSocket other : clients.values())
-            {
-                if (other.getId() == from || other.getState() != StateConnection.CONNECTED)
-                {
-                    continue;
-                }
-                other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
-                ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                // Send
-                other.getOut().flush();
-            }
-            removeClient(Byte.valueOf(from));
+            // Notify listeners and other clients
+            removeClient(client);
         }
     }
 
@@ -327,7 +647,7 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
                 throw new IOException("Unable to read client name on rename !");
             }
             final String newName = new String(name, NetworkMessage.CHARSET);
-            Verbose.info("Server: ", client.getName(), " rennamed to ", newName);
+            Verbose.info(LOG_SERVER, client.getName(), " rennamed to ", newName);
             client.setName(newName);
 
             for (final ClientListener listener : listeners)
@@ -338,6 +658,10 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             // Notify all clients
             for (final ClientSocket other : clients.values())
             {
+                if (other.getState() != StateConnection.CONNECTED)
+                {
+                    continue;
+                }
                 other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_RENAMED);
                 ServerImpl.writeIdAndName(other, client.getId(), client.getName());
                 other.getOut().flush();
@@ -364,12 +688,7 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             final int size = buffer.readInt();
             if (size > 0)
             {
-                final byte[] clientData = new byte[size];
-                if (buffer.read(clientData) != -1)
-                {
-                    final DataInputStream clientBuffer = new DataInputStream(new ByteArrayInputStream(clientData));
-                    decodeMessage(type, from, dest, clientBuffer);
-                }
+                decodeMessage(type, from, dest, buffer);
             }
             final int headerSize = 4;
             bandwidth += headerSize + size;
@@ -432,15 +751,27 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         {
             try
             {
-                serverSocket = new ServerSocket(port);
-                clientConnectionListener = new ClientConnecter(serverSocket, this);
-                clientConnectionListener.start();
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.configureBlocking(false);
+                serverChannel.socket().bind(new InetSocketAddress(port));
+                selector = Selector.open();
+                serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+                if (hasUnreliable())
+                {
+                    datagram = DatagramChannel.open();
+                    datagram.configureBlocking(false);
+                    datagram.socket().bind(new InetSocketAddress(serverChannel.socket().getLocalPort()));
+                }
                 this.port = port;
                 bandwidthTimer.start();
                 started = true;
             }
             catch (final IOException exception)
             {
+                UtilStream.safeClose(selector);
+                UtilStream.safeClose(serverChannel);
+                UtilStream.safeClose(datagram);
+                datagram = null;
                 throw new LionEngineException(exception, "Cannot create the server !");
             }
         }
@@ -464,6 +795,17 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         return bandwidthPerSecond;
     }
 
+    @Override
+    public ClientStats getStats(Byte clientId)
+    {
+        final ClientSocket client = clients.get(clientId);
+        if (client != null)
+        {
+            return client.getStats();
+        }
+        return null;
+    }
+
     @Override
     public int getPort()
     {
@@ -482,31 +824,9 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             return;
         }
         receiveMessages();
-        clientConnectionListener.terminate();
 
-        // Disconnect all clients
-        final Collection<ClientSocket> delete = new ArrayList<ClientSocket>(clients.size());
-        for (final ClientSocket client : clients.values())
-        {
-            for (final ClientSocket other : clients.values())
-            {
-                if (other.getId() == client.getId())
-                {
-                    continue;
-                }
-                try
-                {
-                    other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
-                    ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                    other.getOut().flush();
-                }
-                catch (final IOException exception)
-                {
-                    Verbose.exception(exception);
-                }
-            }
-            delete.add(client);
-        }
+        // Disconnect all clients, each removal notifying the remaining ones
+        final Collection<ClientSocket> delete = new ArrayList<ClientSocket>(clients.values());
         for (final ClientSocket client : delete)
         {
             client.sendMessage(NetworkMessageSystemId.KICKED);
@@ -514,48 +834,43 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         }
         delete.clear();
         clients.clear();
+        toRemove.clear();
         try
         {
-            serverSocket.close();
+            selector.close();
+            serverChannel.close();
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception, "Error on closing server");
         }
+        UtilStream.safeClose(datagram);
+        datagram = null;
         started = false;
     }
 
     @Override
     public void receiveMessages()
     {
+        if (!started)
+        {
+            return;
+        }
         messagesIn.clear();
+        selectClients();
         for (final ClientSocket client : clients.values())
         {
-            // Get client data from socket
-            final byte[] data = client.receiveMessages();
-            final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
-            try
-            {
-                final byte messageSystemId = buffer.readByte();
-                final byte from = buffer.readByte();
-
-                // Check id
-                if (from != client.getId())
-                {
-                    continue;
-                }
-                // Check message header type
-                updateMessage(client, buffer, messageSystemId, from);
-            }
-            catch (final IOException exception)
-            {
-                Verbose.exception(exception, "Error on updating server");
-            }
-            finally
-            {
-                UtilStream.safeClose(buffer);
-            }
+            receiveMessages(client);
+        }
+        if (datagram != null)
+        {
+            receiveDatagrams();
         }
+        for (final ClientSocket client : closed)
+        {
+            removeClient(client);
+        }
+        closed.clear();
         // Remove deleted clients
         if (willRemove)
         {
@@ -571,44 +886,40 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     @Override
     public void sendMessages()
     {
-        // Send messages
-        messagesOut.addAll(messagesIn);
+        // Relay received messages, except the ones for server only
+        for (final NetworkMessage message : messagesIn)
+        {
+            if (message.getClientDestId() != NetworkMessage.DEST_SERVER)
+            {
+                messagesOut.add(message);
+            }
+        }
+        // Encode each message once, shared by all its destinations
+        encoder.clear();
         for (final NetworkMessage message : messagesOut)
         {
-            for (final ClientSocket client : clients.values())
+            try
             {
-                if (!(message.getClientDestId() == client.getId() || message.getClientDestId() == -1))
-                {
-                    continue;
-                }
-                ByteArrayOutputStream encode = null;
-                try
-                {
-                    encode = message.encode();
-                    final byte[] encoded = encode.toByteArray();
-                    // Message header
-                    client.getOut().writeByte(NetworkMessageSystemId.USER_MESSAGE);
-                    client.getOut().writeByte(message.getClientId());
-                    client.getOut().writeByte(message.getClientDestId());
-                    client.getOut().writeByte(message.getType());
-                    // Message content
-                    client.getOut().writeInt(encoded.length);
-                    client.getOut().write(encoded);
-                    client.getOut().flush();
-
-                    final int headerSize = 4;
-                    bandwidth += headerSize + encoded.length;
-                }
-                catch (final IOException exception)
-                {
-                    Verbose.exception(exception,
-                                      "Unable to send the messages for client: ",
-                                      String.valueOf(client.getId()));
-                }
-                finally
-                {
-                    UtilStream.safeClose(encode);
-                }
+                queueMessage(message, encoder.encode(message));
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode the message: ", String.valueOf(message.getType()));
+            }
+        }
+        // Send all pending messages with one write per client
+        for (final ClientSocket client : clients.values())
+        {
+            try
+            {
+                client.send();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception,
+                                  "Unable to send the messages for client: ",
+                                  String.valueOf(client.getId()));
+                closed.add(client);
             }
         }
         final long bandwidthMilli = 1000L;
@@ -32,6 +32,10 @@ public abstract class NetworkMessage
 {
     /** Charset. */
     public static final Charset CHARSET = NetworkMessage.getCharset("UTF-8");
+    /** Destination of messages for all clients. */
+    public static final byte DEST_ALL = -1;
+    /** Destination of messages only read by the server, never relayed to clients. */
+    public static final byte DEST_SERVER = -2;
 
     /**
      * Get the charset.
@@ -75,7 +79,7 @@ public abstract class NetworkMessage
      */
     public NetworkMessage(byte type, byte clientId)
     {
-        this(type, clientId, (byte) -1);
+        this(type, clientId, DEST_ALL);
     }
 
     /**
@@ -83,7 +87,7 @@ public abstract class NetworkMessage
      * 
      * @param type The message type.
      * @param clientId The client id.
-     * @param clientDestId The client destination id (-1 if all).
+     * @param clientDestId The client destination id ({@link #DEST_ALL} if all, {@link #DEST_SERVER} if server only).
      */
     public NetworkMessage(byte type, byte clientId, byte clientDestId)
     {
@@ -147,13 +151,22 @@ public abstract class NetworkMessage
     public final ByteArrayOutputStream encode() throws IOException
     {
         final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        encodeTo(buffer);
+        return buffer;
+    }
 
+    /**
+     * Encode the message at the end of an existing buffer, allowing to reuse it between messages.
+     * 
+     * @param buffer The buffer to write to.
+     * @throws IOException Error on writing.
+     */
+    public final void encodeTo(ByteArrayOutputStream buffer) throws IOException
+    {
         buffer.write(type);
         buffer.write(clientId);
         buffer.write(clientDestId);
         encode(buffer);
-
-        return buffer;
     }
 
     /**
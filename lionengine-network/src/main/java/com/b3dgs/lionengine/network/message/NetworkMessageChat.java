@@ -46,7 +46,7 @@ public class NetworkMessageChat extends NetworkMessage
      */
     public NetworkMessageChat(byte type, byte clientId, String message)
     {
-        this(type, clientId, (byte) -1, message);
+        this(type, clientId, DEST_ALL, message);
     }
 
     /**
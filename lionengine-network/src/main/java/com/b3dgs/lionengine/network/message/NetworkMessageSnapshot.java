@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Entity states snapshot message, sent by the server with its data delta compressed against a baseline snapshot
+ * acknowledged by the client. The same message type is sent back by the client, without data, to acknowledge a
+ * received snapshot.
+ */
+public class NetworkMessageSnapshot extends NetworkMessage
+{
+    /** No data. */
+    private static final byte[] EMPTY = new byte[0];
+
+    /** Snapshot sequence. */
+    private int sequence;
+    /** Baseline sequence (0 if none). */
+    private int baseline;
+    /** Snapshot data. */
+    private byte[] data;
+
+    /**
+     * Constructor (used in decoding case).
+     */
+    public NetworkMessageSnapshot()
+    {
+        super();
+        data = EMPTY;
+    }
+
+    /**
+     * Constructor (used for the server snapshot case).
+     * 
+     * @param type The message type.
+     * @param clientDestId The client destination.
+     * @param sequence The snapshot sequence.
+     * @param baseline The baseline sequence used for delta (0 if none).
+     * @param data The snapshot data.
+     */
+    public NetworkMessageSnapshot(byte type, byte clientDestId, int sequence, int baseline, byte[] data)
+    {
+        super(type, (byte) -1, clientDestId);
+        this.sequence = sequence;
+        this.baseline = baseline;
+        this.data = data;
+    }
+
+    /**
+     * Constructor (used for the client acknowledge case). Destination is {@link NetworkMessage#DEST_SERVER}, so the
+     * acknowledge is consumed by the server and never relayed to clients.
+     * 
+     * @param type The message type.
+     * @param clientId The client id.
+     * @param sequence The acknowledged sequence.
+     */
+    public NetworkMessageSnapshot(byte type, byte clientId, int sequence)
+    {
+        super(type, clientId, DEST_SERVER);
+        this.sequence = sequence;
+        baseline = sequence;
+        data = EMPTY;
+    }
+
+    /**
+     * Check if message is a client acknowledge.
+     * 
+     * @return <code>true</code> if acknowledge from a client, <code>false</code> if snapshot from server.
+     */
+    public boolean isAcknowledge()
+    {
+        return getClientId() > -1;
+    }
+
+    /**
+     * Get the snapshot sequence.
+     * 
+     * @return The snapshot sequence.
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the baseline sequence used for delta.
+     * 
+     * @return The baseline sequence (0 if none).
+     */
+    public int getBaseline()
+    {
+        return baseline;
+    }
+
+    /**
+     * Get the snapshot data.
+     * 
+     * @return The snapshot data.
+     */
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /*
+     * NetworkMessage
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer) throws IOException
+    {
+        buffer.write(UtilConversion.intToByteArray(sequence));
+        buffer.write(UtilConversion.intToByteArray(baseline));
+        buffer.write(data);
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer) throws IOException
+    {
+        sequence = buffer.readInt();
+        baseline = buffer.readInt();
+        data = new byte[buffer.available()];
+        buffer.readFully(data);
+    }
+}
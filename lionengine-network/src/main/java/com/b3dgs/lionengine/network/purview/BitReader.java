@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+
+/**
+ * Bit packed data reader.
+ * 
+ * @see BitWriter
+ */
+final class BitReader
+{
+    /** Truncated data error. */
+    private static final String ERROR_TRUNCATED = "Truncated data at bit: ";
+
+    /**
+     * Get the signed value from its zig zag value.
+     * 
+     * @param value The unsigned value.
+     * @return The signed value.
+     */
+    static int unZigZag(int value)
+    {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /** Data to read. */
+    private final byte[] data;
+    /** Read bits. */
+    private int bits;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param data The data to read.
+     */
+    BitReader(byte[] data)
+    {
+        this.data = data;
+    }
+
+    /**
+     * Read a value.
+     * 
+     * @param count The number of bits to read.
+     * @return The read value.
+     * @throws IOException If not enough data.
+     */
+    int read(int count) throws IOException
+    {
+        if (bits + count > data.length * BitWriter.BYTE_BITS)
+        {
+            throw new IOException(ERROR_TRUNCATED + bits);
+        }
+        int value = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final int bit = data[bits >>> BitWriter.BYTE_SHIFT] >>> BitWriter.BIT_MASK - (bits & BitWriter.BIT_MASK);
+            value = value << 1 | bit & 1;
+            bits++;
+        }
+        return value;
+    }
+
+    /**
+     * Read an unsigned variable value.
+     * 
+     * @return The read value.
+     * @throws IOException If not enough data.
+     */
+    int readVariable() throws IOException
+    {
+        return read(BitWriter.TIERS[read(BitWriter.TIER_BITS)]);
+    }
+
+    /**
+     * Read a signed variable value.
+     * 
+     * @return The read value.
+     * @throws IOException If not enough data.
+     */
+    int readSigned() throws IOException
+    {
+        return unZigZag(readVariable());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.util.Arrays;
+
+/**
+ * Bit packed data writer, reused from one encoding to another.
+ * <p>
+ * Variable values are written with a 2 bits size tier (4, 8, 16 or 32 bits), so small values use only a few bits.
+ * </p>
+ * 
+ * @see BitReader
+ */
+final class BitWriter
+{
+    /** Variable value sizes in bits, by tier. */
+    static final int[] TIERS =
+    {
+        4, 8, 16, 32
+    };
+    /** Tier size in bits. */
+    static final int TIER_BITS = 2;
+    /** Bits per byte. */
+    static final int BYTE_BITS = 8;
+    /** Bit index in byte mask. */
+    static final int BIT_MASK = BYTE_BITS - 1;
+    /** Byte index shift. */
+    static final int BYTE_SHIFT = 3;
+    /** Highest bit in byte. */
+    private static final int HIGH_BIT = 0x80;
+    /** Initial capacity in bytes. */
+    private static final int CAPACITY = 256;
+
+    /**
+     * Get the zig zag value, mapping signed values to unsigned values (0, -1, 1, -2, 2...).
+     * 
+     * @param value The signed value.
+     * @return The unsigned value.
+     */
+    static int zigZag(int value)
+    {
+        return value << 1 ^ value >> Integer.SIZE - 1;
+    }
+
+    /** Written data. */
+    private byte[] data;
+    /** Written bits. */
+    private int bits;
+
+    /**
+     * Internal constructor.
+     */
+    BitWriter()
+    {
+        data = new byte[CAPACITY];
+    }
+
+    /**
+     * Clear written data.
+     */
+    void reset()
+    {
+        Arrays.fill(data, 0, getSize(), (byte) 0);
+        bits = 0;
+    }
+
+    /**
+     * Write a value.
+     * 
+     * @param value The value to write.
+     * @param count The number of low bits to write.
+     */
+    void write(int value, int count)
+    {
+        if (getSize() + Integer.SIZE / BYTE_BITS >= data.length)
+        {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        for (int i = count - 1; i > -1; i--)
+        {
+            if ((value >>> i & 1) != 0)
+            {
+                data[bits >>> BYTE_SHIFT] |= HIGH_BIT >>> (bits & BIT_MASK);
+            }
+            bits++;
+        }
+    }
+
+    /**
+     * Write an unsigned variable value, using the smallest tier.
+     * 
+     * @param value The value to write.
+     */
+    void writeVariable(int value)
+    {
+        int tier = 0;
+        while (tier < TIERS.length - 1 && value >>> TIERS[tier] != 0)
+        {
+            tier++;
+        }
+        write(tier, TIER_BITS);
+        write(value, TIERS[tier]);
+    }
+
+    /**
+     * Write a signed variable value.
+     * 
+     * @param value The value to write.
+     */
+    void writeSigned(int value)
+    {
+        writeVariable(zigZag(value));
+    }
+
+    /**
+     * Get the written data.
+     * 
+     * @return The written data copy.
+     */
+    byte[] toByteArray()
+    {
+        return Arrays.copyOf(data, getSize());
+    }
+
+    /**
+     * Get the written size in bytes.
+     * 
+     * @return The written size.
+     */
+    private int getSize()
+    {
+        return (bits + BIT_MASK) >>> BYTE_SHIFT;
+    }
+}
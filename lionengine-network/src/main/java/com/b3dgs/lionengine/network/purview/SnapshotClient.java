@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageSnapshot;
+
+/**
+ * Client side of entity states snapshots.
+ * <p>
+ * Received snapshots are decoded against their baseline and acknowledged to the server, which will use them as
+ * baseline for the next deltas. Older snapshots than the current one are ignored.
+ * </p>
+ * 
+ * @param <M> The entity fields type.
+ * @see SnapshotServer
+ */
+public class SnapshotClient<M extends Enum<M>> implements Networkable
+{
+    /** Unknown entity error. */
+    private static final String ERROR_ENTITY = "Unknown entity: ";
+    /** Missing baseline warning. */
+    private static final String WARNING_BASELINE = "Missing baseline: ";
+
+    /**
+     * Get the value from its quantized value.
+     * 
+     * @param value The quantized value.
+     * @param step The quantization step used.
+     * @return The value.
+     */
+    public static double dequantize(int value, double step)
+    {
+        return value * step;
+    }
+
+    /** Networkable model. */
+    private final NetworkableModel networkable;
+    /** Listeners. */
+    private final Collection<SnapshotListener> listeners;
+    /** Message type. */
+    private final byte type;
+    /** Number of fields. */
+    private final int fields;
+    /** Received snapshots, indexed by sequence modulo {@link SnapshotServer#HISTORY}. */
+    private final List<SortedMap<Short, int[]>> history;
+    /** Received snapshots sequences. */
+    private final int[] sequences;
+    /** Current states. */
+    private SortedMap<Short, int[]> states;
+    /** Current sequence. */
+    private int sequence;
+
+    /**
+     * Create a snapshot client.
+     * 
+     * @param fields The entity fields type (maximum 32 fields).
+     * @param type The message type.
+     */
+    public SnapshotClient(Class<M> fields, byte type)
+    {
+        this.type = type;
+        this.fields = fields.getEnumConstants().length;
+        Check.inferiorOrEqual(this.fields, Integer.SIZE);
+
+        networkable = new NetworkableModel();
+        listeners = new ArrayList<SnapshotListener>();
+        history = new ArrayList<SortedMap<Short, int[]>>(SnapshotServer.HISTORY);
+        sequences = new int[SnapshotServer.HISTORY];
+        states = SnapshotServer.EMPTY;
+        for (int i = 0; i < SnapshotServer.HISTORY; i++)
+        {
+            history.add(SnapshotServer.EMPTY);
+        }
+    }
+
+    /**
+     * Add a snapshot listener.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addListener(SnapshotListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a snapshot listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    public void removeListener(SnapshotListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the current entities.
+     * 
+     * @return The entities id.
+     */
+    public Collection<Short> getEntities()
+    {
+        return Collections.unmodifiableCollection(states.keySet());
+    }
+
+    /**
+     * Check if entity exists.
+     * 
+     * @param id The entity id.
+     * @return <code>true</code> if existing, <code>false</code> else.
+     */
+    public boolean hasEntity(short id)
+    {
+        return states.containsKey(Short.valueOf(id));
+    }
+
+    /**
+     * Get an entity field value.
+     * 
+     * @param id The entity id.
+     * @param field The entity field.
+     * @return The quantized value.
+     * @throws LionEngineException If unknown entity.
+     */
+    public int getState(short id, M field)
+    {
+        final int[] state = states.get(Short.valueOf(id));
+        if (state == null)
+        {
+            throw new LionEngineException(ERROR_ENTITY, String.valueOf(id));
+        }
+        return state[field.ordinal()];
+    }
+
+    /**
+     * Get the current sequence.
+     * 
+     * @return The last received snapshot sequence (0 if none).
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the baseline states.
+     * 
+     * @param baseline The baseline sequence.
+     * @return The baseline states, <code>null</code> if not available.
+     */
+    private SortedMap<Short, int[]> getBaseline(int baseline)
+    {
+        final SortedMap<Short, int[]> old;
+        if (baseline == 0)
+        {
+            old = SnapshotServer.EMPTY;
+        }
+        else if (sequences[baseline % SnapshotServer.HISTORY] == baseline)
+        {
+            old = history.get(baseline % SnapshotServer.HISTORY);
+        }
+        else
+        {
+            old = null;
+        }
+        return old;
+    }
+
+    /**
+     * Apply a newer snapshot if its baseline is available.
+     * 
+     * @param snapshot The received snapshot.
+     */
+    private void apply(NetworkMessageSnapshot snapshot)
+    {
+        final SortedMap<Short, int[]> baseline = getBaseline(snapshot.getBaseline());
+        if (baseline == null)
+        {
+            Verbose.warning(getClass(), "apply", WARNING_BASELINE, String.valueOf(snapshot.getBaseline()));
+        }
+        else
+        {
+            try
+            {
+                receive(snapshot, baseline);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception);
+            }
+        }
+    }
+
+    /**
+     * Receive a snapshot, update states and acknowledge it.
+     * 
+     * @param snapshot The received snapshot.
+     * @param baseline The snapshot baseline states.
+     * @throws IOException If invalid snapshot data.
+     */
+    private void receive(NetworkMessageSnapshot snapshot, SortedMap<Short, int[]> baseline) throws IOException
+    {
+        final SortedMap<Short, int[]> received = SnapshotCodec.decode(snapshot.getData(), fields, baseline);
+        final SortedMap<Short, int[]> previous = states;
+        states = received;
+        sequence = snapshot.getSequence();
+        history.set(sequence % SnapshotServer.HISTORY, received);
+        sequences[sequence % SnapshotServer.HISTORY] = sequence;
+
+        for (final Short id : received.keySet())
+        {
+            if (!previous.containsKey(id))
+            {
+                notifyAdded(id.shortValue());
+            }
+        }
+        for (final Short id : previous.keySet())
+        {
+            if (!received.containsKey(id))
+            {
+                notifyRemoved(id.shortValue());
+            }
+        }
+        addNetworkMessage(new NetworkMessageSnapshot(type, getClientId().byteValue(), sequence));
+    }
+
+    /**
+     * Notify listeners of an added entity.
+     * 
+     * @param id The entity id.
+     */
+    private void notifyAdded(short id)
+    {
+        for (final SnapshotListener listener : listeners)
+        {
+            listener.notifyEntityAdded(id);
+        }
+    }
+
+    /**
+     * Notify listeners of a removed entity.
+     * 
+     * @param id The entity id.
+     */
+    private void notifyRemoved(short id)
+    {
+        for (final SnapshotListener listener : listeners)
+        {
+            listener.notifyEntityRemoved(id);
+        }
+    }
+
+    /*
+     * Networkable
+     */
+
+    @Override
+    public void applyMessage(NetworkMessage message)
+    {
+        if (message instanceof NetworkMessageSnapshot && message.getType() == type)
+        {
+            final NetworkMessageSnapshot snapshot = (NetworkMessageSnapshot) message;
+            if (!snapshot.isAcknowledge() && snapshot.getSequence() > sequence)
+            {
+                apply(snapshot);
+            }
+        }
+    }
+
+    @Override
+    public void addNetworkMessage(NetworkMessage message)
+    {
+        networkable.addNetworkMessage(message);
+    }
+
+    @Override
+    public Collection<NetworkMessage> getNetworkMessages()
+    {
+        return networkable.getNetworkMessages();
+    }
+
+    @Override
+    public void clearNetworkMessages()
+    {
+        networkable.clearNetworkMessages();
+    }
+
+    @Override
+    public void setClientId(Byte id)
+    {
+        networkable.setClientId(id);
+    }
+
+    @Override
+    public Byte getClientId()
+    {
+        return networkable.getClientId();
+    }
+}
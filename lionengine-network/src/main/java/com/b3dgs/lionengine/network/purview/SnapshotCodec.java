@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Snapshot delta codec. Entity states are stored as quantized values by field index, and encoded against a baseline
+ * with the following bit packed layout:
+ * <ul>
+ * <li>updated entities count, then for each one its id delta with the previous id, its changed fields mask, and the
+ * value delta of each changed field (against zero for new entities),</li>
+ * <li>removed entities count, then for each one its id delta with the previous id.</li>
+ * </ul>
+ * Counts are unsigned variable values, deltas are signed variable values (see {@link BitWriter}).
+ */
+final class SnapshotCodec
+{
+    /**
+     * Copy a state.
+     * 
+     * @param state The state to copy (<code>null</code> if new entity).
+     * @param fields The number of fields.
+     * @return The state copy, zero filled if new entity.
+     */
+    static int[] copy(int[] state, int fields)
+    {
+        final int[] copy;
+        if (state == null)
+        {
+            copy = new int[fields];
+        }
+        else
+        {
+            copy = state.clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Get a field value.
+     * 
+     * @param state The state (<code>null</code> if new entity).
+     * @param field The field index.
+     * @return The field value, zero if new entity.
+     */
+    private static int getValue(int[] state, int field)
+    {
+        int value = 0;
+        if (state != null)
+        {
+            value = state[field];
+        }
+        return value;
+    }
+
+    /**
+     * Get the changed fields mask.
+     * 
+     * @param fields The number of fields.
+     * @param old The baseline state (<code>null</code> if new entity).
+     * @param state The current state.
+     * @return The changed fields mask.
+     */
+    private static int getMask(int fields, int[] old, int[] state)
+    {
+        int mask = 0;
+        for (int field = 0; field < fields; field++)
+        {
+            if (state[field] != getValue(old, field))
+            {
+                mask |= 1 << field;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Write the changed values delta.
+     * 
+     * @param writer The writer to use.
+     * @param fields The number of fields.
+     * @param mask The changed fields mask.
+     * @param old The baseline state (<code>null</code> if new entity).
+     * @param state The current state.
+     */
+    private static void writeValues(BitWriter writer, int fields, int mask, int[] old, int[] state)
+    {
+        for (int field = 0; field < fields; field++)
+        {
+            if ((mask >>> field & 1) != 0)
+            {
+                writer.writeSigned(state[field] - getValue(old, field));
+            }
+        }
+    }
+
+    /**
+     * Write the updated entities.
+     * 
+     * @param writer The writer to use.
+     * @param fields The number of fields by entity.
+     * @param baseline The baseline states (empty if none).
+     * @param current The current states.
+     */
+    private static void writeUpdated(BitWriter writer,
+                                     int fields,
+                                     SortedMap<Short, int[]> baseline,
+                                     SortedMap<Short, int[]> current)
+    {
+        int updated = 0;
+        for (final Map.Entry<Short, int[]> entry : current.entrySet())
+        {
+            final int[] old = baseline.get(entry.getKey());
+            if (old == null || getMask(fields, old, entry.getValue()) != 0)
+            {
+                updated++;
+            }
+        }
+        writer.writeVariable(updated);
+
+        int last = 0;
+        for (final Map.Entry<Short, int[]> entry : current.entrySet())
+        {
+            final int id = entry.getKey().intValue();
+            final int[] state = entry.getValue();
+            final int[] old = baseline.get(entry.getKey());
+            final int mask = getMask(fields, old, state);
+            if (old == null || mask != 0)
+            {
+                writer.writeSigned(id - last);
+                writer.write(mask, fields);
+                writeValues(writer, fields, mask, old, state);
+                last = id;
+            }
+        }
+    }
+
+    /**
+     * Write the removed entities.
+     * 
+     * @param writer The writer to use.
+     * @param baseline The baseline states (empty if none).
+     * @param current The current states.
+     */
+    private static void writeRemoved(BitWriter writer,
+                                     SortedMap<Short, int[]> baseline,
+                                     SortedMap<Short, int[]> current)
+    {
+        int removed = 0;
+        for (final Short id : baseline.keySet())
+        {
+            if (!current.containsKey(id))
+            {
+                removed++;
+            }
+        }
+        writer.writeVariable(removed);
+
+        int last = 0;
+        for (final Short id : baseline.keySet())
+        {
+            if (!current.containsKey(id))
+            {
+                writer.writeSigned(id.intValue() - last);
+                last = id.intValue();
+            }
+        }
+    }
+
+    /**
+     * Encode a snapshot.
+     * 
+     * @param writer The writer to use.
+     * @param fields The number of fields by entity.
+     * @param baseline The baseline states (empty if none).
+     * @param current The current states.
+     * @return The encoded data.
+     */
+    static byte[] encode(BitWriter writer, int fields, SortedMap<Short, int[]> baseline,
+                         SortedMap<Short, int[]> current)
+    {
+        writer.reset();
+        writeUpdated(writer, fields, baseline, current);
+        writeRemoved(writer, baseline, current);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a snapshot.
+     * 
+     * @param data The encoded data.
+     * @param fields The number of fields by entity.
+     * @param baseline The baseline states (empty if none), not modified.
+     * @return The decoded states.
+     * @throws IOException If invalid data.
+     */
+    static SortedMap<Short, int[]> decode(byte[] data, int fields, SortedMap<Short, int[]> baseline)
+                                         throws IOException
+    {
+        final SortedMap<Short, int[]> states = new TreeMap<Short, int[]>(baseline);
+        final BitReader reader = new BitReader(data);
+
+        final int updated = reader.readVariable();
+        int last = 0;
+        for (int i = 0; i < updated; i++)
+        {
+            last += reader.readSigned();
+            final Short id = Short.valueOf((short) last);
+            final int mask = reader.read(fields);
+            final int[] old = baseline.get(id);
+            final int[] state = copy(old, fields);
+            for (int field = 0; field < fields; field++)
+            {
+                if ((mask >>> field & 1) != 0)
+                {
+                    state[field] += reader.readSigned();
+                }
+            }
+            states.put(id, state);
+        }
+
+        final int removed = reader.readVariable();
+        last = 0;
+        for (int i = 0; i < removed; i++)
+        {
+            last += reader.readSigned();
+            states.remove(Short.valueOf((short) last));
+        }
+        return states;
+    }
+
+    /**
+     * Private constructor.
+     */
+    private SnapshotCodec()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageSnapshot;
+
+/**
+ * Server side of entity states snapshots.
+ * <p>
+ * Entity states are stored as quantized integer values by field (see {@link #quantize(double, double)}). Each call to
+ * {@link #snapshot()} records the current states and queues one {@link NetworkMessageSnapshot} by client, delta
+ * compressed against the last snapshot acknowledged by this client: only changed fields of changed entities are
+ * sent, bit packed. A client without valid acknowledged snapshot receives the full states.
+ * </p>
+ * <p>
+ * Clients must be registered with {@link #addClient(Byte)} when connected, and unregistered with
+ * {@link #removeClient(Byte)} when disconnected, which is done by the server networked world it is added to.
+ * </p>
+ * 
+ * @param <M> The entity fields type.
+ * @see SnapshotClient
+ */
+public class SnapshotServer<M extends Enum<M>> implements Networkable
+{
+    /** Number of kept snapshots. */
+    static final int HISTORY = 32;
+    /** Empty states. */
+    static final SortedMap<Short, int[]> EMPTY = Collections.unmodifiableSortedMap(new TreeMap<Short, int[]>());
+
+    /**
+     * Get the quantized value.
+     * 
+     * @param value The value to quantize.
+     * @param step The quantization step (must be strictly positive).
+     * @return The quantized value.
+     */
+    public static int quantize(double value, double step)
+    {
+        return (int) Math.round(value / step);
+    }
+
+    /** Networkable model. */
+    private final NetworkableModel networkable;
+    /** Message type. */
+    private final byte type;
+    /** Number of fields. */
+    private final int fields;
+    /** Data writer. */
+    private final BitWriter writer;
+    /** Current states. */
+    private final SortedMap<Short, int[]> states;
+    /** Entities with a state not shared with history. */
+    private final Collection<Short> owned;
+    /** Snapshots history, indexed by sequence modulo {@link #HISTORY}, maps reused when overwritten. */
+    private final List<SortedMap<Short, int[]>> history;
+    /** Snapshots history sequences. */
+    private final int[] sequences;
+    /** Last acknowledged sequence by client. */
+    private final Map<Byte, Integer> acknowledged;
+    /** Encoded data by baseline sequence for the current snapshot. */
+    private final Map<Integer, byte[]> encoded;
+    /** Current sequence. */
+    private int sequence;
+
+    /**
+     * Create a snapshot server.
+     * 
+     * @param fields The entity fields type (maximum 32 fields).
+     * @param type The message type.
+     */
+    public SnapshotServer(Class<M> fields, byte type)
+    {
+        this.type = type;
+        this.fields = fields.getEnumConstants().length;
+        Check.inferiorOrEqual(this.fields, Integer.SIZE);
+
+        networkable = new NetworkableModel();
+        writer = new BitWriter();
+        states = new TreeMap<Short, int[]>();
+        owned = new HashSet<Short>();
+        history = new ArrayList<SortedMap<Short, int[]>>(HISTORY);
+        sequences = new int[HISTORY];
+        acknowledged = new HashMap<Byte, Integer>();
+        encoded = new HashMap<Integer, byte[]>();
+        for (int i = 0; i < HISTORY; i++)
+        {
+            history.add(new TreeMap<Short, int[]>());
+        }
+    }
+
+    /**
+     * Add a client, which will receive next snapshots.
+     * 
+     * @param id The client id.
+     */
+    public void addClient(Byte id)
+    {
+        acknowledged.put(id, Integer.valueOf(0));
+    }
+
+    /**
+     * Remove a client.
+     * 
+     * @param id The client id.
+     */
+    public void removeClient(Byte id)
+    {
+        acknowledged.remove(id);
+    }
+
+    /**
+     * Set an entity field value. Entity is added if not existing, with its other fields set to 0.
+     * 
+     * @param id The entity id.
+     * @param field The entity field.
+     * @param value The quantized value.
+     */
+    public void setState(short id, M field, int value)
+    {
+        final Short key = Short.valueOf(id);
+        final int[] old = states.get(key);
+        final int[] state;
+        if (owned.add(key))
+        {
+            state = SnapshotCodec.copy(old, fields);
+            states.put(key, state);
+        }
+        else
+        {
+            state = old;
+        }
+        state[field.ordinal()] = value;
+    }
+
+    /**
+     * Remove an entity.
+     * 
+     * @param id The entity id.
+     */
+    public void removeEntity(short id)
+    {
+        final Short key = Short.valueOf(id);
+        states.remove(key);
+        owned.remove(key);
+    }
+
+    /**
+     * Record the current states and queue the snapshot messages for each client.
+     */
+    public void snapshot()
+    {
+        sequence++;
+        final int index = sequence % HISTORY;
+        final SortedMap<Short, int[]> recorded = history.get(index);
+        recorded.clear();
+        recorded.putAll(states);
+        sequences[index] = sequence;
+        owned.clear();
+
+        for (final Map.Entry<Byte, Integer> client : acknowledged.entrySet())
+        {
+            final Integer baseline = getBaseline(client.getValue().intValue());
+            byte[] data = encoded.get(baseline);
+            if (data == null)
+            {
+                final int previous = baseline.intValue();
+                SortedMap<Short, int[]> old = EMPTY;
+                if (previous > 0)
+                {
+                    old = history.get(previous % HISTORY);
+                }
+                data = SnapshotCodec.encode(writer, fields, old, states);
+                encoded.put(baseline, data);
+            }
+            addNetworkMessage(new NetworkMessageSnapshot(type,
+                                                         client.getKey().byteValue(),
+                                                         sequence,
+                                                         baseline.intValue(),
+                                                         data));
+        }
+        encoded.clear();
+    }
+
+    /**
+     * Get the current sequence.
+     * 
+     * @return The last snapshot sequence (0 if none).
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the usable baseline from the acknowledged sequence.
+     * 
+     * @param acknowledge The acknowledged sequence.
+     * @return The baseline sequence, 0 if none or no more in history.
+     */
+    private Integer getBaseline(int acknowledge)
+    {
+        final Integer baseline;
+        if (acknowledge > 0 && sequences[acknowledge % HISTORY] == acknowledge)
+        {
+            baseline = Integer.valueOf(acknowledge);
+        }
+        else
+        {
+            baseline = Integer.valueOf(0);
+        }
+        return baseline;
+    }
+
+    /*
+     * Networkable
+     */
+
+    @Override
+    public void applyMessage(NetworkMessage message)
+    {
+        if (message instanceof NetworkMessageSnapshot && message.getType() == type)
+        {
+            final NetworkMessageSnapshot snapshot = (NetworkMessageSnapshot) message;
+            final Byte client = Byte.valueOf(snapshot.getClientId());
+            final Integer acknowledge = acknowledged.get(client);
+            if (snapshot.isAcknowledge()
+                && acknowledge != null
+                && snapshot.getSequence() > acknowledge.intValue()
+                && snapshot.getSequence() <= sequence)
+            {
+                acknowledged.put(client, Integer.valueOf(snapshot.getSequence()));
+            }
+        }
+    }
+
+    @Override
+    public void addNetworkMessage(NetworkMessage message)
+    {
+        networkable.addNetworkMessage(message);
+    }
+
+    @Override
+    public Collection<NetworkMessage> getNetworkMessages()
+    {
+        return networkable.getNetworkMessages();
+    }
+
+    @Override
+    public void clearNetworkMessages()
+    {
+        networkable.clearNetworkMessages();
+    }
+
+    @Override
+    public void setClientId(Byte id)
+    {
+        networkable.setClientId(id);
+    }
+
+    @Override
+    public Byte getClientId()
+    {
+        return networkable.getClientId();
+    }
+}
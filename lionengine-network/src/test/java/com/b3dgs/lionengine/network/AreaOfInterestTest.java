@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.geom.Rectangle;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+
+/**
+ * Test the area of interest.
+ */
+public class AreaOfInterestTest
+{
+    /** Client id. */
+    private static final Byte CLIENT = Byte.valueOf((byte) 5);
+    /** Client without focus id. */
+    private static final Byte OTHER = Byte.valueOf((byte) 6);
+    /** Enter radius. */
+    private static final double RADIUS = 100.0;
+    /** Leave hysteresis. */
+    private static final double HYSTERESIS = 50.0;
+    /** Focus right border. */
+    private static final double RIGHT = 320.0;
+
+    /**
+     * Create a networkable.
+     * 
+     * @param id The networkable id.
+     * @return The networkable.
+     */
+    private static Networkable create(int id)
+    {
+        final Networkable networkable = new NetworkableModel();
+        networkable.setClientId(Byte.valueOf((byte) id));
+        return networkable;
+    }
+
+    /** Interest events. */
+    private final List<String> events = new ArrayList<String>();
+    /** First networkable. */
+    private final Networkable first = create(1);
+    /** First networkable location. */
+    private final Rectangle firstLocation = new Rectangle(RIGHT + RADIUS + 80.0, 0.0, 0.0, 0.0);
+    /** Second networkable. */
+    private final Networkable second = create(2);
+    /** Second networkable location. */
+    private final Rectangle secondLocation = new Rectangle(-3000.0, -3000.0, 0.0, 0.0);
+    /** Tested area of interest. */
+    private final AreaOfInterest aoi = new AreaOfInterest();
+
+    /**
+     * Prepare area with two networkables and one client focus.
+     */
+    @Before
+    public void prepare()
+    {
+        aoi.addListener(new InterestListener()
+        {
+            @Override
+            public void notifyInterestEntered(Byte clientId, Networkable networkable)
+            {
+                events.add("entered " + clientId + " " + networkable.getClientId());
+            }
+
+            @Override
+            public void notifyInterestLeft(Byte clientId, Networkable networkable)
+            {
+                events.add("left " + clientId + " " + networkable.getClientId());
+            }
+        });
+        aoi.add(first, firstLocation);
+        aoi.add(second, secondLocation);
+        aoi.setFocus(CLIENT, new Rectangle(0.0, 0.0, RIGHT, 240.0));
+    }
+
+    /**
+     * Test filtering disabled until range is set.
+     */
+    @Test
+    public void testDisabled()
+    {
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertTrue(aoi.isInterested(CLIENT, first));
+        Assert.assertTrue(aoi.isInterested(CLIENT, second));
+    }
+
+    /**
+     * Test networkable enters interest within radius of the focus border.
+     */
+    @Test
+    public void testRadius()
+    {
+        aoi.setRange(RADIUS, HYSTERESIS);
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertFalse(aoi.isInterested(CLIENT, first));
+
+        firstLocation.set(RIGHT + RADIUS + 1.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+
+        firstLocation.set(RIGHT + RADIUS, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("entered 5 1"), events);
+        Assert.assertTrue(aoi.isInterested(CLIENT, first));
+        Assert.assertFalse(aoi.isInterested(CLIENT, second));
+
+        events.clear();
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Test networkable leaves interest only beyond the radius plus hysteresis, and enters again within radius.
+     */
+    @Test
+    public void testHysteresis()
+    {
+        aoi.setRange(RADIUS, HYSTERESIS);
+        firstLocation.set(RIGHT + RADIUS, 0.0, 0.0, 0.0);
+        aoi.update();
+        events.clear();
+
+        firstLocation.set(RIGHT + RADIUS + HYSTERESIS, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertTrue(aoi.isInterested(CLIENT, first));
+
+        firstLocation.set(RIGHT + RADIUS + HYSTERESIS + 1.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("left 5 1"), events);
+        Assert.assertFalse(aoi.isInterested(CLIENT, first));
+
+        events.clear();
+        firstLocation.set(RIGHT + RADIUS + HYSTERESIS - 1.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+
+        firstLocation.set(RIGHT + RADIUS - 1.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("entered 5 1"), events);
+    }
+
+    /**
+     * Test networkable jumping across cells.
+     */
+    @Test
+    public void testCells()
+    {
+        aoi.setRange(RADIUS, HYSTERESIS);
+        aoi.update();
+
+        secondLocation.set(100.0, 100.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("entered 5 2"), events);
+
+        events.clear();
+        secondLocation.set(100000.0, 100.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("left 5 2"), events);
+
+        events.clear();
+        final Networkable third = create(3);
+        aoi.add(third, new Rectangle(-10.0, -10.0, 0.0, 0.0));
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("entered 5 3"), events);
+    }
+
+    /**
+     * Test interested clients notified on networkable removal, and removed client not notified.
+     */
+    @Test
+    public void testRemove()
+    {
+        aoi.setRange(RADIUS, HYSTERESIS);
+        firstLocation.set(0.0, 0.0, 0.0, 0.0);
+        aoi.update();
+        events.clear();
+
+        aoi.remove(first);
+        aoi.remove(second);
+
+        Assert.assertEquals(Arrays.asList("left 5 1"), events);
+
+        events.clear();
+        secondLocation.set(0.0, 0.0, 0.0, 0.0);
+        aoi.add(second, secondLocation);
+        aoi.update();
+
+        Assert.assertEquals(Arrays.asList("entered 5 2"), events);
+
+        events.clear();
+        aoi.removeClient(CLIENT);
+        aoi.remove(second);
+        aoi.update();
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Test messages filter by client interest.
+     */
+    @Test
+    public void testFilter()
+    {
+        final NetworkMessage message = new NetworkMessageChat((byte) 1, (byte) -1, "first");
+        final NetworkMessage unregistered = new NetworkMessageChat((byte) 1, (byte) -1, "other");
+        aoi.registerMessages(first, Collections.singletonList(message));
+
+        Assert.assertTrue(aoi.accept(message, CLIENT.byteValue()));
+
+        aoi.setRange(RADIUS, HYSTERESIS);
+        aoi.update();
+
+        Assert.assertFalse(aoi.accept(message, CLIENT.byteValue()));
+        Assert.assertTrue(aoi.accept(message, OTHER.byteValue()));
+        Assert.assertTrue(aoi.accept(unregistered, CLIENT.byteValue()));
+
+        firstLocation.set(0.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertTrue(aoi.accept(message, CLIENT.byteValue()));
+
+        firstLocation.set(-1000.0, 0.0, 0.0, 0.0);
+        aoi.update();
+
+        Assert.assertFalse(aoi.accept(message, CLIENT.byteValue()));
+
+        aoi.clearMessages();
+
+        Assert.assertTrue(aoi.accept(message, CLIENT.byteValue()));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Channel mock, reading fed data, and recording written data up to a writable amount.
+ */
+final class ChannelMock implements ReadableByteChannel, GatheringByteChannel
+{
+    /** End of stream value. */
+    private static final int END = -1;
+
+    /** Data to read. */
+    private final Queue<ByteBuffer> readable = new LinkedList<ByteBuffer>();
+    /** Written data. */
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    /** Remaining bytes accepted by writes. */
+    private long writable = Long.MAX_VALUE;
+    /** Number of write calls. */
+    private int writes;
+    /** Open flag. */
+    private boolean open = true;
+
+    /**
+     * Create mock.
+     */
+    ChannelMock()
+    {
+        super();
+    }
+
+    /**
+     * Feed data, read by next reads.
+     * 
+     * @param data The data to read.
+     */
+    void feed(byte[] data)
+    {
+        readable.add(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Set the remaining bytes accepted by writes, as a full socket buffer.
+     * 
+     * @param writable The bytes accepted until next call.
+     */
+    void setWritable(long writable)
+    {
+        this.writable = writable;
+    }
+
+    /**
+     * Get the written data.
+     * 
+     * @return The written data.
+     */
+    byte[] getWritten()
+    {
+        return written.toByteArray();
+    }
+
+    /**
+     * Get the number of write calls.
+     * 
+     * @return The write calls.
+     */
+    int getWrites()
+    {
+        return writes;
+    }
+
+    /*
+     * ReadableByteChannel
+     */
+
+    @Override
+    public int read(ByteBuffer dst)
+    {
+        if (readable.isEmpty())
+        {
+            return open ? 0 : END;
+        }
+        final ByteBuffer data = readable.peek();
+        final int read = Math.min(data.remaining(), dst.remaining());
+        for (int i = 0; i < read; i++)
+        {
+            dst.put(data.get());
+        }
+        if (!data.hasRemaining())
+        {
+            readable.remove();
+        }
+        return read;
+    }
+
+    /*
+     * GatheringByteChannel
+     */
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length)
+    {
+        writes++;
+        long sent = 0L;
+        for (int i = offset; i < offset + length; i++)
+        {
+            while (writable > 0L && srcs[i].hasRemaining())
+            {
+                written.write(srcs[i].get());
+                writable--;
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs)
+    {
+        return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src)
+    {
+        return (int) write(new ByteBuffer[]
+        {
+            src
+        });
+    }
+
+    /*
+     * Channel
+     */
+
+    @Override
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public void close()
+    {
+        open = false;
+    }
+}
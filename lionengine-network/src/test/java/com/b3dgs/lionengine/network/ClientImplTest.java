@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Test the client implementation against a raw server socket.
+ */
+public class ClientImplTest
+{
+    /**
+     * Test client kicked when receiving an invalid frame.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testInvalidFrame() throws IOException, InterruptedException
+    {
+        final List<String> events = new ArrayList<String>();
+        final ClientImpl client = new ClientImpl(new NetworkMessageDecoder()
+        {
+            @Override
+            public NetworkMessage getNetworkMessageFromType(int type)
+            {
+                return new NetworkMessageChat();
+            }
+        });
+        client.addListener(new ConnectionListener()
+        {
+            @Override
+            public void notifyClientConnected(Byte id, String name)
+            {
+                events.add("connected");
+            }
+
+            @Override
+            public void notifyClientDisconnected(Byte id, String name)
+            {
+                events.add("disconnected");
+            }
+
+            @Override
+            public void notifyClientNameChanged(Byte id, String name)
+            {
+                events.add("renamed");
+            }
+
+            @Override
+            public void notifyConnectionEstablished(Byte id, String name)
+            {
+                events.add("established");
+            }
+
+            @Override
+            public void notifyMessageOfTheDay(String messageOfTheDay)
+            {
+                events.add("motd");
+            }
+
+            @Override
+            public void notifyConnectionTerminated(Byte id)
+            {
+                events.add("terminated");
+            }
+        });
+
+        final ServerSocket server = new ServerSocket(0);
+        try
+        {
+            client.connect("127.0.0.1", server.getLocalPort());
+            final Socket socket = server.accept();
+            socket.getOutputStream().write(new byte[]
+            {
+                -1, -1, -1, -1
+            });
+            socket.getOutputStream().flush();
+
+            for (int i = 0; i < 100 && client.isConnected(); i++)
+            {
+                client.receiveMessages();
+                Thread.sleep(5L);
+            }
+
+            Assert.assertFalse(client.isConnected());
+            Assert.assertEquals(Arrays.asList("terminated"), events);
+            socket.close();
+        }
+        finally
+        {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the datagram link sequences and acknowledges.
+ */
+public class DatagramLinkTest
+{
+    /** Sender id. */
+    private static final byte ID = 3;
+    /** Link token. */
+    private static final int TOKEN = 0x1234567;
+
+    /**
+     * Create a received datagram header, after sender id.
+     * 
+     * @param sequence The datagram sequence.
+     * @param ack The acknowledged sequence.
+     * @param ackBits The acknowledged bits.
+     * @return The datagram.
+     */
+    private static ByteBuffer datagram(int sequence, int ack, int ackBits)
+    {
+        return datagram(TOKEN, sequence, ack, ackBits, 0);
+    }
+
+    /**
+     * Create a received datagram, after sender id.
+     * 
+     * @param token The link token.
+     * @param sequence The datagram sequence.
+     * @param ack The acknowledged sequence.
+     * @param ackBits The acknowledged bits.
+     * @param payload The payload size.
+     * @return The datagram.
+     */
+    private static ByteBuffer datagram(int token, int sequence, int ack, int ackBits, int payload)
+    {
+        final ByteBuffer datagram = ByteBuffer.allocate(DatagramLink.HEADER - 1 + payload);
+        datagram.putInt(token);
+        datagram.putShort((short) sequence);
+        datagram.putShort((short) ack);
+        datagram.putInt(ackBits);
+        datagram.position(0);
+        return datagram;
+    }
+
+    /** Sent traffic. */
+    private final ClientStats stats = new ClientStats();
+    /** Peer channel. */
+    private DatagramChannel peer;
+    /** Sender channel. */
+    private DatagramChannel channel;
+    /** Tested link. */
+    private DatagramLink link;
+
+    /**
+     * Prepare link with a local peer.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        peer = DatagramChannel.open();
+        peer.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+        channel = DatagramChannel.open();
+        link = new DatagramLink(channel, ID, TOKEN, peer.socket().getLocalSocketAddress(), stats);
+    }
+
+    /**
+     * Close channels.
+     * 
+     * @throws IOException If error.
+     */
+    @After
+    public void clean() throws IOException
+    {
+        channel.close();
+        peer.close();
+    }
+
+    /**
+     * Test sequences comparison with wrap around.
+     */
+    @Test
+    public void testNewer()
+    {
+        Assert.assertTrue(DatagramLink.isNewer(1, 0));
+        Assert.assertTrue(DatagramLink.isNewer(1, 65535));
+        Assert.assertTrue(DatagramLink.isNewer(0, 65535));
+        Assert.assertFalse(DatagramLink.isNewer(65535, 1));
+        Assert.assertFalse(DatagramLink.isNewer(5, 5));
+    }
+
+    /**
+     * Test stale datagrams dropped but acknowledged in the sent bit field.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testReceive() throws IOException
+    {
+        Assert.assertFalse(link.isEstablished());
+        Assert.assertTrue(link.receive(datagram(65534, 0, 0)));
+        Assert.assertTrue(link.isEstablished());
+        Assert.assertTrue(link.receive(datagram(65535, 0, 0)));
+        Assert.assertTrue(link.receive(datagram(1, 0, 0)));
+        Assert.assertFalse(link.receive(datagram(0, 0, 0)));
+        Assert.assertFalse(link.receive(datagram(1, 0, 0)));
+        Assert.assertFalse(link.receive(ByteBuffer.allocate(DatagramLink.HEADER - 2)));
+
+        link.send();
+        ByteBuffer header = receive();
+
+        Assert.assertEquals(ID, header.get());
+        Assert.assertEquals(TOKEN, header.getInt());
+        Assert.assertEquals(0, header.getShort());
+        Assert.assertEquals(1, header.getShort());
+        Assert.assertEquals(1 | 1 << 1 | 1 << 2, header.getInt());
+
+        Assert.assertTrue(link.receive(datagram(40, 0, 0)));
+        Assert.assertFalse(link.receive(datagram(10, 0, 0)));
+
+        Assert.assertTrue(link.queue(ByteBuffer.allocate(FrameOutputStream.HEADER + 1)));
+        link.send();
+        header = receive();
+
+        Assert.assertEquals(ID, header.get());
+        Assert.assertEquals(TOKEN, header.getInt());
+        Assert.assertEquals(1, header.getShort());
+        Assert.assertEquals(40, header.getShort());
+        Assert.assertEquals(1 << 29, header.getInt());
+    }
+
+    /**
+     * Test datagrams with another token ignored.
+     */
+    @Test
+    public void testToken()
+    {
+        Assert.assertFalse(link.receive(datagram(TOKEN + 1, 0, 0, 0, 0)));
+        Assert.assertFalse(link.isEstablished());
+        Assert.assertTrue(link.receive(datagram(0, 0, 0)));
+        Assert.assertTrue(link.isEstablished());
+        Assert.assertFalse(link.receive(datagram(TOKEN + 1, 1, 0, 0, 0)));
+        Assert.assertTrue(link.receive(datagram(1, 0, 0)));
+    }
+
+    /**
+     * Test datagrams without messages answered only if they do not acknowledge the last sent one.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testAcknowledgeOnly() throws IOException
+    {
+        link.receive(datagram(0, 0, 0));
+        link.send();
+
+        Assert.assertEquals(1L, stats.getDatagrams());
+
+        link.receive(datagram(1, 0, 0));
+        link.send();
+
+        Assert.assertEquals(1L, stats.getDatagrams());
+
+        link.receive(datagram(TOKEN, 2, 0, 0, FrameOutputStream.HEADER + 1));
+        link.send();
+
+        Assert.assertEquals(2L, stats.getDatagrams());
+
+        link.receive(datagram(3, 0, 0));
+        link.send();
+
+        Assert.assertEquals(3L, stats.getDatagrams());
+    }
+
+    /**
+     * Test sent datagrams acknowledged, and counted as lost once out of window.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testAcknowledge() throws IOException
+    {
+        link.send();
+        link.send();
+        link.send();
+
+        Assert.assertEquals(3L, stats.getDatagrams());
+
+        link.receive(datagram(0, 2, 1 << 1));
+
+        Assert.assertEquals(2L, stats.getDatagramsAcknowledged());
+
+        link.receive(datagram(1, 2, 1 << 1));
+
+        Assert.assertEquals(2L, stats.getDatagramsAcknowledged());
+
+        final ByteBuffer frame = ByteBuffer.allocate(FrameOutputStream.HEADER + 1);
+        for (int i = 0; i < DatagramLink.ACK_BITS * 2; i++)
+        {
+            Assert.assertTrue(link.queue(frame));
+            link.send();
+        }
+
+        Assert.assertEquals(3L + DatagramLink.ACK_BITS * 2, stats.getDatagrams());
+        Assert.assertEquals(1L, stats.getDatagramsLost());
+    }
+
+    /**
+     * Test frames queued only once established, several frames by datagram.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testQueue() throws IOException
+    {
+        final ByteBuffer frame = ByteBuffer.allocate(100);
+
+        Assert.assertFalse(link.queue(frame));
+
+        link.receive(datagram(0, 0, 0));
+
+        Assert.assertFalse(link.queue(ByteBuffer.allocate(DatagramLink.MAX_SIZE - DatagramLink.HEADER + 1)));
+
+        final int count = (DatagramLink.MAX_SIZE - DatagramLink.HEADER) / frame.remaining();
+        for (int i = 0; i < count; i++)
+        {
+            Assert.assertTrue(link.queue(frame));
+        }
+
+        Assert.assertEquals(0L, stats.getDatagrams());
+        Assert.assertEquals(count, stats.getMessages());
+        Assert.assertTrue(link.queue(frame));
+        Assert.assertEquals(1L, stats.getDatagrams());
+        Assert.assertEquals(DatagramLink.HEADER + count * frame.remaining(), receive().remaining());
+        Assert.assertEquals(0, frame.position());
+
+        link.send();
+
+        Assert.assertEquals(DatagramLink.HEADER + frame.remaining(), receive().remaining());
+
+        link.send();
+
+        Assert.assertEquals(2L, stats.getDatagrams());
+    }
+
+    /**
+     * Receive the sent datagram.
+     * 
+     * @return The received datagram.
+     * @throws IOException If error.
+     */
+    private ByteBuffer receive() throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(DatagramLink.MAX_SIZE);
+        Assert.assertNotNull(peer.receive(buffer));
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the frame input stream.
+ */
+public class FrameInputStreamTest
+{
+    /**
+     * Create a frame with its size header.
+     * 
+     * @param data The frame data.
+     * @return The frame.
+     */
+    private static byte[] frame(byte... data)
+    {
+        final ByteBuffer frame = ByteBuffer.allocate(FrameOutputStream.HEADER + data.length);
+        frame.putInt(data.length);
+        frame.put(data);
+        return frame.array();
+    }
+
+    /**
+     * Read the current frame until its end.
+     * 
+     * @param input The input stream.
+     * @return The frame data.
+     */
+    private static byte[] read(FrameInputStream input)
+    {
+        final byte[] data = new byte[input.available()];
+        Assert.assertEquals(data.length, input.read(data, 0, data.length));
+        Assert.assertEquals(-1, input.read());
+        return data;
+    }
+
+    /** Channel mock. */
+    private final ChannelMock channel = new ChannelMock();
+    /** Tested stream. */
+    private final FrameInputStream input = new FrameInputStream(channel);
+
+    /**
+     * Test frames split across reads, including their header.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSplitFrame() throws IOException
+    {
+        final byte[] first = frame((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5);
+        final byte[] second = frame((byte) 6, (byte) 7);
+
+        channel.feed(Arrays.copyOfRange(first, 0, 2));
+        Assert.assertTrue(input.receive());
+        Assert.assertFalse(input.nextFrame());
+
+        channel.feed(Arrays.copyOfRange(first, 2, 7));
+        Assert.assertTrue(input.receive());
+        Assert.assertFalse(input.nextFrame());
+
+        final byte[] end = new byte[first.length - 7 + 3];
+        System.arraycopy(first, 7, end, 0, first.length - 7);
+        System.arraycopy(second, 0, end, first.length - 7, 3);
+        channel.feed(end);
+        Assert.assertTrue(input.receive());
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertArrayEquals(new byte[]
+        {
+            1, 2, 3, 4, 5
+        }, read(input));
+        Assert.assertFalse(input.nextFrame());
+
+        channel.feed(Arrays.copyOfRange(second, 3, second.length));
+        Assert.assertTrue(input.receive());
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertArrayEquals(new byte[]
+        {
+            6, 7
+        }, read(input));
+        Assert.assertFalse(input.nextFrame());
+    }
+
+    /**
+     * Test unread frame data skipped on next frame.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSkipUnread() throws IOException
+    {
+        channel.feed(frame((byte) 1, (byte) 2, (byte) 3));
+        channel.feed(frame((byte) 4));
+        channel.feed(frame());
+        Assert.assertTrue(input.receive());
+
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertEquals(1, input.read());
+        Assert.assertEquals(1L, input.skip(1L));
+        Assert.assertEquals(1, input.available());
+
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertEquals(4, input.read());
+
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertEquals(0, input.available());
+        Assert.assertEquals(-1, input.read(new byte[1], 0, 1));
+
+        Assert.assertFalse(input.nextFrame());
+    }
+
+    /**
+     * Test frame bigger than the initial buffer, received in several parts.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final byte[] data = new byte[50000];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        final byte[] big = frame(data);
+        final int half = big.length / 2;
+
+        channel.feed(Arrays.copyOfRange(big, 0, half));
+        Assert.assertTrue(input.receive());
+        Assert.assertFalse(input.nextFrame());
+
+        channel.feed(Arrays.copyOfRange(big, half, big.length));
+        Assert.assertTrue(input.receive());
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertArrayEquals(data, read(input));
+    }
+
+    /**
+     * Test buffered data limited to the maximum frame size, remaining data received on next call.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLimit() throws IOException
+    {
+        final FrameInputStream limited = new FrameInputStream(channel, 4);
+        for (int i = 0; i < 3; i++)
+        {
+            channel.feed(frame((byte) i, (byte) i, (byte) i, (byte) i));
+        }
+
+        Assert.assertTrue(limited.receive());
+        Assert.assertTrue(limited.nextFrame());
+        Assert.assertArrayEquals(new byte[]
+        {
+            0, 0, 0, 0
+        }, read(limited));
+        Assert.assertFalse(limited.nextFrame());
+
+        Assert.assertTrue(limited.receive());
+        Assert.assertTrue(limited.nextFrame());
+        Assert.assertEquals(1, limited.read());
+        Assert.assertFalse(limited.nextFrame());
+
+        Assert.assertTrue(limited.receive());
+        Assert.assertTrue(limited.nextFrame());
+        Assert.assertEquals(2, limited.read());
+        Assert.assertFalse(limited.nextFrame());
+    }
+
+    /**
+     * Test frame bigger than maximum size.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testTooBig() throws IOException
+    {
+        final FrameInputStream limited = new FrameInputStream(channel, 4);
+        channel.feed(frame((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5));
+
+        Assert.assertTrue(limited.receive());
+        Assert.assertFalse(limited.nextFrame());
+    }
+
+    /**
+     * Test end of stream.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testEndOfStream() throws IOException
+    {
+        channel.feed(frame((byte) 1));
+        channel.close();
+
+        Assert.assertFalse(input.receive());
+        Assert.assertTrue(input.nextFrame());
+        Assert.assertEquals(1, input.read());
+    }
+
+    /**
+     * Test invalid frame size.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidSize() throws IOException
+    {
+        channel.feed(new byte[]
+        {
+            -1, -1, -1, -1
+        });
+        Assert.assertTrue(input.receive());
+        Assert.assertFalse(input.nextFrame());
+    }
+}
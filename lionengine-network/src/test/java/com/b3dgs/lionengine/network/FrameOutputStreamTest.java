@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the frame output stream.
+ */
+public class FrameOutputStreamTest
+{
+    /**
+     * Create a frame with its size header.
+     * 
+     * @param data The frame data.
+     * @return The frame.
+     */
+    private static byte[] frame(byte... data)
+    {
+        final ByteBuffer frame = ByteBuffer.allocate(FrameOutputStream.HEADER + data.length);
+        frame.putInt(data.length);
+        frame.put(data);
+        return frame.array();
+    }
+
+    /** Channel mock. */
+    private final ChannelMock channel = new ChannelMock();
+    /** Tested stream. */
+    private final FrameOutputStream output = new FrameOutputStream(channel);
+
+    /**
+     * Test frames written and queued, sent with a single write.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSend() throws IOException
+    {
+        Assert.assertFalse(output.hasPending());
+
+        output.write(1);
+        output.write(new byte[]
+        {
+            2, 3
+        }, 0, 2);
+        output.flush();
+        output.queue(ByteBuffer.wrap(frame((byte) 4)));
+        output.write(5);
+
+        Assert.assertTrue(output.hasPending());
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(frame((byte) 1, (byte) 2, (byte) 3));
+        expected.write(frame((byte) 4));
+        expected.write(frame((byte) 5));
+
+        Assert.assertEquals(expected.size(), output.send());
+        Assert.assertArrayEquals(expected.toByteArray(), channel.getWritten());
+        Assert.assertEquals(1, channel.getWrites());
+        Assert.assertFalse(output.hasPending());
+    }
+
+    /**
+     * Test partial gathering write, the remaining data being sent first on next send, in order.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testPartialWrite() throws IOException
+    {
+        final ByteBuffer queued = ByteBuffer.wrap(frame((byte) 3, (byte) 4, (byte) 5));
+
+        output.write(new byte[]
+        {
+            1, 2
+        }, 0, 2);
+        output.flush();
+        output.queue(queued);
+        output.write(6);
+        output.flush();
+
+        channel.setWritable(8L);
+
+        Assert.assertEquals(8L, output.send());
+        Assert.assertEquals(2, channel.getWrites());
+        Assert.assertTrue(output.hasPending());
+        Assert.assertEquals(0, queued.position());
+
+        output.queue(ByteBuffer.wrap(frame((byte) 7)));
+        output.write(8);
+        channel.setWritable(Long.MAX_VALUE);
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(frame((byte) 1, (byte) 2));
+        expected.write(frame((byte) 3, (byte) 4, (byte) 5));
+        expected.write(frame((byte) 6));
+        expected.write(frame((byte) 7));
+        expected.write(frame((byte) 8));
+
+        Assert.assertEquals(expected.size() - 8L, output.send());
+        Assert.assertArrayEquals(expected.toByteArray(), channel.getWritten());
+        Assert.assertFalse(output.hasPending());
+    }
+
+    /**
+     * Test the same queued frame sent by several streams, with one write each, frame being left untouched.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSharedFrame() throws IOException
+    {
+        final ByteBuffer shared = ByteBuffer.wrap(frame((byte) 1, (byte) 2));
+        final ChannelMock other = new ChannelMock();
+        final FrameOutputStream otherOutput = new FrameOutputStream(other);
+
+        output.queue(shared);
+        output.queue(shared);
+        otherOutput.queue(shared);
+
+        Assert.assertEquals(2L * shared.remaining(), output.send());
+        Assert.assertEquals(shared.remaining(), otherOutput.send());
+        Assert.assertEquals(1, channel.getWrites());
+        Assert.assertEquals(1, other.getWrites());
+        Assert.assertEquals(0, shared.position());
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(shared.array());
+        expected.write(shared.array());
+
+        Assert.assertArrayEquals(expected.toByteArray(), channel.getWritten());
+        Assert.assertArrayEquals(shared.array(), other.getWritten());
+    }
+
+    /**
+     * Test pending data exceeding the maximum size, as a peer not reading its data.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testMaxPending() throws IOException
+    {
+        final FrameOutputStream limited = new FrameOutputStream(channel, 8);
+        channel.setWritable(0L);
+        limited.write(new byte[4], 0, 4);
+        limited.flush();
+
+        Assert.assertEquals(0L, limited.send());
+
+        limited.write(1);
+        try
+        {
+            Assert.assertEquals(0L, limited.send());
+            Assert.fail();
+        }
+        catch (final IOException exception)
+        {
+            Assert.assertTrue(limited.hasPending());
+        }
+    }
+
+    /**
+     * Test frame bigger than the initial buffer.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final byte[] data = new byte[50000];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        output.write(data, 0, data.length);
+        output.flush();
+        channel.setWritable(100L);
+
+        Assert.assertEquals(100L, output.send());
+
+        channel.setWritable(Long.MAX_VALUE);
+
+        Assert.assertEquals(data.length + FrameOutputStream.HEADER - 100L, output.send());
+        Assert.assertArrayEquals(frame(data), channel.getWritten());
+    }
+}
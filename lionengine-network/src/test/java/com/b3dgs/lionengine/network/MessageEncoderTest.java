@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+
+/**
+ * Test the message encoder.
+ */
+public class MessageEncoderTest
+{
+    /** Message type. */
+    private static final byte TYPE = 3;
+    /** Source client. */
+    private static final byte SOURCE = 1;
+    /** Destination client. */
+    private static final byte DEST = 2;
+
+    /**
+     * Get the frame size of a chat message.
+     * 
+     * @param text The chat text.
+     * @return The frame size.
+     */
+    private static int frameSize(String text)
+    {
+        return FrameOutputStream.HEADER + MessageEncoder.HEADER + 3 + text.length();
+    }
+
+    /**
+     * Create a text of the specified length.
+     * 
+     * @param length The text length.
+     * @return The text.
+     */
+    private static String text(int length)
+    {
+        final StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+        {
+            text.append((char) ('a' + i % 26));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Read a frame content.
+     * 
+     * @param frame The frame.
+     * @return The frame content.
+     */
+    private static byte[] content(ByteBuffer frame)
+    {
+        final byte[] content = new byte[frame.remaining()];
+        frame.duplicate().get(content);
+        return content;
+    }
+
+    /** Tested encoder. */
+    private final MessageEncoder encoder = new MessageEncoder();
+
+    /**
+     * Test the encoded frame layout.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testEncode() throws IOException
+    {
+        final NetworkMessage message = new NetworkMessageChat(TYPE, SOURCE, DEST, "hi");
+        final ByteBuffer frame = encoder.encode(message);
+
+        Assert.assertEquals(frameSize("hi"), frame.remaining());
+        Assert.assertEquals(frame.remaining() - FrameOutputStream.HEADER, frame.getInt());
+        Assert.assertEquals(NetworkMessageSystemId.USER_MESSAGE, frame.get());
+        Assert.assertEquals(SOURCE, frame.get());
+        Assert.assertEquals(DEST, frame.get());
+        Assert.assertEquals(TYPE, frame.get());
+        Assert.assertEquals(3 + 2, frame.getInt());
+        Assert.assertEquals(TYPE, frame.get());
+        Assert.assertEquals(SOURCE, frame.get());
+        Assert.assertEquals(DEST, frame.get());
+        Assert.assertEquals('h', frame.get());
+        Assert.assertEquals('i', frame.get());
+        Assert.assertFalse(frame.hasRemaining());
+    }
+
+    /**
+     * Test previous frames remain valid when buffer grows.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final ByteBuffer first = encoder.encode(new NetworkMessageChat(TYPE, SOURCE, "first"));
+        final byte[] expected = content(first);
+        final String big = text(50000);
+        final ByteBuffer second = encoder.encode(new NetworkMessageChat(TYPE, SOURCE, big));
+
+        Assert.assertArrayEquals(expected, content(first));
+        Assert.assertEquals(frameSize(big), second.remaining());
+        Assert.assertEquals(0, second.position());
+    }
+
+    /**
+     * Test frames are appended until clear, buffer being then reused.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testClear() throws IOException
+    {
+        final ByteBuffer first = encoder.encode(new NetworkMessageChat(TYPE, SOURCE, "a"));
+        final ByteBuffer second = encoder.encode(new NetworkMessageChat(TYPE, SOURCE, "b"));
+
+        Assert.assertEquals(0, first.position());
+        Assert.assertEquals(first.limit(), second.position());
+
+        encoder.clear();
+        final ByteBuffer third = encoder.encode(new NetworkMessageChat(TYPE, SOURCE, "c"));
+
+        Assert.assertEquals(0, third.position());
+        Assert.assertEquals(frameSize("c"), third.remaining());
+    }
+}
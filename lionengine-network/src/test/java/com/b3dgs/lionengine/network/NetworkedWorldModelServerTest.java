@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.geom.Rectangle;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+import com.b3dgs.lionengine.network.purview.SnapshotServer;
+import com.b3dgs.lionengine.util.UtilReflection;
+
+/**
+ * Test the networked world server.
+ */
+public class NetworkedWorldModelServerTest
+{
+    /** Chat messages decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new NetworkMessageChat();
+        }
+    };
+    /** First client id. */
+    private static final Byte ID = Byte.valueOf((byte) 0);
+
+    /**
+     * Entity fields.
+     */
+    private enum Field
+    {
+        /** Value. */
+        VALUE;
+    }
+
+    /** Connected clients. */
+    private final List<ClientImpl> clients = new ArrayList<ClientImpl>();
+    /** Tested world. */
+    private NetworkedWorldModelServer world;
+    /** Server port. */
+    private int port;
+
+    /**
+     * Start server.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        final ServerSocket socket = new ServerSocket(0);
+        port = socket.getLocalPort();
+        socket.close();
+
+        world = new NetworkedWorldModelServer(DECODER);
+        world.startServer("server", port, null);
+    }
+
+    /**
+     * Stop server and clients.
+     */
+    @After
+    public void clean()
+    {
+        for (final ClientImpl client : clients)
+        {
+            if (client.isConnected())
+            {
+                client.disconnect();
+            }
+        }
+        world.disconnect();
+    }
+
+    /**
+     * Test client interest removed when its socket is closed without disconnection message, so a new client reusing
+     * its id does not inherit its focus.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testInterestClosedClient() throws IOException, InterruptedException
+    {
+        final Networkable networkable = new NetworkableModel();
+        world.setInterestRange(10.0, 0.0);
+        world.addNetworkable(networkable, new Rectangle(0.0, 0.0, 0.0, 0.0));
+
+        final ClientImpl first = connect();
+        world.setClientFocus(ID, new Rectangle(1000.0, 1000.0, 10.0, 10.0));
+        update(1);
+
+        Assert.assertEquals(ID.byteValue(), first.getId());
+        Assert.assertFalse(world.isInterested(ID, networkable));
+
+        final ClientChannel channel = UtilReflection.getField(first, "channel");
+        UtilReflection.<SocketChannel> getField(channel, "socket").close();
+        update(20);
+
+        final ClientImpl second = connect();
+
+        Assert.assertEquals(ID.byteValue(), second.getId());
+        Assert.assertTrue(world.isInterested(ID, networkable));
+    }
+
+    /**
+     * Test connected clients registered to snapshot servers, added before or after their connection.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testSnapshotClients() throws InterruptedException
+    {
+        final SnapshotServer<Field> before = new SnapshotServer<Field>(Field.class, (byte) 1);
+        world.addNetworkable(before);
+
+        final ClientImpl client = connect();
+        final SnapshotServer<Field> after = new SnapshotServer<Field>(Field.class, (byte) 2);
+        world.addNetworkable(after);
+
+        before.snapshot();
+        after.snapshot();
+
+        Assert.assertEquals(1, before.getNetworkMessages().size());
+        Assert.assertEquals(1, after.getNetworkMessages().size());
+
+        client.disconnect();
+        update(20);
+        before.clearNetworkMessages();
+        after.clearNetworkMessages();
+        before.snapshot();
+        after.snapshot();
+
+        Assert.assertTrue(before.getNetworkMessages().isEmpty());
+        Assert.assertTrue(after.getNetworkMessages().isEmpty());
+    }
+
+    /**
+     * Connect a new client, and wait for its connection.
+     * 
+     * @return The connected client.
+     * @throws InterruptedException If interrupted.
+     */
+    private ClientImpl connect() throws InterruptedException
+    {
+        final ClientImpl client = new ClientImpl(DECODER);
+        client.setName("client");
+        client.connect("127.0.0.1", port);
+        clients.add(client);
+        update(20);
+        return client;
+    }
+
+    /**
+     * Update world and clients.
+     * 
+     * @param frames The number of updates.
+     * @throws InterruptedException If interrupted.
+     */
+    private void update(int frames) throws InterruptedException
+    {
+        for (int frame = 0; frame < frames; frame++)
+        {
+            world.receiveMessages();
+            world.sendMessages();
+            for (final ClientImpl client : clients)
+            {
+                client.receiveMessages();
+                client.sendMessages();
+            }
+            Thread.sleep(5L);
+        }
+    }
+}
@@ -0,0 +1,662 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.util.UtilReflection;
+
+/**
+ * Test the server and client implementations over the local loopback.
+ */
+public class ServerImplTest
+{
+    /** Chat message type. */
+    private static final byte CHAT = 1;
+    /** Unreliable message type. */
+    private static final byte POS = 2;
+    /** Message of the day. */
+    private static final String MOTD = "hello";
+    /** Chat messages decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new NetworkMessageChat();
+        }
+    };
+
+    /**
+     * Get a free local port.
+     * 
+     * @return The free port.
+     * @throws IOException If error.
+     */
+    private static int getFreePort() throws IOException
+    {
+        final ServerSocket socket = new ServerSocket(0);
+        try
+        {
+            return socket.getLocalPort();
+        }
+        finally
+        {
+            socket.close();
+        }
+    }
+
+    /** Received events, prefixed by their receiver. */
+    private final List<String> events = new ArrayList<String>();
+    /** Received messages content by client index. */
+    private final Map<Integer, List<String>> received = new HashMap<Integer, List<String>>();
+    /** Messages content received by server. */
+    private final List<String> serverReceived = new ArrayList<String>();
+    /** Connected clients. */
+    private final List<ClientImpl> clients = new ArrayList<ClientImpl>();
+    /** Tested server. */
+    private ServerImpl server;
+    /** Server port. */
+    private int port;
+
+    /**
+     * Start server.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        server = new ServerImpl(DECODER);
+        server.setMessageOfTheDay(MOTD);
+        server.addListener(new Events("server"));
+        server.setReliable(POS, false);
+        port = getFreePort();
+        server.start("server", port);
+    }
+
+    /**
+     * Stop server and clients.
+     */
+    @After
+    public void clean()
+    {
+        for (final ClientImpl client : clients)
+        {
+            if (client.isConnected())
+            {
+                client.disconnect();
+            }
+        }
+        server.disconnect();
+    }
+
+    /**
+     * Test the clients connection, rename and disconnection, notified to server and other clients.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testConnection() throws InterruptedException
+    {
+        connect("c0");
+        connect("c1");
+        connect("c2");
+
+        Assert.assertEquals(3, server.getNumberOfClients());
+        Assert.assertEquals(port, server.getPort());
+        for (int i = 0; i < clients.size(); i++)
+        {
+            Assert.assertEquals(i, clients.get(i).getId());
+            Assert.assertTrue(events.contains("server connected " + i + " c" + i));
+            Assert.assertTrue(events.contains("c" + i + " established " + i + " c" + i));
+            Assert.assertTrue(events.contains("c" + i + " motd " + MOTD));
+        }
+        Assert.assertTrue(events.contains("c2 connected 0 c0"));
+        Assert.assertTrue(events.contains("c2 connected 1 c1"));
+        Assert.assertTrue(events.contains("c0 connected 2 c2"));
+
+        clients.get(2).setName("renamed");
+        update(20);
+
+        Assert.assertEquals("renamed", clients.get(2).getName());
+        Assert.assertTrue(events.contains("server renamed 2 renamed"));
+        Assert.assertTrue(events.contains("c0 renamed 2 renamed"));
+        Assert.assertTrue(events.contains("c1 renamed 2 renamed"));
+
+        clients.get(1).disconnect();
+        update(20);
+
+        Assert.assertFalse(clients.get(1).isConnected());
+        Assert.assertEquals(2, server.getNumberOfClients());
+        Assert.assertNull(server.getStats(Byte.valueOf((byte) 1)));
+        Assert.assertTrue(events.contains("server disconnected 1 c1"));
+        Assert.assertTrue(events.contains("c0 disconnected 1 c1"));
+        Assert.assertTrue(events.contains("c2 disconnected 1 c1"));
+
+        server.disconnect();
+        update(20);
+
+        Assert.assertFalse(clients.get(0).isConnected());
+        Assert.assertFalse(clients.get(2).isConnected());
+        Assert.assertTrue(events.contains("c0 terminated 0"));
+        Assert.assertTrue(events.contains("c2 terminated 2"));
+    }
+
+    /**
+     * Test client closed without disconnection message, notified to server listeners and other clients.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testClosed() throws IOException, InterruptedException
+    {
+        connect("c0");
+        connect("c1");
+
+        final ClientChannel channel = UtilReflection.getField(clients.get(1), "channel");
+        UtilReflection.<SocketChannel> getField(channel, "socket").close();
+        update(20);
+
+        Assert.assertEquals(1, server.getNumberOfClients());
+        Assert.assertTrue(events.contains("server disconnected 1 c1"));
+        Assert.assertTrue(events.contains("c0 disconnected 1 c1"));
+
+        server.disconnect();
+        update(20);
+
+        Assert.assertTrue(events.contains("server disconnected 0 c0"));
+        Assert.assertTrue(events.contains("c0 terminated 0"));
+    }
+
+    /**
+     * Test client sending an invalid frame dropped, other clients staying connected.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testInvalidFrame() throws IOException, InterruptedException
+    {
+        connect("c0");
+        final Socket socket = new Socket("127.0.0.1", port);
+        try
+        {
+            socket.setSoTimeout(5000);
+            update(20);
+
+            Assert.assertEquals(2, server.getNumberOfClients());
+
+            socket.getOutputStream().write(new byte[]
+            {
+                -1, -1, -1, -1
+            });
+            socket.getOutputStream().flush();
+            update(20);
+
+            Assert.assertEquals(1, server.getNumberOfClients());
+            Assert.assertNull(server.getStats(Byte.valueOf((byte) 1)));
+            Assert.assertTrue(clients.get(0).isConnected());
+
+            final byte[] data = new byte[1024];
+            int read = socket.getInputStream().read(data);
+            while (read > 0)
+            {
+                read = socket.getInputStream().read(data);
+            }
+            Assert.assertEquals(-1, read);
+        }
+        finally
+        {
+            socket.close();
+        }
+    }
+
+    /**
+     * Test many and big messages from several clients, relayed by server in order, split across reads.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testMessages() throws InterruptedException
+    {
+        connect("c0");
+        connect("c1");
+        connect("c2");
+
+        final StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 100000; i++)
+        {
+            big.append((char) ('a' + i % 26));
+        }
+        clients.get(0).addMessage(new NetworkMessageChat(CHAT, clients.get(0).getId(), big.toString()));
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 500; i++)
+        {
+            expected.add("m" + i);
+            clients.get(1).addMessage(new NetworkMessageChat(CHAT, clients.get(1).getId(), "m" + i));
+        }
+        update(50);
+
+        for (int i = 0; i < clients.size(); i++)
+        {
+            final List<String> messages = received.get(Integer.valueOf(i));
+            Assert.assertTrue(messages.remove(big.toString()));
+            Assert.assertEquals(expected, messages);
+        }
+    }
+
+    /**
+     * Test messages for server only received by server, and not relayed to any client.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testServerOnly() throws InterruptedException
+    {
+        connect("c0");
+        connect("c1");
+
+        final byte id = clients.get(0).getId();
+        clients.get(0).addMessage(new NetworkMessageChat(CHAT, id, NetworkMessage.DEST_SERVER, "ack"));
+        clients.get(0).addMessage(new NetworkMessageChat(CHAT, id, id, "self"));
+        update(20);
+
+        Assert.assertEquals(Arrays.asList("ack", "self"), serverReceived);
+        Assert.assertEquals(Arrays.asList("self"), received.get(Integer.valueOf(0)));
+        Assert.assertTrue(received.get(Integer.valueOf(1)).isEmpty());
+    }
+
+    /**
+     * Test broadcast messages encoded once, and sent with a single write per client, updating the client statistics.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testBroadcast() throws InterruptedException
+    {
+        connect("c0");
+        connect("c1");
+        connect("c2");
+
+        server.receiveMessages();
+
+        final long[] bytes = new long[clients.size()];
+        final long[] messages = new long[clients.size()];
+        final long[] flushes = new long[clients.size()];
+        for (int i = 0; i < clients.size(); i++)
+        {
+            final ClientStats stats = server.getStats(Byte.valueOf((byte) i));
+            bytes[i] = stats.getBytes();
+            messages[i] = stats.getMessages();
+            flushes[i] = stats.getFlushes();
+        }
+
+        final List<Counted> sent = new ArrayList<Counted>();
+        long size = 0L;
+        for (int i = 0; i < 10; i++)
+        {
+            final Counted message = new Counted("broadcast" + i);
+            sent.add(message);
+            server.addMessage(message);
+            size += FrameOutputStream.HEADER + MessageEncoder.HEADER + 3 + message.getMessage().length();
+        }
+        server.sendMessages();
+
+        for (final Counted message : sent)
+        {
+            Assert.assertEquals(1, message.encoded);
+        }
+        for (int i = 0; i < clients.size(); i++)
+        {
+            final ClientStats stats = server.getStats(Byte.valueOf((byte) i));
+            Assert.assertEquals(flushes[i] + 1L, stats.getFlushes());
+            Assert.assertEquals(messages[i] + sent.size(), stats.getMessages());
+            Assert.assertEquals(bytes[i] + size, stats.getBytes());
+        }
+
+        update(20);
+
+        for (int i = 0; i < clients.size(); i++)
+        {
+            Assert.assertEquals(sent.size(), received.get(Integer.valueOf(i)).size());
+            for (int j = 0; j < sent.size(); j++)
+            {
+                Assert.assertEquals(sent.get(j).getMessage(), received.get(Integer.valueOf(i)).get(j));
+            }
+        }
+    }
+
+    /**
+     * Test unreliable messages sent over datagrams once link established, and over the reliable channel to the
+     * client without datagram link.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testDatagram() throws InterruptedException
+    {
+        connect("c0", false);
+        connect("c1", false);
+        connect("c2", true);
+
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 30; i++)
+        {
+            expected.add("pos" + i);
+            clients.get(0).addMessage(new NetworkMessageChat(POS, clients.get(0).getId(), "pos" + i));
+            update(1);
+        }
+        update(20);
+
+        for (int i = 0; i < clients.size(); i++)
+        {
+            Assert.assertEquals(expected, received.get(Integer.valueOf(i)));
+        }
+
+        final ClientStats unreliable = server.getStats(Byte.valueOf((byte) 1));
+        final ClientStats reliable = server.getStats(Byte.valueOf((byte) 2));
+
+        Assert.assertTrue(unreliable.getDatagrams() >= expected.size());
+        Assert.assertTrue(unreliable.getDatagramsAcknowledged() > 0L);
+        Assert.assertEquals(0L, reliable.getDatagrams());
+        Assert.assertTrue(reliable.getMessages() >= expected.size());
+    }
+
+    /**
+     * Test datagrams from another port, with another token, stale, or with messages from another client, are ignored.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testDatagramRejected() throws IOException, InterruptedException
+    {
+        connect("c0", false);
+        connect("c1", false);
+        update(20);
+        received.clear();
+
+        final ClientDatagram datagram = UtilReflection.getField(clients.get(0), "datagram");
+        final DatagramChannel bound = UtilReflection.getField(datagram, "channel");
+        final Map<Byte, ClientSocket> sockets = UtilReflection.getField(server, "clients");
+        final int token = sockets.get(Byte.valueOf((byte) 0)).getDatagram().getToken();
+
+        final DatagramChannel other = DatagramChannel.open();
+        try
+        {
+            other.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+            sendDatagram(other, token, 1000, new NetworkMessageChat(CHAT, (byte) 0, "hijacked"));
+        }
+        finally
+        {
+            other.close();
+        }
+        update(10);
+
+        Assert.assertTrue(received.get(Integer.valueOf(1)).isEmpty());
+
+        sendDatagram(bound, token + 1, 1000, new NetworkMessageChat(CHAT, (byte) 0, "spoofed"));
+        update(10);
+
+        Assert.assertTrue(received.get(Integer.valueOf(1)).isEmpty());
+
+        sendDatagram(bound, token, 1000, new NetworkMessageChat(CHAT, (byte) 1, "forged"));
+        update(10);
+
+        Assert.assertTrue(received.get(Integer.valueOf(1)).isEmpty());
+
+        sendDatagram(bound, token, 999, new NetworkMessageChat(CHAT, (byte) 0, "stale"));
+        update(10);
+
+        Assert.assertTrue(received.get(Integer.valueOf(1)).isEmpty());
+
+        sendDatagram(bound, token, 1001, new NetworkMessageChat(CHAT, (byte) 0, "accepted"));
+        update(10);
+
+        Assert.assertEquals(Arrays.asList("accepted"), received.get(Integer.valueOf(1)));
+    }
+
+    /**
+     * Send a datagram as the first client to the server.
+     * 
+     * @param channel The source channel.
+     * @param token The datagram token.
+     * @param sequence The datagram sequence.
+     * @param message The datagram message.
+     * @throws IOException If error.
+     */
+    private void sendDatagram(DatagramChannel channel, int token, int sequence, NetworkMessage message)
+            throws IOException
+    {
+        final MessageEncoder encoder = new MessageEncoder();
+        final ByteBuffer frame = encoder.encode(message);
+        final ByteBuffer datagram = ByteBuffer.allocate(DatagramLink.HEADER + frame.remaining());
+        datagram.put((byte) 0);
+        datagram.putInt(token);
+        datagram.putShort((short) sequence);
+        datagram.putShort((short) 0);
+        datagram.putInt(0);
+        datagram.put(frame);
+        datagram.flip();
+
+        channel.send(datagram, new InetSocketAddress("127.0.0.1", port));
+    }
+
+    /**
+     * Connect a new client, and wait for its connection.
+     * 
+     * @param name The client name.
+     * @return The connected client.
+     * @throws InterruptedException If interrupted.
+     */
+    private ClientImpl connect(String name) throws InterruptedException
+    {
+        return connect(name, true);
+    }
+
+    /**
+     * Connect a new client, and wait for its connection.
+     * 
+     * @param name The client name.
+     * @param reliable <code>true</code> if all messages are sent on reliable channel, <code>false</code> to use
+     *            datagrams for unreliable messages.
+     * @return The connected client.
+     * @throws InterruptedException If interrupted.
+     */
+    private ClientImpl connect(String name, boolean reliable) throws InterruptedException
+    {
+        final ClientImpl client = new ClientImpl(DECODER);
+        client.setReliable(POS, reliable);
+        client.setName(name);
+        client.addListener(new Events(name));
+        client.connect("127.0.0.1", port);
+        clients.add(client);
+        update(20);
+        return client;
+    }
+
+    /**
+     * Update server and clients, storing received messages.
+     * 
+     * @param frames The number of updates.
+     * @throws InterruptedException If interrupted.
+     */
+    private void update(int frames) throws InterruptedException
+    {
+        for (int frame = 0; frame < frames; frame++)
+        {
+            server.receiveMessages();
+            for (final NetworkMessage message : server.getMessages())
+            {
+                serverReceived.add(((NetworkMessageChat) message).getMessage());
+            }
+            server.sendMessages();
+            for (int i = 0; i < clients.size(); i++)
+            {
+                final ClientImpl client = clients.get(i);
+                client.receiveMessages();
+                store(i, client.getMessages());
+                client.sendMessages();
+            }
+            Thread.sleep(5L);
+        }
+    }
+
+    /**
+     * Store received messages content.
+     * 
+     * @param client The client index.
+     * @param messages The received messages.
+     */
+    private void store(int client, Collection<NetworkMessage> messages)
+    {
+        final Integer key = Integer.valueOf(client);
+        List<String> list = received.get(key);
+        if (list == null)
+        {
+            list = new ArrayList<String>();
+            received.put(key, list);
+        }
+        for (final NetworkMessage message : messages)
+        {
+            list.add(((NetworkMessageChat) message).getMessage());
+        }
+    }
+
+    /**
+     * Chat message from server counting its encoding.
+     */
+    private static final class Counted extends NetworkMessageChat
+    {
+        /** Number of encoding. */
+        private int encoded;
+
+        /**
+         * Create message.
+         * 
+         * @param text The message text.
+         */
+        Counted(String text)
+        {
+            super(CHAT, (byte) -1, text);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer) throws IOException
+        {
+            encoded++;
+            super.encode(buffer);
+        }
+    }
+
+    /**
+     * Events recorder, prefixed by receiver name.
+     */
+    private final class Events implements ConnectionListener
+    {
+        /** Receiver name. */
+        private final String receiver;
+
+        /**
+         * Create recorder.
+         * 
+         * @param receiver The receiver name.
+         */
+        Events(String receiver)
+        {
+            super();
+
+            this.receiver = receiver;
+        }
+
+        /**
+         * Record event.
+         * 
+         * @param event The event name.
+         * @param id The client id.
+         * @param name The client name.
+         */
+        private void add(String event, Byte id, String name)
+        {
+            events.add(receiver + " " + event + " " + id + " " + name);
+        }
+
+        /*
+         * ConnectionListener
+         */
+
+        @Override
+        public void notifyClientConnected(Byte id, String name)
+        {
+            add("connected", id, name);
+        }
+
+        @Override
+        public void notifyClientDisconnected(Byte id, String name)
+        {
+            add("disconnected", id, name);
+        }
+
+        @Override
+        public void notifyClientNameChanged(Byte id, String name)
+        {
+            add("renamed", id, name);
+        }
+
+        @Override
+        public void notifyConnectionEstablished(Byte id, String name)
+        {
+            add("established", id, name);
+        }
+
+        @Override
+        public void notifyMessageOfTheDay(String messageOfTheDay)
+        {
+            events.add(receiver + " motd " + messageOfTheDay);
+        }
+
+        @Override
+        public void notifyConnectionTerminated(Byte id)
+        {
+            events.add(receiver + " terminated " + id);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the bit writer and reader.
+ */
+public class BitWriterTest
+{
+    /** Tested writer. */
+    private final BitWriter writer = new BitWriter();
+
+    /**
+     * Test values written and read back on edge widths.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final int[] widths =
+        {
+            1, 7, 8, 9, 15, 16, 17, 31, 32
+        };
+        for (final int width : widths)
+        {
+            final int max = width == Integer.SIZE ? -1 : (1 << width) - 1;
+            writer.write(0, width);
+            writer.write(1, width);
+            writer.write(max, width);
+        }
+        writer.write(Integer.MIN_VALUE, Integer.SIZE);
+
+        final BitReader reader = new BitReader(writer.toByteArray());
+        for (final int width : widths)
+        {
+            final int max = width == Integer.SIZE ? -1 : (1 << width) - 1;
+            Assert.assertEquals(0, reader.read(width));
+            Assert.assertEquals(1, reader.read(width));
+            Assert.assertEquals(max, reader.read(width));
+        }
+        Assert.assertEquals(Integer.MIN_VALUE, reader.read(Integer.SIZE));
+    }
+
+    /**
+     * Test variable values on tiers limits.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testVariable() throws IOException
+    {
+        final int[] values =
+        {
+            0, 15, 16, 255, 256, 65535, 65536, Integer.MAX_VALUE, -1
+        };
+        for (final int value : values)
+        {
+            writer.writeVariable(value);
+        }
+
+        final BitReader reader = new BitReader(writer.toByteArray());
+        for (final int value : values)
+        {
+            Assert.assertEquals(value, reader.readVariable());
+        }
+    }
+
+    /**
+     * Test small variable values use the smallest tier.
+     */
+    @Test
+    public void testVariableSize()
+    {
+        writer.writeVariable(15);
+
+        Assert.assertEquals(1, writer.toByteArray().length);
+
+        writer.reset();
+        writer.writeVariable(Integer.MAX_VALUE);
+
+        Assert.assertEquals(5, writer.toByteArray().length);
+    }
+
+    /**
+     * Test signed values on edges.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSigned() throws IOException
+    {
+        final int[] values =
+        {
+            0, 1, -1, 7, -8, 8, -9, Integer.MAX_VALUE, Integer.MIN_VALUE
+        };
+        for (final int value : values)
+        {
+            writer.writeSigned(value);
+        }
+
+        final BitReader reader = new BitReader(writer.toByteArray());
+        for (final int value : values)
+        {
+            Assert.assertEquals(value, reader.readSigned());
+        }
+    }
+
+    /**
+     * Test zig zag encoding keeps small magnitudes small.
+     */
+    @Test
+    public void testZigZag()
+    {
+        Assert.assertEquals(0, BitWriter.zigZag(0));
+        Assert.assertEquals(1, BitWriter.zigZag(-1));
+        Assert.assertEquals(2, BitWriter.zigZag(1));
+        Assert.assertEquals(-1, BitWriter.zigZag(Integer.MIN_VALUE));
+        Assert.assertEquals(Integer.MIN_VALUE, BitReader.unZigZag(BitWriter.zigZag(Integer.MIN_VALUE)));
+        Assert.assertEquals(Integer.MAX_VALUE, BitReader.unZigZag(BitWriter.zigZag(Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Test writer reset and buffer growth.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testResetGrow() throws IOException
+    {
+        writer.write(-1, Integer.SIZE);
+        writer.reset();
+        writer.write(0, 1);
+
+        Assert.assertArrayEquals(new byte[]
+        {
+            0
+        }, writer.toByteArray());
+
+        writer.reset();
+        for (int i = 0; i < 1000; i++)
+        {
+            writer.write(i, 11);
+        }
+        final BitReader reader = new BitReader(writer.toByteArray());
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertEquals(i, reader.read(11));
+        }
+    }
+
+    /**
+     * Test truncated data.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException
+    {
+        writer.write(1, BitWriter.BYTE_BITS);
+
+        final BitReader reader = new BitReader(writer.toByteArray());
+        reader.read(BitWriter.BYTE_BITS + 1);
+    }
+}
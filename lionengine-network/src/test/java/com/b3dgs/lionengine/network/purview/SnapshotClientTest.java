@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageSnapshot;
+
+/**
+ * Test the snapshot client.
+ */
+public class SnapshotClientTest
+{
+    /** Message type. */
+    private static final byte TYPE = 7;
+    /** Client id. */
+    private static final Byte CLIENT = Byte.valueOf((byte) 1);
+
+    /**
+     * Entity fields.
+     */
+    private enum Field
+    {
+        /** Horizontal. */
+        X,
+        /** Vertical. */
+        Y;
+    }
+
+    /** Entity events. */
+    private final List<String> events = new ArrayList<String>();
+    /** Snapshot server. */
+    private SnapshotServer<Field> server;
+    /** Tested client. */
+    private SnapshotClient<Field> client;
+
+    /**
+     * Prepare server and client.
+     */
+    @Before
+    public void prepare()
+    {
+        server = new SnapshotServer<Field>(Field.class, TYPE);
+        server.addClient(CLIENT);
+        client = new SnapshotClient<Field>(Field.class, TYPE);
+        client.setClientId(CLIENT);
+        client.addListener(new SnapshotListener()
+        {
+            @Override
+            public void notifyEntityAdded(short id)
+            {
+                events.add("added " + id);
+            }
+
+            @Override
+            public void notifyEntityRemoved(short id)
+            {
+                events.add("removed " + id);
+            }
+        });
+    }
+
+    /**
+     * Test snapshots decoded with added, changed and removed entities, each one acknowledged to server only.
+     */
+    @Test
+    public void testReceive()
+    {
+        Assert.assertEquals(0, client.getSequence());
+        Assert.assertTrue(client.getEntities().isEmpty());
+
+        server.setState((short) 1, Field.X, 10);
+        server.setState((short) 2, Field.Y, -5);
+        final NetworkMessageSnapshot first = snapshot();
+        client.applyMessage(first);
+
+        Assert.assertEquals(0, first.getBaseline());
+        Assert.assertEquals(1, client.getSequence());
+        Assert.assertEquals(Arrays.asList(Short.valueOf((short) 1), Short.valueOf((short) 2)),
+                            new ArrayList<Short>(client.getEntities()));
+        Assert.assertEquals(10, client.getState((short) 1, Field.X));
+        Assert.assertEquals(-5, client.getState((short) 2, Field.Y));
+        Assert.assertEquals(Arrays.asList("added 1", "added 2"), events);
+
+        final NetworkMessageSnapshot ack = acknowledge();
+
+        Assert.assertTrue(ack.isAcknowledge());
+        Assert.assertEquals(1, ack.getSequence());
+        Assert.assertEquals(TYPE, ack.getType());
+        Assert.assertEquals(CLIENT.byteValue(), ack.getClientId());
+        Assert.assertEquals(NetworkMessage.DEST_SERVER, ack.getClientDestId());
+
+        events.clear();
+        server.setState((short) 1, Field.Y, 3);
+        server.removeEntity((short) 2);
+        server.setState((short) 3, Field.X, 7);
+        final NetworkMessageSnapshot second = snapshot();
+        client.applyMessage(second);
+
+        Assert.assertEquals(1, second.getBaseline());
+        Assert.assertEquals(2, client.getSequence());
+        Assert.assertEquals(10, client.getState((short) 1, Field.X));
+        Assert.assertEquals(3, client.getState((short) 1, Field.Y));
+        Assert.assertFalse(client.hasEntity((short) 2));
+        Assert.assertTrue(client.hasEntity((short) 3));
+        Assert.assertEquals(Arrays.asList("added 3", "removed 2"), events);
+        Assert.assertEquals(2, acknowledge().getSequence());
+    }
+
+    /**
+     * Test unknown entity state.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testUnknownEntity()
+    {
+        client.getState((short) 1, Field.X);
+    }
+
+    /**
+     * Test older snapshots, acknowledges and other messages ignored.
+     */
+    @Test
+    public void testIgnored()
+    {
+        server.setState((short) 1, Field.X, 1);
+        final NetworkMessageSnapshot first = snapshot();
+        server.setState((short) 1, Field.X, 2);
+        final NetworkMessageSnapshot second = snapshot();
+
+        client.applyMessage(second);
+        acknowledge();
+        client.applyMessage(first);
+        client.applyMessage(second);
+        client.applyMessage(new NetworkMessageSnapshot(TYPE, CLIENT.byteValue(), 5));
+        client.applyMessage(new NetworkMessageSnapshot((byte) (TYPE + 1), CLIENT.byteValue(), 5, 0, new byte[4]));
+        client.applyMessage(new NetworkMessageChat(TYPE, CLIENT.byteValue(), "chat"));
+
+        Assert.assertEquals(2, client.getSequence());
+        Assert.assertEquals(2, client.getState((short) 1, Field.X));
+        Assert.assertTrue(client.getNetworkMessages().isEmpty());
+    }
+
+    /**
+     * Test snapshot with a missing baseline ignored, until a full snapshot is received.
+     */
+    @Test
+    public void testMissingBaseline()
+    {
+        server.setState((short) 1, Field.X, 1);
+        snapshot();
+        server.applyMessage(new NetworkMessageSnapshot(TYPE, CLIENT.byteValue(), 1));
+        server.setState((short) 1, Field.X, 2);
+        final NetworkMessageSnapshot delta = snapshot();
+
+        Assert.assertEquals(1, delta.getBaseline());
+
+        client.applyMessage(delta);
+
+        Assert.assertEquals(0, client.getSequence());
+        Assert.assertFalse(client.hasEntity((short) 1));
+        Assert.assertTrue(client.getNetworkMessages().isEmpty());
+        Assert.assertTrue(events.isEmpty());
+
+        server.removeClient(CLIENT);
+        server.addClient(CLIENT);
+        final NetworkMessageSnapshot full = snapshot();
+        client.applyMessage(full);
+
+        Assert.assertEquals(0, full.getBaseline());
+        Assert.assertEquals(3, client.getSequence());
+        Assert.assertEquals(2, client.getState((short) 1, Field.X));
+        Assert.assertEquals(Arrays.asList("added 1"), events);
+    }
+
+    /**
+     * Test truncated snapshot data ignored, without acknowledge.
+     */
+    @Test
+    public void testInvalidData()
+    {
+        client.applyMessage(new NetworkMessageSnapshot(TYPE, (byte) -1, 1, 0, new byte[0]));
+
+        Assert.assertEquals(0, client.getSequence());
+        Assert.assertTrue(client.getNetworkMessages().isEmpty());
+    }
+
+    /**
+     * Test removed listener not notified.
+     */
+    @Test
+    public void testRemoveListener()
+    {
+        final SnapshotClient<Field> other = new SnapshotClient<Field>(Field.class, TYPE);
+        other.setClientId(CLIENT);
+        final SnapshotListener listener = new SnapshotListener()
+        {
+            @Override
+            public void notifyEntityAdded(short id)
+            {
+                Assert.fail();
+            }
+
+            @Override
+            public void notifyEntityRemoved(short id)
+            {
+                Assert.fail();
+            }
+        };
+        other.addListener(listener);
+        other.removeListener(listener);
+        server.setState((short) 1, Field.X, 1);
+        other.applyMessage(snapshot());
+
+        Assert.assertTrue(other.hasEntity((short) 1));
+    }
+
+    /**
+     * Test value dequantization.
+     */
+    @Test
+    public void testDequantize()
+    {
+        Assert.assertEquals(1.5, SnapshotClient.dequantize(SnapshotServer.quantize(1.5, 0.5), 0.5), 0.0);
+        Assert.assertEquals(-0.25, SnapshotClient.dequantize(SnapshotServer.quantize(-0.26, 0.25), 0.25), 0.0);
+    }
+
+    /**
+     * Record a snapshot and get the client message.
+     * 
+     * @return The client snapshot.
+     */
+    private NetworkMessageSnapshot snapshot()
+    {
+        server.snapshot();
+        final Collection<NetworkMessage> messages = server.getNetworkMessages();
+
+        Assert.assertEquals(1, messages.size());
+
+        final NetworkMessageSnapshot snapshot = (NetworkMessageSnapshot) messages.iterator().next();
+        server.clearNetworkMessages();
+        return snapshot;
+    }
+
+    /**
+     * Get the client acknowledge, and apply it to server.
+     * 
+     * @return The acknowledge.
+     */
+    private NetworkMessageSnapshot acknowledge()
+    {
+        final Collection<NetworkMessage> messages = client.getNetworkMessages();
+
+        Assert.assertEquals(1, messages.size());
+
+        final NetworkMessageSnapshot ack = (NetworkMessageSnapshot) messages.iterator().next();
+        client.clearNetworkMessages();
+        server.applyMessage(ack);
+        return ack;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the snapshot codec.
+ */
+public class SnapshotCodecTest
+{
+    /** Number of fields. */
+    private static final int FIELDS = 3;
+
+    /**
+     * Create states.
+     * 
+     * @param entries The entity id followed by its fields values, for each entity.
+     * @return The states.
+     */
+    private static SortedMap<Short, int[]> states(int... entries)
+    {
+        final SortedMap<Short, int[]> states = new TreeMap<Short, int[]>();
+        for (int i = 0; i < entries.length; i += FIELDS + 1)
+        {
+            final int[] state = new int[FIELDS];
+            System.arraycopy(entries, i + 1, state, 0, FIELDS);
+            states.put(Short.valueOf((short) entries[i]), state);
+        }
+        return states;
+    }
+
+    /**
+     * Assert states are equal.
+     * 
+     * @param expected The expected states.
+     * @param states The states to check.
+     */
+    private static void assertStates(SortedMap<Short, int[]> expected, SortedMap<Short, int[]> states)
+    {
+        Assert.assertEquals(expected.keySet(), states.keySet());
+        for (final Map.Entry<Short, int[]> entry : expected.entrySet())
+        {
+            Assert.assertArrayEquals(entry.getValue(), states.get(entry.getKey()));
+        }
+    }
+
+    /** Data writer. */
+    private final BitWriter writer = new BitWriter();
+
+    /**
+     * Test full states encoding, without baseline.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFull() throws IOException
+    {
+        final SortedMap<Short, int[]> current = states(-5, 1, -2, 0, 0, 0, 0, 0, 300, Integer.MAX_VALUE, 70000, -1);
+        final byte[] data = SnapshotCodec.encode(writer, FIELDS, SnapshotServer.EMPTY, current);
+
+        assertStates(current, SnapshotCodec.decode(data, FIELDS, SnapshotServer.EMPTY));
+    }
+
+    /**
+     * Test delta encoding with added, changed and removed entities.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testDelta() throws IOException
+    {
+        final SortedMap<Short, int[]> baseline = states(1, 1, 2, 3, 2, 4, 5, 6, 3, 7, 8, 9);
+        final SortedMap<Short, int[]> current = states(1, 1, 2, 3, 2, 4, -50000, 6, 4, 10, 0, -1);
+        final byte[] data = SnapshotCodec.encode(writer, FIELDS, baseline, current);
+        final SortedMap<Short, int[]> decoded = SnapshotCodec.decode(data, FIELDS, baseline);
+
+        assertStates(current, decoded);
+        assertStates(states(1, 1, 2, 3, 2, 4, 5, 6, 3, 7, 8, 9), baseline);
+        Assert.assertTrue(data.length < SnapshotCodec.encode(writer, FIELDS, SnapshotServer.EMPTY, current).length);
+    }
+
+    /**
+     * Test unchanged states only encode the empty counts.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testUnchanged() throws IOException
+    {
+        final SortedMap<Short, int[]> baseline = states(1, 1, 2, 3, 2, 4, 5, 6);
+        final byte[] data = SnapshotCodec.encode(writer, FIELDS, baseline, states(1, 1, 2, 3, 2, 4, 5, 6));
+
+        Assert.assertEquals(2, data.length);
+        assertStates(baseline, SnapshotCodec.decode(data, FIELDS, baseline));
+    }
+
+    /**
+     * Test entity removed then added again in a later snapshot is sent with its full state.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testReadded() throws IOException
+    {
+        final SortedMap<Short, int[]> baseline = states(1, 1, 2, 3);
+        final SortedMap<Short, int[]> removed = SnapshotCodec.decode(SnapshotCodec.encode(writer,
+                                                                                          FIELDS,
+                                                                                          baseline,
+                                                                                          states()),
+                                                                     FIELDS,
+                                                                     baseline);
+
+        Assert.assertTrue(removed.isEmpty());
+
+        final SortedMap<Short, int[]> current = states(1, 0, 2, 0);
+        final byte[] data = SnapshotCodec.encode(writer, FIELDS, removed, current);
+
+        assertStates(current, SnapshotCodec.decode(data, FIELDS, removed));
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2013-2017 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageSnapshot;
+
+/**
+ * Test the snapshot server baselines.
+ */
+public class SnapshotServerTest
+{
+    /** Message type. */
+    private static final byte TYPE = 7;
+    /** First client. */
+    private static final Byte CLIENT1 = Byte.valueOf((byte) 1);
+    /** Second client. */
+    private static final Byte CLIENT2 = Byte.valueOf((byte) 2);
+
+    /**
+     * Entity fields.
+     */
+    private enum Field
+    {
+        /** Horizontal. */
+        X,
+        /** Vertical. */
+        Y;
+    }
+
+    /**
+     * Get the snapshot for a client.
+     * 
+     * @param snapshots The snapshots.
+     * @param client The client id.
+     * @return The client snapshot.
+     */
+    private static NetworkMessageSnapshot get(List<NetworkMessageSnapshot> snapshots, Byte client)
+    {
+        for (final NetworkMessageSnapshot snapshot : snapshots)
+        {
+            if (snapshot.getClientDestId() == client.byteValue())
+            {
+                return snapshot;
+            }
+        }
+        throw new AssertionError(client);
+    }
+
+    /**
+     * Decode snapshot states.
+     * 
+     * @param snapshot The snapshot.
+     * @param baseline The baseline states.
+     * @return The decoded states.
+     * @throws IOException If error.
+     */
+    private static SortedMap<Short, int[]> decode(NetworkMessageSnapshot snapshot, SortedMap<Short, int[]> baseline)
+                                                 throws IOException
+    {
+        return SnapshotCodec.decode(snapshot.getData(), Field.values().length, baseline);
+    }
+
+    /** Tested server. */
+    private SnapshotServer<Field> server;
+
+    /**
+     * Prepare server with one entity and two clients.
+     */
+    @Before
+    public void prepare()
+    {
+        server = new SnapshotServer<Field>(Field.class, TYPE);
+        server.addClient(CLIENT1);
+        server.addClient(CLIENT2);
+        server.setState((short) 1, Field.X, 10);
+        server.setState((short) 1, Field.Y, 20);
+    }
+
+    /**
+     * Test first snapshot contains the full states, encoded once for clients sharing the same baseline.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFull() throws IOException
+    {
+        final List<NetworkMessageSnapshot> snapshots = snapshot();
+
+        Assert.assertEquals(2, snapshots.size());
+        Assert.assertSame(snapshots.get(0).getData(), snapshots.get(1).getData());
+
+        final NetworkMessageSnapshot snapshot = snapshots.get(0);
+
+        Assert.assertEquals(1, snapshot.getSequence());
+        Assert.assertEquals(0, snapshot.getBaseline());
+
+        final SortedMap<Short, int[]> states = decode(snapshot, SnapshotServer.EMPTY);
+
+        Assert.assertArrayEquals(new int[]
+        {
+            10, 20
+        }, states.get(Short.valueOf((short) 1)));
+    }
+
+    /**
+     * Test snapshot delta compressed against the acknowledged baseline, other client receiving full states.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testAcknowledged() throws IOException
+    {
+        final SortedMap<Short, int[]> first = decode(snapshot().get(0), SnapshotServer.EMPTY);
+        acknowledge(CLIENT1, 1);
+        server.setState((short) 1, Field.X, 11);
+        server.setState((short) 2, Field.Y, 5);
+
+        final List<NetworkMessageSnapshot> snapshots = snapshot();
+        final NetworkMessageSnapshot delta = get(snapshots, CLIENT1);
+        final NetworkMessageSnapshot full = get(snapshots, CLIENT2);
+
+        Assert.assertEquals(1, delta.getBaseline());
+        Assert.assertEquals(0, full.getBaseline());
+        Assert.assertTrue(delta.getData().length < full.getData().length);
+
+        final SortedMap<Short, int[]> states = decode(delta, first);
+
+        Assert.assertArrayEquals(new int[]
+        {
+            11, 20
+        }, states.get(Short.valueOf((short) 1)));
+        Assert.assertArrayEquals(new int[]
+        {
+            0, 5
+        }, states.get(Short.valueOf((short) 2)));
+        Assert.assertEquals(states.keySet(), decode(full, SnapshotServer.EMPTY).keySet());
+    }
+
+    /**
+     * Test acknowledge older than the current one, or not yet sent, is ignored.
+     */
+    @Test
+    public void testInvalidAcknowledge()
+    {
+        snapshot();
+        snapshot();
+        acknowledge(CLIENT1, 2);
+        acknowledge(CLIENT1, 1);
+        acknowledge(CLIENT2, 3);
+
+        final List<NetworkMessageSnapshot> snapshots = snapshot();
+
+        Assert.assertEquals(2, get(snapshots, CLIENT1).getBaseline());
+        Assert.assertEquals(0, get(snapshots, CLIENT2).getBaseline());
+    }
+
+    /**
+     * Test baseline falls back to full states once the acknowledged snapshot is out of history.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testHistoryFallback() throws IOException
+    {
+        snapshot();
+        acknowledge(CLIENT1, 1);
+
+        for (int i = 1; i < SnapshotServer.HISTORY; i++)
+        {
+            server.setState((short) 1, Field.X, i);
+
+            Assert.assertEquals(1, get(snapshot(), CLIENT1).getBaseline());
+        }
+        Assert.assertEquals(SnapshotServer.HISTORY, server.getSequence());
+
+        server.setState((short) 1, Field.X, -1);
+        final NetworkMessageSnapshot snapshot = get(snapshot(), CLIENT1);
+
+        Assert.assertEquals(SnapshotServer.HISTORY + 1, snapshot.getSequence());
+        Assert.assertEquals(0, snapshot.getBaseline());
+        Assert.assertArrayEquals(new int[]
+        {
+            -1, 20
+        }, decode(snapshot, SnapshotServer.EMPTY).get(Short.valueOf((short) 1)));
+    }
+
+    /**
+     * Test removed entity and removed client.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testRemove() throws IOException
+    {
+        final SortedMap<Short, int[]> first = decode(snapshot().get(0), SnapshotServer.EMPTY);
+        acknowledge(CLIENT1, 1);
+        server.removeEntity((short) 1);
+        server.removeClient(CLIENT2);
+
+        final List<NetworkMessageSnapshot> snapshots = snapshot();
+
+        Assert.assertEquals(1, snapshots.size());
+        Assert.assertTrue(decode(get(snapshots, CLIENT1), first).isEmpty());
+    }
+
+    /**
+     * Record a snapshot and get its messages.
+     * 
+     * @return The snapshot messages.
+     */
+    private List<NetworkMessageSnapshot> snapshot()
+    {
+        server.snapshot();
+        final List<NetworkMessageSnapshot> snapshots = new ArrayList<NetworkMessageSnapshot>();
+        for (final NetworkMessage message : server.getNetworkMessages())
+        {
+            snapshots.add((NetworkMessageSnapshot) message);
+        }
+        server.clearNetworkMessages();
+        return snapshots;
+    }
+
+    /**
+     * Acknowledge a snapshot.
+     * 
+     * @param client The client id.
+     * @param sequence The acknowledged sequence.
+     */
+    private void acknowledge(Byte client, int sequence)
+    {
+        server.applyMessage(new NetworkMessageSnapshot(TYPE, client.byteValue(), sequence));
+    }
+}